@@ -0,0 +1,112 @@
+package cwms.radar.api.graph.basinconnectivity;
+
+import cwms.radar.data.dto.basinconnectivity.Stream;
+import cwms.radar.data.dto.basinconnectivity.StreamLocation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building and querying an office-wide network: a main stem with random tributaries of
+ * tributaries, each with 20 gages.  With 200 tributaries that is about 4,400 nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StreamNetworkGraphBenchmark {
+    private static final int PER_STREAM = 20;
+
+    @Param({"50", "200", "1000"})
+    public int tributaries;
+
+    private List<Stream> streams;
+    private StreamNetworkGraph graph;
+    private int mouth;
+    private int[] sources;
+    private String[] streamIds;
+    private double[] stations;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(17);
+        streams = new ArrayList<>();
+        streams.add(new Stream.Builder("MAIN", true, 1000.0, "SWT")
+                .withStreamLocations(locations(random, "MAIN", 1000))
+                .build());
+        for (int t = 0; t < tributaries; t++) {
+            String id = "TRIB-" + t;
+            streams.add(new Stream.Builder(id, true, 100.0, "SWT")
+                    .withReceivingStreamId(t == 0 ? "MAIN" : "TRIB-" + random.nextInt(t))
+                    .withConfluenceStation(random.nextDouble() * 100)
+                    .withConfluenceBank("L")
+                    .withStreamLocations(locations(random, id, 100))
+                    .build());
+        }
+
+        graph = StreamNetworkGraph.build("SWT", streams);
+        mouth = graph.getNearestNode("MAIN", 0);
+
+        // The same queries in every run.
+        sources = new int[1024];
+        streamIds = new String[sources.length];
+        stations = new double[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            int t = random.nextInt(tributaries);
+            sources[i] = graph.getLocationNode("TRIB-" + t + "-0");
+            streamIds[i] = "TRIB-" + t;
+            stations[i] = random.nextDouble() * 100;
+        }
+    }
+
+    private static List<StreamLocation> locations(Random random, String streamId,
+                                                  double length) {
+        List<StreamLocation> retval = new ArrayList<>(PER_STREAM);
+        for (int i = 0; i < PER_STREAM; i++) {
+            retval.add(new StreamLocation.Builder(streamId + "-" + i, streamId,
+                    random.nextDouble() * length, "L", "SWT").build());
+        }
+        return retval;
+    }
+
+    private int nextQuery() {
+        next = (next + 1) & (sources.length - 1);
+        return next;
+    }
+
+    @Benchmark
+    public StreamNetworkGraph build() {
+        return StreamNetworkGraph.build("SWT", streams);
+    }
+
+    @Benchmark
+    public List<Integer> upstreamOfMouth() {
+        return graph.getUpstream(mouth);
+    }
+
+    @Benchmark
+    public List<Integer> pathToMouth() {
+        return graph.getPath(sources[nextQuery()], mouth);
+    }
+
+    @Benchmark
+    public int nearestNode() {
+        int i = nextQuery();
+        return graph.getNearestNode(streamIds[i], stations[i]);
+    }
+}
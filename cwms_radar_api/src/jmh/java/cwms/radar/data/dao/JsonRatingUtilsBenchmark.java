@@ -0,0 +1,60 @@
+package cwms.radar.data.dao;
+
+import static cwms.radar.data.dao.JsonRatingUtilsTest.loadResourceAsString;
+
+import hec.data.RatingException;
+import hec.data.cwmsRating.RatingSet;
+import java.util.concurrent.TimeUnit;
+import mil.army.usace.hec.cwms.rating.io.xml.RatingXmlFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rating set JSON conversions, as RatingController does them for GET and POST, on sample
+ * ratings of the tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class JsonRatingUtilsBenchmark {
+
+    @Param({
+        "SMNM_Stage_Flow_Linear_Step.xml",
+        "LENA.Stage_Flow.BASE.PRODUCTION.xml.gz",
+        "ALBT.Stage_Stage-Corrected.Linear.USGS-NWIS.xml.gz",
+        "TOMS.Opening-Conduit_Gates_Elev_Flow-Conduit_Gates.Standard.Production.xml.gz"
+    })
+    public String file;
+
+    private RatingSet ratingSet;
+    private String json;
+
+    @Setup
+    public void setUp() throws Exception {
+        ratingSet = RatingXmlFactory.ratingSet(loadResourceAsString("cwms/radar/data/dao/"
+                + file));
+        json = JsonRatingUtils.toJson(ratingSet);
+    }
+
+    @Benchmark
+    public String toJson() throws RatingException {
+        return JsonRatingUtils.toJson(ratingSet);
+    }
+
+    @Benchmark
+    public RatingSet fromJson() throws RatingException {
+        return JsonRatingUtils.fromJson(json);
+    }
+}
@@ -0,0 +1,83 @@
+package cwms.radar.data.dao;
+
+import static cwms.radar.data.dao.JsonRatingUtilsTest.loadResourceAsString;
+
+import hec.data.RatingException;
+import hec.data.cwmsRating.RatingSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import mil.army.usace.hec.cwms.rating.io.xml.RatingXmlFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Values per second the rate and reverse-rate endpoints can evaluate against a cached rating
+ * set, in batches of {@value #BATCH} values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(RatingEvaluatorBenchmark.BATCH)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RatingEvaluatorBenchmark {
+    static final int BATCH = 100000;
+    private static final long TIME = Instant.parse("2022-01-01T00:00:00Z").toEpochMilli();
+
+    private RatingSet ratingSet;
+    private long[] times;
+    private List<List<Double>> stages;
+    private List<List<Double>> stagesInMeters;
+    private List<Double> flows;
+
+    @Setup
+    public void setUp() throws Exception {
+        ratingSet = RatingXmlFactory.ratingSet(
+                loadResourceAsString("cwms/radar/data/dao/SMNM_Stage_Flow_Linear_Step.xml"));
+        times = new long[BATCH];
+        Arrays.fill(times, TIME);
+
+        Random random = new Random(17);
+        List<Double> feet = new ArrayList<>(BATCH);
+        List<Double> meters = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            double stage = 5.29 + random.nextDouble() * 10;
+            feet.add(stage);
+            meters.add(stage * 0.3048);
+        }
+        stages = Collections.singletonList(feet);
+        stagesInMeters = Collections.singletonList(meters);
+        flows = RatingEvaluator.rate(ratingSet, null, times, stages);
+    }
+
+    @Benchmark
+    public List<Double> rate() throws RatingException {
+        return RatingEvaluator.rate(ratingSet, null, times, stages);
+    }
+
+    @Benchmark
+    public List<Double> rateInOtherUnits() throws RatingException {
+        return RatingEvaluator.rate(ratingSet, Arrays.asList("m", "cms"), times,
+                stagesInMeters);
+    }
+
+    @Benchmark
+    public List<Double> reverseRate() throws RatingException {
+        return RatingEvaluator.reverseRate(ratingSet, null, times, flows);
+    }
+}
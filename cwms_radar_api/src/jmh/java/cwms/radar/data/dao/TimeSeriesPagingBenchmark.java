@@ -0,0 +1,181 @@
+package cwms.radar.data.dao;
+
+import cwms.radar.data.dto.CwmsDTOPaginated;
+import cwms.radar.data.dto.TimeSeries;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockDataProvider;
+import org.jooq.tools.jdbc.MockResult;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Pages per second, and values per second in the values counter, that
+ * TimeSeriesDaoImpl.getTimeseries serves from the first, middle and last page of a
+ * {@value #POINTS} value hourly series.  With keyset paging the cost of a page should not
+ * depend on where it is.
+ *
+ * <p>The values come from a jOOQ MockDataProvider that answers the retrieve query with an
+ * index range of its fixture, the way the database can once the query is bounded by the page
+ * window, so this measures the API side of a page and not the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TimeSeriesPagingBenchmark {
+    static final int POINTS = 1000000;
+    private static final String OFFICE = "SWT";
+    private static final String TS_ID = "BENCH.Flow.Inst.1Hour.0.Paging";
+    private static final long START = Instant.parse("1950-01-01T00:00:00Z").toEpochMilli();
+    private static final long HOUR = 3600000L;
+
+    private static final Field<Timestamp> DATE_TIME = DSL.field("DATE_TIME", Timestamp.class);
+    private static final Field<Double> VALUE = DSL.field("VALUE", Double.class);
+    private static final Field<BigDecimal> QUALITY = DSL.field("QUALITY_NORM", BigDecimal.class);
+
+    @Param({"first", "middle", "last"})
+    public String position;
+
+    @Param({"500", "5000"})
+    public int pageSize;
+
+    private long[] times;
+    private double[] values;
+    private TimeSeriesMetadata metadata;
+    private TimeSeriesDaoImpl dao;
+    private ZonedDateTime begin;
+    private ZonedDateTime end;
+    private String cursor;
+
+    /**
+     * Values returned, reported by JMH as values per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long values;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            values = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        times = new long[POINTS];
+        values = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            times[i] = START + i * HOUR;
+            values[i] = i % 1000;
+        }
+        begin = ZonedDateTime.ofInstant(Instant.ofEpochMilli(times[0]), ZoneOffset.UTC);
+        end = ZonedDateTime.ofInstant(Instant.ofEpochMilli(times[POINTS - 1]), ZoneOffset.UTC);
+
+        metadata = new TimeSeriesMetadata.Builder()
+                .withTsCode(BigDecimal.ONE)
+                .withTsId(TS_ID)
+                .withOfficeId(OFFICE)
+                .withLocationId("BENCH")
+                .withParameterId("Flow")
+                .withInterval(Duration.ofHours(1))
+                .withIntervalUtcOffset(0L)
+                .withTimeZoneId("UTC")
+                .withEnUnits("cfs")
+                .withSiUnits("cms")
+                .build();
+        dao = new TimeSeriesDaoImpl(DSL.using(new MockConnection(retrieveProvider()),
+                SQLDialect.ORACLE));
+
+        int first;
+        if ("first".equals(position)) {
+            first = 0;
+        } else if ("middle".equals(position)) {
+            first = POINTS / 2;
+        } else {
+            first = POINTS - pageSize;
+        }
+        cursor = first == 0 ? null
+                : CwmsDTOPaginated.encodeCursor(String.valueOf(times[first]), pageSize, null);
+    }
+
+    /**
+     * The metadata isn't what is being measured, keep it in the cache so the DAO never has to
+     * resolve it.
+     */
+    @Setup(Level.Iteration)
+    public void cacheMetadata() {
+        TimeSeriesMetadataCache.getInstance().get(OFFICE, TS_ID, () -> metadata);
+    }
+
+    @Benchmark
+    public TimeSeries page(Counters counters) {
+        TimeSeries retval = dao.getTimeseries(cursor, pageSize, TS_ID, OFFICE, "EN", begin, end,
+                TotalMode.NONE);
+        counters.values += retval.getValues().size();
+        return retval;
+    }
+
+    /**
+     * Answers the retrieve query from the fixture: the smallest and largest epoch millisecond
+     * bind values are the window and the largest other number is the row limit.
+     */
+    private MockDataProvider retrieveProvider() {
+        return ctx -> {
+            long from = Long.MAX_VALUE;
+            long to = Long.MIN_VALUE;
+            int limit = Integer.MAX_VALUE;
+            for (Object bind : ctx.bindings()) {
+                if (bind instanceof Long) {
+                    from = Math.min(from, (Long) bind);
+                    to = Math.max(to, (Long) bind);
+                } else if (bind instanceof Number) {
+                    limit = limit == Integer.MAX_VALUE ? ((Number) bind).intValue()
+                            : Math.max(limit, ((Number) bind).intValue());
+                }
+            }
+
+            int index = Arrays.binarySearch(times, from);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            DSLContext dsl = DSL.using(SQLDialect.ORACLE);
+            Result<Record> result = dsl.newResult(DATE_TIME, VALUE, QUALITY);
+            for (int i = index; i < POINTS && times[i] <= to && result.size() < limit; i++) {
+                Record row = dsl.newRecord(DATE_TIME, VALUE, QUALITY);
+                row.set(DATE_TIME, new Timestamp(times[i]));
+                row.set(VALUE, values[i]);
+                row.set(QUALITY, BigDecimal.ZERO);
+                result.add(row);
+            }
+            return new MockResult[]{new MockResult(result.size(), result)};
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package cwms.radar.data.dto;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time series values held as columns in {@link TimeSeriesValues} against a list of
+ * {@link TimeSeries.Record}, the representation it replaced.
+ *
+ * <p>fill allocates exactly what the values keep on the heap, so run with
+ * {@code -Pjmh.args="-prof gc"} and read gc.alloc.rate.norm for the bytes per series.
+ * toStoreArrays is the hand-off to CwmsDbTs.store, see TimeSeriesDaoImpl.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TimeSeriesValuesBenchmark {
+    private static final long START = 1640995200000L;
+    private static final long HOUR = 3600000L;
+
+    @Param({"columnar", "records"})
+    public String storage;
+
+    @Param({"1000", "100000"})
+    public int points;
+
+    private Double[] data;
+    private List<TimeSeries.Record> values;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(17);
+        data = new Double[points];
+        for (int i = 0; i < points; i++) {
+            // about one value in a hundred is missing
+            data[i] = random.nextInt(100) == 0 ? null : random.nextDouble() * 1000;
+        }
+        values = fill();
+    }
+
+    @Benchmark
+    public List<TimeSeries.Record> fill() {
+        if ("columnar".equals(storage)) {
+            TimeSeriesValues retval = new TimeSeriesValues(points);
+            for (int i = 0; i < points; i++) {
+                retval.add(START + i * HOUR, data[i], 0);
+            }
+            return retval;
+        }
+
+        List<TimeSeries.Record> retval = new ArrayList<>(points);
+        for (int i = 0; i < points; i++) {
+            retval.add(new TimeSeries.Record(new Timestamp(START + i * HOUR), data[i], 0));
+        }
+        return retval;
+    }
+
+    /**
+     * Read every value the way the formatters do.
+     */
+    @Benchmark
+    public void readRecords(Blackhole blackhole) {
+        for (TimeSeries.Record rec : values) {
+            blackhole.consume(rec.getDateTime().getTime());
+            blackhole.consume(rec.getValue());
+            blackhole.consume(rec.getQualityCode());
+        }
+    }
+
+    @Benchmark
+    public void toStoreArrays(Blackhole blackhole) {
+        if (values instanceof TimeSeriesValues) {
+            TimeSeriesValues columns = (TimeSeriesValues) values;
+            blackhole.consume(columns.getDateTimeArray());
+            blackhole.consume(columns.getValueArray());
+            blackhole.consume(columns.getQualityArray());
+            return;
+        }
+
+        int count = values.size();
+        long[] times = new long[count];
+        double[] doubles = new double[count];
+        int[] qualities = new int[count];
+        for (int i = 0; i < count; i++) {
+            TimeSeries.Record rec = values.get(i);
+            times[i] = rec.getDateTime().getTime();
+            doubles[i] = rec.getValue() == null ? Double.NaN : rec.getValue();
+            qualities[i] = rec.getQualityCode();
+        }
+        blackhole.consume(times);
+        blackhole.consume(doubles);
+        blackhole.consume(qualities);
+    }
+}
@@ -24,8 +24,12 @@
 
 package cwms.radar;
 
+import static io.javalin.apibuilder.ApiBuilder.delete;
 import static io.javalin.apibuilder.ApiBuilder.get;
+import static io.javalin.apibuilder.ApiBuilder.head;
+import static io.javalin.apibuilder.ApiBuilder.post;
 import static io.javalin.apibuilder.ApiBuilder.prefixPath;
+import static io.javalin.apibuilder.ApiBuilder.put;
 import static io.javalin.apibuilder.ApiBuilder.staticInstance;
 
 import com.codahale.metrics.Meter;
@@ -35,6 +39,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.google.common.flogger.FluentLogger;
+import cwms.radar.api.AdminController;
 import cwms.radar.api.BasinController;
 import cwms.radar.api.BlobController;
 import cwms.radar.api.CatalogController;
@@ -52,6 +57,7 @@ import cwms.radar.api.RatingMetadataController;
 import cwms.radar.api.RatingSpecController;
 import cwms.radar.api.RatingTemplateController;
 import cwms.radar.api.SpecifiedLevelController;
+import cwms.radar.api.StreamNetworkController;
 import cwms.radar.api.TimeSeriesCategoryController;
 import cwms.radar.api.TimeSeriesController;
 import cwms.radar.api.TimeSeriesGroupController;
@@ -64,6 +70,13 @@ import cwms.radar.api.errors.InvalidItemException;
 import cwms.radar.api.errors.JsonFieldsException;
 import cwms.radar.api.errors.NotFoundException;
 import cwms.radar.api.errors.RadarError;
+import cwms.radar.api.errors.ServiceUnavailableException;
+import cwms.radar.data.dao.CatalogIndex;
+import cwms.radar.data.dao.RatingMetadataDao;
+import cwms.radar.data.dao.RatingSetCache;
+import cwms.radar.data.dao.StreamNetworkGraphCache;
+import cwms.radar.data.dao.UploadStore;
+import cwms.radar.datasource.RequestConnectionProvider;
 import cwms.radar.formatters.Formats;
 import cwms.radar.formatters.FormattingException;
 import cwms.radar.security.CwmsAuthException;
@@ -127,7 +140,9 @@ import org.owasp.html.PolicyFactory;
         "/blobs/*",
         "/clobs/*",
         "/pools/*",
-        "/specified-levels/*"
+        "/specified-levels/*",
+        "/stream-networks/*",
+        "/admin/*"
 })
 public class ApiServlet extends HttpServlet {
 
@@ -135,6 +150,7 @@ public class ApiServlet extends HttpServlet {
 
     // based on https://bitbucket.hecdev.net/projects/CWMS/repos/cwms_aaa/browse/IntegrationTests/src/test/resources/sql/load_testusers.sql
     public static final String CWMS_USERS_ROLE = "CWMS Users";
+    public static final String CWMS_DBA_ROLE = "CWMS DBA Users";
     public static final String OFFICE_ID = "office_id";
     public static final String DATA_SOURCE = "data_source";
     public static final String DATABASE = "database";
@@ -159,6 +175,11 @@ public class ApiServlet extends HttpServlet {
 
     @Override
     public void destroy() {
+        CatalogIndex.getInstance().stop();
+        RatingSetCache.getInstance().stop();
+        StreamNetworkGraphCache.getInstance().stop();
+        RatingMetadataDao.stop();
+        UploadStore.getInstance().stop();
         javalin.destroy();
     }
 
@@ -174,6 +195,11 @@ public class ApiServlet extends HttpServlet {
     @Override
     public void init() {
         logger.atInfo().log("Initializing API");
+        CatalogIndex.getInstance().start(cwms);
+        RatingSetCache.getInstance().start(cwms);
+        StreamNetworkGraphCache.getInstance().start(cwms);
+        RatingMetadataDao.start();
+        UploadStore.getInstance().start();
         JavalinValidation.register(UnitSystem.class, UnitSystem::systemFor);
         ObjectMapper om = new ObjectMapper();
         om.setPropertyNamingStrategy(PropertyNamingStrategies.KEBAB_CASE);
@@ -197,6 +223,7 @@ public class ApiServlet extends HttpServlet {
                     ctx.header("X-Frame-Options", "SAMEORIGIN");
                     ctx.header("X-XSS-Protection", "1; mode=block");
                 })
+                .after(ctx -> releaseRequestConnection(ctx.req))
                 .exception(FormattingException.class, (fe, ctx) -> {
                     final RadarError re = new RadarError("Formatting error:" + fe.getMessage());
 
@@ -247,6 +274,11 @@ public class ApiServlet extends HttpServlet {
                     RadarError re = new RadarError(e.getMessage(), e.getDetails(), true);
                     ctx.status(HttpServletResponse.SC_BAD_REQUEST).json(re);
                 })
+                .exception(ServiceUnavailableException.class, (e, ctx) -> {
+                    RadarError re = new RadarError(e.getMessage());
+                    logger.atWarning().withCause(e).log(re.toString());
+                    ctx.status(HttpServletResponse.SC_SERVICE_UNAVAILABLE).json(re);
+                })
                 .exception(CwmsAuthException.class, (e,ctx) -> {
                     RadarError re = new RadarError(e.getMessage(),true);
                     ctx.status(HttpServletResponse.SC_UNAUTHORIZED).json(re);
@@ -314,23 +346,45 @@ public class ApiServlet extends HttpServlet {
                 new RatingSpecController(metrics), requiredRoles);
         radarCrud("/ratings/metadata/{rating-id}",
                 new RatingMetadataController(metrics), requiredRoles);
-        radarCrud("/ratings/{rating}",
-                new RatingController(metrics), requiredRoles);
+        RatingController ratingController = new RatingController(metrics);
+        post("/ratings/{rating}/rate", ratingController::rate);
+        post("/ratings/{rating}/reverse-rate", ratingController::reverseRate);
+        radarCrud("/ratings/{rating}", ratingController, requiredRoles);
         radarCrud("/catalog/{dataset}",
                 new CatalogController(metrics), requiredRoles);
         radarCrud("/basins/{basin-id}",
                 new BasinController(metrics), requiredRoles);
-        radarCrud("/blobs/{blob-id}",
-                new BlobController(metrics), requiredRoles);
-        radarCrud("/clobs/{clob-id}",
-                new ClobController(metrics), requiredRoles);
+        StreamNetworkController streamNetworkController = new StreamNetworkController(metrics);
+        get("/stream-networks/upstream", streamNetworkController::upstream);
+        get("/stream-networks/downstream", streamNetworkController::downstream);
+        get("/stream-networks/path", streamNetworkController::path);
+        get("/stream-networks/nearest", streamNetworkController::nearest);
+        addUploadHandlers("/blobs/uploads", new UploadController(metrics, Upload.Kind.BLOB));
+        addUploadHandlers("/clobs/uploads", new UploadController(metrics, Upload.Kind.CLOB));
+        BlobController blobController = new BlobController(metrics);
+        head("/blobs/{blob-id}", ctx -> blobController.getOne(ctx, ctx.pathParam("blob-id")));
+        radarCrud("/blobs/{blob-id}", blobController, requiredRoles);
+        ClobController clobController = new ClobController(metrics);
+        head("/clobs/{clob-id}", ctx -> clobController.getOne(ctx, ctx.pathParam("clob-id")));
+        radarCrud("/clobs/{clob-id}", clobController, requiredRoles);
         radarCrud("/pools/{pool-id}",
                 new PoolController(metrics), requiredRoles);
         radarCrud("/specified-levels/{level-id}",
                 new SpecifiedLevelController(metrics), requiredRoles);
+        post("/admin/schema-version/reprobe",
+                new AdminController(metrics)::reprobeSchemaVersion, new Role(CWMS_DBA_ROLE));
     }
 
 
+    private void addUploadHandlers(String path, UploadController controller) {
+        String uploadPath = path + "/{" + UploadController.UPLOAD_ID + "}";
+        post(path, controller::create, requiredRoles);
+        get(uploadPath, controller::getOne, requiredRoles);
+        put(uploadPath, controller::append, requiredRoles);
+        post(uploadPath + "/commit", controller::commit, requiredRoles);
+        delete(uploadPath, controller::delete, requiredRoles);
+    }
+
     /**
      * This method is very similar to the ApiBuilder.crud method but the specified roles
      * are only required for the post, patch and delete methods.  getOne and getAll are always
@@ -461,6 +515,17 @@ public class ApiServlet extends HttpServlet {
                 ObjectMapper om = new ObjectMapper();
                 out.println(om.writeValueAsString(re));
             }
+        } finally {
+            // Normally done by the after handler, this catches requests that never got there.
+            releaseRequestConnection(req);
+        }
+    }
+
+    private static void releaseRequestConnection(HttpServletRequest req) {
+        Object provider = req.getAttribute(RequestConnectionProvider.ATTRIBUTE);
+        if (provider instanceof RequestConnectionProvider) {
+            req.removeAttribute(RequestConnectionProvider.ATTRIBUTE);
+            ((RequestConnectionProvider) provider).close();
         }
     }
 
@@ -0,0 +1,43 @@
+package cwms.radar.api;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.radar.data.dao.SchemaCapabilityRegistry;
+import io.javalin.http.Context;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Operations for database administrators, e.g. after a schema upgrade.
+ */
+public class AdminController {
+    public static final String TAG = "Admin";
+
+    private final MetricRegistry metrics;
+
+    public AdminController(MetricRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    @OpenApi(
+            responses = {
+                    @OpenApiResponse(status = "204", description = "The schema version will be "
+                            + "looked up again on the next request."),
+            },
+            path = "/admin/schema-version/reprobe",
+            method = HttpMethod.POST,
+            tags = {TAG})
+    public void reprobeSchemaVersion(@NotNull Context ctx) {
+        try (final Timer.Context ignored = markAndTime("reprobeSchemaVersion")) {
+            SchemaCapabilityRegistry.getInstance().reprobe();
+            ctx.status(HttpServletResponse.SC_NO_CONTENT);
+        }
+    }
+}
@@ -20,7 +20,6 @@ import com.codahale.metrics.Timer;
 import cwms.radar.api.errors.RadarError;
 import cwms.radar.data.dao.BlobDao;
 import cwms.radar.data.dao.JooqDao;
-import cwms.radar.data.dto.Blob;
 import cwms.radar.data.dto.Blobs;
 import cwms.radar.data.dto.CwmsDTOPaginated;
 import cwms.radar.formatters.ContentType;
@@ -33,7 +32,10 @@ import io.javalin.plugin.openapi.annotations.OpenApi;
 import io.javalin.plugin.openapi.annotations.OpenApiContent;
 import io.javalin.plugin.openapi.annotations.OpenApiParam;
 import io.javalin.plugin.openapi.annotations.OpenApiResponse;
-import java.util.List;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Optional;
 import javax.servlet.http.HttpServletResponse;
 import org.jooq.DSLContext;
@@ -45,6 +47,8 @@ import org.jooq.DSLContext;
 public class BlobController implements CrudHandler {
 
     private static final int defaultPageSize = 20;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     private final MetricRegistry metrics;
 
@@ -90,7 +94,7 @@ public class BlobController implements CrudHandler {
                     @OpenApiParam(name = PAGE_SIZE,
                             type = Integer.class,
                             description = "How many entries per page returned. Default "
-                                    + defaultPageSize + "."
+                                    + defaultPageSize + ", at most " + MAX_PAGE_SIZE + "."
                     ),
                     @OpenApiParam(name = LIKE,
                             type = String.class,
@@ -131,20 +135,20 @@ public class BlobController implements CrudHandler {
                             PAGESIZE2}, Integer.class, defaultPageSize, metrics,
                     name(BlobController.class.getName(), GET_ALL));
 
+            if (pageSize < 1) {
+                throw new IllegalArgumentException("The page size must be at least 1.");
+            }
+            pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+
             String like = ctx.queryParamAsClass(LIKE, String.class).getOrDefault(".*");
 
             String formatHeader = ctx.header(Header.ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, "");
 
             BlobDao dao = new BlobDao(dsl);
-            List<Blob> blobList = dao.getAll(officeOpt, like);
-
-            Blobs blobs = new Blobs.Builder(cursor, pageSize, 0).addAll(blobList).build();
-            String result = Formats.format(contentType, blobs);
-
-            ctx.result(result);
-            ctx.contentType(contentType.toString());
-            requestResultSize.update(result.length());
+            Blobs blobs = dao.getBlobs(cursor, pageSize, officeOpt, like);
+            long size = writeFormatted(ctx, contentType, blobs);
+            requestResultSize.update(size);
         }
     }
 
@@ -152,6 +156,20 @@ public class BlobController implements CrudHandler {
             queryParams = {
                     @OpenApiParam(name = OFFICE, description = "Specifies the owning office."),
             },
+            headers = {
+                    @OpenApiParam(name = "Range", description = "A single byte range of the "
+                            + "blob to return, e.g. bytes=0-1023."),
+                    @OpenApiParam(name = "If-None-Match", description = "The ETag of a copy "
+                            + "already held, 304 is returned if the blob has not changed."),
+            },
+            responses = {
+                    @OpenApiResponse(status = "200", description = "The whole blob."),
+                    @OpenApiResponse(status = "206", description = "The requested range."),
+                    @OpenApiResponse(status = "304", description = "The blob has not changed."),
+                    @OpenApiResponse(status = "404", description = "No such blob."),
+                    @OpenApiResponse(status = "416", description = "The range is outside "
+                            + "the blob."),
+            },
             tags = {"Blob"}
     )
     @Override
@@ -164,17 +182,49 @@ public class BlobController implements CrudHandler {
             BlobDao dao = new BlobDao(dsl);
             String officeQP = ctx.queryParam(OFFICE);
             Optional<String> office = Optional.ofNullable(officeQP);
-            Optional<Blob> optAc = dao.getByUniqueName(blobId, office);
-
-            if (optAc.isPresent()) {
-                Blob blob = optAc.get();
-
+            // The value is written while the dao holds the connection, it never has to fit
+            // in memory.
+            boolean found = dao.getBlob(blobId, office, (blob, length, etag, value) -> {
+                ctx.header(Header.ETAG, etag);
+                ctx.header(Header.ACCEPT_RANGES, "bytes");
+
+                if (etag.equals(ctx.header(Header.IF_NONE_MATCH))) {
+                    ctx.status(HttpServletResponse.SC_NOT_MODIFIED);
+                    return;
+                }
+
+                String range = ctx.header(Header.RANGE);
+                String ifRange = ctx.header("If-Range");
+                if (ifRange != null && !ifRange.equals(etag)) {
+                    range = null;
+                }
+                long[] bounds = parseRange(range, length);
+                if (bounds == null) {
+                    ctx.header(Header.CONTENT_RANGE, "bytes */" + length);
+                    ctx.status(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+
+                long start = bounds[0];
+                long count = bounds[1] - bounds[0];
+                if (count < length) {
+                    ctx.status(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    ctx.header(Header.CONTENT_RANGE, "bytes " + start + "-" + (bounds[1] - 1)
+                            + "/" + length);
+                }
                 ctx.contentType(blob.getMediaTypeId());
-                byte[] value = blob.getValue();
-                ctx.result(value);
+                ctx.res.setContentLengthLong(count);
 
-                requestResultSize.update(value.length);
-            } else {
+                if (!"HEAD".equals(ctx.method()) && count > 0) {
+                    // JDBC positions start at 1
+                    try (InputStream in = value.getBinaryStream(start + 1, count)) {
+                        copy(in, ctx.res.getOutputStream(), count);
+                    }
+                    requestResultSize.update(count);
+                }
+            });
+
+            if (!found) {
                 ctx.status(HttpServletResponse.SC_NOT_FOUND).json(new RadarError("Unable to find "
                         + "blob based on given parameters"));
             }
@@ -182,6 +232,31 @@ public class BlobController implements CrudHandler {
         }
     }
 
+    /**
+     * Parse a single byte range Range header.
+     *
+     * @see Controllers#parseRange(String, String, long)
+     */
+    static long[] parseRange(String range, long length) {
+        return Controllers.parseRange(range, "bytes", length);
+    }
+
+    /**
+     * Copy count bytes with a fixed buffer.
+     */
+    static void copy(InputStream in, OutputStream out, long count) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long remaining = count;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new EOFException("Blob ended " + remaining + " bytes early");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+        out.flush();
+    }
 
     @OpenApi(ignore = true)
     @Override
@@ -4,6 +4,7 @@ import static com.codahale.metrics.MetricRegistry.name;
 import static cwms.radar.api.Controllers.ACCEPT;
 import static cwms.radar.api.Controllers.CURSOR;
 import static cwms.radar.api.Controllers.GET_ONE;
+import static cwms.radar.api.Controllers.INCLUDE_EXTENTS;
 import static cwms.radar.api.Controllers.LIKE;
 import static cwms.radar.api.Controllers.OFFICE;
 import static cwms.radar.api.Controllers.PAGE;
@@ -25,10 +26,10 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import cwms.radar.api.enums.UnitSystem;
 import cwms.radar.api.errors.RadarError;
+import cwms.radar.data.dao.CatalogIndex;
+import cwms.radar.data.dao.IncludeExtents;
 import cwms.radar.data.dao.JooqDao;
-import cwms.radar.data.dao.LocationsDao;
 import cwms.radar.data.dao.LocationsDaoImpl;
-import cwms.radar.data.dao.TimeSeriesDao;
 import cwms.radar.data.dao.TimeSeriesDaoImpl;
 import cwms.radar.data.dto.Catalog;
 import cwms.radar.data.dto.Office;
@@ -151,6 +152,12 @@ public class CatalogController implements CrudHandler {
                     @OpenApiParam(name = "locationGroupLike",
                             deprecated = true,
                             description = "Deprecated. Use location-group-like."
+                    ),
+                    @OpenApiParam(name = INCLUDE_EXTENTS,
+                            type = IncludeExtents.class,
+                            description = "Which extents to include with each time series: "
+                                    + "none, latest (the most recent version only) or all. "
+                                    + "Default none, extents are left out of the response."
                     )
             },
             pathParams = {
@@ -210,22 +217,31 @@ public class CatalogController implements CrudHandler {
             String locGroupLike = queryParamAsClass(ctx, new String[]{"location-group-like", "locationGroupLike"},
                     String.class, null, metrics, name(CatalogController.class.getName(), GET_ONE));
 
+            IncludeExtents includeExtents =
+                    IncludeExtents.getIncludeExtents(ctx.queryParam(INCLUDE_EXTENTS));
+
             String acceptHeader = ctx.header(ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(acceptHeader, null);
             Catalog cat = null;
+            CatalogIndex index = CatalogIndex.getInstance();
             if (TIMESERIES.equalsIgnoreCase(valDataSet)) {
-                TimeSeriesDao tsDao = new TimeSeriesDaoImpl(dsl);
-                cat = tsDao.getTimeSeriesCatalog(cursor, pageSize, office, like, locCategoryLike,
-                        locGroupLike, tsCategoryLike, tsGroupLike);
+                TimeSeriesDaoImpl tsDao = new TimeSeriesDaoImpl(dsl);
+                cat = index.getTimeSeriesCatalog(tsDao, cursor, pageSize, office, like,
+                                locCategoryLike, locGroupLike, tsCategoryLike, tsGroupLike,
+                                includeExtents)
+                        .orElseGet(() -> tsDao.getTimeSeriesCatalog(cursor, pageSize, office,
+                                like, locCategoryLike, locGroupLike, tsCategoryLike,
+                                tsGroupLike, includeExtents));
             } else if ("locations".equalsIgnoreCase(valDataSet)) {
-                LocationsDao dao = new LocationsDaoImpl(dsl);
-                cat = dao.getLocationCatalog(cursor, pageSize, unitSystem, office, like,
-                        locCategoryLike, locGroupLike);
+                LocationsDaoImpl dao = new LocationsDaoImpl(dsl);
+                cat = index.getLocationCatalog(dao, cursor, pageSize, unitSystem, office, like,
+                                locCategoryLike, locGroupLike)
+                        .orElseGet(() -> dao.getLocationCatalog(cursor, pageSize, unitSystem,
+                                office, like, locCategoryLike, locGroupLike));
             }
             if (cat != null) {
-                String data = Formats.format(contentType, cat);
-                ctx.result(data).contentType(contentType.toString());
-                requestResultSize.update(data.length());
+                long size = writeFormatted(ctx, contentType, cat);
+                requestResultSize.update(size);
             } else {
                 final RadarError re = new RadarError("Cannot create catalog of requested "
                         + "information");
@@ -11,6 +11,7 @@ import static cwms.radar.api.Controllers.IGNORE_NULLS;
 import static cwms.radar.api.Controllers.INCLUDE_VALUES;
 import static cwms.radar.api.Controllers.INCLUDE_VALUES2;
 import static cwms.radar.api.Controllers.LIKE;
+import static cwms.radar.api.Controllers.MAX_VALUE_LENGTH;
 import static cwms.radar.api.Controllers.OFFICE;
 import static cwms.radar.api.Controllers.PAGE;
 import static cwms.radar.api.Controllers.PAGESIZE2;
@@ -40,6 +41,7 @@ import cwms.radar.formatters.ContentType;
 import cwms.radar.formatters.Formats;
 import cwms.radar.formatters.FormattingException;
 import cwms.radar.formatters.json.JsonV2;
+import cwms.radar.formatters.xml.JaxbContextRegistry;
 import io.javalin.apibuilder.CrudHandler;
 import io.javalin.core.util.Header;
 import io.javalin.http.Context;
@@ -51,13 +53,16 @@ import io.javalin.plugin.openapi.annotations.OpenApiContent;
 import io.javalin.plugin.openapi.annotations.OpenApiParam;
 import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
 import io.javalin.plugin.openapi.annotations.OpenApiResponse;
-import java.io.StringReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import java.util.Optional;
 import javax.servlet.http.HttpServletResponse;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
 
@@ -65,6 +70,7 @@ import org.jooq.DSLContext;
 public class ClobController implements CrudHandler {
     private static final FluentLogger log = FluentLogger.forEnclosingClass();
     private static final int defaultPageSize = 20;
+    private static final int BUFFER_SIZE = 32 * 1024;
     public static final String TAG = "Clob";
     private final MetricRegistry metrics;
     private final Histogram requestResultSize;
@@ -121,6 +127,12 @@ public class ClobController implements CrudHandler {
                             type = Boolean.class,
                             description = "Deprecated, use 'include-values' instead."
                     ),
+                    @OpenApiParam(name = MAX_VALUE_LENGTH,
+                            type = Integer.class,
+                            description = "Included values longer than this many characters are "
+                                    + "cut off and each clob gets the length of its whole value. "
+                                    + "Default 0, whole values."
+                    ),
                     @OpenApiParam(name = LIKE,
                             description = "Posix regular expression matching against the id"
                     )
@@ -164,15 +176,18 @@ public class ClobController implements CrudHandler {
             boolean includeValues = queryParamAsClass(ctx, new String[]{INCLUDE_VALUES,
                             INCLUDE_VALUES2}, Boolean.class, false, metrics,
                     name(ClobController.class.getName(), GET_ALL));
+            int maxValueLength = ctx.queryParamAsClass(MAX_VALUE_LENGTH, Integer.class)
+                    .getOrDefault(0);
+            if (maxValueLength < 0) {
+                throw new IllegalArgumentException("The max value length can't be negative.");
+            }
             String like = ctx.queryParamAsClass(LIKE, String.class).getOrDefault(".*");
 
             ClobDao dao = new ClobDao(dsl);
-            Clobs clobs = dao.getClobs(cursor, pageSize, officeOpt, includeValues, like);
-            String result = Formats.format(contentType, clobs);
-
-            ctx.result(result);
-            ctx.contentType(contentType.toString());
-            requestResultSize.update(result.length());
+            Clobs clobs = dao.getClobs(cursor, pageSize, officeOpt, includeValues, like,
+                    maxValueLength);
+            long size = writeFormatted(ctx, contentType, clobs);
+            requestResultSize.update(size);
 
         }
     }
@@ -182,13 +197,28 @@ public class ClobController implements CrudHandler {
             queryParams = {
                     @OpenApiParam(name = OFFICE, description = "Specifies the owning office."),
             },
+            headers = {
+                    @OpenApiParam(name = "Range", description = "With text/plain, a single "
+                            + "character range of the value to return, e.g. chars=0-1023."),
+                    @OpenApiParam(name = "If-None-Match", description = "With text/plain, the "
+                            + "ETag of a copy already held, 304 is returned if the clob has not "
+                            + "changed."),
+            },
             responses = {@OpenApiResponse(status = "200",
                     description = "Returns requested clob.",
                     content = {
                             @OpenApiContent(type = Formats.JSONV2, from = Clob.class),
+                            @OpenApiContent(type = Formats.PLAIN),
                     }
-            )
+            ),
+                    @OpenApiResponse(status = "206", description = "The requested range of "
+                            + "the value."),
+                    @OpenApiResponse(status = "304", description = "The clob has not changed."),
+                    @OpenApiResponse(status = "416", description = "The range is outside "
+                            + "the value."),
             },
+            description = "Returns the clob, or with Accept: text/plain just its value, streamed "
+                    + "as UTF-8 without being read into memory.",
             tags = {TAG}
     )
     @Override
@@ -200,6 +230,13 @@ public class ClobController implements CrudHandler {
         ) {
             ClobDao dao = new ClobDao(dsl);
             Optional<String> office = Optional.ofNullable(ctx.queryParam(OFFICE));
+
+            String accept = ctx.header(Header.ACCEPT);
+            if (accept != null && ContentType.equivalent(Formats.PLAIN, accept)) {
+                getValue(ctx, dao, clobId, office);
+                return;
+            }
+
             Optional<Clob> optAc = dao.getByUniqueName(clobId, office);
 
             if (optAc.isPresent()) {
@@ -207,12 +244,8 @@ public class ClobController implements CrudHandler {
                 ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, "");
 
                 Clob clob = optAc.get();
-                String result = Formats.format(contentType, clob);
-
-                ctx.contentType(contentType.toString());
-                ctx.result(result);
-
-                requestResultSize.update(result.length());
+                long size = writeFormatted(ctx, contentType, clob);
+                requestResultSize.update(size);
             } else {
                 ctx.status(HttpServletResponse.SC_NOT_FOUND).json(new RadarError("Unable to find "
                         + "clob based on given parameters"));
@@ -222,6 +255,76 @@ public class ClobController implements CrudHandler {
         }
     }
 
+    /**
+     * Stream just the value, written while the dao holds the connection so it never has to
+     * fit in memory.  Ranges count characters, the length of a UTF-8 range isn't known until
+     * it has been written so no Content-Length is sent.
+     */
+    private void getValue(Context ctx, ClobDao dao, String clobId, Optional<String> office) {
+        boolean found = dao.getClob(clobId, office, (clob, length, etag, value) -> {
+            ctx.header(Header.ETAG, etag);
+            ctx.header(Header.ACCEPT_RANGES, "chars");
+
+            if (etag.equals(ctx.header(Header.IF_NONE_MATCH))) {
+                ctx.status(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
+            String range = ctx.header(Header.RANGE);
+            String ifRange = ctx.header("If-Range");
+            if (ifRange != null && !ifRange.equals(etag)) {
+                range = null;
+            }
+            long[] bounds = Controllers.parseRange(range, "chars", length);
+            if (bounds == null) {
+                ctx.header(Header.CONTENT_RANGE, "chars */" + length);
+                ctx.status(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+
+            long start = bounds[0];
+            long count = bounds[1] - bounds[0];
+            if (count < length) {
+                ctx.status(HttpServletResponse.SC_PARTIAL_CONTENT);
+                ctx.header(Header.CONTENT_RANGE, "chars " + start + "-" + (bounds[1] - 1)
+                        + "/" + length);
+            }
+            ctx.contentType(Formats.PLAIN + ";charset=UTF-8");
+
+            if (!"HEAD".equals(ctx.method()) && count > 0) {
+                Writer out = new OutputStreamWriter(ctx.res.getOutputStream(),
+                        StandardCharsets.UTF_8);
+                // JDBC positions start at 1
+                try (Reader in = value.getCharacterStream(start + 1, count)) {
+                    copy(in, out, count);
+                }
+                requestResultSize.update(count);
+            }
+        });
+
+        if (!found) {
+            ctx.status(HttpServletResponse.SC_NOT_FOUND).json(new RadarError("Unable to find "
+                    + "clob based on given parameters"));
+        }
+    }
+
+    /**
+     * Copy count characters with a fixed buffer.
+     */
+    static void copy(Reader in, Writer out, long count) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        long remaining = count;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new EOFException("Clob ended " + remaining + " characters early");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+        out.flush();
+    }
+
     @OpenApi(
             description = "Create new Clob",
             requestBody = @OpenApiRequestBody(
@@ -296,9 +399,7 @@ public class ClobController implements CrudHandler {
     }
 
     public static Clob deserializeJAXB(String body) throws JAXBException {
-        JAXBContext jaxbContext = JAXBContext.newInstance(Clob.class);
-        Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-        return (Clob) unmarshaller.unmarshal(new StringReader(body));
+        return JaxbContextRegistry.unmarshal(Clob.class, body);
     }
 
     @OpenApi(
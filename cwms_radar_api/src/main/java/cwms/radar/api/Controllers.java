@@ -5,7 +5,13 @@ import static com.codahale.metrics.MetricRegistry.name;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import cwms.radar.data.dto.CwmsDTO;
+import cwms.radar.formatters.ContentType;
+import cwms.radar.formatters.Formats;
+import cwms.radar.formatters.FormattingException;
 import io.javalin.core.validation.Validator;
+import java.io.IOException;
+import java.util.List;
 
 
 public class Controllers {
@@ -20,6 +26,8 @@ public class Controllers {
     public static final String CURSOR = "cursor";
     public static final String PAGE = "page";
     public static final String PAGE_SIZE = "page-size";
+    public static final String TOTAL = "total";
+    public static final String INCLUDE_EXTENTS = "include-extents";
 
     // IF the constant has a number at the end its a deprecated variant
     public static final String PAGESIZE2 = "pagesize"; // deprecated
@@ -43,6 +51,7 @@ public class Controllers {
     public static final String CLOB_ID = "clob-id";
     public static final String INCLUDE_VALUES = "include-values";
     public static final String INCLUDE_VALUES2 = "includeValues"; // deprecated
+    public static final String MAX_VALUE_LENGTH = "max-value-length";
     public static final String FAIL_IF_EXISTS = "fail-if-exists";
     public static final String IGNORE_NULLS = "ignore-nulls";
     public static final String EFFECTIVE_DATE = "effective-date";
@@ -198,4 +207,96 @@ public class Controllers {
         return retval;
     }
 
+    /**
+     * Sets the content type and formats the dto straight into the response body, compressed
+     * when the client accepts gzip.  Status and headers must be set before calling this as the
+     * response may be committed afterwards.
+     *
+     * @param ctx         Request Context
+     * @param contentType format to write
+     * @param dto         object to format
+     * @return number of bytes written, for the result size histograms.
+     */
+    public static long writeFormatted(io.javalin.http.Context ctx, ContentType contentType,
+                                      CwmsDTO dto) {
+        ctx.contentType(contentType.toString());
+        ResponseOutputStream out = new ResponseOutputStream(ctx);
+        long retval = Formats.format(contentType, dto, out);
+        finish(out);
+        return retval;
+    }
+
+    /**
+     * List version of {@link #writeFormatted(io.javalin.http.Context, ContentType, CwmsDTO)}.
+     *
+     * @param ctx         Request Context
+     * @param contentType format to write
+     * @param dtos        objects to format
+     * @param rootType    type used to find the formatter
+     * @return number of bytes written, for the result size histograms.
+     */
+    public static long writeFormatted(io.javalin.http.Context ctx, ContentType contentType,
+                                      List<? extends CwmsDTO> dtos,
+                                      Class<? extends CwmsDTO> rootType) {
+        ctx.contentType(contentType.toString());
+        ResponseOutputStream out = new ResponseOutputStream(ctx);
+        long retval = Formats.format(contentType, dtos, rootType, out);
+        finish(out);
+        return retval;
+    }
+
+    /**
+     * Parse a single range Range header.
+     *
+     * @param range the header, null for the whole value.
+     * @param unit the range unit, bytes or, for clobs, chars.
+     * @param length the value length in that unit.
+     * @return the first position and one past the last position to return, null if the range
+     *      can't be satisfied.  Headers this can't parse, including multiple ranges, return the
+     *      whole value as permitted by RFC 7233.
+     */
+    static long[] parseRange(String range, String unit, long length) {
+        long[] all = new long[]{0, length};
+        String prefix = unit + "=";
+        if (range == null || !range.startsWith(prefix) || range.indexOf(',') >= 0) {
+            return all;
+        }
+        String spec = range.substring(prefix.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return all;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // the final positions
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, length - suffix), length};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length - 1 : Long.parseLong(last);
+            if (end < start) {
+                return all;
+            }
+            if (start >= length) {
+                return null;
+            }
+            return new long[]{start, Math.min(end, length - 1) + 1};
+        } catch (NumberFormatException ex) {
+            return all;
+        }
+    }
+
+    private static void finish(ResponseOutputStream out) {
+        try {
+            out.finish();
+        } catch (IOException e) {
+            throw new FormattingException("Unable to write the response", e);
+        }
+    }
+
 }
@@ -289,12 +289,9 @@ public class LevelsController implements CrudHandler {
 
                 LocationLevels levels = levelsDao.getLocationLevels(cursor, pageSize, levelIdMask,
                         office, unit, datum, beginZdt, endZdt);
-                String result = Formats.format(contentType, levels);
-
-                ctx.result(result).contentType(contentType.toString());
-                requestResultSize.update(result.length());
-
                 ctx.status(HttpServletResponse.SC_OK);
+                long size = writeFormatted(ctx, contentType, levels);
+                requestResultSize.update(size);
             } else {
 
 
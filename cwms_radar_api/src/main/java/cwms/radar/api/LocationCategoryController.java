@@ -79,12 +79,9 @@ public class LocationCategoryController implements CrudHandler {
                 String formatHeader = ctx.header(Header.ACCEPT);
                 ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, null);
 
-                String result = Formats.format(contentType, cats, LocationCategory.class);
-
-                ctx.result(result).contentType(contentType.toString());
-                requestResultSize.update(result.length());
-
                 ctx.status(HttpServletResponse.SC_OK);
+                long size = writeFormatted(ctx, contentType, cats, LocationCategory.class);
+                requestResultSize.update(size);
             } else {
                 final RadarError re = new RadarError("Cannot requested location category for "
                         + "office provided");
@@ -134,12 +131,9 @@ public class LocationCategoryController implements CrudHandler {
                 String formatHeader = ctx.header(Header.ACCEPT);
                 ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, null);
 
-                String result = Formats.format(contentType, grp.get());
-
-                ctx.result(result).contentType(contentType.toString());
-                requestResultSize.update(result.length());
-
                 ctx.status(HttpServletResponse.SC_OK);
+                long size = writeFormatted(ctx, contentType, grp.get());
+                requestResultSize.update(size);
             } else {
                 final RadarError re = new RadarError("Cannot requested location category id");
 
@@ -97,13 +97,9 @@ public class LocationGroupController implements CrudHandler {
                 String formatHeader = ctx.header(Header.ACCEPT);
                 ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, "");
 
-                String result = Formats.format(contentType, grps, LocationGroup.class);
-
-                ctx.result(result);
-                ctx.contentType(contentType.toString());
-                requestResultSize.update(result.length());
-
                 ctx.status(HttpServletResponse.SC_OK);
+                long size = writeFormatted(ctx, contentType, grps, LocationGroup.class);
+                requestResultSize.update(size);
             } else {
                 RadarError re = new RadarError("No location groups for office provided");
                 logger.info(() ->
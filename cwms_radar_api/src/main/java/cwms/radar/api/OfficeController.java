@@ -90,10 +90,8 @@ public class OfficeController implements CrudHandler {
             String formatHeader = ctx.header(Header.ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, formatParm);
 
-            String result = Formats.format(contentType, offices, Office.class);
-
-            ctx.result(result).contentType(contentType.toString());
-            requestResultSize.update(result.length());
+            long size = writeFormatted(ctx, contentType, offices, Office.class);
+            requestResultSize.update(size);
 
         }
     }
@@ -133,10 +131,8 @@ public class OfficeController implements CrudHandler {
                 String formatParm = ctx.queryParamAsClass(FORMAT, String.class).getOrDefault("");
                 String formatHeader = ctx.header(Header.ACCEPT);
                 ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, formatParm);
-                String result = Formats.format(contentType, office.get());
-                ctx.result(result).contentType(contentType.toString());
-
-                requestResultSize.update(result.length());
+                long size = writeFormatted(ctx, contentType, office.get());
+                requestResultSize.update(size);
             } else {
                 Map<String, String> map = new HashMap<>();
                 map.put(OFFICE, "An office with that name does not exist");
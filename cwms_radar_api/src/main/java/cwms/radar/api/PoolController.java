@@ -141,12 +141,9 @@ public class PoolController implements CrudHandler {
             String formatHeader = ctx.header(Header.ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, "");
 
-            String result = Formats.format(contentType, pools);
-
-            ctx.result(result).contentType(contentType.toString());
-            requestResultSize.update(result.length());
-
             ctx.status(HttpServletResponse.SC_OK);
+            long size = writeFormatted(ctx, contentType, pools);
+            requestResultSize.update(size);
         }
 
     }
@@ -220,14 +217,9 @@ public class PoolController implements CrudHandler {
             } else {
                 String formatHeader = ctx.header(Header.ACCEPT);
                 ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, "");
-                ctx.contentType(contentType.toString());
-
-                String result = Formats.format(contentType, pool);
-
-                ctx.result(result);
-                requestResultSize.update(result.length());
-
                 ctx.status(HttpServletResponse.SC_OK);
+                long size = writeFormatted(ctx, contentType, pool);
+                requestResultSize.update(size);
             }
         }
     }
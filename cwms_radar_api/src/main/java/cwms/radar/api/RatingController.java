@@ -22,13 +22,20 @@ import static cwms.radar.data.dao.JooqDao.getDslContext;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import cwms.radar.api.errors.RadarError;
 import cwms.radar.data.dao.JsonRatingUtils;
 import cwms.radar.data.dao.RatingDao;
+import cwms.radar.data.dao.RatingEvaluator;
 import cwms.radar.data.dao.RatingSetDao;
+import cwms.radar.data.dao.TimeSeriesDaoImpl;
+import cwms.radar.data.dto.TimeSeries;
+import cwms.radar.data.dto.rating.RateInput;
+import cwms.radar.data.dto.rating.RatedValues;
 import cwms.radar.formatters.ContentType;
 import cwms.radar.formatters.Formats;
 import cwms.radar.formatters.FormattingException;
+import cwms.radar.formatters.json.JsonV2;
 import cwms.radar.helpers.DateUtils;
 import hec.data.RatingException;
 import hec.data.cwmsRating.RatingSet;
@@ -44,7 +51,12 @@ import io.javalin.plugin.openapi.annotations.OpenApiParam;
 import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
 import io.javalin.plugin.openapi.annotations.OpenApiResponse;
 import java.io.IOException;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.servlet.http.HttpServletResponse;
@@ -57,6 +69,12 @@ import org.jooq.DSLContext;
 public class RatingController implements CrudHandler {
     private static final Logger logger = Logger.getLogger(RatingController.class.getName());
 
+    public static final String RATING = "rating";
+    /**
+     * Upper bound on the values rated by one request.
+     */
+    static final int MAX_RATE_VALUES = 500000;
+
     private final MetricRegistry metrics;
 
     private final Histogram requestResultSize;
@@ -401,6 +419,158 @@ public class RatingController implements CrudHandler {
         return ratingSet;
     }
 
+    @OpenApi(pathParams = {
+            @OpenApiParam(name = RATING, description = "The rating specification id.")},
+            queryParams = {
+                @OpenApiParam(name = OFFICE, required = true, description = "Specifies the "
+                        + "owning office of the rating.")},
+            requestBody = @OpenApiRequestBody(content = {
+                @OpenApiContent(from = RateInput.class, type = Formats.JSONV2)},
+                required = true, description = "Either values, one list per independent "
+                    + "parameter, with optional times in epoch milliseconds, or a "
+                    + "timeseries-id with a begin and end to read the values from.  Units are "
+                    + "the independent units followed by the dependent unit and default to "
+                    + "the rating units."),
+            responses = {
+                @OpenApiResponse(status = "200", content = {
+                        @OpenApiContent(from = RatedValues.class, type = Formats.JSONV2),
+                        @OpenApiContent(type = Formats.BINARY)}),
+                @OpenApiResponse(status = "400", description = "The values could not be "
+                        + "rated."),
+                @OpenApiResponse(status = "404", description = "The rating was not found.")},
+            path = "/ratings/{rating}/rate",
+            description = "Rates independent values with the current ratings of a rating set."
+                    + "  The binary form is a big-endian int count followed by count long "
+                    + "times and count double values, NaN for missing values.",
+            method = HttpMethod.POST,
+            tags = {"Ratings"})
+    public void rate(@NotNull Context ctx) {
+        evaluate(ctx, false);
+    }
+
+    @OpenApi(pathParams = {
+            @OpenApiParam(name = RATING, description = "The rating specification id.")},
+            queryParams = {
+                @OpenApiParam(name = OFFICE, required = true, description = "Specifies the "
+                        + "owning office of the rating.")},
+            requestBody = @OpenApiRequestBody(content = {
+                @OpenApiContent(from = RateInput.class, type = Formats.JSONV2)},
+                required = true, description = "Either a single list of dependent values, "
+                    + "with optional times in epoch milliseconds, or a timeseries-id with a "
+                    + "begin and end to read the values from.  Units are the independent unit "
+                    + "followed by the dependent unit and default to the rating units."),
+            responses = {
+                @OpenApiResponse(status = "200", content = {
+                        @OpenApiContent(from = RatedValues.class, type = Formats.JSONV2),
+                        @OpenApiContent(type = Formats.BINARY)}),
+                @OpenApiResponse(status = "400", description = "The values could not be "
+                        + "reverse rated."),
+                @OpenApiResponse(status = "404", description = "The rating was not found.")},
+            path = "/ratings/{rating}/reverse-rate",
+            description = "Finds the independent values of a rating with a single independent "
+                    + "parameter that rate to the given dependent values.",
+            method = HttpMethod.POST,
+            tags = {"Ratings"})
+    public void reverseRate(@NotNull Context ctx) {
+        evaluate(ctx, true);
+    }
+
+    private void evaluate(Context ctx, boolean reverse) {
+        String rating = ctx.pathParam(RATING);
+        String office = ctx.queryParam(OFFICE);
+        if (office == null) {
+            throw new IllegalArgumentException("The office must be specified.");
+        }
+
+        try (final Timer.Context ignored = markAndTime(reverse ? "reverseRate" : "rate");
+             DSLContext dsl = getDslContext(ctx)) {
+            RateInput input = JsonV2.buildObjectMapper().readValue(ctx.body(), RateInput.class);
+            input.validate();
+
+            RatingSet ratingSet = getRatingDao(dsl).retrieve(RatingSet.DatabaseLoadMethod.EAGER,
+                    office, rating, null, null);
+            if (ratingSet == null) {
+                ctx.status(HttpServletResponse.SC_NOT_FOUND)
+                        .json(new RadarError("Unable to find rating " + rating));
+                return;
+            }
+
+            List<String> units = input.getUnits();
+            List<Long> times = input.getTimes();
+            List<List<Double>> values = input.getValues();
+            if (input.getTimeseriesId() != null) {
+                if (units == null) {
+                    units = Arrays.asList(ratingSet.getRatingUnits());
+                }
+                // The series holds the independent values, or the dependent ones to reverse.
+                String unit = reverse ? units.get(units.size() - 1) : units.get(0);
+                TimeSeries ts = new TimeSeriesDaoImpl(dsl).getTimeseries(null,
+                        MAX_RATE_VALUES + 1, input.getTimeseriesId(), office, unit, null,
+                        input.getBegin(), input.getEnd(), ZoneOffset.UTC);
+                times = new ArrayList<>();
+                List<Double> tsValues = new ArrayList<>();
+                for (TimeSeries.Record tsv : ts.getValues()) {
+                    times.add(tsv.getDateTime().getTime());
+                    tsValues.add(tsv.getValue());
+                }
+                values = Collections.singletonList(tsValues);
+            }
+
+            int count = values.get(0).size();
+            if (count > MAX_RATE_VALUES) {
+                throw new IllegalArgumentException("No more than " + MAX_RATE_VALUES
+                        + " values can be rated at once.");
+            }
+            if (reverse && values.size() != 1) {
+                throw new IllegalArgumentException("Reverse rating takes a single list of "
+                        + "dependent values.");
+            }
+
+            long[] valueTimes = RatingEvaluator.times(times, count);
+            List<Double> rated = reverse
+                    ? RatingEvaluator.reverseRate(ratingSet, units, valueTimes, values.get(0))
+                    : RatingEvaluator.rate(ratingSet, units, valueTimes, values);
+
+            String outputUnit = null;
+            if (units != null) {
+                outputUnit = reverse ? units.get(0) : units.get(units.size() - 1);
+            }
+            List<Long> outputTimes = new ArrayList<>(count);
+            for (long valueTime : valueTimes) {
+                outputTimes.add(valueTime);
+            }
+            RatedValues result = new RatedValues.Builder()
+                    .withOfficeId(office)
+                    .withRatingId(rating)
+                    .withUnits(outputUnit)
+                    .withTimes(outputTimes)
+                    .withValues(rated)
+                    .build();
+
+            ctx.status(HttpServletResponse.SC_OK);
+            if (Formats.BINARY.equals(ctx.header(Header.ACCEPT))) {
+                ctx.contentType(Formats.BINARY);
+                result.writeBinary(ctx.res.getOutputStream());
+            } else {
+                long size = Controllers.writeFormatted(ctx,
+                        Formats.parseHeader(Formats.JSONV2), result);
+                requestResultSize.update(size);
+            }
+        } catch (RatingException ex) {
+            RadarError re = new RadarError("Unable to rate values: " + ex.getMessage());
+            logger.log(Level.INFO, re.toString(), ex);
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST).json(re);
+        } catch (JsonProcessingException ex) {
+            RadarError re = new RadarError("Unable to parse the values to rate.");
+            logger.log(Level.INFO, re.toString(), ex);
+            ctx.status(HttpServletResponse.SC_BAD_REQUEST).json(re);
+        } catch (IOException ex) {
+            RadarError re = new RadarError("Failed to process request to rate values");
+            logger.log(Level.SEVERE, re.toString(), ex);
+            ctx.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR).json(re);
+        }
+    }
+
     @Override
     @OpenApi(description = "Update a RatingSet",
             requestBody = @OpenApiRequestBody(content = {
@@ -134,13 +134,9 @@ public class RatingMetadataController implements CrudHandler {
             RatingMetadataList metadataList = dao.retrieve(cursor, pageSize, office,
                     ratingIdMask, beginZdt, endZdt);
 
-            String result = Formats.format(contentType, metadataList);
-            ctx.result(result);
-
-            ctx.contentType(contentType.toString());
-
-            requestResultSize.update(result.length());
             ctx.status(HttpServletResponse.SC_OK);
+            long size = writeFormatted(ctx, contentType, metadataList);
+            requestResultSize.update(size);
         } catch (Exception ex) {
             RadarError re =
                     new RadarError("Failed to process request: " + ex.getLocalizedMessage());
@@ -109,12 +109,9 @@ public class RatingSpecController implements CrudHandler {
             RatingSpecs ratingSpecs = ratingSpecDao.retrieveRatingSpecs(cursor, pageSize, office,
                     ratingIdMask);
 
-            ctx.contentType(contentType.toString());
-
-            String result = Formats.format(contentType, ratingSpecs);
-            ctx.result(result);
-            requestResultSize.update(result.length());
             ctx.status(HttpServletResponse.SC_OK);
+            long size = writeFormatted(ctx, contentType, ratingSpecs);
+            requestResultSize.update(size);
         } catch (Exception ex) {
             RadarError re =
                     new RadarError("Failed to process request: " + ex.getLocalizedMessage());
@@ -157,13 +154,9 @@ public class RatingSpecController implements CrudHandler {
 
             Optional<RatingSpec> template = ratingSpecDao.retrieveRatingSpec(office, ratingId);
             if (template.isPresent()) {
-                String result = Formats.format(contentType, template.get());
-
-                ctx.result(result);
-                ctx.contentType(contentType.toString());
-
-                requestResultSize.update(result.length());
                 ctx.status(HttpServletResponse.SC_OK);
+                long size = writeFormatted(ctx, contentType, template.get());
+                requestResultSize.update(size);
             } else {
                 RadarError re = new RadarError("Unable to find Rating Spec based on parameters "
                         + "given");
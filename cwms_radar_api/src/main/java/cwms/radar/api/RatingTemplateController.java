@@ -111,11 +111,8 @@ public class RatingTemplateController implements CrudHandler {
                     pageSize, office,
                     templateIdMask);
             ctx.status(HttpServletResponse.SC_OK);
-            ctx.contentType(contentType.toString());
-
-            String result = Formats.format(contentType, ratingTemplates);
-            ctx.result(result);
-            requestResultSize.update(result.length());
+            long size = writeFormatted(ctx, contentType, ratingTemplates);
+            requestResultSize.update(size);
         } catch (Exception ex) {
             RadarError re =
                     new RadarError("Failed to process request: " + ex.getLocalizedMessage());
@@ -164,13 +161,9 @@ public class RatingTemplateController implements CrudHandler {
             Optional<RatingTemplate> template = ratingSetDao.retrieveRatingTemplate(office,
                     templateId);
             if (template.isPresent()) {
-                String result = Formats.format(contentType, template.get());
-
-                ctx.result(result);
-                ctx.contentType(contentType.toString());
-
-                requestResultSize.update(result.length());
                 ctx.status(HttpServletResponse.SC_OK);
+                long size = writeFormatted(ctx, contentType, template.get());
+                requestResultSize.update(size);
             } else {
                 RadarError re = new RadarError("Unable to find Rating Template based on "
                         + "parameters given");
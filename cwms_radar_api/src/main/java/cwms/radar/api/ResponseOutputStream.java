@@ -0,0 +1,104 @@
+package cwms.radar.api;
+
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The response body of a formatted result, compressed with gzip when the client accepts it.
+ *
+ * <p>Javalin only compresses results handed to ctx.result(), this does the same for bodies
+ * written straight to the servlet stream.  The servlet stream is opened and the headers are
+ * set on the first write, so a formatter that fails before writing leaves the response
+ * untouched for the exception handlers.
+ */
+final class ResponseOutputStream extends OutputStream {
+    private static final String GZIP = "gzip";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Context ctx;
+    private final boolean gzip;
+    private OutputStream out;
+
+    ResponseOutputStream(Context ctx) {
+        this.ctx = ctx;
+        this.gzip = acceptsGzip(ctx.header(Header.ACCEPT_ENCODING));
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip.
+     *
+     * @param acceptEncoding the header, may be null.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!GZIP.equalsIgnoreCase(name) && !"*".equals(name)) {
+                continue;
+            }
+            boolean allowed = true;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        allowed = Double.parseDouble(param.substring(2).trim()) > 0;
+                    } catch (NumberFormatException ex) {
+                        allowed = false;
+                    }
+                }
+            }
+            if (allowed) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private OutputStream out() throws IOException {
+        if (out == null) {
+            OutputStream response = ctx.res.getOutputStream();
+            if (gzip) {
+                ctx.header(Header.CONTENT_ENCODING, GZIP);
+                ctx.res.addHeader(Header.VARY, Header.ACCEPT_ENCODING);
+                out = new GZIPOutputStream(response, BUFFER_SIZE);
+            } else {
+                out = response;
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out().write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Write what is left of the compressed body.  The servlet stream stays open for the
+     * container to close.
+     */
+    void finish() throws IOException {
+        if (out instanceof GZIPOutputStream) {
+            ((GZIPOutputStream) out).finish();
+        }
+        flush();
+    }
+}
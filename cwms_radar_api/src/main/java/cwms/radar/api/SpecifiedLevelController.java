@@ -120,12 +120,9 @@ public class SpecifiedLevelController implements CrudHandler {
             SpecifiedLevelDao dao = getDao(dsl);
             List<SpecifiedLevel> levels = dao.getSpecifiedLevels(office, templateIdMask);
 
-            ctx.contentType(contentType.toString());
-
-            String result = Formats.format(contentType, levels, SpecifiedLevel.class);
-            ctx.result(result);
-            requestResultSize.update(result.length());
             ctx.status(HttpServletResponse.SC_OK);
+            long size = writeFormatted(ctx, contentType, levels, SpecifiedLevel.class);
+            requestResultSize.update(size);
         } catch (Exception ex) {
             RadarError re =
                     new RadarError("Failed to process request: " + ex.getLocalizedMessage());
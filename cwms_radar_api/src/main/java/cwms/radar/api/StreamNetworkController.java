@@ -0,0 +1,261 @@
+package cwms.radar.api;
+
+import static cwms.radar.api.Controllers.OFFICE;
+import static cwms.radar.api.Controllers.UNIT;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.radar.api.enums.UnitSystem;
+import cwms.radar.api.errors.NotFoundException;
+import cwms.radar.api.graph.basinconnectivity.StreamNetworkGraph;
+import cwms.radar.data.dao.JooqDao;
+import cwms.radar.data.dao.StreamNetworkGraphCache;
+import cwms.radar.data.dto.basinconnectivity.NetworkNodes;
+import cwms.radar.formatters.Formats;
+import io.javalin.http.Context;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+
+/**
+ * Answers questions about the stream network of an office: what is upstream or downstream
+ * of a location, which way water takes between two locations and what is at a station.  The
+ * network is built once per office and unit system, see {@link StreamNetworkGraphCache}.
+ */
+public class StreamNetworkController {
+    public static final String TAG = "Basins-Beta";
+    public static final String LOCATION_ID = "location-id";
+    public static final String FROM = "from";
+    public static final String TO = "to";
+    public static final String STREAM_ID = "stream-id";
+    public static final String STATION = "station";
+    public static final String INCLUDE_JUNCTIONS = "include-junctions";
+
+    private final MetricRegistry metrics;
+
+    public StreamNetworkController(MetricRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    protected StreamNetworkGraph getGraph(Context ctx, String office, String units)
+            throws SQLException {
+        return StreamNetworkGraphCache.getInstance().get(office, units, () -> {
+            try (DSLContext dsl = JooqDao.getDslContext(ctx)) {
+                return StreamNetworkGraphCache.load(dsl, office, units);
+            }
+        });
+    }
+
+    @OpenApi(
+            queryParams = {
+                    @OpenApiParam(name = OFFICE, required = true, description = "The office "
+                            + "whose stream network is searched."),
+                    @OpenApiParam(name = LOCATION_ID, required = true, description = "The "
+                            + "stream location to start from."),
+                    @OpenApiParam(name = INCLUDE_JUNCTIONS, type = Boolean.class,
+                            description = "Also return where streams end or join. Default: "
+                                    + "false"),
+                    @OpenApiParam(name = UNIT, description = "EN or SI, the unit system of "
+                            + "the stations. Default: EN"),
+            },
+            responses = {
+                    @OpenApiResponse(status = "200", description = "Everything upstream of "
+                            + "the location, nearest first.",
+                            content = {@OpenApiContent(from = NetworkNodes.class,
+                                    type = Formats.JSONV2)}),
+                    @OpenApiResponse(status = "404", description = "The location isn't on a "
+                            + "stream of the office."),
+            },
+            path = "/stream-networks/upstream",
+            method = HttpMethod.GET,
+            tags = {TAG})
+    public void upstream(@NotNull Context ctx) throws SQLException {
+        try (final Timer.Context ignored = markAndTime("upstream")) {
+            Query query = new Query(ctx);
+            StreamNetworkGraph graph = getGraph(ctx, query.office, query.units);
+            int node = locationNode(graph, ctx.queryParam(LOCATION_ID));
+            query.write(ctx, graph, graph.getUpstream(node));
+        }
+    }
+
+    @OpenApi(
+            queryParams = {
+                    @OpenApiParam(name = OFFICE, required = true, description = "The office "
+                            + "whose stream network is searched."),
+                    @OpenApiParam(name = LOCATION_ID, required = true, description = "The "
+                            + "stream location to start from."),
+                    @OpenApiParam(name = INCLUDE_JUNCTIONS, type = Boolean.class,
+                            description = "Also return where streams end or join. Default: "
+                                    + "false"),
+                    @OpenApiParam(name = UNIT, description = "EN or SI, the unit system of "
+                            + "the stations. Default: EN"),
+            },
+            responses = {
+                    @OpenApiResponse(status = "200", description = "Everything downstream of "
+                            + "the location, nearest first.",
+                            content = {@OpenApiContent(from = NetworkNodes.class,
+                                    type = Formats.JSONV2)}),
+                    @OpenApiResponse(status = "404", description = "The location isn't on a "
+                            + "stream of the office."),
+            },
+            path = "/stream-networks/downstream",
+            method = HttpMethod.GET,
+            tags = {TAG})
+    public void downstream(@NotNull Context ctx) throws SQLException {
+        try (final Timer.Context ignored = markAndTime("downstream")) {
+            Query query = new Query(ctx);
+            StreamNetworkGraph graph = getGraph(ctx, query.office, query.units);
+            int node = locationNode(graph, ctx.queryParam(LOCATION_ID));
+            query.write(ctx, graph, graph.getDownstream(node));
+        }
+    }
+
+    @OpenApi(
+            queryParams = {
+                    @OpenApiParam(name = OFFICE, required = true, description = "The office "
+                            + "whose stream network is searched."),
+                    @OpenApiParam(name = FROM, required = true, description = "The upstream "
+                            + "stream location."),
+                    @OpenApiParam(name = TO, required = true, description = "The downstream "
+                            + "stream location."),
+                    @OpenApiParam(name = INCLUDE_JUNCTIONS, type = Boolean.class,
+                            description = "Also return where streams end or join. Default: "
+                                    + "false"),
+                    @OpenApiParam(name = UNIT, description = "EN or SI, the unit system of "
+                            + "the stations. Default: EN"),
+            },
+            responses = {
+                    @OpenApiResponse(status = "200", description = "The way water takes from "
+                            + "one location to the other, both included.",
+                            content = {@OpenApiContent(from = NetworkNodes.class,
+                                    type = Formats.JSONV2)}),
+                    @OpenApiResponse(status = "404", description = "A location isn't on a "
+                            + "stream of the office, or water doesn't flow from one to the "
+                            + "other."),
+            },
+            path = "/stream-networks/path",
+            method = HttpMethod.GET,
+            tags = {TAG})
+    public void path(@NotNull Context ctx) throws SQLException {
+        try (final Timer.Context ignored = markAndTime("path")) {
+            Query query = new Query(ctx);
+            StreamNetworkGraph graph = getGraph(ctx, query.office, query.units);
+            String from = ctx.queryParam(FROM);
+            String to = ctx.queryParam(TO);
+            List<Integer> path = graph.getPath(locationNode(graph, from),
+                    locationNode(graph, to));
+            if (path.isEmpty()) {
+                throw new NotFoundException("Water doesn't flow from " + from + " to " + to);
+            }
+            query.write(ctx, graph, path);
+        }
+    }
+
+    @OpenApi(
+            queryParams = {
+                    @OpenApiParam(name = OFFICE, required = true, description = "The office "
+                            + "whose stream network is searched."),
+                    @OpenApiParam(name = STREAM_ID, required = true, description = "The "
+                            + "stream."),
+                    @OpenApiParam(name = STATION, required = true, type = Double.class,
+                            description = "The station on the stream."),
+                    @OpenApiParam(name = UNIT, description = "EN or SI, the unit system of "
+                            + "the station. Default: EN"),
+            },
+            responses = {
+                    @OpenApiResponse(status = "200", description = "The location, or where "
+                            + "streams end or join, closest to the station.",
+                            content = {@OpenApiContent(from = NetworkNodes.class,
+                                    type = Formats.JSONV2)}),
+                    @OpenApiResponse(status = "404", description = "The stream isn't in the "
+                            + "office."),
+            },
+            path = "/stream-networks/nearest",
+            method = HttpMethod.GET,
+            tags = {TAG})
+    public void nearest(@NotNull Context ctx) throws SQLException {
+        try (final Timer.Context ignored = markAndTime("nearest")) {
+            Query query = new Query(ctx);
+            String streamId = ctx.queryParam(STREAM_ID);
+            double station = ctx.queryParamAsClass(STATION, Double.class).get();
+            StreamNetworkGraph graph = getGraph(ctx, query.office, query.units);
+            int node = graph.getNearestNode(streamId, station);
+            if (node < 0) {
+                throw new NotFoundException("Unable to find stream " + streamId);
+            }
+            List<Integer> nodes = new ArrayList<>();
+            nodes.add(node);
+            writeNodes(ctx, graph, query.units, nodes, true);
+        }
+    }
+
+    private static int locationNode(StreamNetworkGraph graph, String locationId) {
+        if (locationId == null || locationId.isEmpty()) {
+            throw new IllegalArgumentException("A location id is required.");
+        }
+        int retval = graph.getLocationNode(locationId);
+        if (retval < 0) {
+            throw new NotFoundException("Unable to find " + locationId + " on a stream of "
+                    + graph.getOfficeId());
+        }
+        return retval;
+    }
+
+    private static void writeNodes(Context ctx, StreamNetworkGraph graph, String units,
+                                   List<Integer> nodes, boolean includeJunctions) {
+        List<NetworkNodes.Node> retval = new ArrayList<>(nodes.size());
+        for (int node : nodes) {
+            String locationId = graph.getLocationId(node);
+            if (includeJunctions || locationId != null) {
+                retval.add(new NetworkNodes.Node(graph.getStreamId(node), graph.getStation(node),
+                        locationId));
+            }
+        }
+        NetworkNodes dto = new NetworkNodes.Builder()
+                .withOfficeId(graph.getOfficeId())
+                .withUnits(units)
+                .withNodes(retval)
+                .build();
+        Controllers.writeFormatted(ctx, Formats.parseHeader(Formats.JSONV2), dto);
+    }
+
+    /**
+     * The parameters every query shares.
+     */
+    private static final class Query {
+        private final String office;
+        private final String units;
+        private final boolean includeJunctions;
+
+        private Query(Context ctx) {
+            office = ctx.queryParam(OFFICE);
+            if (office == null || office.isEmpty()) {
+                throw new IllegalArgumentException("An office is required.");
+            }
+            String unit = ctx.queryParamAsClass(UNIT, String.class)
+                    .getOrDefault(UnitSystem.EN.value());
+            if (!UnitSystem.EN.value().equalsIgnoreCase(unit)
+                    && !UnitSystem.SI.value().equalsIgnoreCase(unit)) {
+                throw new IllegalArgumentException("The unit must be EN or SI.");
+            }
+            units = unit.toUpperCase();
+            includeJunctions = ctx.queryParamAsClass(INCLUDE_JUNCTIONS, Boolean.class)
+                    .getOrDefault(false);
+        }
+
+        private void write(Context ctx, StreamNetworkGraph graph, List<Integer> nodes) {
+            writeNodes(ctx, graph, units, nodes, includeJunctions);
+        }
+    }
+}
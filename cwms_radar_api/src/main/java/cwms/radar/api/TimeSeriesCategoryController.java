@@ -78,12 +78,9 @@ public class TimeSeriesCategoryController implements CrudHandler {
             String formatHeader = ctx.header(Header.ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, null);
 
-            String result = Formats.format(contentType, cats, TimeSeriesCategory.class);
-
-            ctx.result(result).contentType(contentType.toString());
-            requestResultSize.update(result.length());
-
             ctx.status(HttpServletResponse.SC_OK);
+            long size = writeFormatted(ctx, contentType, cats, TimeSeriesCategory.class);
+            requestResultSize.update(size);
         }
 
     }
@@ -122,12 +119,9 @@ public class TimeSeriesCategoryController implements CrudHandler {
 
             Optional<TimeSeriesCategory> grp = dao.getTimeSeriesCategory(office, categoryId);
             if (grp.isPresent()) {
-                String result = Formats.format(contentType, grp.get());
-
-                ctx.result(result).contentType(contentType.toString());
-                requestResultSize.update(result.length());
-
                 ctx.status(HttpServletResponse.SC_OK);
+                long size = writeFormatted(ctx, contentType, grp.get());
+                requestResultSize.update(size);
             } else {
                 RadarError re = new RadarError("Unable to find category based on parameters given");
                 logger.info(() -> re + System.lineSeparator() + "for request " + ctx.fullUrl());
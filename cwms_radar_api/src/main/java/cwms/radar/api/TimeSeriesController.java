@@ -32,6 +32,7 @@ import static cwms.radar.api.Controllers.START_TIME_INCLUSIVE;
 import static cwms.radar.api.Controllers.STORE_RULE;
 import static cwms.radar.api.Controllers.TIMESERIES;
 import static cwms.radar.api.Controllers.TIMEZONE;
+import static cwms.radar.api.Controllers.TOTAL;
 import static cwms.radar.api.Controllers.TS_IDS;
 import static cwms.radar.api.Controllers.UNIT;
 import static cwms.radar.api.Controllers.UPDATE;
@@ -43,10 +44,12 @@ import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import cwms.radar.api.enums.UnitSystem;
+import cwms.radar.api.errors.FieldException;
 import cwms.radar.api.errors.NotFoundException;
 import cwms.radar.api.errors.RadarError;
 import cwms.radar.data.dao.JooqDao;
@@ -54,6 +57,7 @@ import cwms.radar.data.dao.StoreRule;
 import cwms.radar.data.dao.TimeSeriesDao;
 import cwms.radar.data.dao.TimeSeriesDaoImpl;
 import cwms.radar.data.dao.TimeSeriesDeleteOptions;
+import cwms.radar.data.dao.TotalMode;
 import cwms.radar.data.dto.RecentValue;
 import cwms.radar.data.dto.TimeSeries;
 import cwms.radar.data.dto.Tsv;
@@ -61,6 +65,7 @@ import cwms.radar.formatters.ContentType;
 import cwms.radar.formatters.Formats;
 import cwms.radar.formatters.FormattingException;
 import cwms.radar.formatters.json.JsonV2;
+import cwms.radar.formatters.xml.JaxbContextRegistry;
 import cwms.radar.helpers.DateUtils;
 import io.javalin.apibuilder.CrudHandler;
 import io.javalin.core.util.Header;
@@ -73,7 +78,6 @@ import io.javalin.plugin.openapi.annotations.OpenApiParam;
 import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
 import io.javalin.plugin.openapi.annotations.OpenApiResponse;
 import java.io.IOException;
-import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -82,6 +86,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.List;
@@ -97,9 +102,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.servlet.http.HttpServletResponse;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
 import org.jooq.exception.DataAccessException;
@@ -114,6 +117,10 @@ public class TimeSeriesController implements CrudHandler {
     private final Histogram requestResultSize;
     private final int defaultPageSize = 500;
 
+    // Formatters whose TimeSeries output has been checked to only iterate the values
+    private static final List<ContentType> STREAMING_FORMATS = Arrays.asList(
+            Formats.parseHeader(Formats.JSONV2), Formats.parseHeader(Formats.XMLV2));
+
 
     public TimeSeriesController(MetricRegistry metrics) {
         this.metrics = metrics;
@@ -332,12 +339,21 @@ public class TimeSeriesController implements CrudHandler {
                             type = Integer.class,
                             description =
                                     "How many entries per page returned. "
-                                            + "Default " + defaultPageSize + "."
+                                            + "Default " + defaultPageSize + ". "
+                                            + "A negative value returns every value in the "
+                                            + "window without paging."
                     ),
                     @OpenApiParam(name = PAGESIZE3,
                             deprecated = true,
                             type = Integer.class,
                             description = "Deprecated. Please use page-size instead."
+                    ),
+                    @OpenApiParam(name = TOTAL,
+                            description = "How the total number of values is reported on the "
+                                    + "first page. 'estimate' (default) works it out from the "
+                                    + "interval and may be approximate or missing for irregular "
+                                    + "series, 'exact' counts the values with an additional "
+                                    + "query, 'none' leaves it out."
                     )
             },
             responses = {@OpenApiResponse(status = "200",
@@ -384,10 +400,11 @@ public class TimeSeriesController implements CrudHandler {
                     PAGESIZE2}, Integer.class, defaultPageSize, metrics,
                     name(TimeSeriesController.class.getName(), GET_ALL));
 
+            TotalMode totalMode = TotalMode.getTotalMode(ctx.queryParam(TOTAL));
+
             String acceptHeader = ctx.header(Header.ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(acceptHeader, format);
 
-            String results;
             String version = contentType.getParameters().get(VERSION);
 
             ZoneId tz = ZoneId.of(timezone, ZoneId.SHORT_IDS);
@@ -399,37 +416,36 @@ public class TimeSeriesController implements CrudHandler {
                     : ZonedDateTime.now(tz);
 
             if (version != null && version.equals("2")) {
-                TimeSeries ts = dao.getTimeseries(cursor, pageSize, names, office, unit, datum,
-                        beginZdt, endZdt, tz);
-
-                results = Formats.format(contentType, ts);
-                ctx.status(HttpServletResponse.SC_OK);
-
-                // Send back the link to the next page in the response header
-                StringBuilder linkValue = new StringBuilder(600);
-                linkValue.append(String.format("<%s>; rel=self; type=\"%s\"",
-                        buildRequestUrl(ctx, ts, ts.getPage()), contentType));
-
-                if (ts.getNextPage() != null) {
-                    linkValue.append(",");
-                    linkValue.append(String.format("<%s>; rel=next; type=\"%s\"",
-                                    buildRequestUrl(ctx, ts, ts.getNextPage()),
-                                    contentType));
+                if (pageSize < 0 && cursor.isEmpty() && canStream(contentType)) {
+                    // Unpaged requests are written out as the values are read from the database
+                    dao.streamTimeseries(names, office, unit, datum, beginZdt, endZdt, tz,
+                            totalMode, ts -> {
+                        ctx.status(HttpServletResponse.SC_OK);
+                        ctx.header("Link", buildLinkHeader(ctx, ts, contentType));
+                        long size = writeFormatted(ctx, contentType, ts);
+                        requestResultSize.update(size);
+                    });
+                } else {
+                    TimeSeries ts = dao.getTimeseries(cursor, pageSize, names, office, unit, datum,
+                            beginZdt, endZdt, tz, totalMode);
+
+                    ctx.status(HttpServletResponse.SC_OK);
+                    // Send back the link to the next page in the response header
+                    ctx.header("Link", buildLinkHeader(ctx, ts, contentType));
+                    long size = writeFormatted(ctx, contentType, ts);
+                    requestResultSize.update(size);
                 }
-
-                ctx.header("Link", linkValue.toString());
-                ctx.result(results).contentType(contentType.toString());
             } else {
                 if (format == null || format.isEmpty()) {
                     format = "json";
                 }
 
-                results = dao.getTimeseries(format, names, office, unit, datum,
+                String results = dao.getTimeseries(format, names, office, unit, datum,
                         beginZdt, endZdt, tz);
                 ctx.status(HttpServletResponse.SC_OK);
                 ctx.result(results);
+                requestResultSize.update(results.length());
             }
-            requestResultSize.update(results.length());
         } catch (NotFoundException e) {
             RadarError re = new RadarError("Not found.");
             logger.log(Level.WARNING, re.toString(), e);
@@ -538,7 +554,11 @@ public class TimeSeriesController implements CrudHandler {
             retval = deserializeJaxb(body);
         } else if ((Formats.JSONV2).equals(contentType)) {
             ObjectMapper om = JsonV2.buildObjectMapper();
-            retval = om.readValue(body, TimeSeries.class);
+            try {
+                retval = om.readValue(body, TimeSeries.class);
+            } catch (JsonMappingException ex) {
+                throw fieldExceptionOr(ex);
+            }
         } else {
             throw new IOException("Unexpected format:" + contentType);
         }
@@ -548,12 +568,25 @@ public class TimeSeriesController implements CrudHandler {
 
     public static TimeSeries deserializeJaxb(String body) throws IOException {
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(TimeSeries.class);
-            Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-            return (TimeSeries) unmarshaller.unmarshal(new StringReader(body));
+            return JaxbContextRegistry.unmarshal(TimeSeries.class, body);
         } catch (JAXBException e) {
-            throw new IOException(e);
+            throw fieldExceptionOr(new IOException(e));
+        }
+    }
+
+    /**
+     * A value the client sent that doesn't make sense is reported as such, not as a failure to
+     * parse.
+     *
+     * @return ex, unless it was caused by a FieldException, which is thrown instead.
+     */
+    private static IOException fieldExceptionOr(IOException ex) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof FieldException) {
+                throw (FieldException) cause;
+            }
         }
+        return ex;
     }
 
     @NotNull
@@ -580,6 +613,29 @@ public class TimeSeriesController implements CrudHandler {
         return Formats.parseHeader(contentTypeHeader);
     }
 
+    /**
+     * Whether the formatter for contentType only iterates the values of a time series, which is
+     * all the streamed values support.
+     */
+    static boolean canStream(ContentType contentType) {
+        // ContentType.equals only compares versions the left hand side has
+        return STREAMING_FORMATS.stream().anyMatch(format -> format.equals(contentType));
+    }
+
+    private String buildLinkHeader(Context ctx, TimeSeries ts, ContentType contentType) {
+        StringBuilder linkValue = new StringBuilder(600);
+        linkValue.append(String.format("<%s>; rel=self; type=\"%s\"",
+                buildRequestUrl(ctx, ts, ts.getPage()), contentType));
+
+        if (ts.getNextPage() != null) {
+            linkValue.append(",");
+            linkValue.append(String.format("<%s>; rel=next; type=\"%s\"",
+                            buildRequestUrl(ctx, ts, ts.getNextPage()),
+                            contentType));
+        }
+        return linkValue.toString();
+    }
+
     /**
      * Builds a URL that references a specific "page" of the result.
      *
@@ -693,12 +749,9 @@ public class TimeSeriesController implements CrudHandler {
             String formatHeader = ctx.header(Header.ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, null);
 
-            String result = Formats.format(contentType, latestValues, RecentValue.class);
-
-            ctx.result(result).contentType(contentType.toString());
-            requestResultSize.update(result.length());
-
             ctx.status(HttpServletResponse.SC_OK);
+            long size = writeFormatted(ctx, contentType, latestValues, RecentValue.class);
+            requestResultSize.update(size);
         }
     }
 
@@ -84,12 +84,9 @@ public class TimeSeriesGroupController implements CrudHandler {
                 String formatHeader = ctx.header(Header.ACCEPT);
                 ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, null);
 
-                String result = Formats.format(contentType, grps, TimeSeriesGroup.class);
-
-                ctx.result(result).contentType(contentType.toString());
-                requestResultSize.update(result.length());
-
                 ctx.status(HttpServletResponse.SC_OK);
+                long size = writeFormatted(ctx, contentType, grps, TimeSeriesGroup.class);
+                requestResultSize.update(size);
             }
         }
 
@@ -143,14 +140,9 @@ public class TimeSeriesGroupController implements CrudHandler {
                 }
             }
             if (group != null) {
-                String result = Formats.format(contentType, group);
-
-
-                ctx.result(result);
-                ctx.contentType(contentType.toString());
-                requestResultSize.update(result.length());
-
                 ctx.status(HttpServletResponse.SC_OK);
+                long size = writeFormatted(ctx, contentType, group);
+                requestResultSize.update(size);
             } else {
                 RadarError re = new RadarError("Unable to find group based on parameters given");
                 logger.info(() -> re + System.lineSeparator() + "for request " + ctx.fullUrl());
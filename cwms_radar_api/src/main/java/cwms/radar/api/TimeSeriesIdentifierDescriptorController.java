@@ -146,12 +146,9 @@ public class TimeSeriesIdentifierDescriptorController implements CrudHandler {
             }
             ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, null);
 
-            String result = Formats.format(contentType, descriptors);
-
-            ctx.result(result).contentType(contentType.toString());
-            requestResultSize.update(result.length());
-
             ctx.status(HttpServletResponse.SC_OK);
+            long size = writeFormatted(ctx, contentType, descriptors);
+            requestResultSize.update(size);
         }
 
     }
@@ -196,12 +193,9 @@ public class TimeSeriesIdentifierDescriptorController implements CrudHandler {
 
             Optional<TimeSeriesIdentifierDescriptor> grp = dao.getTimeSeriesIdentifier(office, timeseriesId);
             if (grp.isPresent()) {
-                String result = Formats.format(contentType, grp.get());
-
-                ctx.result(result).contentType(contentType.toString());
-                requestResultSize.update(result.length());
-
                 ctx.status(HttpServletResponse.SC_OK);
+                long size = writeFormatted(ctx, contentType, grp.get());
+                requestResultSize.update(size);
             } else {
                 RadarError re = new RadarError("Unable to find identifier based on parameters "
                         + "given");
@@ -0,0 +1,207 @@
+package cwms.radar.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import cwms.radar.api.errors.RadarError;
+import cwms.radar.data.dao.BlobDao;
+import cwms.radar.data.dao.ClobDao;
+import cwms.radar.data.dao.JooqDao;
+import cwms.radar.data.dao.UploadStore;
+import cwms.radar.data.dto.Blob;
+import cwms.radar.data.dto.Clob;
+import cwms.radar.data.dto.Upload;
+import cwms.radar.formatters.Formats;
+import cwms.radar.formatters.json.JsonV2;
+import io.javalin.http.Context;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+
+/**
+ * Uploads a blob or clob in chunks so it never has to fit in memory.  A client creates an
+ * upload, PUTs the value in chunks each starting at the offset the last one returned, then
+ * commits it.  An upload that broke off is resumed from the offset GET returns.  Clob values
+ * are uploaded as UTF-8.
+ */
+public class UploadController {
+    public static final String UPLOAD_ID = "upload-id";
+    public static final String OFFSET = "offset";
+
+    private final MetricRegistry metrics;
+    private final Upload.Kind kind;
+    private final Histogram chunkSize;
+
+    public UploadController(MetricRegistry metrics, Upload.Kind kind) {
+        this.metrics = metrics;
+        this.kind = kind;
+        String className = UploadController.class.getName();
+        chunkSize = this.metrics.histogram(name(className, kind.name(), "chunk", "size"));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(),
+                kind.name() + "." + subject);
+    }
+
+    protected DSLContext getDslContext(Context ctx) {
+        return JooqDao.getDslContext(ctx);
+    }
+
+    protected UploadStore getUploadStore() {
+        return UploadStore.getInstance();
+    }
+
+    @OpenApi(
+            requestBody = @OpenApiRequestBody(
+                    content = {@OpenApiContent(from = Upload.class, type = Formats.JSONV2)},
+                    required = true),
+            responses = {
+                    @OpenApiResponse(status = "201", description = "The upload was started.",
+                            content = {@OpenApiContent(from = Upload.class,
+                                    type = Formats.JSONV2)}),
+                    @OpenApiResponse(status = "503", description = "The upload directory is "
+                            + "used by another server."),
+            },
+            description = "Start a chunked upload.  The office, id and, for blobs, the media "
+                    + "type id are required.",
+            method = HttpMethod.POST,
+            tags = {"Uploads"})
+    public void create(@NotNull Context ctx) throws IOException {
+        try (final Timer.Context ignored = markAndTime("create")) {
+            Upload upload;
+            try {
+                upload = JsonV2.buildObjectMapper().readValue(ctx.body(), Upload.class);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalArgumentException("Unable to parse request body", ex);
+            }
+            upload = new Upload.Builder().fromUpload(upload).withKind(kind).build();
+            upload.validate();
+
+            ctx.status(HttpServletResponse.SC_CREATED);
+            writeUpload(ctx, getUploadStore().create(upload));
+        }
+    }
+
+    @OpenApi(
+            pathParams = {@OpenApiParam(name = UPLOAD_ID, required = true)},
+            responses = {
+                    @OpenApiResponse(status = "200", description = "The upload and the offset "
+                            + "the next chunk starts at.",
+                            content = {@OpenApiContent(from = Upload.class,
+                                    type = Formats.JSONV2)}),
+                    @OpenApiResponse(status = "404", description = "No such upload."),
+            },
+            tags = {"Uploads"})
+    public void getOne(@NotNull Context ctx) throws IOException {
+        try (final Timer.Context ignored = markAndTime("getOne")) {
+            writeUpload(ctx, getUploadStore().get(ctx.pathParam(UPLOAD_ID)));
+        }
+    }
+
+    @OpenApi(
+            pathParams = {@OpenApiParam(name = UPLOAD_ID, required = true)},
+            queryParams = {@OpenApiParam(name = OFFSET, required = true, type = Long.class,
+                    description = "Where the chunk starts, the offset of the upload.")},
+            requestBody = @OpenApiRequestBody(
+                    content = {@OpenApiContent(type = Formats.BINARY)}, required = true),
+            responses = {
+                    @OpenApiResponse(status = "200", description = "The chunk was stored.",
+                            content = {@OpenApiContent(from = Upload.class,
+                                    type = Formats.JSONV2)}),
+                    @OpenApiResponse(status = "409", description = "The chunk doesn't start at "
+                            + "the offset of the upload, which is returned.",
+                            content = {@OpenApiContent(from = Upload.class,
+                                    type = Formats.JSONV2)}),
+                    @OpenApiResponse(status = "503", description = "There is no room for the "
+                            + "chunk until other uploads are committed or expire, or the "
+                            + "upload directory is used by another server."),
+            },
+            method = HttpMethod.PUT,
+            tags = {"Uploads"})
+    public void append(@NotNull Context ctx) throws IOException {
+        try (final Timer.Context ignored = markAndTime("append")) {
+            long offset = ctx.queryParamAsClass(OFFSET, Long.class).get();
+            Upload upload;
+            try {
+                // streamed straight from the request, never ctx.body()
+                upload = getUploadStore().append(ctx.pathParam(UPLOAD_ID), offset,
+                        ctx.req.getInputStream());
+            } catch (UploadStore.OffsetMismatchException ex) {
+                ctx.status(HttpServletResponse.SC_CONFLICT);
+                writeUpload(ctx, ex.getUpload());
+                return;
+            } catch (UploadStore.QuotaExceededException ex) {
+                ctx.status(HttpServletResponse.SC_SERVICE_UNAVAILABLE)
+                        .json(new RadarError(ex.getMessage()));
+                return;
+            }
+            chunkSize.update(upload.getOffset() - offset);
+            writeUpload(ctx, upload);
+        }
+    }
+
+    @OpenApi(
+            pathParams = {@OpenApiParam(name = UPLOAD_ID, required = true)},
+            responses = {
+                    @OpenApiResponse(status = "201", description = "The value was stored."),
+                    @OpenApiResponse(status = "404", description = "No such upload."),
+                    @OpenApiResponse(status = "503", description = "The upload directory is "
+                            + "used by another server."),
+            },
+            description = "Store the uploaded value.  The upload is removed once it is stored.",
+            method = HttpMethod.POST,
+            tags = {"Uploads"})
+    public void commit(@NotNull Context ctx) throws IOException, SQLException {
+        try (final Timer.Context ignored = markAndTime("commit");
+             DSLContext dsl = getDslContext(ctx)) {
+            getUploadStore().commit(ctx.pathParam(UPLOAD_ID), (upload, data) -> {
+                boolean failIfExists = upload.getFailIfExists() == null
+                        || upload.getFailIfExists();
+                if (upload.getKind() == Upload.Kind.BLOB) {
+                    Blob blob = new Blob(upload.getOfficeId(), upload.getId(),
+                            upload.getDescription(), upload.getMediaTypeId(), null);
+                    new BlobDao(dsl).create(blob, data, failIfExists);
+                } else {
+                    Clob clob = new Clob(upload.getOfficeId(), upload.getId(),
+                            upload.getDescription(), null);
+                    new ClobDao(dsl).create(clob,
+                            new InputStreamReader(data, StandardCharsets.UTF_8), failIfExists);
+                }
+            });
+            ctx.status(HttpServletResponse.SC_CREATED);
+        }
+    }
+
+    @OpenApi(
+            pathParams = {@OpenApiParam(name = UPLOAD_ID, required = true)},
+            responses = {
+                    @OpenApiResponse(status = "204", description = "The upload was abandoned."),
+                    @OpenApiResponse(status = "404", description = "No such upload."),
+            },
+            method = HttpMethod.DELETE,
+            tags = {"Uploads"})
+    public void delete(@NotNull Context ctx) throws IOException {
+        try (final Timer.Context ignored = markAndTime("delete")) {
+            getUploadStore().delete(ctx.pathParam(UPLOAD_ID));
+            ctx.status(HttpServletResponse.SC_NO_CONTENT);
+        }
+    }
+
+    private static void writeUpload(Context ctx, Upload upload) {
+        Controllers.writeFormatted(ctx, Formats.parseHeader(Formats.JSONV2), upload);
+    }
+}
@@ -0,0 +1,11 @@
+package cwms.radar.api.errors;
+
+/**
+ * The server can't do what was asked until it is configured, or its load, changes.  The
+ * message is returned to the client.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
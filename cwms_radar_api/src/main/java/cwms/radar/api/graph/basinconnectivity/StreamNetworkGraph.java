@@ -0,0 +1,419 @@
+package cwms.radar.api.graph.basinconnectivity;
+
+import cwms.radar.data.dto.basinconnectivity.Stream;
+import cwms.radar.data.dto.basinconnectivity.StreamLocation;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The stream network of an office as an immutable directed graph, edges point downstream.
+ *
+ * <p>{@link BasinConnectivityStream} builds its nodes and edges again for every request and
+ * finds nodes by scanning, which is fine for drawing one basin but not for answering
+ * questions about a whole office.  This graph is built once and holds only arrays: the
+ * downstream and upstream neighbours of every node as offsets into one array each, and the
+ * nodes of each stream sorted by station.  A node is found by location id in constant time or
+ * by station with a binary search, upstream and downstream sets and paths cost the nodes they
+ * visit.
+ *
+ * <p>Every stream location is a node.  Where a stream ends, where a tributary flows in and
+ * where a stream diverts out there is a node without a location unless a location is at that
+ * station already.  Locations without a station can't be placed and are left out.
+ */
+public final class StreamNetworkGraph {
+
+    private final String officeId;
+    private final String[] streamIds;
+    private final double[] stations;
+    private final String[] locationIds;
+    private final int[] downOffsets;
+    private final int[] downTargets;
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final Map<String, int[]> streamNodes;
+    private final Map<String, double[]> streamStations;
+    private final Map<String, Integer> locationNodes;
+
+    private StreamNetworkGraph(Builder builder) {
+        int count = builder.streamIds.size();
+        officeId = builder.officeId;
+        streamIds = builder.streamIds.toArray(new String[0]);
+        locationIds = builder.locationIds.toArray(new String[0]);
+        stations = new double[count];
+        for (int i = 0; i < count; i++) {
+            stations[i] = builder.stations.get(i);
+        }
+
+        int edges = builder.edgeCount;
+        int[] sources = Arrays.copyOf(builder.edgeSources, edges);
+        int[] targets = Arrays.copyOf(builder.edgeTargets, edges);
+        downOffsets = new int[count + 1];
+        downTargets = new int[edges];
+        adjacency(sources, targets, downOffsets, downTargets);
+        upOffsets = new int[count + 1];
+        upTargets = new int[edges];
+        adjacency(targets, sources, upOffsets, upTargets);
+
+        streamNodes = Collections.unmodifiableMap(builder.streamNodes);
+        streamStations = Collections.unmodifiableMap(builder.streamStations);
+        Map<String, Integer> locations = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            if (locationIds[i] != null) {
+                locations.putIfAbsent(key(locationIds[i]), i);
+            }
+        }
+        locationNodes = Collections.unmodifiableMap(locations);
+    }
+
+    /**
+     * Compressed adjacency, the neighbours of node i are targets[offsets[i]] up to
+     * targets[offsets[i + 1]].
+     */
+    private static void adjacency(int[] from, int[] to, int[] offsets, int[] targets) {
+        for (int node : from) {
+            offsets[node + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < from.length; i++) {
+            targets[next[from[i]]++] = to[i];
+        }
+    }
+
+    /**
+     * Build the graph of an office.
+     *
+     * @param streams every stream of the office with its locations, tributaries are ignored.
+     */
+    public static StreamNetworkGraph build(String officeId, Collection<Stream> streams) {
+        return new Builder(officeId, streams).build();
+    }
+
+    public String getOfficeId() {
+        return officeId;
+    }
+
+    public int getNodeCount() {
+        return streamIds.length;
+    }
+
+    public int getEdgeCount() {
+        return downTargets.length;
+    }
+
+    public String getStreamId(int node) {
+        return streamIds[node];
+    }
+
+    public double getStation(int node) {
+        return stations[node];
+    }
+
+    /**
+     * @return the location at the node, null for where streams end or join.
+     */
+    public String getLocationId(int node) {
+        return locationIds[node];
+    }
+
+    /**
+     * @return the node of a location in any case, -1 if it isn't on a stream.
+     */
+    public int getLocationNode(String locationId) {
+        Integer retval = locationId == null ? null : locationNodes.get(key(locationId));
+        return retval == null ? -1 : retval;
+    }
+
+    /**
+     * The node of a stream closest to a station, the upstream one of two equally close.
+     *
+     * @return the node, -1 if there is no such stream.
+     */
+    public int getNearestNode(String streamId, double station) {
+        String key = streamId == null ? null : key(streamId);
+        double[] streamStationList = key == null ? null : streamStations.get(key);
+        if (streamStationList == null) {
+            return -1;
+        }
+        int[] nodes = streamNodes.get(key);
+
+        int index = Arrays.binarySearch(streamStationList, station);
+        if (index >= 0) {
+            return nodes[index];
+        }
+        int after = -index - 1;
+        if (after == 0) {
+            return nodes[0];
+        }
+        if (after == nodes.length) {
+            return nodes[nodes.length - 1];
+        }
+        double below = station - streamStationList[after - 1];
+        double above = streamStationList[after] - station;
+        if (below == above) {
+            return isDownstream(nodes[after - 1], nodes[after]) ? nodes[after] : nodes[after - 1];
+        }
+        return below < above ? nodes[after - 1] : nodes[after];
+    }
+
+    private boolean isDownstream(int node, int of) {
+        for (int i = downOffsets[of]; i < downOffsets[of + 1]; i++) {
+            if (downTargets[i] == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return every node downstream of node, nearest first, without node itself.
+     */
+    public List<Integer> getDownstream(int node) {
+        return traverse(node, downOffsets, downTargets);
+    }
+
+    /**
+     * @return every node upstream of node, nearest first, without node itself.
+     */
+    public List<Integer> getUpstream(int node) {
+        return traverse(node, upOffsets, upTargets);
+    }
+
+    private List<Integer> traverse(int node, int[] offsets, int[] targets) {
+        List<Integer> retval = new ArrayList<>();
+        // a map, not an array of the node count, so a query only costs what it visits
+        Map<Integer, Boolean> seen = new HashMap<>();
+        Deque<Integer> queue = new ArrayDeque<>();
+        seen.put(node, Boolean.TRUE);
+        queue.add(node);
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+                int next = targets[i];
+                if (seen.put(next, Boolean.TRUE) == null) {
+                    retval.add(next);
+                    queue.add(next);
+                }
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * The shortest way water takes from one node to another.
+     *
+     * @return the nodes from from to to, both included, empty if to isn't downstream of from.
+     */
+    public List<Integer> getPath(int from, int to) {
+        if (from == to) {
+            return Collections.singletonList(from);
+        }
+        Map<Integer, Integer> previous = new HashMap<>();
+        Deque<Integer> queue = new ArrayDeque<>();
+        previous.put(from, from);
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            for (int i = downOffsets[current]; i < downOffsets[current + 1]; i++) {
+                int next = downTargets[i];
+                if (previous.putIfAbsent(next, current) == null) {
+                    if (next == to) {
+                        return path(previous, from, to);
+                    }
+                    queue.add(next);
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private static List<Integer> path(Map<Integer, Integer> previous, int from, int to) {
+        List<Integer> retval = new ArrayList<>();
+        for (int node = to; node != from; node = previous.get(node)) {
+            retval.add(node);
+        }
+        retval.add(from);
+        Collections.reverse(retval);
+        return retval;
+    }
+
+    private static String key(String id) {
+        return id.toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Builder {
+        private final String officeId;
+        private final Collection<Stream> streams;
+        private final Map<String, Stream> streamsById = new HashMap<>();
+        private final List<String> streamIds = new ArrayList<>();
+        private final List<Double> stations = new ArrayList<>();
+        private final List<String> locationIds = new ArrayList<>();
+        private final Map<String, int[]> streamNodes = new HashMap<>();
+        private final Map<String, double[]> streamStations = new HashMap<>();
+        private int[] edgeSources = new int[16];
+        private int[] edgeTargets = new int[16];
+        private int edgeCount = 0;
+
+        private Builder(String officeId, Collection<Stream> streams) {
+            this.officeId = officeId;
+            this.streams = streams;
+            for (Stream stream : streams) {
+                streamsById.put(key(stream.getStreamName()), stream);
+            }
+        }
+
+        private StreamNetworkGraph build() {
+            Map<String, List<Double>> junctions = new HashMap<>();
+            for (Stream stream : streams) {
+                addJunction(junctions, stream.getReceivingStreamId(),
+                        stream.getConfluenceStation());
+                addJunction(junctions, stream.getDivertingStreamId(),
+                        stream.getDiversionStation());
+            }
+
+            for (Stream stream : streams) {
+                addStreamNodes(stream, junctions.getOrDefault(key(stream.getStreamName()),
+                        Collections.emptyList()));
+            }
+
+            for (Stream stream : streams) {
+                String key = key(stream.getStreamName());
+                int[] nodes = streamNodes.get(key);
+                if (nodes == null) {
+                    continue;
+                }
+                int mouth = stream.startsDownstream() ? nodes[0] : nodes[nodes.length - 1];
+                int source = stream.startsDownstream() ? nodes[nodes.length - 1] : nodes[0];
+                int confluence = nodeAt(stream.getReceivingStreamId(),
+                        stream.getConfluenceStation());
+                if (confluence >= 0) {
+                    addEdge(mouth, confluence);
+                }
+                int diversion = nodeAt(stream.getDivertingStreamId(),
+                        stream.getDiversionStation());
+                if (diversion >= 0) {
+                    addEdge(diversion, source);
+                }
+            }
+            return new StreamNetworkGraph(this);
+        }
+
+        private void addJunction(Map<String, List<Double>> junctions, String streamId,
+                                 Double station) {
+            if (streamId != null && station != null && streamsById.containsKey(key(streamId))) {
+                junctions.computeIfAbsent(key(streamId), k -> new ArrayList<>()).add(station);
+            }
+        }
+
+        /**
+         * Add the nodes of a stream in station order and the edges between them.
+         */
+        private void addStreamNodes(Stream stream, List<Double> junctions) {
+            List<StreamLocation> locations = new ArrayList<>();
+            for (StreamLocation location : stream.getStreamLocations()) {
+                if (location.getStation() != null) {
+                    locations.add(location);
+                }
+            }
+            locations.sort((a, b) -> Double.compare(a.getStation(), b.getStation()));
+
+            List<Double> empty = new ArrayList<>(junctions);
+            if (stream.getStreamLength() != null) {
+                empty.add(0.0);
+                empty.add(stream.getStreamLength());
+            } else if (locations.isEmpty() && empty.isEmpty()) {
+                return;
+            }
+            Collections.sort(empty);
+
+            // merge the locations and the empty stations, skipping empty stations that
+            // already have a node
+            List<Integer> nodes = new ArrayList<>();
+            int l = 0;
+            int e = 0;
+            double last = Double.NaN;
+            while (l < locations.size() || e < empty.size()) {
+                if (e == empty.size() || (l < locations.size()
+                        && locations.get(l).getStation() <= empty.get(e))) {
+                    StreamLocation location = locations.get(l++);
+                    last = location.getStation();
+                    nodes.add(addNode(stream.getStreamName(), last, location.getLocationName()));
+                } else {
+                    double station = empty.get(e++);
+                    if (station != last) {
+                        last = station;
+                        nodes.add(addNode(stream.getStreamName(), station, null));
+                    }
+                }
+            }
+
+            int[] nodeArray = new int[nodes.size()];
+            double[] stationArray = new double[nodes.size()];
+            for (int i = 0; i < nodeArray.length; i++) {
+                nodeArray[i] = nodes.get(i);
+                stationArray[i] = stations.get(nodeArray[i]);
+            }
+            String key = key(stream.getStreamName());
+            streamNodes.put(key, nodeArray);
+            streamStations.put(key, stationArray);
+
+            for (int i = 0; i < nodeArray.length - 1; i++) {
+                if (stream.startsDownstream()) {
+                    // stations grow upstream
+                    addEdge(nodeArray[i + 1], nodeArray[i]);
+                } else {
+                    addEdge(nodeArray[i], nodeArray[i + 1]);
+                }
+            }
+        }
+
+        private int addNode(String streamId, double station, String locationId) {
+            streamIds.add(streamId);
+            stations.add(station);
+            locationIds.add(locationId);
+            return streamIds.size() - 1;
+        }
+
+        private void addEdge(int source, int target) {
+            if (edgeCount == edgeSources.length) {
+                edgeSources = Arrays.copyOf(edgeSources, edgeCount * 2);
+                edgeTargets = Arrays.copyOf(edgeTargets, edgeCount * 2);
+            }
+            edgeSources[edgeCount] = source;
+            edgeTargets[edgeCount] = target;
+            edgeCount++;
+        }
+
+        /**
+         * @return the first node of a stream at exactly station, -1 if there is none.
+         */
+        private int nodeAt(String streamId, Double station) {
+            if (streamId == null || station == null) {
+                return -1;
+            }
+            String key = key(streamId);
+            double[] stationArray = streamStations.get(key);
+            if (stationArray == null) {
+                return -1;
+            }
+            int index = Arrays.binarySearch(stationArray, station);
+            if (index < 0) {
+                return -1;
+            }
+            while (index > 0 && stationArray[index - 1] == station) {
+                index--;
+            }
+            return streamNodes.get(key)[index];
+        }
+    }
+}
@@ -2,12 +2,15 @@ package cwms.radar.data.dao;
 
 import cwms.radar.api.enums.Unit;
 import cwms.radar.api.enums.UnitSystem;
+import cwms.radar.data.dao.StreamNetworkDao.StreamNetwork;
 import cwms.radar.data.dto.basinconnectivity.Basin;
 import cwms.radar.data.dto.basinconnectivity.Stream;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.jooq.DSLContext;
 import usace.cwms.db.jooq.dao.CwmsDbBasinJooq;
 
@@ -53,15 +56,36 @@ public class BasinDao extends JooqDao<Basin> {
                 .withSortOrder(pSortOrder[0])
                 .build();
         if (pPrimaryStreamId[0] != null) {
-            StreamDao streamDao = new StreamDao(dsl);
-            Stream primaryStream = streamDao.getStream(pPrimaryStreamId[0], unitSystem, officeId);
+            // only the primary stream and its tributaries, not the whole office
+            Stream primaryStream = new StreamNetworkDao(dsl).getStream(pPrimaryStreamId[0],
+                    unitSystem, officeId);
+            if (primaryStream == null) {
+                // reports the missing stream as before
+                primaryStream = new StreamDao(dsl).getStream(pPrimaryStreamId[0], unitSystem,
+                        officeId);
+            }
             retval = new Basin.Builder(retval).withPrimaryStream(primaryStream).build();
         }
         return retval;
     }
 
+    /**
+     * The primary stream from the network, or from StreamDao, which reports a missing stream
+     * as before, if the network doesn't have it.
+     */
+    private Stream getPrimaryStream(StreamNetwork network, String streamId, String unitSystem,
+                                    String officeId) throws SQLException {
+        Stream retval = network.getStream(streamId, officeId);
+        if (retval == null) {
+            retval = new StreamDao(dsl).getStream(streamId, unitSystem, officeId);
+        }
+        return retval;
+    }
+
     private List<Basin> buildBasinsFromResultSet(ResultSet rs, String unitSystem) throws SQLException {
         List<Basin> retval = new ArrayList<>();
+        // the streams of each office are loaded once, not once per basin
+        Map<String, StreamNetwork> networks = new HashMap<>();
         while (rs.next()) {
             String officeId = rs.getString("OFFICE_ID");
             String basinId = rs.getString("BASIN_ID");
@@ -77,8 +101,13 @@ public class BasinDao extends JooqDao<Basin> {
                     .withSortOrder(sortOrder)
                     .build();
             if (primaryStreamId != null) {
-                StreamDao streamDao = new StreamDao(dsl);
-                Stream primaryStream = streamDao.getStream(primaryStreamId, unitSystem, officeId);
+                StreamNetwork network = networks.get(officeId);
+                if (network == null) {
+                    network = new StreamNetworkDao(dsl).getStreamNetwork(unitSystem, officeId);
+                    networks.put(officeId, network);
+                }
+                Stream primaryStream = getPrimaryStream(network, primaryStreamId, unitSystem,
+                        officeId);
                 basin = new Basin.Builder(basin).withPrimaryStream(primaryStream).build();
             }
             retval.add(basin);
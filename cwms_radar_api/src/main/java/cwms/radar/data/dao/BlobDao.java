@@ -1,15 +1,57 @@
 package cwms.radar.data.dao;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import cwms.radar.data.dto.Blob;
+import cwms.radar.data.dto.Blobs;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.Record;
 import org.jooq.ResultQuery;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
 
 public class BlobDao extends JooqDao<Blob>
 {
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final Table<Record> AT_BLOB = DSL.table(DSL.name("CWMS_20", "AT_BLOB"));
+	private static final Table<Record> CWMS_MEDIA_TYPE = DSL.table(DSL.name("CWMS_20", "CWMS_MEDIA_TYPE"));
+	private static final Table<Record> CWMS_OFFICE = DSL.table(DSL.name("CWMS_20", "CWMS_OFFICE"));
+	private static final Field<String> ID = DSL.field(DSL.name("AT_BLOB", "ID"), String.class);
+	private static final Field<String> DESCRIPTION = DSL.field(DSL.name("AT_BLOB", "DESCRIPTION"), String.class);
+	private static final Field<String> MEDIA_TYPE_ID = DSL.field(DSL.name("CWMS_MEDIA_TYPE", "MEDIA_TYPE_ID"), String.class);
+	private static final Field<String> OFFICE_ID = DSL.field(DSL.name("CWMS_OFFICE", "OFFICE_ID"), String.class);
+	// Only the length, the value itself is never read for a listing
+	private static final Field<Long> LENGTH = DSL.field("DBMS_LOB.GETLENGTH({0})", Long.class,
+			DSL.field(DSL.name("AT_BLOB", "VALUE"))).as("LENGTH");
+
+	/**
+	 * Receives a blob whose value hasn't been read yet.
+	 */
+	@FunctionalInterface
+	public interface BlobConsumer
+	{
+		/**
+		 * @param blob the blob without its value.
+		 * @param length the length of the value in bytes.
+		 * @param etag changes whenever the blob row does.
+		 * @param value the value, only read from the database as it is streamed.
+		 */
+		void accept(Blob blob, long length, String etag, java.sql.Blob value)
+				throws SQLException, IOException;
+	}
+
 	public BlobDao(DSLContext dsl)
 	{
 		super(dsl);
@@ -45,6 +87,160 @@ public class BlobDao extends JooqDao<Blob>
 	}
 
 
+	/**
+	 * Find a blob and hand it to consumer without reading its value.  jOOQ would read the
+	 * whole value into memory so this uses JDBC directly, the consumer can stream any part
+	 * of the value while the connection is still held.
+	 *
+	 * @return false if there is no such blob.
+	 */
+	public boolean getBlob(String id, Optional<String> limitToOffice, BlobConsumer consumer)
+	{
+		String queryStr = "SELECT AT_BLOB.BLOB_CODE, AT_BLOB.ORA_ROWSCN, AT_BLOB.ID, AT_BLOB.DESCRIPTION, CWMS_MEDIA_TYPE.MEDIA_TYPE_ID, CWMS_OFFICE.OFFICE_ID, \n"
+				+ "DBMS_LOB.GETLENGTH(AT_BLOB.VALUE) AS LENGTH, AT_BLOB.VALUE \n"
+				+ "FROM CWMS_20.AT_BLOB \n"
+				+ "join CWMS_20.CWMS_MEDIA_TYPE on AT_BLOB.MEDIA_TYPE_CODE = CWMS_MEDIA_TYPE.MEDIA_TYPE_CODE \n"
+				+ "join CWMS_20.CWMS_OFFICE on AT_BLOB.OFFICE_CODE=CWMS_OFFICE.OFFICE_CODE \n"
+				+ "WHERE ID = ?";
+		if(limitToOffice.isPresent())
+		{
+			queryStr = queryStr + " and CWMS_OFFICE.OFFICE_ID = ?";
+		}
+		final String sql = queryStr;
+
+		return connectionResult(dsl, c -> {
+			try(PreparedStatement stmt = c.prepareStatement(sql))
+			{
+				stmt.setString(1, id);
+				if(limitToOffice.isPresent())
+				{
+					stmt.setString(2, limitToOffice.get());
+				}
+				try(ResultSet rs = stmt.executeQuery())
+				{
+					if(!rs.next())
+					{
+						return false;
+					}
+					Blob blob = new Blob(rs.getString("OFFICE_ID"), rs.getString("ID"),
+							rs.getString("DESCRIPTION"), rs.getString("MEDIA_TYPE_ID"), null);
+					java.sql.Blob value = rs.getBlob("VALUE");
+					long length = value == null ? 0 : rs.getLong("LENGTH");
+					consumer.accept(blob, length, etag(rs.getLong("BLOB_CODE"),
+							rs.getLong("ORA_ROWSCN"), length), value);
+					return true;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Store a blob whose value is streamed into a temporary LOB, so it never has to fit in
+	 * memory, and then stored with a single call.
+	 *
+	 * @param blob the blob, its value is ignored.
+	 * @param value the value, read to the end.
+	 */
+	public void create(Blob blob, InputStream value, boolean failIfExists)
+	{
+		connection(dsl, c -> {
+			java.sql.Blob lob = c.createBlob();
+			try
+			{
+				try(OutputStream out = lob.setBinaryStream(1))
+				{
+					byte[] buffer = new byte[BUFFER_SIZE];
+					int read;
+					while((read = value.read(buffer)) >= 0)
+					{
+						out.write(buffer, 0, read);
+					}
+				}
+
+				try(CallableStatement stmt = c.prepareCall(
+						"{call CWMS_20.CWMS_TEXT.STORE_BINARY(?, ?, ?, ?, ?, ?, ?)}"))
+				{
+					stmt.setBlob(1, lob);
+					stmt.setString(2, blob.getId());
+					stmt.setString(3, blob.getMediaTypeId());
+					stmt.setString(4, blob.getDescription());
+					stmt.setString(5, failIfExists ? "T" : "F");
+					// p_ignore_nulls
+					stmt.setString(6, "F");
+					stmt.setString(7, blob.getOffice());
+					stmt.execute();
+				}
+			}
+			finally
+			{
+				lob.free();
+			}
+		});
+	}
+
+	/**
+	 * AT_BLOB and AT_CLOB have no modification time, the row's SCN changes when the row is
+	 * updated.
+	 */
+	static String etag(long code, long scn, long length)
+	{
+		return "\"" + Long.toHexString(code) + "-" + Long.toHexString(scn) + "-"
+				+ Long.toHexString(length) + "\"";
+	}
+
+	/**
+	 * A page of blobs, without their values, ordered by id and office.
+	 *
+	 * @param cursor the page cursor, null or empty for the first page.
+	 * @param like a regular expression the ids must match.
+	 */
+	public Blobs getBlobs(String cursor, int pageSize, Optional<String> limitToOffice, String like)
+	{
+		KeysetPagination paging = new KeysetPagination(
+				KeysetPagination.SortKey.of(ID),
+				KeysetPagination.SortKey.of(OFFICE_ID));
+		KeysetPagination.Page page = paging.parse(cursor, pageSize);
+
+		Condition condition = JooqDao.caseInsensitiveLikeRegex(ID, like);
+		if(limitToOffice.isPresent())
+		{
+			condition = condition.and(DSL.upper(OFFICE_ID).eq(limitToOffice.get().toUpperCase()));
+		}
+
+		Integer total = page.getTotal();
+		if(page.isFirst())
+		{
+			total = dsl.selectCount()
+					.from(AT_BLOB)
+					.join(CWMS_OFFICE).on(DSL.field(DSL.name("AT_BLOB", "OFFICE_CODE"))
+							.eq(DSL.field(DSL.name("CWMS_OFFICE", "OFFICE_CODE"))))
+					.where(condition)
+					.fetchOne(0, Integer.class);
+		}
+
+		List<Record> rows = new ArrayList<>(dsl.select(ID, DESCRIPTION, MEDIA_TYPE_ID, OFFICE_ID, LENGTH)
+				.from(AT_BLOB)
+				.join(CWMS_MEDIA_TYPE).on(DSL.field(DSL.name("AT_BLOB", "MEDIA_TYPE_CODE"))
+						.eq(DSL.field(DSL.name("CWMS_MEDIA_TYPE", "MEDIA_TYPE_CODE"))))
+				.join(CWMS_OFFICE).on(DSL.field(DSL.name("AT_BLOB", "OFFICE_CODE"))
+						.eq(DSL.field(DSL.name("CWMS_OFFICE", "OFFICE_CODE"))))
+				.where(condition.and(paging.seek(page)))
+				.orderBy(paging.orderBy())
+				.limit(page.getLimit())
+				.offset(page.getOffset())
+				.fetch());
+
+		Blobs.Builder builder = new Blobs.Builder(page.getPosition(),
+				paging.nextPageKey(rows, page.getPageSize()), page.getPageSize(),
+				total == null ? 0 : total);
+		for(Record r : KeysetPagination.pageOf(rows, page.getPageSize()))
+		{
+			builder.addBlob(new Blob(r.get(OFFICE_ID), r.get(ID), r.get(DESCRIPTION),
+					r.get(MEDIA_TYPE_ID), null, r.get(LENGTH)));
+		}
+		return builder.build();
+	}
+
 	@Override
 	public List<Blob> getAll(Optional<String> limitToOffice)
 	{
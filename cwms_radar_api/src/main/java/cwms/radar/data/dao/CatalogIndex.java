@@ -0,0 +1,533 @@
+package cwms.radar.data.dao;
+
+import static cwms.radar.helpers.ConfigHelper.getLong;
+import static cwms.radar.helpers.ConfigHelper.getString;
+
+import cwms.radar.data.dto.Catalog;
+import cwms.radar.data.dto.TimeSeriesExtents;
+import cwms.radar.data.dto.catalog.CatalogEntry;
+import cwms.radar.data.dto.catalog.TimeseriesCatalogEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import javax.sql.DataSource;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+
+/**
+ * An optional in-memory index of the time series and location ids of some offices, so the
+ * catalog can filter, count and page without a COUNT and a regex scan in the database.
+ *
+ * <p>The offices to index are listed, comma separated, in {@value #OFFICES_KEY}; the index is
+ * disabled when that is empty.  Each office is loaded when {@link #start(DataSource)} is called
+ * and reloaded every {@value #REFRESH_KEY} seconds to pick up changes made outside of the API.
+ * Changes made through the API {@link #invalidate(String) invalidate} the office, which is
+ * then reloaded in the background.
+ *
+ * <p>Entries are sorted by their upper cased id, so anchored prefix and exact patterns, and the
+ * position after the cursor, are found by binary search.  Other patterns are tested against
+ * every entry of the office, and only when java.util.regex is known to match them the way
+ * Oracle's REGEXP_LIKE does.
+ *
+ * <p>Requests the index can't answer, because the office isn't loaded, no single office was
+ * given, alias filters were used, or the pattern isn't understood, are left to the DAO.  The
+ * details of the entries on the returned page are still read from the database, but only for
+ * those entries and by code.
+ */
+public final class CatalogIndex {
+    private static final Logger logger = Logger.getLogger(CatalogIndex.class.getName());
+
+    public static final String OFFICES_KEY = "radar.catalog.index.offices";
+    public static final String REFRESH_KEY = "radar.catalog.index.refresh.seconds";
+    public static final long DEFAULT_REFRESH_SECONDS = 900;
+
+    private static final CatalogIndex INSTANCE = new CatalogIndex(getOffices(),
+            getLong(REFRESH_KEY, DEFAULT_REFRESH_SECONDS));
+
+    private final Set<String> offices;
+    private final long refreshSeconds;
+    private final Map<String, OfficeCatalog> catalogs = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private long generation = 0;
+    private DataSource dataSource;
+    private ScheduledExecutorService executor;
+
+    CatalogIndex(Collection<String> offices, long refreshSeconds) {
+        Set<String> upper = new TreeSet<>();
+        for (String office : offices) {
+            upper.add(office.trim().toUpperCase(Locale.ROOT));
+        }
+        this.offices = Collections.unmodifiableSet(upper);
+        this.refreshSeconds = Math.max(1, refreshSeconds);
+    }
+
+    public static CatalogIndex getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return !offices.isEmpty();
+    }
+
+    /**
+     * Load the configured offices and start refreshing them.  Does nothing when disabled.
+     *
+     * @param dataSource where to load the index from.
+     */
+    public synchronized void start(DataSource dataSource) {
+        if (!isEnabled() || executor != null || dataSource == null) {
+            return;
+        }
+        this.dataSource = dataSource;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "radar-catalog-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> offices.forEach(this::reload),
+                0, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        catalogs.clear();
+    }
+
+    /**
+     * Forget what is known about an office after its ids changed and reload it in the
+     * background.  Until then its requests go to the DAO.
+     *
+     * @param office the office, null for all offices.
+     */
+    public void invalidate(String office) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Collection<String> changed;
+        if (office == null) {
+            changed = offices;
+        } else if (offices.contains(office.toUpperCase(Locale.ROOT))) {
+            changed = Collections.singleton(office.toUpperCase(Locale.ROOT));
+        } else {
+            return;
+        }
+
+        synchronized (lock) {
+            generation++;
+            changed.forEach(catalogs::remove);
+        }
+        synchronized (this) {
+            if (executor != null) {
+                executor.execute(() -> changed.forEach(this::reload));
+            }
+        }
+    }
+
+    private void reload(String office) {
+        long started;
+        synchronized (lock) {
+            started = generation;
+        }
+
+        try {
+            DSLContext dsl = DSL.using(dataSource, SQLDialect.ORACLE11G);
+            List<Entry> timeSeries = new TimeSeriesDaoImpl(dsl).getCatalogIndexEntries(office);
+            List<Entry> locations = new LocationsDaoImpl(dsl).getCatalogIndexEntries(office);
+
+            synchronized (lock) {
+                // An invalidation while loading queued another reload, this one may be stale.
+                if (generation == started) {
+                    put(office, timeSeries, locations);
+                }
+            }
+            logger.fine(() -> "Catalog index for " + office + " has " + timeSeries.size()
+                    + " time series and " + locations.size() + " locations");
+        } catch (RuntimeException ex) {
+            logger.log(Level.WARNING, "Unable to load catalog index for " + office, ex);
+        }
+    }
+
+    void put(String office, List<Entry> timeSeries, List<Entry> locations) {
+        catalogs.put(office.toUpperCase(Locale.ROOT),
+                new OfficeCatalog(sorted(timeSeries), sorted(locations)));
+    }
+
+    /**
+     * Answer a time series catalog request from the index.
+     *
+     * @return the catalog, or empty if the request has to go to the DAO.
+     */
+    @SuppressWarnings("java:S107") // Same parameters as the DAO.
+    public Optional<Catalog> getTimeSeriesCatalog(TimeSeriesDaoImpl dao, String page,
+                                                  int pageSize, String office, String idLike,
+                                                  String locCategoryLike, String locGroupLike,
+                                                  String tsCategoryLike, String tsGroupLike,
+                                                  IncludeExtents includeExtents) {
+        Request request = Request.of(page, pageSize, office, idLike, locCategoryLike,
+                locGroupLike, tsCategoryLike, tsGroupLike);
+        OfficeCatalog catalog = catalogFor(request);
+        if (catalog == null) {
+            return Optional.empty();
+        }
+
+        Page result = request.apply(catalog.timeSeries);
+        Map<String, Long> codes = new LinkedHashMap<>();
+        result.entries.forEach(e -> codes.put(TimeSeriesExtentsCache.key(e.office, e.id), e.code));
+        Map<String, List<TimeSeriesExtents>> extents =
+                codes.isEmpty() || includeExtents == IncludeExtents.NONE
+                        ? Collections.emptyMap() : dao.getCatalogExtents(codes);
+
+        List<TimeseriesCatalogEntry> entries = new ArrayList<>(result.entries.size());
+        for (Entry entry : result.entries) {
+            TimeseriesCatalogEntry.Builder builder = new TimeseriesCatalogEntry.Builder()
+                    .officeId(entry.office)
+                    .cwmsTsId(entry.id)
+                    .units(entry.units)
+                    .interval(entry.interval)
+                    .intervalOffset(entry.intervalOffset)
+                    .timeZone(entry.timeZone);
+            if (includeExtents == IncludeExtents.NONE) {
+                builder.withoutExtents();
+            } else {
+                includeExtents.select(extents.getOrDefault(
+                                TimeSeriesExtentsCache.key(entry.office, entry.id),
+                                Collections.emptyList()))
+                        .forEach(builder::withExtent);
+            }
+            entries.add(builder.build());
+        }
+        return Optional.of(request.toCatalog(result, entries));
+    }
+
+    /**
+     * Answer a location catalog request from the index.
+     *
+     * @return the catalog, or empty if the request has to go to the DAO.
+     */
+    @SuppressWarnings("java:S107") // Same parameters as the DAO.
+    public Optional<Catalog> getLocationCatalog(LocationsDaoImpl dao, String page, int pageSize,
+                                                String unitSystem, String office, String idLike,
+                                                String categoryLike, String groupLike) {
+        Request request = Request.of(page, pageSize, office, idLike, categoryLike, groupLike,
+                null, null);
+        OfficeCatalog catalog = catalogFor(request);
+        if (catalog == null) {
+            return Optional.empty();
+        }
+
+        Page result = request.apply(catalog.locations);
+        List<Long> codes = new ArrayList<>(result.entries.size());
+        result.entries.forEach(e -> codes.add(e.code));
+        List<? extends CatalogEntry> entries = codes.isEmpty()
+                ? Collections.emptyList() : dao.getLocationCatalogEntries(codes, unitSystem);
+        if (entries.size() < codes.size()) {
+            // Locations were deleted since the index was loaded.  A short page would end the
+            // paging early, so reload the office and let the DAO answer until then.
+            invalidate(request.office);
+            return Optional.empty();
+        }
+        return Optional.of(request.toCatalog(result, entries));
+    }
+
+    private OfficeCatalog catalogFor(Request request) {
+        if (!isEnabled() || request == null) {
+            return null;
+        }
+        return catalogs.get(request.office.toUpperCase(Locale.ROOT));
+    }
+
+    private static Entry[] sorted(List<Entry> entries) {
+        Entry[] retval = entries.toArray(new Entry[0]);
+        Arrays.sort(retval, Comparator.comparing((Entry e) -> e.upperId));
+        return retval;
+    }
+
+    /**
+     * Build the filter the index uses for a like pattern.
+     *
+     * @return the filter, or null if the pattern can't be evaluated the way Oracle would.
+     */
+    static Predicate<String> filterFor(String idLike) {
+        if (idLike == null) {
+            return id -> true;
+        }
+
+        LikeRegexRewriter simple = LikeRegexRewriter.analyze(idLike);
+        if (simple != null) {
+            return simple::matches;
+        }
+        if (!matchesLikeOracle(idLike)) {
+            return null;
+        }
+        try {
+            Pattern pattern = Pattern.compile(idLike, Pattern.CASE_INSENSITIVE);
+            return id -> pattern.matcher(id).find();
+        } catch (PatternSyntaxException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Whether java.util.regex finds the same ids as REGEXP_LIKE(id, regex, 'i').  Only ASCII
+     * literals, escaped punctuation, '.', anchors, groups, alternation and the greedy *, + and ?
+     * quantifiers qualify.  Bracket expressions, intervals, escapes such as \d and the (?...)
+     * constructs either mean something else to Oracle or might.
+     */
+    static boolean matchesLikeOracle(String regex) {
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            char next = i + 1 < regex.length() ? regex.charAt(i + 1) : 0;
+            if (c > 127 || "[]{}".indexOf(c) >= 0) {
+                return false;
+            } else if (c == '\\') {
+                if (next == 0 || next > 127 || Character.isLetterOrDigit(next)) {
+                    return false;
+                }
+                i++;
+            } else if (c == '(' && next == '?') {
+                return false;
+            } else if ("*+?".indexOf(c) >= 0 && next != 0 && "*+?".indexOf(next) >= 0) {
+                // lazy and possessive quantifiers
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find where entries sorted by upper cased id reach a key.
+     *
+     * @param inclusive whether an entry equal to the key counts.
+     * @return the index of the first entry greater than, or if inclusive equal to, the key.
+     */
+    static int search(Entry[] sorted, String key, boolean inclusive) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = sorted[mid].upperId.compareTo(key);
+            if (cmp < 0 || (cmp == 0 && !inclusive)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The ranges of sorted entries a prefix or exact pattern selects, ordered and merged.
+     *
+     * @return pairs of start, inclusive, and end, exclusive, indices.
+     */
+    static List<int[]> rangesOf(Entry[] sorted, LikeRegexRewriter rewriter) {
+        List<int[]> ranges = new ArrayList<>();
+        for (String literal : rewriter.getLiterals()) {
+            int start = search(sorted, literal, true);
+            int end;
+            if (!rewriter.isPrefix()) {
+                end = search(sorted, literal, false);
+            } else if (literal.isEmpty()) {
+                end = sorted.length;
+            } else {
+                // everything starting with the literal sorts before its successor
+                String successor = literal.substring(0, literal.length() - 1)
+                        + (char) (literal.charAt(literal.length() - 1) + 1);
+                end = search(sorted, successor, true);
+            }
+            if (start < end) {
+                ranges.add(new int[]{start, end});
+            }
+        }
+
+        ranges.sort(Comparator.comparingInt((int[] r) -> r[0]));
+        List<int[]> retval = new ArrayList<>(ranges.size());
+        for (int[] range : ranges) {
+            int[] last = retval.isEmpty() ? null : retval.get(retval.size() - 1);
+            if (last != null && range[0] <= last[1]) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                retval.add(range);
+            }
+        }
+        return retval;
+    }
+
+    private static Set<String> getOffices() {
+        String value = getString(OFFICES_KEY);
+        Set<String> retval = new TreeSet<>();
+        if (value != null) {
+            for (String office : value.split(",")) {
+                if (!office.trim().isEmpty()) {
+                    retval.add(office.trim());
+                }
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * An indexed time series or location.  Units and interval are only used for time series.
+     */
+    static final class Entry {
+        private final String office;
+        private final String id;
+        private final String upperId;
+        private final long code;
+        private final String units;
+        private final String interval;
+        private final Long intervalOffset;
+        private final String timeZone;
+
+        Entry(String office, String id, long code) {
+            this(office, id, code, null, null, null, null);
+        }
+
+        @SuppressWarnings("java:S107") // This just has this many parameters.
+        Entry(String office, String id, long code, String units, String interval,
+              Long intervalOffset, String timeZone) {
+            this.office = office;
+            this.id = id;
+            this.upperId = id.toUpperCase(Locale.ROOT);
+            this.code = code;
+            this.units = units;
+            this.interval = interval;
+            this.intervalOffset = intervalOffset;
+            this.timeZone = timeZone;
+        }
+    }
+
+    private static final class OfficeCatalog {
+        private final Entry[] timeSeries;
+        private final Entry[] locations;
+
+        private OfficeCatalog(Entry[] timeSeries, Entry[] locations) {
+            this.timeSeries = timeSeries;
+            this.locations = locations;
+        }
+    }
+
+    private static final class Page {
+        private final List<Entry> entries;
+        private final int total;
+
+        private Page(List<Entry> entries, int total) {
+            this.entries = entries;
+            this.total = total;
+        }
+    }
+
+    /**
+     * A catalog request, with whatever the page cursor says applied.
+     */
+    private static final class Request {
+        private final Catalog.CatalogPage catPage;
+        private final int pageSize;
+        private final String office;
+        private final String idLike;
+        private final LikeRegexRewriter rewriter;
+        private final Predicate<String> filter;
+
+        private Request(Catalog.CatalogPage catPage, int pageSize, String office, String idLike,
+                        Predicate<String> filter) {
+            this.catPage = catPage;
+            this.pageSize = pageSize;
+            this.office = office;
+            this.idLike = idLike;
+            this.rewriter = idLike == null
+                    ? LikeRegexRewriter.analyze(".*") : LikeRegexRewriter.analyze(idLike);
+            this.filter = filter;
+        }
+
+        @SuppressWarnings("java:S107") // Same parameters as the DAO.
+        private static Request of(String page, int pageSize, String office, String idLike,
+                                  String locCategoryLike, String locGroupLike,
+                                  String tsCategoryLike, String tsGroupLike) {
+            Catalog.CatalogPage catPage = null;
+            if (page != null && !page.isEmpty()) {
+                // Information provided by the page value overrides anything provided
+                catPage = new Catalog.CatalogPage(page);
+                pageSize = catPage.getPageSize();
+                office = catPage.getSearchOffice();
+                idLike = catPage.getIdLike();
+                locCategoryLike = catPage.getLocCategoryLike();
+                locGroupLike = catPage.getLocGroupLike();
+                tsCategoryLike = catPage.getTsCategoryLike();
+                tsGroupLike = catPage.getTsGroupLike();
+                if (office != null && !office.equalsIgnoreCase(catPage.getCurOffice())) {
+                    return null;
+                }
+            }
+
+            if (office == null || locCategoryLike != null || locGroupLike != null
+                    || tsCategoryLike != null || tsGroupLike != null) {
+                return null;
+            }
+            Predicate<String> filter = filterFor(idLike);
+            if (filter == null) {
+                return null;
+            }
+            return new Request(catPage, pageSize, office, idLike, filter);
+        }
+
+        /**
+         * Count the matches and collect the page after the cursor.
+         */
+        private Page apply(Entry[] sorted) {
+            String after = catPage != null ? catPage.getCursorId() : null;
+            int from = after == null ? 0 : search(sorted, after, false);
+            List<Entry> entries = new ArrayList<>(Math.min(pageSize, sorted.length));
+            int total = 0;
+
+            if (rewriter != null) {
+                for (int[] range : rangesOf(sorted, rewriter)) {
+                    total += range[1] - range[0];
+                    for (int i = Math.max(from, range[0]);
+                         i < range[1] && entries.size() < pageSize; i++) {
+                        entries.add(sorted[i]);
+                    }
+                }
+                return new Page(entries, total);
+            }
+
+            // A regular expression can match anywhere, every entry has to be tested.
+            for (int i = 0; i < sorted.length; i++) {
+                if (filter.test(sorted[i].id)) {
+                    total++;
+                    if (i >= from && entries.size() < pageSize) {
+                        entries.add(sorted[i]);
+                    }
+                }
+            }
+            return new Page(entries, total);
+        }
+
+        private Catalog toCatalog(Page result, List<? extends CatalogEntry> entries) {
+            return new Catalog(catPage != null ? catPage.toString() : null, result.total,
+                    pageSize, entries, office, idLike, null, null, null, null);
+        }
+    }
+}
@@ -7,15 +7,23 @@ import cwms.radar.data.dto.Catalog;
 import cwms.radar.data.dto.Clob;
 import cwms.radar.data.dto.Clobs;
 import cwms.radar.data.dto.CwmsDTOPaginated;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Logger;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.Record;
 import org.jooq.Record1;
 import org.jooq.Record2;
-import org.jooq.Record4;
+import org.jooq.Record5;
 import org.jooq.RecordMapper;
 import org.jooq.Select;
 import org.jooq.SelectConditionStep;
@@ -29,6 +37,22 @@ import usace.cwms.db.jooq.codegen.tables.AV_OFFICE;
 
 public class ClobDao extends JooqDao<Clob> {
     private static final Logger logger = Logger.getLogger(ClobDao.class.getName());
+    private static final int BUFFER_SIZE = 32 * 1024;
+
+    /**
+     * Receives a clob whose value hasn't been read yet.
+     */
+    @FunctionalInterface
+    public interface ClobConsumer {
+        /**
+         * @param clob the clob without its value.
+         * @param length the length of the value in characters.
+         * @param etag changes whenever the clob row does.
+         * @param value the value, only read from the database as it is streamed.
+         */
+        void accept(Clob clob, long length, String etag, java.sql.Clob value)
+                throws SQLException, IOException;
+    }
 
     public ClobDao(DSLContext dsl) {
         super(dsl);
@@ -90,6 +114,47 @@ public class ClobDao extends JooqDao<Clob> {
         return Optional.ofNullable(avClob);
     }
 
+    /**
+     * Find a clob and hand it to consumer without reading its value.  jOOQ would read the
+     * whole value into a String so this uses JDBC directly, the consumer can stream any part
+     * of the value while the connection is still held.
+     *
+     * @return false if there is no such clob.
+     */
+    public boolean getClob(String id, Optional<String> limitToOffice, ClobConsumer consumer) {
+        String queryStr = "SELECT AT_CLOB.CLOB_CODE, AT_CLOB.ORA_ROWSCN, AT_CLOB.ID, "
+                + "AT_CLOB.DESCRIPTION, CWMS_OFFICE.OFFICE_ID, \n"
+                + "DBMS_LOB.GETLENGTH(AT_CLOB.VALUE) AS LENGTH, AT_CLOB.VALUE \n"
+                + "FROM CWMS_20.AT_CLOB \n"
+                + "join CWMS_20.CWMS_OFFICE on AT_CLOB.OFFICE_CODE=CWMS_OFFICE.OFFICE_CODE \n"
+                + "WHERE AT_CLOB.ID = ?";
+        if (limitToOffice.isPresent()) {
+            queryStr = queryStr + " and CWMS_OFFICE.OFFICE_ID = ?";
+        }
+        final String sql = queryStr;
+
+        return connectionResult(dsl, c -> {
+            try (PreparedStatement stmt = c.prepareStatement(sql)) {
+                stmt.setString(1, id);
+                if (limitToOffice.isPresent()) {
+                    stmt.setString(2, limitToOffice.get());
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    Clob clob = new Clob(rs.getString("OFFICE_ID"), rs.getString("ID"),
+                            rs.getString("DESCRIPTION"), null);
+                    java.sql.Clob value = rs.getClob("VALUE");
+                    long length = value == null ? 0 : rs.getLong("LENGTH");
+                    consumer.accept(clob, length, BlobDao.etag(rs.getLong("CLOB_CODE"),
+                            rs.getLong("ORA_ROWSCN"), length), value);
+                    return true;
+                }
+            }
+        });
+    }
+
     public Clobs getClobs(String cursor, int pageSize, Optional<String> office,
                           boolean includeValues) {
         return getClobs(cursor, pageSize, office, includeValues, ".*");
@@ -97,6 +162,18 @@ public class ClobDao extends JooqDao<Clob> {
 
     public Clobs getClobs(String cursor, int pageSize, Optional<String> office,
                           boolean includeValues, String like) {
+        return getClobs(cursor, pageSize, office, includeValues, like, 0);
+    }
+
+    /**
+     * A page of clobs.
+     *
+     * @param maxValueLength values longer than this many characters are cut off in the
+     *                       database, and each clob has the length of its whole value.  0 for
+     *                       whole values.
+     */
+    public Clobs getClobs(String cursor, int pageSize, Optional<String> office,
+                          boolean includeValues, String like, int maxValueLength) {
         int total = 0;
         String clobCursor = "*";
         AV_CLOB v_clob = AV_CLOB.AV_CLOB;
@@ -108,7 +185,7 @@ public class ClobDao extends JooqDao<Clob> {
                     dsl.select(count(asterisk()))
                             .from(v_clob)
                             .join(v_office).on(v_clob.OFFICE_CODE.eq(v_office.OFFICE_CODE))
-                            .where(v_clob.ID.upper().likeRegex(like.toUpperCase()))
+                            .where(JooqDao.caseInsensitiveLikeRegex(v_clob.ID, like))
                             .and(v_office.OFFICE_ID.upper().like(office.isPresent() ?
                                     office.get().toUpperCase() : "%"));
 
@@ -130,16 +207,32 @@ public class ClobDao extends JooqDao<Clob> {
             }
         }
 
-        SelectLimitPercentStep<Record4<String, String, String, String>> query = dsl.select(
+        Field<String> value;
+        Field<Long> length = DSL.inline(null, Long.class).as("LENGTH");
+        if (!includeValues) {
+            value = DSL.inline("").as(v_clob.VALUE);
+        } else if (maxValueLength > 0) {
+            // SUBSTR of a CLOB is a CLOB, only the start of the value is read.  The whole
+            // length tells the client whether it was cut off.
+            value = DSL.substring(v_clob.VALUE, 1, maxValueLength).as(v_clob.VALUE);
+            length = DSL.field("DBMS_LOB.GETLENGTH({0})", Long.class, v_clob.VALUE)
+                    .as("LENGTH");
+        } else {
+            value = v_clob.VALUE;
+        }
+
+        SelectLimitPercentStep<Record5<String, String, String, String, Long>> query =
+                dsl.select(
                         v_office.OFFICE_ID,
                         v_clob.ID,
                         v_clob.DESCRIPTION,
-                        includeValues == true ? v_clob.VALUE : DSL.inline("").as(v_clob.VALUE)
+                        value,
+                        length
                 )
                 .from(v_clob)
                 //.innerJoin(forLimit).on(forLimit.field(v_clob.ID).eq(v_clob.ID))
                 .join(v_office).on(v_clob.OFFICE_CODE.eq(v_office.OFFICE_CODE))
-                .where(v_clob.ID.upper().likeRegex(like.toUpperCase()))
+                .where(JooqDao.caseInsensitiveLikeRegex(v_clob.ID, like))
                 .and(v_clob.ID.upper().greaterThan(clobCursor))
                 .orderBy(v_clob.ID).limit(pageSize);
 
@@ -155,7 +248,8 @@ public class ClobDao extends JooqDao<Clob> {
                     clobOffice.getOFFICE_ID(),
                     clob.getID(),
                     clob.getDESCRIPTION(),
-                    clob.getVALUE()
+                    clob.getVALUE(),
+                    row.value5()
             ));
 
         });
@@ -215,6 +309,40 @@ public class ClobDao extends JooqDao<Clob> {
 
     }
 
+    /**
+     * Create a clob whose value is streamed into a temporary LOB, so it never has to fit in
+     * memory, and then stored with a single call.
+     *
+     * @param clob the clob, its value is ignored.
+     * @param value the value, read to the end.
+     */
+    public void create(Clob clob, Reader value, boolean failIfExists) {
+        connection(dsl, c -> {
+            java.sql.Clob lob = c.createClob();
+            try {
+                try (Writer out = lob.setCharacterStream(1)) {
+                    char[] buffer = new char[BUFFER_SIZE];
+                    int read;
+                    while ((read = value.read(buffer)) >= 0) {
+                        out.write(buffer, 0, read);
+                    }
+                }
+
+                try (CallableStatement stmt = c.prepareCall(
+                        "{call CWMS_20.CWMS_TEXT.STORE_TEXT(?, ?, ?, ?, ?)}")) {
+                    stmt.setClob(1, lob);
+                    stmt.setString(2, clob.getId());
+                    stmt.setString(3, clob.getDescription());
+                    stmt.setString(4, failIfExists ? "T" : "F");
+                    stmt.setString(5, clob.getOffice());
+                    stmt.execute();
+                }
+            } finally {
+                lob.free();
+            }
+        });
+    }
+
     public void delete(String officeId, String id) {
         CWMS_TEXT_PACKAGE.call_DELETE_TEXT(dsl.configuration(), id, officeId);
     }
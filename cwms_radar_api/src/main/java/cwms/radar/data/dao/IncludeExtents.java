@@ -0,0 +1,51 @@
+package cwms.radar.data.dao;
+
+import cwms.radar.data.dto.TimeSeriesExtents;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Which extents the time series catalog reports for each entry.
+ */
+public enum IncludeExtents {
+    /** Leave extents out, nothing is read from the extents view. */
+    NONE,
+    /** Only the extents of the most recent version. */
+    LATEST,
+    /** The extents of every version. */
+    ALL;
+
+    public static final IncludeExtents DEFAULT = NONE;
+
+    public static IncludeExtents getIncludeExtents(String input) {
+        IncludeExtents retval = DEFAULT;
+
+        if (input != null && !input.isEmpty()) {
+            retval = IncludeExtents.valueOf(input.toUpperCase());
+        }
+        return retval;
+    }
+
+    /**
+     * Pick the extents to report.
+     *
+     * @param extents every extent of a time series
+     * @return the extents to report, null for NONE.
+     */
+    public List<TimeSeriesExtents> select(List<TimeSeriesExtents> extents) {
+        switch (this) {
+            case NONE:
+                return null;
+            case LATEST:
+                return extents.stream()
+                        .max(Comparator.comparing(TimeSeriesExtents::getVersionTime,
+                                Comparator.nullsFirst(Comparator.<ZonedDateTime>naturalOrder())))
+                        .map(Collections::singletonList)
+                        .orElse(Collections.emptyList());
+            default:
+                return extents;
+        }
+    }
+}
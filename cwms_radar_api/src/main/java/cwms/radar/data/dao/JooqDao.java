@@ -6,6 +6,8 @@ import cwms.radar.ApiServlet;
 import cwms.radar.api.errors.AlreadyExists;
 import cwms.radar.api.errors.InvalidItemException;
 import cwms.radar.api.errors.NotFoundException;
+import cwms.radar.datasource.ConnectionSessionState;
+import cwms.radar.datasource.RequestConnectionProvider;
 import io.javalin.http.Context;
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -44,6 +46,9 @@ public abstract class JooqDao<T> extends Dao<T> {
      * enables ApiServlet to handle the exception specialization in a more
      * generic way.
      *
+     * <p>When request scoped connections are enabled every DSLContext created for the
+     * same request shares one prepared connection, see {@link RequestConnectionProvider}.
+     *
      * @param ctx The current request context.
      * @return A DSLContext for the current request.
      */
@@ -51,7 +56,10 @@ public abstract class JooqDao<T> extends Dao<T> {
         DSLContext retval;
         final String officeId = ctx.attribute(ApiServlet.OFFICE_ID);
         final DataSource dataSource = ctx.attribute(ApiServlet.DATA_SOURCE);
-        if (dataSource != null) {
+        if (dataSource != null && RequestConnectionProvider.isEnabled()) {
+            retval = DSL.using(getRequestConnectionProvider(ctx, dataSource),
+                    SQLDialect.ORACLE11G);
+        } else if (dataSource != null) {
             retval = DSL.using(dataSource, SQLDialect.ORACLE11G);
         } else {
             // Some tests still use this method
@@ -64,9 +72,24 @@ public abstract class JooqDao<T> extends Dao<T> {
         return retval;
     }
 
+    private static RequestConnectionProvider getRequestConnectionProvider(Context ctx,
+                                                                          DataSource dataSource) {
+        RequestConnectionProvider provider = ctx.attribute(RequestConnectionProvider.ATTRIBUTE);
+        if (provider == null || provider.getDataSource() != dataSource) {
+            if (provider != null) {
+                // The DataSource was swapped after a connection was pinned.
+                provider.close();
+            }
+            provider = new RequestConnectionProvider(dataSource);
+            ctx.attribute(RequestConnectionProvider.ATTRIBUTE, provider);
+        }
+        return provider;
+    }
+
     public static DSLContext getDslContext(Connection database, String officeId) {
         DSLContext dsl = DSL.using(database, SQLDialect.ORACLE11G);
         CWMS_ENV_PACKAGE.call_SET_SESSION_OFFICE_ID(dsl.configuration(), officeId);
+        ConnectionSessionState.of(database).officeSet(officeId);
 
         return dsl;
     }
@@ -94,8 +117,17 @@ public abstract class JooqDao<T> extends Dao<T> {
      * Oracle supports case insensitive regexp search but the syntax for calling it is a
      * bit weird.  This method lets Dao classes add a case-insensitive regexp search in
      * an easy to read manner without having to worry about the syntax.
+     *
+     * <p>Anchored prefixes, exact matches and alternations of literals are rewritten to
+     * {@code UPPER(field) LIKE} and {@code UPPER(field) IN} so an index on the upper cased
+     * column can be used, see {@link LikeRegexRewriter}.
      */
     public static Condition caseInsensitiveLikeRegex(Field<String> field, String regex) {
+        LikeRegexRewriter simple = LikeRegexRewriter.analyze(regex);
+        if (simple != null) {
+            return simple.toCondition(field);
+        }
+
         return new CustomCondition() {
             @Override
             public void accept(org.jooq.Context<?> ctx) {
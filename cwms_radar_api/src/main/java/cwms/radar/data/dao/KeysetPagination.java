@@ -0,0 +1,378 @@
+package cwms.radar.data.dao;
+
+import static cwms.radar.helpers.ConfigHelper.getString;
+
+import cwms.radar.data.dto.CwmsDTOPaginated;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.jooq.Condition;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.SortField;
+import org.jooq.impl.DSL;
+
+/**
+ * Keyset ("seek") pagination for list DAOs.
+ *
+ * <p>Instead of skipping rows with OFFSET, each page starts right after the sort key of the
+ * last row of the previous page, so deep pages cost the same as the first one and rows aren't
+ * skipped or repeated when data changes between requests.  A DAO declares its sort keys, which
+ * together must be unique, and then uses {@link #orderBy()}, {@link #seek(Page)} and
+ * {@link Page#getLimit()} in its query, {@link #nextPageKey(List, int)} to build the next cursor
+ * and {@link #pageOf(List, int)} to drop the extra row.
+ *
+ * <p>Cursors keep the usual {@code position||total||pageSize} layout of
+ * {@link CwmsDTOPaginated}.  The position is a versioned, typed encoding of the last row's key.
+ * Older offset cursors are still understood and are answered with an offset query.  If
+ * {@value #HMAC_KEY} is set the key is signed and cursors that don't match are rejected.
+ * Sort keys are always ascending with nulls last.
+ */
+public final class KeysetPagination {
+    public static final String HMAC_KEY = "radar.cursor.hmac.key";
+
+    static final String VERSION = "K1";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Pattern OFFSET = Pattern.compile("\\d+");
+    private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    private final List<SortKey<?>> keys;
+
+    public KeysetPagination(SortKey<?>... keys) {
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("At least one sort key is required");
+        }
+        this.keys = Collections.unmodifiableList(Arrays.asList(keys));
+    }
+
+    /**
+     * @return the sort fields to order the query by.
+     */
+    public List<SortField<?>> orderBy() {
+        List<SortField<?>> retval = new ArrayList<>(keys.size());
+        for (SortKey<?> key : keys) {
+            retval.add(key.field.asc().nullsLast());
+        }
+        return retval;
+    }
+
+    /**
+     * Build the condition selecting rows after the page's key, i.e. the expansion of
+     * {@code (k1, k2, ...) > (v1, v2, ...)} honoring nulls last.
+     *
+     * @param page the parsed cursor
+     * @return the condition, true for the first page and for offset cursors.
+     */
+    public Condition seek(Page page) {
+        if (page.after == null) {
+            return DSL.trueCondition();
+        }
+        if (page.after.length != keys.size()) {
+            throw new IllegalArgumentException("Cursor does not match this listing");
+        }
+
+        Condition retval = DSL.falseCondition();
+        Condition equalSoFar = DSL.trueCondition();
+        for (int i = 0; i < keys.size(); i++) {
+            SortKey<?> key = keys.get(i);
+            Object value = page.after[i];
+            retval = retval.or(equalSoFar.and(key.after(value)));
+            equalSoFar = equalSoFar.and(key.equalTo(value));
+        }
+        return retval;
+    }
+
+    /**
+     * Extract the sort key of a row as it would be compared in the database.
+     */
+    public Object[] keyOf(Record row) {
+        Object[] retval = new Object[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            retval[i] = keys.get(i).extractor.apply(row);
+        }
+        return retval;
+    }
+
+    /**
+     * Build the position for the next page.
+     *
+     * @param rows the rows fetched for this page with {@link Page#getLimit()}, in order.
+     * @param pageSize the page size.
+     * @return the position, or null if this was the last page, i.e. there was no row beyond
+     *      the page.
+     */
+    public String nextPageKey(List<? extends Record> rows, int pageSize) {
+        if (rows == null || pageSize <= 0 || rows.size() <= pageSize) {
+            return null;
+        }
+        return encodeKey(keyOf(rows.get(pageSize - 1)));
+    }
+
+    /**
+     * @param rows the rows fetched for this page with {@link Page#getLimit()}.
+     * @param pageSize the page size.
+     * @return the rows of the page without the one fetched to look ahead.
+     */
+    public static <T> List<T> pageOf(List<T> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return rows;
+        }
+        return rows.subList(0, Math.max(0, pageSize));
+    }
+
+    /**
+     * Parse a cursor.
+     *
+     * @param cursor the cursor from the request, may be null or empty for the first page.
+     * @param pageSize the page size from the request, used when there's no cursor.
+     * @return the parsed page.
+     */
+    public Page parse(String cursor, int pageSize) {
+        Page retval = new Page(pageSize);
+        if (cursor == null || cursor.isEmpty()) {
+            return retval;
+        }
+
+        String[] parts = CwmsDTOPaginated.decodeCursor(cursor);
+        if (parts.length < 2) {
+            return retval;
+        }
+
+        String position = parts[0];
+        if (OFFSET.matcher(position).matches()) {
+            retval.offset = Integer.parseInt(position);
+        } else {
+            retval.after = decodeKey(position);
+        }
+        retval.position = position;
+
+        if (parts.length > 2 && !"null".equals(parts[1])) {
+            retval.total = Integer.valueOf(parts[1]);
+        }
+        // Last item is always the pageSize
+        retval.pageSize = Integer.parseInt(parts[parts.length - 1]);
+        return retval;
+    }
+
+    static String encodeKey(Object[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (Object value : values) {
+            String type;
+            String text;
+            if (value == null) {
+                type = "Z";
+                text = "";
+            } else if (value instanceof String) {
+                type = "S";
+                text = (String) value;
+            } else if (value instanceof BigDecimal) {
+                type = "N";
+                text = ((BigDecimal) value).toPlainString();
+            } else if (value instanceof Long || value instanceof Integer
+                    || value instanceof Short) {
+                type = "L";
+                text = value.toString();
+            } else if (value instanceof Double || value instanceof Float) {
+                type = "D";
+                text = value.toString();
+            } else if (value instanceof Timestamp) {
+                type = "T";
+                text = ((Timestamp) value).toInstant().toString();
+            } else {
+                throw new IllegalArgumentException("Unsupported sort key type: "
+                        + value.getClass().getName());
+            }
+            // Length prefixed so the text may contain anything
+            sb.append(type).append(text.length()).append(':').append(text);
+        }
+
+        String payload = encoder.encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+        String retval = VERSION + "." + payload;
+        byte[] secret = hmacKey();
+        if (secret != null) {
+            retval = retval + "." + sign(secret, payload);
+        }
+        return retval;
+    }
+
+    static Object[] decodeKey(String position) {
+        String[] parts = position.split("\\.");
+        if (parts.length < 2 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Unsupported cursor");
+        }
+
+        byte[] secret = hmacKey();
+        if (secret != null && (parts.length != 3 || !MessageDigest.isEqual(
+                sign(secret, parts[1]).getBytes(StandardCharsets.UTF_8),
+                parts[2].getBytes(StandardCharsets.UTF_8)))) {
+            throw new IllegalArgumentException("Invalid cursor signature");
+        }
+
+        String text = new String(decoder.decode(parts[1]), StandardCharsets.UTF_8);
+        List<Object> values = new ArrayList<>();
+        int i = 0;
+        try {
+            while (i < text.length()) {
+                char type = text.charAt(i);
+                int colon = text.indexOf(':', i);
+                int length = Integer.parseInt(text.substring(i + 1, colon));
+                String value = text.substring(colon + 1, colon + 1 + length);
+                i = colon + 1 + length;
+                values.add(parseValue(type, value));
+            }
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+        return values.toArray();
+    }
+
+    private static Object parseValue(char type, String value) {
+        switch (type) {
+            case 'Z':
+                return null;
+            case 'S':
+                return value;
+            case 'N':
+                return new BigDecimal(value);
+            case 'L':
+                return Long.valueOf(value);
+            case 'D':
+                return Double.valueOf(value);
+            case 'T':
+                return Timestamp.from(Instant.parse(value));
+            default:
+                throw new IllegalArgumentException("Unknown cursor value type " + type);
+        }
+    }
+
+    private static byte[] hmacKey() {
+        String value = getString(HMAC_KEY);
+        if (value == null) {
+            return null;
+        }
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sign(byte[] secret, String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, HMAC_ALGORITHM));
+            byte[] hash = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return encoder.encodeToString(hash);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Unable to sign cursor", e);
+        }
+    }
+
+    /**
+     * A column or expression the results are sorted by, and how to read its value back out
+     * of a result row.
+     *
+     * @param <T> the value type
+     */
+    public static final class SortKey<T> {
+        private final Field<T> field;
+        private final Function<Record, T> extractor;
+
+        private SortKey(Field<T> field, Function<Record, T> extractor) {
+            this.field = field;
+            this.extractor = extractor;
+        }
+
+        /**
+         * Sort by a column that is part of the select list.
+         */
+        public static <T> SortKey<T> of(Field<T> column) {
+            return new SortKey<>(column, row -> row.get(column));
+        }
+
+        /**
+         * Sort case-insensitively by a column that is part of the select list.
+         */
+        public static SortKey<String> upper(Field<String> column) {
+            return new SortKey<>(column.upper(), row -> {
+                String value = row.get(column);
+                return value == null ? null : value.toUpperCase(Locale.ROOT);
+            });
+        }
+
+        private Condition after(Object value) {
+            if (value == null) {
+                // nulls sort last, nothing comes after them
+                return DSL.falseCondition();
+            }
+            return field.gt(DSL.val(value, field)).or(field.isNull());
+        }
+
+        private Condition equalTo(Object value) {
+            if (value == null) {
+                return field.isNull();
+            }
+            return field.eq(DSL.val(value, field));
+        }
+    }
+
+    /**
+     * Where a page starts.
+     */
+    public static final class Page {
+        private int pageSize;
+        private Integer total;
+        private int offset;
+        private Object[] after;
+        private String position = "0";
+
+        private Page(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        /**
+         * @return the rows to fetch, one more than the page size to find out whether there is
+         *      a next page.
+         */
+        public int getLimit() {
+            return Math.max(0, pageSize) + 1;
+        }
+
+        public Integer getTotal() {
+            return total;
+        }
+
+        /**
+         * @return rows to skip, only non-zero for offset cursors from older clients.
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * @return the position this page starts at, suitable for the DTO's page cursor.
+         */
+        public String getPosition() {
+            return position;
+        }
+
+        public boolean isFirst() {
+            return after == null && offset == 0;
+        }
+    }
+}
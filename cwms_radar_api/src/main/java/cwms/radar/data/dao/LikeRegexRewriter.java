@@ -0,0 +1,222 @@
+package cwms.radar.data.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import org.jooq.Condition;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+
+/**
+ * Recognizes the simple regular expressions users pass as "like" filters and turns them into
+ * conditions Oracle can answer from an index on the upper cased column.
+ *
+ * <p>Handled are patterns anchored with {@code ^} whose body is a literal, or a group of
+ * literal alternatives, optionally followed by {@code .*} and/or {@code $}, e.g.
+ * {@code ^SWT\.Flow.*}, {@code ^KEYS$} or {@code ^(KEYS|TULA)$}.  An anchored pattern without
+ * {@code $} is a prefix match, with it an exact match.  A bare {@code .*} matches any value.
+ * Everything else is left to REGEXP_LIKE.
+ */
+final class LikeRegexRewriter {
+    private static final String META = ".[]{}()*+?^$|";
+    private static final char LIKE_ESCAPE = '!';
+
+    private final List<String> literals;
+    private final boolean prefix;
+
+    private LikeRegexRewriter(List<String> literals, boolean prefix) {
+        this.literals = literals;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Analyze a case insensitive regular expression.
+     *
+     * @param regex the expression, as it would be given to REGEXP_LIKE with the 'i' flag.
+     * @return the rewrite, or null if the expression isn't simple enough.
+     */
+    static LikeRegexRewriter analyze(String regex) {
+        if (regex == null) {
+            return null;
+        }
+
+        String body = regex;
+        boolean anchored = body.startsWith("^");
+        if (anchored) {
+            body = body.substring(1);
+        }
+
+        boolean exact = false;
+        if (endsWithUnescaped(body, "$")) {
+            exact = true;
+            body = body.substring(0, body.length() - 1);
+        }
+
+        boolean any = false;
+        if (endsWithUnescaped(body, ".*")) {
+            any = true;
+            body = body.substring(0, body.length() - 2);
+        }
+
+        if (body.isEmpty()) {
+            // ".*", "^.*$" and friends
+            return any ? new LikeRegexRewriter(Collections.singletonList(""), true) : null;
+        }
+        if (!anchored) {
+            return null;
+        }
+
+        List<String> alternatives = new ArrayList<>();
+        if (body.startsWith("(") && endsWithUnescaped(body, ")")) {
+            String group = body.substring(1, body.length() - 1);
+            if (group.startsWith("?:")) {
+                group = group.substring(2);
+            }
+            for (String alternative : splitAlternatives(group)) {
+                String literal = literal(alternative);
+                if (literal == null) {
+                    return null;
+                }
+                alternatives.add(literal);
+            }
+        } else {
+            String literal = literal(body);
+            if (literal == null) {
+                return null;
+            }
+            alternatives.add(literal);
+        }
+        return new LikeRegexRewriter(alternatives, any || !exact);
+    }
+
+    /**
+     * @return the upper cased literals, the empty string for a pattern matching any value.
+     */
+    List<String> getLiterals() {
+        return literals;
+    }
+
+    /**
+     * @return true if values starting with one of the literals match, false if they have to
+     *      equal one.
+     */
+    boolean isPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Build the condition selecting the same rows as the regular expression.
+     *
+     * @param field the column
+     * @return the condition.
+     */
+    Condition toCondition(Field<String> field) {
+        if (prefix && literals.size() == 1 && literals.get(0).isEmpty()) {
+            return field.isNotNull();
+        }
+
+        Field<String> upper = field.upper();
+        if (!prefix) {
+            if (literals.size() == 1) {
+                return upper.eq(literals.get(0));
+            }
+            return upper.in(literals);
+        }
+
+        Condition retval = DSL.falseCondition();
+        for (String literal : literals) {
+            retval = retval.or(upper.like(escapeLike(literal) + "%", LIKE_ESCAPE));
+        }
+        return retval;
+    }
+
+    /**
+     * Evaluate the rewritten condition in memory.
+     *
+     * @param value a column value
+     * @return true if the condition from {@link #toCondition(Field)} would select it.
+     */
+    boolean matches(String value) {
+        if (value == null) {
+            return false;
+        }
+        String upper = value.toUpperCase(Locale.ROOT);
+        for (String literal : literals) {
+            if (prefix ? upper.startsWith(literal) : upper.equals(literal)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> splitAlternatives(String group) {
+        List<String> retval = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < group.length(); i++) {
+            char c = group.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '|') {
+                retval.add(group.substring(start, i));
+                start = i + 1;
+            }
+        }
+        retval.add(group.substring(start));
+        return retval;
+    }
+
+    /**
+     * Unescape a regular expression that matches only itself.
+     *
+     * @return the upper cased literal, or null if the text isn't a plain literal.
+     */
+    private static String literal(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                if (i + 1 >= text.length()) {
+                    return null;
+                }
+                char escaped = text.charAt(++i);
+                if (Character.isLetterOrDigit(escaped) || escaped > 127) {
+                    // character classes and back references
+                    return null;
+                }
+                sb.append(escaped);
+            } else if (META.indexOf(c) >= 0 || c > 127) {
+                // upper casing outside ASCII doesn't agree with Oracle's 'i' flag
+                return null;
+            } else {
+                sb.append(c);
+            }
+        }
+        if (sb.length() == 0) {
+            return null;
+        }
+        return sb.toString().toUpperCase(Locale.ROOT);
+    }
+
+    private static boolean endsWithUnescaped(String text, String suffix) {
+        if (!text.endsWith(suffix)) {
+            return false;
+        }
+        int backslashes = 0;
+        for (int i = text.length() - suffix.length() - 1; i >= 0 && text.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        return backslashes % 2 == 0;
+    }
+
+    private static String escapeLike(String literal) {
+        StringBuilder sb = new StringBuilder(literal.length());
+        for (char c : literal.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                sb.append(LIKE_ESCAPE);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
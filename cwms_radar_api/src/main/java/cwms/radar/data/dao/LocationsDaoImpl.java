@@ -141,6 +141,8 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
                 CwmsDbLoc locJooq = CwmsDbServiceLookup.buildCwmsDb(CwmsDbLoc.class, c);
                 locJooq.delete(c, officeId, locationName);
             });
+            VerticalDatumInfoCache.getInstance().invalidate(officeId, locationName);
+            CatalogIndex.getInstance().invalidate(officeId);
         } catch (DataAccessException ex) {
             throw new IOException(ex);
         }
@@ -167,6 +169,9 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
                         location.getNation().getName(), location.getNearestCity(), true);
 
             });
+            VerticalDatumInfoCache.getInstance().invalidate(location.getOfficeId(),
+                    location.getName());
+            CatalogIndex.getInstance().invalidate(location.getOfficeId());
         } catch (DataAccessException ex) {
             throw new IOException("Failed to store Location", ex);
         }
@@ -191,6 +196,10 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
                         renamedLocation.getLongName(), renamedLocation.getDescription(),
                         renamedLocation.getActive(), true);
             });
+            VerticalDatumInfoCache cache = VerticalDatumInfoCache.getInstance();
+            cache.invalidate(renamedLocation.getOfficeId(), oldLocationName);
+            cache.invalidate(renamedLocation.getOfficeId(), renamedLocation.getName());
+            CatalogIndex.getInstance().invalidate(renamedLocation.getOfficeId());
         } catch (DataAccessException ex) {
             throw new IOException("Failed to rename Location", ex);
         }
@@ -280,7 +289,7 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
         String curOffice = null;
         Catalog.CatalogPage catPage = null;
         int total;
-        Condition condition = avLoc2.LOCATION_ID.upper().likeRegex(idLike.toUpperCase())
+        Condition condition = caseInsensitiveLikeRegex(avLoc2.LOCATION_ID, idLike)
                               .and(avLoc2.LOCATION_CODE.notEqual(DELETED_TS_MARKER))
                               .and(avLoc2.UNIT_SYSTEM.equalIgnoreCase(unitSystem));
         if (page == null || page.isEmpty()) {
@@ -296,14 +305,13 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
 
             if (categoryLike != null) {
                 condition = 
-                        condition.and(avLoc2.LOC_ALIAS_CATEGORY.upper()
-                                 .likeRegex(categoryLike.toUpperCase()));
+                        condition.and(caseInsensitiveLikeRegex(avLoc2.LOC_ALIAS_CATEGORY,
+                                categoryLike));
             }
 
             if (groupLike != null) {
                 condition = 
-                    condition.and(avLoc2.LOC_ALIAS_GROUP.upper()
-                             .likeRegex(groupLike.toUpperCase()));
+                    condition.and(caseInsensitiveLikeRegex(avLoc2.LOC_ALIAS_GROUP, groupLike));
             }
             SelectConditionStep<Record1<Integer>> count = dsl.select(count(asterisk()))
                 .from(avLoc2)
@@ -376,6 +384,68 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
         return new Catalog(locCursor, total, pageSize, entries);
     }
 
+    /**
+     * Every location id of an office.
+     *
+     * @param office the office
+     * @return the entries for {@link CatalogIndex}, unordered.
+     */
+    List<CatalogIndex.Entry> getCatalogIndexEntries(String office) {
+        final AV_LOC2 avLoc2 = AV_LOC2.AV_LOC2;
+        // Each location is listed once per unit system, either will do.
+        return dsl.select(avLoc2.DB_OFFICE_ID, avLoc2.LOCATION_ID, avLoc2.LOCATION_CODE)
+                .from(avLoc2)
+                .where(avLoc2.ALIASED_ITEM.isNull())
+                .and(avLoc2.LOCATION_CODE.notEqual(DELETED_TS_MARKER))
+                .and(avLoc2.UNIT_SYSTEM.eq("SI"))
+                .and(avLoc2.DB_OFFICE_ID.eq(office.toUpperCase()))
+                .fetch(row -> new CatalogIndex.Entry(row.get(avLoc2.DB_OFFICE_ID),
+                        row.get(avLoc2.LOCATION_ID), row.get(avLoc2.LOCATION_CODE)));
+    }
+
+    /**
+     * Build the catalog entries, with aliases, of the given locations.
+     *
+     * @param locationCodes the locations
+     * @param unitSystem the unit system for the elevation units.
+     * @return the entries in the same order as the codes.
+     */
+    List<LocationCatalogEntry> getLocationCatalogEntries(List<Long> locationCodes,
+                                                         String unitSystem) {
+        final AV_LOC2 avLoc2 = AV_LOC2.AV_LOC2;
+        Map<Long, List<usace.cwms.db.jooq.codegen.tables.records.AV_LOC2>> rows = new LinkedHashMap<>();
+        // Oracle doesn't allow more than 1000 items in an IN list
+        for (int start = 0; start < locationCodes.size(); start += 1000) {
+            List<Long> chunk = locationCodes.subList(start,
+                    Math.min(locationCodes.size(), start + 1000));
+            dsl.selectFrom(avLoc2)
+                .where(avLoc2.LOCATION_CODE.in(chunk))
+                .and(avLoc2.UNIT_SYSTEM.equalIgnoreCase(unitSystem))
+                .fetch()
+                .forEach(r -> rows.computeIfAbsent(r.getLOCATION_CODE(), k -> new ArrayList<>())
+                        .add(r));
+        }
+
+        List<LocationCatalogEntry> retval = new ArrayList<>(locationCodes.size());
+        for (Long code : locationCodes) {
+            List<usace.cwms.db.jooq.codegen.tables.records.AV_LOC2> l = rows.get(code);
+            if (l == null) {
+                // deleted since the index was loaded
+                continue;
+            }
+            l.stream()
+                .filter(r -> r.getALIASED_ITEM() == null)
+                .findFirst()
+                .ifPresent(row -> {
+                    Set<LocationAlias> aliases = l.stream()
+                        .filter(r -> r.getALIASED_ITEM() != null)
+                        .map(this::buildLocationAlias).collect(toSet());
+                    retval.add(buildCatalogEntry(row, aliases));
+                });
+        }
+        return retval;
+    }
+
     private LocationAlias buildLocationAlias(usace.cwms.db.jooq.codegen.tables.records.AV_LOC2 row) {
         return new LocationAlias(row.getLOC_ALIAS_CATEGORY() + "-" + row.getLOC_ALIAS_GROUP(),
             row.getLOCATION_ID());
@@ -0,0 +1,85 @@
+package cwms.radar.data.dao;
+
+import cwms.radar.RADARMetricsContextListener;
+import cwms.radar.helpers.ExpiringCache;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Base for the caches of things looked up by office and case-insensitive id.
+ *
+ * <p>Every entry gets the same time to live, and a time to live of 0 disables the cache so
+ * every lookup goes to the loader.  Subclasses only add how their values are loaded.
+ *
+ * @param <V> value type, null values are not stored.
+ */
+abstract class OfficeIdCache<V> {
+    private final ExpiringCache<String, V> cache;
+    private final long ttlMillis;
+
+    protected OfficeIdCache(long size, long ttlSeconds) {
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(0, ttlSeconds));
+        this.cache = new ExpiringCache<>((int) Math.min(size, Integer.MAX_VALUE),
+                RADARMetricsContextListener.METRIC_REGISTRY, getClass().getName());
+    }
+
+    public static String key(String office, String id) {
+        return office.toUpperCase(Locale.ROOT) + "/" + id.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Get the cached value, or load and remember it.
+     *
+     * @param office the office, when null the result isn't cached.
+     * @param loader loads the value on a miss.  Failures are not cached.
+     */
+    protected final V getOrLoad(String office, String id, Supplier<V> loader) {
+        if (office == null || ttlMillis <= 0) {
+            return loader.get();
+        }
+
+        String key = key(office, id);
+        V retval = cache.get(key);
+        if (retval == null) {
+            retval = loader.get();
+            cache.put(key, retval, ttlMillis);
+        }
+        return retval;
+    }
+
+    /**
+     * @return the cached value by {@link #key(String, String)}, null on a miss or when the
+     *      cache is disabled.
+     */
+    protected final V cached(String key) {
+        return ttlMillis > 0 ? cache.get(key) : null;
+    }
+
+    protected final void remember(String key, V value) {
+        if (ttlMillis > 0) {
+            cache.put(key, value, ttlMillis);
+        }
+    }
+
+    /**
+     * Forget an entry.
+     *
+     * @param office the office, null for the id in every office.
+     */
+    public void invalidate(String office, String id) {
+        if (id == null) {
+            invalidateAll();
+        } else if (office == null) {
+            // Don't know which office the session was for.
+            String suffix = "/" + id.toUpperCase(Locale.ROOT);
+            cache.invalidateIf(k -> k.endsWith(suffix));
+        } else {
+            cache.invalidate(key(office, id));
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
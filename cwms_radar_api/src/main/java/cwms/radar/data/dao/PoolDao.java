@@ -1,9 +1,7 @@
 package cwms.radar.data.dao;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -187,43 +185,36 @@ public class PoolDao extends JooqDao<PoolType>
 							   String projectIdMask, String poolNameMask,
 							   String bottomLevelMask, String topLevelMask, boolean includeExplicit,
 							   boolean includeImplicit, String officeIdMask){
-		Integer total = null;
-		int offset = 0;
-
 		AV_POOL view = AV_POOL.AV_POOL;
 
-		if(cursor != null && !cursor.isEmpty())
-		{
-			String[] parts = Pools.decodeCursor(cursor);
-
-			logger.info("decoded cursor: " + Arrays.toString(parts));
-
-			if(parts.length > 2) {
-				offset = Integer.parseInt(parts[0]);
-				if(!"null".equals(parts[1])){
-					try {
-						total = Integer.valueOf(parts[1]);
-					} catch(NumberFormatException e){
-						logger.log(Level.INFO, "Could not parse " + parts[1]);
-					}
-				}
-				pageSize = Integer.parseInt(parts[2]); // Why are we taking pageSize as an arg and also pulling it from cursor?
-			}
-		}
+		// POOL_NAME is only unique per project and office, the raw columns break ties
+		// between names that only differ by case.
+		KeysetPagination paging = new KeysetPagination(
+				KeysetPagination.SortKey.of(view.DEFINITION_TYPE),
+				KeysetPagination.SortKey.upper(view.OFFICE_ID),
+				KeysetPagination.SortKey.upper(view.PROJECT_ID),
+				KeysetPagination.SortKey.of(view.ATTRIBUTE),
+				KeysetPagination.SortKey.upper(view.POOL_NAME),
+				KeysetPagination.SortKey.of(view.OFFICE_ID),
+				KeysetPagination.SortKey.of(view.PROJECT_ID),
+				KeysetPagination.SortKey.of(view.POOL_NAME));
+		KeysetPagination.Page page = paging.parse(cursor, pageSize);
 
 		List<String> types = getTypes(includeExplicit, includeImplicit);
 		Condition condition = getCondition(projectIdMask, poolNameMask, bottomLevelMask, topLevelMask, officeIdMask, types);
 
-		List<Pool> pools = dsl.select(DSL.asterisk()).from(view)
-				.where(condition)
-				.orderBy(view.DEFINITION_TYPE,
-						view.OFFICE_ID.upper(), view.PROJECT_ID.upper(), view.ATTRIBUTE, view.POOL_NAME.upper())
-				.offset(offset)
-				.limit(pageSize)
-				.stream().map(r -> toPool(r, true)).collect(toList());
-
-		Pools.Builder builder = new Pools.Builder(offset, pageSize, total);
-		builder.addAll(pools);
+		List<Record> records = dsl.select(DSL.asterisk()).from(view)
+				.where(condition.and(paging.seek(page)))
+				.orderBy(paging.orderBy())
+				.offset(page.getOffset())
+				.limit(page.getLimit())
+				.fetch();
+
+		Pools.Builder builder = new Pools.Builder(page.getPosition(),
+				paging.nextPageKey(records, page.getPageSize()), page.getPageSize(),
+				page.getTotal());
+		builder.addAll(KeysetPagination.pageOf(records, page.getPageSize()).stream()
+				.map(r -> toPool(r, true)).collect(toList()));
 		return builder.build();
 	}
 
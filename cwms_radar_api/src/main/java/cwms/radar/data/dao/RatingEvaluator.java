@@ -0,0 +1,153 @@
+package cwms.radar.data.dao;
+
+import hec.data.RatingException;
+import hec.data.Units;
+import hec.data.UnitsConversionException;
+import hec.data.cwmsRating.RatingSet;
+import hec.lang.Const;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluates a {@link RatingSet} for a batch of values.
+ *
+ * <p>Rating sets come from {@link RatingSetCache} and are shared between requests, so they are
+ * never changed here.  Values are rated in the rating units and converted from and to the
+ * units of the request.
+ */
+public final class RatingEvaluator {
+
+    private RatingEvaluator() {
+    }
+
+    /**
+     * Rate independent values.
+     *
+     * @param ratingSet the rating
+     * @param units the units of each independent parameter followed by the dependent unit,
+     *              null for the rating units.
+     * @param times the value times in epoch milliseconds, one per value.
+     * @param values the values of each independent parameter, nulls are missing values.
+     * @return the dependent values, null where the rating gave no value.
+     * @throws RatingException if the rating can't be evaluated.
+     */
+    public static List<Double> rate(RatingSet ratingSet, List<String> units, long[] times,
+                                    List<List<Double>> values) throws RatingException {
+        String[] ratingUnits = ratingUnits(ratingSet, units);
+        double[][] valueSets = new double[times.length][values.size()];
+        for (int param = 0; param < values.size(); param++) {
+            List<Double> paramValues = values.get(param);
+            String from = unit(units, param);
+            for (int i = 0; i < times.length; i++) {
+                valueSets[i][param] = convert(toRating(paramValues.get(i)), from,
+                        ratingUnits[param]);
+            }
+        }
+
+        double[] rated;
+        if (values.size() == 1) {
+            rated = ratingSet.rate(times, column(valueSets));
+        } else {
+            rated = ratingSet.rate(times, valueSets);
+        }
+        int dep = ratingUnits.length - 1;
+        return fromRating(rated, ratingUnits[dep], unit(units, dep));
+    }
+
+    /**
+     * Find the independent values that rate to the given dependent values, only for ratings
+     * with a single independent parameter.
+     *
+     * @param ratingSet the rating
+     * @param units the independent unit followed by the dependent unit, null for the rating
+     *              units.
+     * @param times the value times in epoch milliseconds, one per value.
+     * @param values the dependent values, nulls are missing values.
+     * @return the independent values, null where the rating gave no value.
+     * @throws RatingException if the rating can't be evaluated.
+     */
+    public static List<Double> reverseRate(RatingSet ratingSet, List<String> units, long[] times,
+                                           List<Double> values) throws RatingException {
+        String[] ratingUnits = ratingUnits(ratingSet, units);
+        int dep = ratingUnits.length - 1;
+        String from = unit(units, dep);
+        double[] depValues = new double[times.length];
+        for (int i = 0; i < times.length; i++) {
+            depValues[i] = convert(toRating(values.get(i)), from, ratingUnits[dep]);
+        }
+
+        return fromRating(ratingSet.reverseRate(times, depValues), ratingUnits[0],
+                unit(units, 0));
+    }
+
+    /**
+     * Value times for a batch, the given times or now for every value.
+     */
+    public static long[] times(List<Long> times, int count) {
+        long[] retval = new long[count];
+        if (times == null) {
+            Arrays.fill(retval, System.currentTimeMillis());
+        } else {
+            for (int i = 0; i < count; i++) {
+                retval[i] = times.get(i);
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * The units the set rates in, checked against the units of a request.
+     */
+    private static String[] ratingUnits(RatingSet ratingSet, List<String> units)
+            throws RatingException {
+        String[] retval = ratingSet.getDataUnits();
+        if (retval == null) {
+            retval = ratingSet.getRatingUnits();
+        }
+        if (units != null && units.size() != retval.length) {
+            throw new RatingException("Expected " + retval.length + " units, one for each "
+                    + "independent parameter followed by the dependent unit.");
+        }
+        return retval;
+    }
+
+    private static String unit(List<String> units, int param) {
+        return units == null ? null : units.get(param);
+    }
+
+    private static double convert(double value, String from, String to)
+            throws RatingException {
+        if (from == null || to == null || from.equals(to) || value == Const.UNDEFINED_DOUBLE) {
+            return value;
+        }
+        try {
+            return Units.convertUnits(value, from, to);
+        } catch (UnitsConversionException ex) {
+            throw new RatingException("Unable to convert from " + from + " to " + to + ": "
+                    + ex.getMessage());
+        }
+    }
+
+    private static double[] column(double[][] valueSets) {
+        double[] retval = new double[valueSets.length];
+        for (int i = 0; i < valueSets.length; i++) {
+            retval[i] = valueSets[i][0];
+        }
+        return retval;
+    }
+
+    private static double toRating(Double value) {
+        return value == null || value.isNaN() ? Const.UNDEFINED_DOUBLE : value;
+    }
+
+    private static List<Double> fromRating(double[] rated, String from, String to)
+            throws RatingException {
+        List<Double> retval = new ArrayList<>(rated.length);
+        for (double value : rated) {
+            retval.add(value == Const.UNDEFINED_DOUBLE || Double.isNaN(value)
+                    ? null : convert(value, from, to));
+        }
+        return retval;
+    }
+}
@@ -1,12 +1,16 @@
 package cwms.radar.data.dao;
 
 import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.radar.helpers.ConfigHelper.getLong;
+import static cwms.radar.helpers.ConfigHelper.getString;
+import static cwms.radar.helpers.ConfigHelper.parseLong;
 import static org.jooq.impl.DSL.field;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import cwms.radar.api.Controllers;
-import cwms.radar.data.dto.CwmsDTOPaginated;
 import cwms.radar.data.dto.rating.AbstractRatingMetadata;
 import cwms.radar.data.dto.rating.RatingMetadata;
 import cwms.radar.data.dto.rating.RatingMetadataList;
@@ -16,17 +20,22 @@ import hec.data.cwmsRating.AbstractRating;
 import hec.data.cwmsRating.RatingSet;
 import java.sql.Timestamp;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import mil.army.usace.hec.cwms.rating.io.xml.RatingXmlFactory;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -39,6 +48,7 @@ import org.jooq.Record2;
 import org.jooq.SelectConditionStep;
 import org.jooq.SelectForUpdateStep;
 import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConnectionProvider;
 import usace.cwms.db.jooq.codegen.packages.CWMS_RATING_PACKAGE;
 import usace.cwms.db.jooq.codegen.tables.AV_RATING;
 import usace.cwms.db.jooq.codegen.tables.AV_TRANSITIONAL_RATING;
@@ -52,6 +62,18 @@ public class RatingMetadataDao extends JooqDao<RatingSpec> {
             + "xsi:noNamespaceSchemaLocation=\"https://www.hec.usace.army"
             + ".mil/xmlSchema/cwms/Ratings.xsd\"/>";
 
+    /**
+     * Threads, and so connections, used to retrieve the ratings of a page.  Defaults to half
+     * of RADAR_POOL_MAX_ACTIVE.  Until {@link #start()} is called, and after {@link #stop()},
+     * the ratings of a page are retrieved on the calling thread.
+     */
+    public static final String THREADS_KEY = "radar.rating.metadata.threads";
+    static final String POOL_SIZE_KEY = "RADAR_POOL_MAX_ACTIVE";
+    private static final long DEFAULT_POOL_SIZE = 10;
+
+    private static ExecutorService executor;
+    private static int threads = 1;
+
     private final MetricRegistry metrics;
 
     public RatingMetadataDao(DSLContext dsl, MetricRegistry metrics) {
@@ -63,38 +85,68 @@ public class RatingMetadataDao extends JooqDao<RatingSpec> {
         return Controllers.markAndTime(metrics, getClass().getName(), subject);
     }
 
-    public RatingMetadataList retrieve(String cursor, int pageSize, String office,
-                                       String specIdMask, ZonedDateTime start,
-                                       ZonedDateTime end) {
-        int offset = 0;
-        if (cursor != null && !cursor.isEmpty()) {
-            String[] parts = CwmsDTOPaginated.decodeCursor(cursor);
+    /**
+     * Start the threads the ratings of a page are retrieved on, as many as
+     * {@value #THREADS_KEY} says.
+     */
+    public static void start() {
+        start((int) Math.max(1, getLong(THREADS_KEY, defaultThreads(getString(POOL_SIZE_KEY)))));
+    }
 
-            if (parts.length >= 2) {
-                offset = Integer.parseInt(parts[0]);
-                pageSize = Integer.parseInt(parts[parts.length - 1]);
+    static synchronized void start(int count) {
+        if (executor != null) {
+            return;
+        }
+        threads = Math.max(1, count);
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger created = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r,
+                        "radar-rating-metadata-" + created.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
             }
+        });
+    }
+
+    public static synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
         }
-        int finalOffset = offset;
-        int finalPageSize = pageSize;
+        threads = 1;
+    }
 
-        return retrieve(office, specIdMask, start, end, finalOffset, finalPageSize);
+    public RatingMetadataList retrieve(String cursor, int pageSize, String office,
+                                       String specIdMask, ZonedDateTime start,
+                                       ZonedDateTime end) {
+        KeysetPagination paging = ratingIdPaging();
+        KeysetPagination.Page page = paging.parse(cursor, pageSize);
+
+        return retrieve(office, specIdMask, start, end, paging, page);
     }
 
     private RatingMetadataList retrieve(String office, String specIdMask, ZonedDateTime start,
-                                        ZonedDateTime end, final int offset, final int pageSize) {
+                                        ZonedDateTime end, KeysetPagination paging,
+                                        KeysetPagination.Page page) {
+        final int pageSize = page.getPageSize();
         metrics.histogram(name(RatingMetadataDao.class, "retrieve", "pageSize"))
                 .update(pageSize);
         metrics.histogram(name(RatingMetadataDao.class, "retrieve", "offset"))
-                .update(offset);
+                .update(page.getOffset());
         try (final Timer.Context ignored = markAndTime("retrieve")) {
-            Set<String> ratingIds = getRatingIds(office, specIdMask, offset, pageSize);
+            List<Record1<String>> rows = getRatingIdRows(office, specIdMask, paging.seek(page),
+                    page.getOffset(), page.getLimit());
+            Set<String> ratingIds = KeysetPagination.pageOf(rows, pageSize).stream()
+                    .map(Record1::value1)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
 
             Map<RatingSpec, Set<AbstractRatingMetadata>> map =
                     getRatingsForIds(office, ratingIds, start, end);
 
             RatingMetadataList.Builder builder = new RatingMetadataList.Builder(pageSize);
-            boolean isLastPage = ratingIds.size() < pageSize; // Not entirely certain about this...
 
             List<RatingMetadata> metadata = map.entrySet().stream()
                     .map(entry -> {
@@ -104,19 +156,31 @@ public class RatingMetadataDao extends JooqDao<RatingSpec> {
                         return rmBuilder.build();
                     })
                     .collect(Collectors.toList());
-            map.forEach((spec, ratings) -> {
-                builder.withMetadata(metadata);
-                builder.withOffset(offset);
-                builder.withIsLastPage(isLastPage);
-            });
+            builder.withMetadata(metadata);
+            builder.withKeyset(page.getPosition(), paging.nextPageKey(rows, pageSize));
 
             return builder.build();
         }
     }
 
+    private static KeysetPagination ratingIdPaging() {
+        return new KeysetPagination(KeysetPagination.SortKey.of(ratingIdField()));
+    }
+
+    private static Field<String> ratingIdField() {
+        return field("RATING_ID", String.class);
+    }
 
     @NotNull
     public Set<String> getRatingIds(String office, String templateIdMask, int offset, int limit) {
+        return getRatingIdRows(office, templateIdMask, DSL.trueCondition(), offset, limit)
+                .stream()
+                .map(Record1::value1)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private List<Record1<String>> getRatingIdRows(String office, String templateIdMask,
+                                                  Condition seek, int offset, int limit) {
         AV_RATING ratView = AV_RATING.AV_RATING;
         AV_VIRTUAL_RATING virtView = AV_VIRTUAL_RATING.AV_VIRTUAL_RATING;
         AV_TRANSITIONAL_RATING transView = AV_TRANSITIONAL_RATING.AV_TRANSITIONAL_RATING;
@@ -144,7 +208,7 @@ public class RatingMetadataDao extends JooqDao<RatingSpec> {
                 transCondition = transCondition.and(transLike);
             }
 
-            Field<String> idField = field("RATING_ID", String.class);
+            Field<String> idField = ratingIdField();
 
             SelectConditionStep<Record2<String, String>> ratingStep = dsl.select(
                             ratView.OFFICE_ID,
@@ -166,41 +230,77 @@ public class RatingMetadataDao extends JooqDao<RatingSpec> {
 
             SelectForUpdateStep<Record1<String>> query = dsl.selectDistinct(idField)
                     .from(ratingStep.union(virtStep).union(transStep))
-                    .orderBy(idField.asc())
+                    .where(seek)
+                    .orderBy(ratingIdPaging().orderBy())
                     .limit(limit)
                     .offset(offset);
 
 //        logger.info(() -> query.getSQL(ParamType.INLINED));
 
-            return new LinkedHashSet<>(query.fetch(idField));
+            return query.fetch();
         }
     }
 
+    /**
+     * Retrieve the ratings of the given rating ids.
+     *
+     * <p>Each rating id still costs a RETRIEVE_RATINGS_XML_DATA call of 300-400 ms: the
+     * procedure takes a single spec mask, and RatingXmlFactory builds one RatingSet per
+     * document, so a combined mask would need its output split by spec before parsing.  The
+     * ids are split into a few batches that each run on one connection so a page can't take
+     * more connections from the pool than there are threads.
+     */
     @NotNull
     public Map<RatingSpec, Set<AbstractRatingMetadata>> getRatingsForIds(
             String office, Set<String> ratingIds, ZonedDateTime start, ZonedDateTime end) {
-        try (final Timer.Context ignored = markAndTime("getRatingsForIds")) {
+        ExecutorService pool;
+        int count;
+        synchronized (RatingMetadataDao.class) {
+            pool = executor;
+            count = threads;
+        }
+        return getRatingsForIds(office, ratingIds, start, end, pool, count);
+    }
 
-            boolean useParallel = true;
-            Stream<Map<RatingSpec, Set<AbstractRatingMetadata>>> mapStream;
-            if (useParallel) {
-                mapStream = ratingIds.stream()
-                        .map(ratingId -> CompletableFuture.supplyAsync(() ->
-                                retrieveRatings(office, ratingId, start, end)))
-                        .collect(Collectors.toList())
-                        .stream()
-                        .map(CompletableFuture::join);
+    /**
+     * Retrieve the ratings of the given rating ids in at most count batches.
+     *
+     * @param pool runs the batches, null to run them on the calling thread.
+     */
+    @NotNull
+    Map<RatingSpec, Set<AbstractRatingMetadata>> getRatingsForIds(
+            String office, Set<String> ratingIds, ZonedDateTime start, ZonedDateTime end,
+            ExecutorService pool, int count) {
+        try (final Timer.Context ignored = markAndTime("getRatingsForIds")) {
+            List<List<String>> batches = partition(new ArrayList<>(ratingIds),
+                    Math.max(1, count));
+            metrics.histogram(name(RatingMetadataDao.class, "getRatingsForIds", "batches"))
+                    .update(batches.size());
+            metrics.histogram(name(RatingMetadataDao.class, "getRatingsForIds", "ratingIds"))
+                    .update(ratingIds.size());
+
+            List<Map<RatingSpec, Set<AbstractRatingMetadata>>> results;
+            if (batches.size() == 1 || pool == null) {
+                results = new ArrayList<>();
+                for (List<String> batch : batches) {
+                    results.add(retrieveRatings(office, batch, start, end));
+                }
             } else {
-                // for 100 rating ids this took 39 sec. for 50 it took 22s.
-                // Each ratingId fetch took 300-400 ms
-                // constructing the objects from the fetched xml took 0-100ms each but usually 1ms
-                mapStream = ratingIds.stream()
-                        .map(ratingId -> retrieveRatings(office, ratingId, start, end));
+                List<CompletableFuture<Map<RatingSpec, Set<AbstractRatingMetadata>>>> futures =
+                        batches.stream()
+                                .map(batch -> CompletableFuture.supplyAsync(() ->
+                                        retrieveRatings(office, batch, start, end), pool))
+                                .collect(Collectors.toList());
+                results = new ArrayList<>();
+                for (CompletableFuture<Map<RatingSpec, Set<AbstractRatingMetadata>>> future
+                        : futures) {
+                    results.add(join(future));
+                }
             }
 
             Map<RatingSpec, Set<AbstractRatingMetadata>> retval = new LinkedHashMap<>();
 
-            mapStream.forEach(map -> map.forEach((spec, ratings) -> {
+            results.forEach(map -> map.forEach((spec, ratings) -> {
                 Set<AbstractRatingMetadata> setForSpec = retval.get(spec);
                 if (ratings != null) {
                     if (setForSpec == null) {
@@ -218,28 +318,53 @@ public class RatingMetadataDao extends JooqDao<RatingSpec> {
     @NotNull
     public Map<RatingSpec, Set<AbstractRatingMetadata>> retrieveRatings(
             String office, String templateIdMask, ZonedDateTime start, ZonedDateTime end) {
-        Map<RatingSpec,Set<AbstractRatingMetadata>> retval = new LinkedHashMap<>();
+        return retrieveRatings(office, Collections.singletonList(templateIdMask), start, end);
+    }
 
+    /**
+     * Retrieve the ratings of several rating ids using a single connection.
+     */
+    private Map<RatingSpec, Set<AbstractRatingMetadata>> retrieveRatings(
+            String office, List<String> ratingIds, ZonedDateTime start, ZonedDateTime end) {
         try (final Timer.Context ignored = markAndTime("retrieveRatings")) {
-            RatingSpecDao ratingSpecDao = new RatingSpecDao(dsl);
-            Optional<RatingSpec> spec = ratingSpecDao.retrieveRatingSpec(office, templateIdMask);
-
-            if (spec.isPresent()) {
-                RatingSet ratingSet = getRatingSet(office, templateIdMask, start, end);
-                Set<AbstractRating> ratings = getAbstractRatings(ratingSet);
-
-                retval.put(spec.get(), RatingAdapter.toDTO(ratings));
-            }
-            return retval;
+            Counter inUse = metrics.counter(name(RatingMetadataDao.class, "connections",
+                    "inUse"));
+            Histogram peak = metrics.histogram(name(RatingMetadataDao.class, "connections",
+                    "inUseOnAcquire"));
+            return connectionResult(dsl, connection -> {
+                inUse.inc();
+                peak.update(inUse.getCount());
+                try {
+                    DSLContext batchDsl = DSL.using(dsl.configuration()
+                            .derive(new DefaultConnectionProvider(connection)));
+                    Map<String, RatingSpec> specs = new RatingSpecDao(batchDsl)
+                            .retrieveRatingSpecsByIds(office, ratingIds);
+
+                    Map<RatingSpec, Set<AbstractRatingMetadata>> retval = new LinkedHashMap<>();
+                    for (String ratingId : ratingIds) {
+                        RatingSpec spec = specs.get(ratingId);
+                        if (spec != null) {
+                            RatingSet ratingSet = getRatingSet(batchDsl.configuration(), office,
+                                    ratingId, start, end);
+                            Set<AbstractRating> ratings = getAbstractRatings(ratingSet);
+
+                            retval.put(spec, RatingAdapter.toDTO(ratings));
+                        }
+                    }
+                    return retval;
+                } finally {
+                    inUse.dec();
+                }
+            });
         }
     }
 
     @Nullable
-    private RatingSet getRatingSet(String office, String templateIdMask, ZonedDateTime start,
+    private RatingSet getRatingSet(Configuration configuration, String office,
+                                   String templateIdMask, ZonedDateTime start,
                                    ZonedDateTime end) {
         RatingSet retval;
         try (final Timer.Context ignored = markAndTime("getRatingSet")) {
-            Configuration configuration = dsl.configuration();
             String effectiveTw = "F";
             String specIdMask = templateIdMask;
             Timestamp startDate = null;
@@ -307,4 +432,39 @@ public class RatingMetadataDao extends JooqDao<RatingSpec> {
         }
     }
 
+    /**
+     * Split ids, in order, into at most count batches of about the same size.
+     */
+    static <T> List<List<T>> partition(List<T> ids, int count) {
+        List<List<T>> retval = new ArrayList<>();
+        if (!ids.isEmpty()) {
+            int size = (ids.size() + count - 1) / count;
+            for (int start = 0; start < ids.size(); start += size) {
+                retval.add(ids.subList(start, Math.min(ids.size(), start + size)));
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * Half of the connection pool so rating pages leave connections for other requests.
+     *
+     * @param poolSize the pool size, null if unknown.
+     */
+    static int defaultThreads(String poolSize) {
+        long size = parseLong(POOL_SIZE_KEY, poolSize, DEFAULT_POOL_SIZE);
+        return (int) Math.max(1, size / 2);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
 }
@@ -0,0 +1,450 @@
+package cwms.radar.data.dao;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.radar.helpers.ConfigHelper.getLong;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.radar.RADARMetricsContextListener;
+import hec.data.RatingException;
+import hec.data.cwmsRating.AbstractRating;
+import hec.data.cwmsRating.RatingSet;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+
+/**
+ * Shares parsed {@link RatingSet}s between requests so asking for the same rating again
+ * doesn't repeat the PL/SQL calls and XML parsing.
+ *
+ * <p>Entries are keyed by office, case-insensitive specification id, load method and effective
+ * date window.  Only {@link RatingSet.DatabaseLoadMethod#EAGER EAGER} sets are kept; lazy and
+ * reference sets hold on to the connection of the request that loaded them.  Concurrent
+ * requests for the same key share a single load.
+ *
+ * <p>The cache is bounded by the number of ratings it holds, {@value #MAX_RATINGS_KEY}, as
+ * that is what the memory of a rating set mostly goes to.  Creating, storing or deleting a
+ * rating through the API invalidates its specification.  Once {@link #start(DataSource)} is
+ * called AV_RATING is checked every {@value #CHECK_KEY} seconds for specifications whose
+ * effective dates, create dates or number of ratings changed, to pick up writes made outside
+ * of the API.  {@value #TTL_KEY} is the upper bound on how long an entry is used; a time to
+ * live of 0 disables the cache.
+ */
+public final class RatingSetCache {
+    private static final Logger logger = Logger.getLogger(RatingSetCache.class.getName());
+
+    public static final String MAX_RATINGS_KEY = "radar.rating.cache.max.ratings";
+    public static final String TTL_KEY = "radar.rating.cache.ttl.seconds";
+    public static final String CHECK_KEY = "radar.rating.cache.check.seconds";
+    public static final long DEFAULT_MAX_RATINGS = 5000;
+    public static final long DEFAULT_TTL_SECONDS = 3600;
+    public static final long DEFAULT_CHECK_SECONDS = 60;
+
+    private static final RatingSetCache INSTANCE = new RatingSetCache(
+            getLong(MAX_RATINGS_KEY, DEFAULT_MAX_RATINGS), getLong(TTL_KEY, DEFAULT_TTL_SECONDS),
+            getLong(CHECK_KEY, DEFAULT_CHECK_SECONDS), RADARMetricsContextListener.METRIC_REGISTRY);
+
+    private final long maxWeight;
+    private final long ttlMillis;
+    private final long checkSeconds;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Spec, String> stamps = new HashMap<>();
+    private final Map<Key, CompletableFuture<RatingSet>> loading = new ConcurrentHashMap<>();
+    private long weight = 0;
+    private long generation = 0;
+    private ScheduledExecutorService executor;
+
+    private final Meter hits;
+    private final Meter misses;
+    private final Meter evictions;
+    private final Timer loads;
+
+    RatingSetCache(long maxRatings, long ttlSeconds, long checkSeconds, MetricRegistry metrics) {
+        this.maxWeight = Math.max(1, maxRatings);
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(0, ttlSeconds));
+        this.checkSeconds = Math.max(1, checkSeconds);
+        String className = RatingSetCache.class.getName();
+        this.hits = metrics.meter(name(className, "hits"));
+        this.misses = metrics.meter(name(className, "misses"));
+        this.evictions = metrics.meter(name(className, "evictions"));
+        this.loads = metrics.timer(name(className, "load"));
+    }
+
+    public static RatingSetCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Loads a rating set on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        RatingSet load() throws IOException, RatingException;
+    }
+
+    /**
+     * Get the cached rating set, or load and remember it.  Callers asking for a key that is
+     * being loaded wait for that load instead of starting their own.
+     *
+     * @param method the load method, only EAGER sets are cached.
+     * @param office the office, when null the result isn't cached.
+     * @param specificationId the rating specification id in any case.
+     * @param start start of the effective date window, may be null.
+     * @param end end of the effective date window, may be null.
+     * @param loader loads the rating set on a miss.  Failures and missing sets are not cached.
+     * @return the rating set, null if the loader found none.
+     */
+    public RatingSet get(RatingSet.DatabaseLoadMethod method, String office,
+                         String specificationId, ZonedDateTime start, ZonedDateTime end,
+                         Loader loader) throws IOException, RatingException {
+        if (ttlMillis <= 0 || office == null || specificationId == null
+                || method != RatingSet.DatabaseLoadMethod.EAGER) {
+            return time(loader);
+        }
+
+        Key key = new Key(new Spec(office, specificationId), method, start, end);
+        RatingSet cached = lookup(key, true);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<RatingSet> future = new CompletableFuture<>();
+        CompletableFuture<RatingSet> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+
+        try {
+            // Someone may have finished loading it between the lookup and now.
+            RatingSet retval = lookup(key, false);
+            if (retval == null) {
+                long started = currentGeneration();
+                retval = time(loader);
+                put(key, retval, started);
+            }
+            future.complete(retval);
+            return retval;
+        } catch (Throwable ex) {
+            // Waiters have to be released whatever went wrong.
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * Forget the cached sets of a rating specification.
+     *
+     * @param office the office, null for every office.
+     * @param specificationId the rating specification id in any case.
+     */
+    public void invalidate(String office, String specificationId) {
+        if (specificationId == null) {
+            return;
+        }
+        String specId = specificationId.toUpperCase(Locale.ROOT);
+        String officeId = office == null ? null : office.toUpperCase(Locale.ROOT);
+        invalidateIf(spec -> spec.specificationId.equals(specId)
+                && (officeId == null || spec.office.equals(officeId)));
+    }
+
+    public void invalidateAll() {
+        invalidateIf(spec -> true);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Start checking AV_RATING for changes made outside of the API.  Does nothing when the
+     * cache is disabled.
+     *
+     * @param dataSource where to check.
+     */
+    public synchronized void start(DataSource dataSource) {
+        if (ttlMillis <= 0 || executor != null || dataSource == null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "radar-rating-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                RatingSetDao dao = new RatingSetDao(DSL.using(dataSource, SQLDialect.ORACLE11G));
+                checkForChanges(dao::getRatingStamps);
+            } catch (RuntimeException ex) {
+                logger.log(Level.WARNING, "Unable to check cached ratings for changes", ex);
+            }
+        }, checkSeconds, checkSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        invalidateAll();
+    }
+
+    /**
+     * Invalidate the cached specifications whose stamp changed since the last check.  A
+     * specification is only compared from the second time it is seen, entries loaded since the
+     * previous check rely on the time to live for changes made in between.
+     *
+     * @param loader reads the current stamp of each specification, specifications without
+     *               ratings may be left out.
+     */
+    void checkForChanges(Function<Collection<Spec>, Map<Spec, String>> loader) {
+        Set<Spec> cached = cachedSpecs();
+        if (cached.isEmpty()) {
+            synchronized (this) {
+                stamps.clear();
+            }
+            return;
+        }
+
+        Map<Spec, String> current = loader.apply(cached);
+        Set<Spec> changed = new HashSet<>();
+        synchronized (this) {
+            stamps.keySet().retainAll(cached);
+            for (Spec spec : cached) {
+                String stamp = current.getOrDefault(spec, "");
+                String previous = stamps.put(spec, stamp);
+                if (previous != null && !previous.equals(stamp)) {
+                    changed.add(spec);
+                }
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            logger.fine(() -> "Ratings changed outside of the API: " + changed);
+            invalidateIf(changed::contains);
+        }
+    }
+
+    private synchronized Set<Spec> cachedSpecs() {
+        Set<Spec> retval = new HashSet<>();
+        entries.keySet().forEach(k -> retval.add(k.spec));
+        return retval;
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    private synchronized RatingSet lookup(Key key, boolean record) {
+        Entry entry = entries.get(key);
+        if (entry != null && System.currentTimeMillis() >= entry.expiresAt) {
+            remove(key);
+            evictions.mark();
+            entry = null;
+        }
+
+        if (record) {
+            if (entry == null) {
+                misses.mark();
+            } else {
+                hits.mark();
+            }
+        }
+        return entry == null ? null : entry.ratingSet;
+    }
+
+    private synchronized void put(Key key, RatingSet ratingSet, long started) {
+        // An invalidation while loading means the set may already be stale.
+        if (ratingSet == null || generation != started) {
+            return;
+        }
+
+        remove(key);
+        Entry entry = new Entry(ratingSet, weigh(ratingSet),
+                System.currentTimeMillis() + ttlMillis);
+        entries.put(key, entry);
+        weight += entry.weight;
+
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && entries.size() > 1 && eldest.hasNext()) {
+            Map.Entry<Key, Entry> next = eldest.next();
+            if (next.getKey().equals(key)) {
+                continue;
+            }
+            weight -= next.getValue().weight;
+            eldest.remove();
+            evictions.mark();
+        }
+    }
+
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.weight;
+        }
+    }
+
+    private void invalidateIf(Predicate<Spec> predicate) {
+        synchronized (this) {
+            generation++;
+            Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Key, Entry> next = it.next();
+                if (predicate.test(next.getKey().spec)) {
+                    weight -= next.getValue().weight;
+                    it.remove();
+                }
+            }
+            stamps.keySet().removeIf(predicate);
+        }
+        // New requests shouldn't wait for a load that started before the change.
+        loading.keySet().removeIf(k -> predicate.test(k.spec));
+    }
+
+    private RatingSet time(Loader loader) throws IOException, RatingException {
+        try (Timer.Context ignored = loads.time()) {
+            return loader.load();
+        }
+    }
+
+    private static RatingSet await(CompletableFuture<RatingSet> inFlight)
+            throws IOException, RatingException {
+        try {
+            return inFlight.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for rating to load", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RatingException) {
+                throw (RatingException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Failed to load rating", cause);
+        }
+    }
+
+    /**
+     * Roughly how much memory a set takes, in ratings.
+     */
+    static long weigh(RatingSet ratingSet) {
+        AbstractRating[] ratings = ratingSet.getRatings();
+        return 1L + (ratings == null ? 0 : ratings.length);
+    }
+
+    /**
+     * A rating specification of an office, both upper cased.
+     */
+    static final class Spec {
+        private final String office;
+        private final String specificationId;
+
+        Spec(String office, String specificationId) {
+            this.office = office.toUpperCase(Locale.ROOT);
+            this.specificationId = specificationId.toUpperCase(Locale.ROOT);
+        }
+
+        String getOffice() {
+            return office;
+        }
+
+        String getSpecificationId() {
+            return specificationId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Spec other = (Spec) o;
+            return office.equals(other.office) && specificationId.equals(other.specificationId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(office, specificationId);
+        }
+
+        @Override
+        public String toString() {
+            return office + "/" + specificationId;
+        }
+    }
+
+    private static final class Key {
+        private final Spec spec;
+        private final RatingSet.DatabaseLoadMethod method;
+        private final Long start;
+        private final Long end;
+
+        private Key(Spec spec, RatingSet.DatabaseLoadMethod method, ZonedDateTime start,
+                    ZonedDateTime end) {
+            this.spec = spec;
+            this.method = method;
+            this.start = start == null ? null : start.toInstant().toEpochMilli();
+            this.end = end == null ? null : end.toInstant().toEpochMilli();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key other = (Key) o;
+            return spec.equals(other.spec) && method == other.method
+                    && Objects.equals(start, other.start) && Objects.equals(end, other.end);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(spec, method, start, end);
+        }
+    }
+
+    private static final class Entry {
+        private final RatingSet ratingSet;
+        private final long weight;
+        private final long expiresAt;
+
+        private Entry(RatingSet ratingSet, long weight, long expiresAt) {
+            this.ratingSet = ratingSet;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -6,13 +6,23 @@ import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import mil.army.usace.hec.cwms.rating.io.jdbc.ConnectionProvider;
 import mil.army.usace.hec.cwms.rating.io.jdbc.RatingJdbcFactory;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Row2;
 import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
 import usace.cwms.db.dao.ifc.rating.CwmsDbRating;
 import usace.cwms.db.dao.util.services.CwmsDbServiceLookup;
 import usace.cwms.db.jooq.codegen.packages.CWMS_RATING_PACKAGE;
+import usace.cwms.db.jooq.codegen.tables.AV_RATING;
 
 public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
 
@@ -35,6 +45,8 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
                 throw (RatingException) cause;
             }
             throw new IOException("Failed to create Rating", ex);
+        } finally {
+            invalidateCache(ratingSet);
         }
     }
 
@@ -42,7 +54,16 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
     public RatingSet retrieve(RatingSet.DatabaseLoadMethod method, String officeId,
                               String specificationId, ZonedDateTime startZdt, ZonedDateTime endZdt
     ) throws IOException, RatingException {
+        RatingSet.DatabaseLoadMethod finalMethod =
+                method == null ? RatingSet.DatabaseLoadMethod.EAGER : method;
+        return RatingSetCache.getInstance().get(finalMethod, officeId, specificationId,
+                startZdt, endZdt,
+                () -> load(finalMethod, officeId, specificationId, startZdt, endZdt));
+    }
 
+    private RatingSet load(RatingSet.DatabaseLoadMethod method, String officeId,
+                           String specificationId, ZonedDateTime startZdt, ZonedDateTime endZdt)
+            throws IOException, RatingException {
         final RatingSet[] retval = new RatingSet[1];
         try {
             final Long start;
@@ -59,14 +80,8 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
                 end = null;
             }
 
-            if (method == null) {
-                method = RatingSet.DatabaseLoadMethod.EAGER;
-            }
-
-            RatingSet.DatabaseLoadMethod finalMethod = method;
-
             connection(dsl, c -> retval[0] =
-                    RatingJdbcFactory.ratingSet(finalMethod, new RatingConnectionProvider(c), officeId,
+                    RatingJdbcFactory.ratingSet(method, new RatingConnectionProvider(c), officeId,
                         specificationId, start, end, false));
 
         } catch (DataAccessException ex) {
@@ -97,6 +112,8 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
                 throw (RatingException) cause;
             }
             throw new IOException("Failed to store Rating", ex);
+        } finally {
+            invalidateCache(ratingSet);
         }
     }
 
@@ -110,8 +127,9 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
                 throw (RatingException) cause;
             }
             throw new IOException("Failed to delete Rating", ex);
+        } finally {
+            RatingSetCache.getInstance().invalidate(officeId, ratingSpecId);
         }
-
     }
 
     public void delete(Connection c, String officeId, String ratingSpecId) throws SQLException {
@@ -139,6 +157,8 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
                 throw (RatingException) cause;
             }
             throw new IOException("Failed to delete Rating", ex);
+        } finally {
+            RatingSetCache.getInstance().invalidate(officeId, specificationId);
         }
     }
 
@@ -166,6 +186,44 @@ public class RatingSetDao extends JooqDao<RatingSet> implements RatingDao {
                 timezone, office);
     }
 
+    /**
+     * Read what {@link RatingSetCache} compares to notice ratings changed outside of the API.
+     *
+     * @param specs the specifications to check
+     * @return a stamp of the effective dates, create dates and number of ratings of each
+     *     specification, specifications without ratings are left out.
+     */
+    Map<RatingSetCache.Spec, String> getRatingStamps(Collection<RatingSetCache.Spec> specs) {
+        AV_RATING ratView = AV_RATING.AV_RATING;
+        Field<String> upperId = DSL.upper(ratView.RATING_ID);
+
+        Map<RatingSetCache.Spec, String> retval = new HashMap<>();
+        List<RatingSetCache.Spec> list = new ArrayList<>(specs);
+        // Oracle doesn't allow more than 1000 items in an IN list
+        for (int start = 0; start < list.size(); start += 1000) {
+            List<Row2<String, String>> chunk = list.subList(start,
+                    Math.min(list.size(), start + 1000)).stream()
+                    .map(spec -> DSL.row(spec.getOffice(), spec.getSpecificationId()))
+                    .collect(Collectors.toList());
+            dsl.select(ratView.OFFICE_ID, upperId, DSL.max(ratView.EFFECTIVE_DATE),
+                            DSL.max(ratView.CREATE_DATE), DSL.count())
+                    .from(ratView)
+                    .where(DSL.row(ratView.OFFICE_ID, upperId).in(chunk))
+                    .groupBy(ratView.OFFICE_ID, upperId)
+                    .fetch()
+                    .forEach(row -> retval.put(new RatingSetCache.Spec(row.value1(), row.value2()),
+                            row.value3() + "|" + row.value4() + "|" + row.value5()));
+        }
+        return retval;
+    }
+
+    private static void invalidateCache(RatingSet ratingSet) {
+        if (ratingSet != null) {
+            // The office isn't always known here, forget the specification for all of them.
+            RatingSetCache.getInstance().invalidate(null, ratingSet.getName());
+        }
+    }
+
     private static final class RatingConnectionProvider implements ConnectionProvider {
         private final Connection c;
 
@@ -2,7 +2,6 @@ package cwms.radar.data.dao;
 
 import static cwms.radar.data.dto.rating.RatingSpec.Builder.buildIndependentRoundingSpecs;
 
-import cwms.radar.data.dto.CwmsDTOPaginated;
 import cwms.radar.data.dto.rating.RatingSpec;
 import cwms.radar.data.dto.rating.RatingSpecs;
 import java.sql.Timestamp;
@@ -16,7 +15,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -26,6 +24,7 @@ import org.jooq.DSLContext;
 import org.jooq.Record;
 import org.jooq.ResultQuery;
 import org.jooq.conf.ParamType;
+import org.jooq.impl.DSL;
 import usace.cwms.db.jooq.codegen.tables.AV_RATING;
 import usace.cwms.db.jooq.codegen.tables.AV_RATING_SPEC;
 
@@ -100,28 +99,17 @@ public class RatingSpecDao extends JooqDao<RatingSpec> {
 
     public RatingSpecs retrieveRatingSpecs(String cursor, int pageSize, String office,
                                            String specIdMask) {
-        Integer total = null;
-        int offset = 0;
-
-        if (cursor != null && !cursor.isEmpty()) {
-            String[] parts = CwmsDTOPaginated.decodeCursor(cursor);
-
-            if (parts.length > 2) {
-                offset = Integer.parseInt(parts[0]);
-                if (!"null".equals(parts[1])) {
-                    try {
-                        total = Integer.valueOf(parts[1]);
-                    } catch (NumberFormatException e) {
-                        logger.log(Level.INFO, "Could not parse " + parts[1]);
-                    }
-                }
-                pageSize = Integer.parseInt(parts[2]);
-            }
-        }
+        KeysetPagination paging = specPaging();
+        KeysetPagination.Page page = paging.parse(cursor, pageSize);
 
-        Set<RatingSpec> retval = getRatingSpecs(office, specIdMask, offset, pageSize);
+        List<Record> rows = getRatingSpecRows(office, specIdMask, paging.seek(page),
+                paging, page.getOffset(), page.getLimit());
+        Set<RatingSpec> retval = buildRatingSpecs(
+                KeysetPagination.pageOf(rows, page.getPageSize()));
 
-        RatingSpecs.Builder builder = new RatingSpecs.Builder(offset, pageSize, total);
+        RatingSpecs.Builder builder = new RatingSpecs.Builder(page.getPosition(),
+                paging.nextPageKey(rows, page.getPageSize()), page.getPageSize(),
+                page.getTotal());
         builder.specs(new ArrayList<>(retval));
         return builder.build();
     }
@@ -129,8 +117,28 @@ public class RatingSpecDao extends JooqDao<RatingSpec> {
     @NotNull
     public Set<RatingSpec> getRatingSpecs(String office, String specIdMask, int firstRow,
                                           int pageSize) {
-        Set<RatingSpec> retval;
+        KeysetPagination paging = specPaging();
+        return buildRatingSpecs(getRatingSpecRows(office, specIdMask, DSL.trueCondition(),
+                paging, firstRow, pageSize));
+    }
+
+    /**
+     * One row per spec and effective date, the spec code breaks ties for specs without ratings.
+     */
+    private static KeysetPagination specPaging() {
+        AV_RATING_SPEC specView = AV_RATING_SPEC.AV_RATING_SPEC;
+        AV_RATING ratView = AV_RATING.AV_RATING;
+        return new KeysetPagination(
+                KeysetPagination.SortKey.of(specView.OFFICE_ID),
+                KeysetPagination.SortKey.of(specView.TEMPLATE_ID),
+                KeysetPagination.SortKey.of(ratView.RATING_ID),
+                KeysetPagination.SortKey.of(ratView.EFFECTIVE_DATE),
+                KeysetPagination.SortKey.of(specView.RATING_SPEC_CODE));
+    }
 
+    private List<Record> getRatingSpecRows(String office, String specIdMask, Condition seek,
+                                           KeysetPagination paging, int firstRow,
+                                           int pageSize) {
         AV_RATING_SPEC specView = AV_RATING_SPEC.AV_RATING_SPEC;
         AV_RATING ratView = AV_RATING.AV_RATING;
 
@@ -156,55 +164,95 @@ public class RatingSpecDao extends JooqDao<RatingSpec> {
                         specView.AUTO_ACTIVATE_FLAG, specView.AUTO_MIGRATE_EXT_FLAG,
                         specView.IND_ROUNDING_SPECS, specView.DEP_ROUNDING_SPEC,
                         specView.DESCRIPTION, specView.ALIASED_ITEM,
-                        ratView.RATING_SPEC_CODE, ratView.EFFECTIVE_DATE)
+                        ratView.RATING_SPEC_CODE, ratView.RATING_ID, ratView.EFFECTIVE_DATE)
                 .from(specView)
                 .leftOuterJoin(ratView)
                 .on(specView.RATING_SPEC_CODE.eq(ratView.RATING_SPEC_CODE))
-                .where(condition)
-                .orderBy(specView.OFFICE_ID, specView.TEMPLATE_ID, ratView.RATING_ID,
-                        ratView.EFFECTIVE_DATE)
+                .where(condition.and(seek))
+                .orderBy(paging.orderBy())
                 .limit(pageSize)
                 .offset(firstRow);
 
         logger.info(() -> query.getSQL(ParamType.INLINED));
 
+        return new ArrayList<>(query.fetch());
+    }
+
+    private Set<RatingSpec> buildRatingSpecs(List<Record> rows) {
+        AV_RATING ratView = AV_RATING.AV_RATING;
+
         Map<RatingSpec, List<ZonedDateTime>> map = new LinkedHashMap<>();
-        try (Stream<? extends Record> stream = query.fetchStream()) {
-            stream.forEach(rec -> {
-                RatingSpec template = buildRatingSpec(rec);
+        rows.forEach(rec -> {
+            RatingSpec template = buildRatingSpec(rec);
 
-                Timestamp effectiveDate = rec.get(ratView.EFFECTIVE_DATE);
-                ZonedDateTime effective = toZdt(effectiveDate);
+            Timestamp effectiveDate = rec.get(ratView.EFFECTIVE_DATE);
+            ZonedDateTime effective = toZdt(effectiveDate);
 
-                List<ZonedDateTime> list = map.computeIfAbsent(template, k -> new ArrayList<>());
-                if (effective != null) {
-                    list.add(effective);
-                }
-            });
-        }
+            List<ZonedDateTime> list = map.computeIfAbsent(template, k -> new ArrayList<>());
+            if (effective != null) {
+                list.add(effective);
+            }
+        });
 
-        retval = map.entrySet().stream()
+        return map.entrySet().stream()
                 .map(entry -> new RatingSpec.Builder()
                         .fromRatingSpec(entry.getKey())
                         .withEffectiveDates(entry.getValue())
                         .build())
                 .collect(Collectors.toCollection(LinkedHashSet::new));
-        return retval;
     }
 
 
     public Optional<RatingSpec> retrieveRatingSpec(String office, String specId) {
-        Set<RatingSpec> retval;
-
         AV_RATING_SPEC specView = AV_RATING_SPEC.AV_RATING_SPEC;
-        AV_RATING ratView = AV_RATING.AV_RATING;
-
-        Condition condition = ratView.ALIASED_ITEM.isNull();
 
+        Condition condition = DSL.trueCondition();
         if (specId != null) {
             condition = condition.and(specView.RATING_ID.eq(specId));
         }
 
+        Set<RatingSpec> retval = fetchRatingSpecs(office, condition);
+
+        // There should only be one key in the map
+        if (retval.size() > 1) {
+            throw new IllegalStateException("More than one rating spec found for id: " + specId);
+        }
+
+        return retval.stream().findFirst();
+    }
+
+    /**
+     * Retrieve several rating specs at once.
+     *
+     * @param office the office, null for any office.
+     * @param specIds the exact rating spec ids.
+     * @return the specs found, by rating spec id.
+     */
+    public Map<String, RatingSpec> retrieveRatingSpecsByIds(String office,
+                                                            Collection<String> specIds) {
+        AV_RATING_SPEC specView = AV_RATING_SPEC.AV_RATING_SPEC;
+
+        Map<String, RatingSpec> retval = new LinkedHashMap<>();
+        List<String> ids = new ArrayList<>(specIds);
+        // Oracle doesn't allow more than 1000 items in an IN list
+        for (int start = 0; start < ids.size(); start += 1000) {
+            List<String> chunk = ids.subList(start, Math.min(ids.size(), start + 1000));
+            for (RatingSpec spec : fetchRatingSpecs(office, specView.RATING_ID.in(chunk))) {
+                if (retval.put(spec.getRatingId(), spec) != null) {
+                    throw new IllegalStateException("More than one rating spec found for id: "
+                            + spec.getRatingId());
+                }
+            }
+        }
+        return retval;
+    }
+
+    private Set<RatingSpec> fetchRatingSpecs(String office, Condition specCondition) {
+        AV_RATING_SPEC specView = AV_RATING_SPEC.AV_RATING_SPEC;
+        AV_RATING ratView = AV_RATING.AV_RATING;
+
+        Condition condition = ratView.ALIASED_ITEM.isNull().and(specCondition);
+
         if (office != null) {
             condition = condition.and(specView.OFFICE_ID.eq(office));
         }
@@ -243,19 +291,12 @@ public class RatingSpecDao extends JooqDao<RatingSpec> {
             });
         }
 
-        retval = map.entrySet().stream()
+        return map.entrySet().stream()
                 .map(entry -> new RatingSpec.Builder()
                         .fromRatingSpec(entry.getKey())
                         .withEffectiveDates(entry.getValue())
                         .build())
                 .collect(Collectors.toCollection(LinkedHashSet::new));
-
-        // There should only be one key in the map
-        if (retval.size() > 1) {
-            throw new IllegalStateException("More than one rating spec found for id: " + specId);
-        }
-
-        return retval.stream().findFirst();
     }
 
     public static ZonedDateTime toZdt(final Timestamp time) {
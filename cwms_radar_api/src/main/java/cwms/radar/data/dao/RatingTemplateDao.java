@@ -1,6 +1,5 @@
 package cwms.radar.data.dao;
 
-import cwms.radar.data.dto.CwmsDTOPaginated;
 import cwms.radar.data.dto.rating.ParameterSpec;
 import cwms.radar.data.dto.rating.RatingTemplate;
 import cwms.radar.data.dto.rating.RatingTemplates;
@@ -12,7 +11,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -70,23 +68,28 @@ public class RatingTemplateDao extends JooqDao<RatingTemplate> {
 
     @NotNull
     private Set<RatingTemplate> buildRatingTemplateSet(ResultQuery<? extends Record> query) {
+        try (Stream<? extends Record> stream = query.fetchStream()) {
+            return buildRatingTemplateSet(stream);
+        }
+    }
+
+    @NotNull
+    private Set<RatingTemplate> buildRatingTemplateSet(Stream<? extends Record> stream) {
 
         TableField<usace.cwms.db.jooq.codegen.tables.records.AV_RATING_SPEC, String> idField =
                 AV_RATING_SPEC.AV_RATING_SPEC.RATING_ID;
 
         Map<RatingTemplate, List<String>> map = new LinkedHashMap<>();
 
-        try (Stream<? extends Record> stream = query.fetchStream()) {
-            stream.forEach(rec -> {
-                RatingTemplate template = buildRatingTemplate(rec);
-                String specID = rec.get(idField);
+        stream.forEach(rec -> {
+            RatingTemplate template = buildRatingTemplate(rec);
+            String specID = rec.get(idField);
 
-                List<String> list = map.computeIfAbsent(template, k -> new ArrayList<>());
-                if (specID != null) {
-                    list.add(specID);
-                }
-            });
-        }
+            List<String> list = map.computeIfAbsent(template, k -> new ArrayList<>());
+            if (specID != null) {
+                list.add(specID);
+            }
+        });
 
         return map.entrySet().stream()
                 .map(entry -> new RatingTemplate.Builder()
@@ -199,35 +202,33 @@ public class RatingTemplateDao extends JooqDao<RatingTemplate> {
 
     public RatingTemplates retrieveRatingTemplates(String cursor, int pageSize, String office,
                                                    String templateIdMask) {
-        Integer total = null;
-        int offset = 0;
-
-        if (cursor != null && !cursor.isEmpty()) {
-            String[] parts = CwmsDTOPaginated.decodeCursor(cursor);
-
-            if (parts.length > 2) {
-                offset = Integer.parseInt(parts[0]);
-                if (!"null".equals(parts[1])) {
-                    try {
-                        total = Integer.valueOf(parts[1]);
-                    } catch (NumberFormatException e) {
-                        logger.log(Level.INFO, "Could not parse " + parts[1]);
-                    }
-                }
-                pageSize = Integer.parseInt(parts[2]);
-            }
-        }
-
-        Collection<RatingTemplate> templates = getRatingTemplates(office, templateIdMask, offset, pageSize);
+        AV_RATING_TEMPLATE tempView = AV_RATING_TEMPLATE.AV_RATING_TEMPLATE;
+        AV_RATING_SPEC specView = AV_RATING_SPEC.AV_RATING_SPEC;
 
-        RatingTemplates.Builder builder = new RatingTemplates.Builder(offset, pageSize, total);
+        // One row per template and spec, the template code breaks ties for templates
+        // without specs.
+        KeysetPagination paging = new KeysetPagination(
+                KeysetPagination.SortKey.of(tempView.OFFICE_ID),
+                KeysetPagination.SortKey.of(tempView.TEMPLATE_ID),
+                KeysetPagination.SortKey.of(specView.RATING_ID),
+                KeysetPagination.SortKey.of(tempView.TEMPLATE_CODE));
+        KeysetPagination.Page page = paging.parse(cursor, pageSize);
+
+        List<Record> rows = getRatingTemplateRows(office, templateIdMask, paging, page);
+        Collection<RatingTemplate> templates = buildRatingTemplateSet(
+                KeysetPagination.pageOf(rows, page.getPageSize()).stream());
+
+        RatingTemplates.Builder builder = new RatingTemplates.Builder(page.getPosition(),
+                paging.nextPageKey(rows, page.getPageSize()), page.getPageSize(),
+                page.getTotal());
         builder.templates(new ArrayList<>(templates));
         return builder.build();
     }
 
     @NotNull
-    private Set<RatingTemplate> getRatingTemplates(String office, String templateIdMask,
-                                                   int firstRow, int pageSize) {
+    private List<Record> getRatingTemplateRows(String office, String templateIdMask,
+                                               KeysetPagination paging,
+                                               KeysetPagination.Page page) {
         AV_RATING_TEMPLATE tempView = AV_RATING_TEMPLATE.AV_RATING_TEMPLATE;
         AV_RATING_SPEC specView = AV_RATING_SPEC.AV_RATING_SPEC;
 
@@ -250,14 +251,14 @@ public class RatingTemplateDao extends JooqDao<RatingTemplate> {
                         specView.TEMPLATE_CODE, specView.RATING_ID, specView.ALIASED_ITEM)
                 .from(tempView)
                 .leftOuterJoin(specView).on(tempView.TEMPLATE_CODE.eq(specView.TEMPLATE_CODE))
-                .where(condition)
-                .orderBy(tempView.OFFICE_ID, tempView.TEMPLATE_ID, specView.RATING_ID)
-                .limit(pageSize)
-                .offset(firstRow);
+                .where(condition.and(paging.seek(page)))
+                .orderBy(paging.orderBy())
+                .limit(page.getLimit())
+                .offset(page.getOffset());
 
 //				logger.info(() -> query.getSQL(ParamType.INLINED));
 
-        return buildRatingTemplateSet(query);
+        return new ArrayList<>(query.fetch());
     }
 
 }
@@ -0,0 +1,168 @@
+package cwms.radar.data.dao;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.radar.helpers.ConfigHelper.getLong;
+import static usace.cwms.db.jooq.codegen.tables.AV_DB_CHANGE_LOG.AV_DB_CHANGE_LOG;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import cwms.radar.RADARMetricsContextListener;
+import cwms.radar.datasource.DelegatingDataSource;
+import cwms.radar.datasource.RequestConnectionProvider;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.jooq.ConnectionProvider;
+import org.jooq.DSLContext;
+import org.jooq.impl.DataSourceConnectionProvider;
+
+/**
+ * Resolves the CWMS schema version once per DataSource instead of once per Dao.
+ *
+ * <p>The version is looked up from AV_DB_CHANGE_LOG the first time a DataSource is seen and
+ * then served from memory.  Request specific wrappers (e.g. ConnectionPreparingDataSource) are
+ * unwrapped so every request against the same pool shares one entry.  If
+ * {@value #REFRESH_KEY} is set to a positive number of seconds the version will be re-probed
+ * the first time it is needed after that much time has passed.
+ */
+public final class SchemaCapabilityRegistry {
+    private static final Logger logger =
+            Logger.getLogger(SchemaCapabilityRegistry.class.getName());
+
+    public static final String REFRESH_KEY = "radar.schema.version.refresh.seconds";
+
+    private static final SchemaCapabilityRegistry INSTANCE =
+            new SchemaCapabilityRegistry(RADARMetricsContextListener.METRIC_REGISTRY,
+                    getLong(REFRESH_KEY, 0));
+
+    private final Map<DataSource, Entry> entries = new ConcurrentHashMap<>();
+    private final long refreshMillis;
+    private final Meter hits;
+    private final Meter probes;
+
+    SchemaCapabilityRegistry(MetricRegistry metrics, long refreshSeconds) {
+        this.refreshMillis = TimeUnit.SECONDS.toMillis(Math.max(0, refreshSeconds));
+        String className = SchemaCapabilityRegistry.class.getName();
+        hits = metrics.meter(name(className, "version", "hits"));
+        probes = metrics.meter(name(className, "version", "probes"));
+    }
+
+    public static SchemaCapabilityRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the CWMS schema version (e.g. 210101 for 21.1.1) for the database behind the
+     * given DSLContext.
+     *
+     * @param dsl context whose DataSource should be checked
+     * @return the schema version as an int
+     */
+    public int getDbVersion(DSLContext dsl) {
+        DataSource key = rootDataSource(dsl);
+        if (key == null) {
+            // Connection based contexts (mostly tests) have nothing stable to key on.
+            return probe(dsl);
+        }
+
+        Entry entry = entries.get(key);
+        if (entry == null || isStale(entry)) {
+            entry = entries.compute(key, (ds, existing) -> {
+                if (existing != null && !isStale(existing)) {
+                    return existing;
+                }
+                return new Entry(probe(dsl), System.currentTimeMillis());
+            });
+        } else {
+            hits.mark();
+        }
+        return entry.version;
+    }
+
+    /**
+     * Whether the database behind the given DSLContext is at least the given version.
+     *
+     * @param dsl context whose DataSource should be checked
+     * @param minimumVersion one of the Dao.CWMS_* constants
+     * @return true if the feature guarded by minimumVersion is available.
+     */
+    public boolean supports(DSLContext dsl, int minimumVersion) {
+        return getDbVersion(dsl) >= minimumVersion;
+    }
+
+    /**
+     * Forget everything that has been resolved so the next request re-probes the database.
+     * Intended for use after a schema upgrade, see POST /admin/schema-version/reprobe.
+     */
+    public void reprobe() {
+        logger.info("Clearing cached CWMS schema versions");
+        entries.clear();
+    }
+
+    /**
+     * Forget the version resolved for a single DataSource.
+     *
+     * @param dataSource the DataSource, wrappers are unwrapped.
+     */
+    public void reprobe(DataSource dataSource) {
+        DataSource key = unwrap(dataSource);
+        if (key != null) {
+            entries.remove(key);
+        }
+    }
+
+    private boolean isStale(Entry entry) {
+        return refreshMillis > 0
+                && System.currentTimeMillis() - entry.probedAt > refreshMillis;
+    }
+
+    private int probe(DSLContext dsl) {
+        probes.mark();
+        String version = dsl.select(AV_DB_CHANGE_LOG.VERSION)
+                .from(AV_DB_CHANGE_LOG)
+                .orderBy(AV_DB_CHANGE_LOG.VERSION_DATE.desc())
+                .limit(1)
+                .fetchOne().component1();
+        int retval = parseVersion(version);
+        logger.fine(() -> "Resolved CWMS schema version " + version + " as " + retval);
+        return retval;
+    }
+
+    static int parseVersion(String version) {
+        String[] parts = version.split("\\.");
+        return Integer.parseInt(parts[0]) * 10000
+                + Integer.parseInt(parts[1]) * 100
+                + Integer.parseInt(parts[2]);
+    }
+
+    private static DataSource rootDataSource(DSLContext dsl) {
+        ConnectionProvider provider = dsl.configuration().connectionProvider();
+        if (provider instanceof DataSourceConnectionProvider) {
+            return unwrap(((DataSourceConnectionProvider) provider).dataSource());
+        } else if (provider instanceof RequestConnectionProvider) {
+            return unwrap(((RequestConnectionProvider) provider).getDataSource());
+        }
+        return null;
+    }
+
+    private static DataSource unwrap(DataSource dataSource) {
+        DataSource retval = dataSource;
+        while (retval instanceof DelegatingDataSource
+                && ((DelegatingDataSource) retval).getDelegate() != null) {
+            retval = ((DelegatingDataSource) retval).getDelegate();
+        }
+        return retval;
+    }
+
+    private static final class Entry {
+        private final int version;
+        private final long probedAt;
+
+        private Entry(int version, long probedAt) {
+            this.version = version;
+            this.probedAt = probedAt;
+        }
+    }
+}
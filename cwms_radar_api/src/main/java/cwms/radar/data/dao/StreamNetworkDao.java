@@ -0,0 +1,347 @@
+package cwms.radar.data.dao;
+
+import cwms.radar.api.enums.Unit;
+import cwms.radar.api.enums.UnitSystem;
+import cwms.radar.data.dto.basinconnectivity.Stream;
+import cwms.radar.data.dto.basinconnectivity.StreamLocation;
+import cwms.radar.data.dto.basinconnectivity.StreamReach;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.jooq.DSLContext;
+import usace.cwms.db.jooq.dao.CwmsDbStreamJooq;
+
+/**
+ * Loads streams, stream locations and reaches with one catalog call each and assembles streams
+ * with their tributaries in memory.
+ *
+ * <p>{@link StreamDao} builds a stream by cataloging its locations, reaches and tributaries
+ * and then recursing into each tributary, so a large basin costs hundreds of round trips.  The
+ * catalogs are the ones StreamDao uses, only without a stream mask, and the values are read
+ * the same way, so the streams built here are the same.
+ */
+public class StreamNetworkDao extends JooqDao<Stream> {
+    private static final String ALL = "*";
+
+    public StreamNetworkDao(DSLContext dsl) {
+        super(dsl);
+    }
+
+    /**
+     * @param officeId the office, null for the session office.
+     * @return the streams of the office.
+     */
+    public StreamNetwork getStreamNetwork(String unitSystem, String officeId) throws SQLException {
+        CwmsDbStreamJooq streamJooq = new CwmsDbStreamJooq();
+
+        return connectionResult(dsl, c -> {
+            StreamNetwork network = new StreamNetwork();
+            addStreams(c, streamJooq, network, unitSystem, officeId);
+            addStreamLocations(c, streamJooq, network, id -> true, unitSystem, officeId);
+            addStreamReaches(c, streamJooq, network, id -> true, officeId);
+            return network;
+        });
+    }
+
+    /**
+     * Build one stream with its tributaries.  Locations and reaches are cataloged for the
+     * whole office, but only those of the stream and its tributaries are kept.
+     *
+     * @param officeId the office, null for the session office.
+     * @return the stream, null if the office has no such stream.
+     */
+    public Stream getStream(String streamId, String unitSystem, String officeId)
+            throws SQLException {
+        CwmsDbStreamJooq streamJooq = new CwmsDbStreamJooq();
+
+        return connectionResult(dsl, c -> {
+            StreamNetwork network = new StreamNetwork();
+            addStreams(c, streamJooq, network, unitSystem, officeId);
+            List<String> connected = network.getConnectedStreamIds(streamId, officeId);
+            if (connected == null) {
+                return null;
+            }
+
+            Set<String> keep = new HashSet<>(connected);
+            addStreamLocations(c, streamJooq, network, keep::contains, unitSystem, officeId);
+            addStreamReaches(c, streamJooq, network, keep::contains, officeId);
+            return network.getStream(streamId, officeId);
+        });
+    }
+
+    private static void addStreams(Connection c, CwmsDbStreamJooq streamJooq,
+                                   StreamNetwork network, String unitSystem, String officeId)
+            throws SQLException {
+        try (ResultSet streams = streamJooq.catStreams(c, null, stationUnit(unitSystem), null,
+                null, null, null, null, null, null, null, null, null, null, null, null, null,
+                officeId)) {
+            while (streams.next()) {
+                network.addStream(buildStream(streams), buildTributary(streams));
+            }
+        }
+    }
+
+    /**
+     * @param keep whether the locations of a stream are needed.
+     */
+    private static void addStreamLocations(Connection c, CwmsDbStreamJooq streamJooq,
+                                           StreamNetwork network, Predicate<String> keep,
+                                           String unitSystem, String officeId)
+            throws SQLException {
+        boolean english = UnitSystem.EN.value().equalsIgnoreCase(unitSystem);
+        String stageUnit = english ? Unit.FEET.getValue() : Unit.METER.getValue();
+        String areaUnit = english ? Unit.SQUARE_MILES.getValue()
+                : Unit.SQUARE_KILOMETERS.getValue();
+        try (ResultSet locations = streamJooq.catStreamLocations(c, ALL, ALL,
+                stationUnit(unitSystem), stageUnit, areaUnit, officeId)) {
+            while (locations.next()) {
+                if (keep.test(locations.getString("STREAM_ID"))) {
+                    network.addStreamLocation(buildStreamLocation(locations));
+                }
+            }
+        }
+    }
+
+    /**
+     * @param keep whether the reaches of a stream are needed.
+     */
+    private static void addStreamReaches(Connection c, CwmsDbStreamJooq streamJooq,
+                                         StreamNetwork network, Predicate<String> keep,
+                                         String officeId) throws SQLException {
+        // StreamReachDao always catalogs reaches in kilometers
+        try (ResultSet reaches = streamJooq.catStreamReaches(c, ALL, null, null, null,
+                Unit.KILOMETER.getValue(), officeId)) {
+            while (reaches.next()) {
+                if (keep.test(reaches.getString("STREAM_LOCATION"))) {
+                    StreamReach reach = buildStreamReach(reaches);
+                    if (reach != null) {
+                        network.addStreamReach(reach);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String stationUnit(String unitSystem) {
+        return UnitSystem.EN.value().equalsIgnoreCase(unitSystem)
+                ? Unit.MILE.getValue() : Unit.KILOMETER.getValue();
+    }
+
+    /**
+     * A stream without its locations, reaches and tributaries.
+     */
+    private static Stream buildStream(ResultSet rs) throws SQLException {
+        return new Stream.Builder(rs.getString("STREAM_ID"), rs.getBoolean("STATIONING_STARTS_DS"),
+                toDouble(rs.getBigDecimal("STREAM_LENGTH")), rs.getString("OFFICE_ID"))
+                .withDivertingStreamId(rs.getString("DIVERTS_FROM_STREAM"))
+                .withDiversionStation(toDouble(rs.getBigDecimal("DIVERTS_FROM_STATION")))
+                .withDiversionBank(rs.getString("DIVERTS_FROM_BANK"))
+                .withReceivingStreamId(rs.getString("FLOWS_INTO_STREAM"))
+                .withConfluenceStation(toDouble(rs.getBigDecimal("FLOWS_INTO_STATION")))
+                .withConfluenceBank(rs.getString("FLOWS_INTO_BANK"))
+                .withComment(rs.getString("COMMENTS"))
+                .withAverageSlope(toDouble(rs.getBigDecimal("AVERAGE_SLOPE")))
+                .build();
+    }
+
+    /**
+     * The stream as StreamDao builds it as a tributary, which only takes confluence and
+     * diversion stations the driver returns as Double.
+     */
+    private static Stream buildTributary(ResultSet rs) throws SQLException {
+        return new Stream.Builder(rs.getString("STREAM_ID"), rs.getBoolean("STATIONING_STARTS_DS"),
+                toDouble(rs.getBigDecimal("STREAM_LENGTH")), rs.getString("OFFICE_ID"))
+                .withDivertingStreamId(rs.getString("DIVERTS_FROM_STREAM"))
+                .withDiversionStation(asDouble(rs.getObject("DIVERTS_FROM_STATION")))
+                .withDiversionBank(rs.getString("DIVERTS_FROM_BANK"))
+                .withReceivingStreamId(rs.getString("FLOWS_INTO_STREAM"))
+                .withConfluenceStation(asDouble(rs.getObject("FLOWS_INTO_STATION")))
+                .withConfluenceBank(rs.getString("FLOWS_INTO_BANK"))
+                .withComment(rs.getString("COMMENTS"))
+                .withAverageSlope(toDouble(rs.getBigDecimal("AVERAGE_SLOPE")))
+                .build();
+    }
+
+    private static Double asDouble(Object value) {
+        return value instanceof Double ? (Double) value : null;
+    }
+
+    private static StreamLocation buildStreamLocation(ResultSet rs) throws SQLException {
+        return new StreamLocation.Builder(rs.getString("LOCATION_ID"), rs.getString("STREAM_ID"),
+                toDouble(rs.getBigDecimal("STATION")), rs.getString("BANK"),
+                rs.getString("OFFICE_ID"))
+                .withPublishedStation(toDouble(rs.getBigDecimal("PUBLISHED_STATION")))
+                .withNavigationStation(toDouble(rs.getBigDecimal("NAVIGATION_STATION")))
+                .withLowestMeasurableStage(toDouble(rs.getBigDecimal("LOWEST_MEASURABLE_STAGE")))
+                .withTotalDrainageArea(toDouble(rs.getBigDecimal("DRAINAGE_AREA")))
+                .withUngagedDrainageArea(toDouble(rs.getBigDecimal("UNGAGED_DRAINAGE_AREA")))
+                .build();
+    }
+
+    /**
+     * @return the reach, null for rows without one.
+     */
+    private static StreamReach buildStreamReach(ResultSet rs) throws SQLException {
+        String reachId = rs.getString("REACH_LOCATION");
+        if (reachId == null || reachId.isEmpty()) {
+            return null;
+        }
+        return new StreamReach.Builder(reachId, rs.getString("STREAM_LOCATION"),
+                rs.getString("UPSTREAM_LOCATION"), rs.getString("DOWNSTREAM_LOCATION"),
+                rs.getString("OFFICE_ID"))
+                .withComment(rs.getString("COMMENTS"))
+                .withConfiguration(rs.getString("CONFIGURATION"))
+                .build();
+    }
+
+    /**
+     * The streams, stream locations and reaches of an office, indexed by stream.
+     */
+    public static final class StreamNetwork {
+        private final Map<String, Stream> streams = new LinkedHashMap<>();
+        private final Map<String, Stream> asTributaries = new LinkedHashMap<>();
+        private final Map<String, List<String>> tributaries = new LinkedHashMap<>();
+        private final Map<String, List<StreamLocation>> locations = new LinkedHashMap<>();
+        private final Map<String, List<StreamReach>> reaches = new LinkedHashMap<>();
+
+        StreamNetwork() {
+        }
+
+        void addStream(Stream stream) {
+            addStream(stream, stream);
+        }
+
+        /**
+         * @param asTributary the stream as it is built when it is a tributary of another.
+         */
+        void addStream(Stream stream, Stream asTributary) {
+            String key = key(stream.getOfficeId(), stream.getStreamName());
+            streams.put(key, stream);
+            asTributaries.put(key, asTributary);
+            if (stream.getReceivingStreamId() != null) {
+                tributaries.computeIfAbsent(key(stream.getOfficeId(),
+                        stream.getReceivingStreamId()), k -> new ArrayList<>())
+                        .add(stream.getStreamName());
+            }
+        }
+
+        void addStreamLocation(StreamLocation location) {
+            locations.computeIfAbsent(key(location.getOfficeId(), location.getStreamName()),
+                    k -> new ArrayList<>()).add(location);
+        }
+
+        void addStreamReach(StreamReach reach) {
+            reaches.computeIfAbsent(key(reach.getOfficeId(), reach.getStreamName()),
+                    k -> new ArrayList<>()).add(reach);
+        }
+
+        /**
+         * @param officeId the office, null for any office.
+         * @return the ids of the stream and, recursively, its tributaries, null if there is no
+         *      such stream.
+         */
+        List<String> getConnectedStreamIds(String streamId, String officeId) {
+            String key = findKey(streamId, officeId);
+            if (key == null) {
+                return null;
+            }
+            String streamOffice = streams.get(key).getOfficeId();
+            List<String> retval = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            Deque<String> pending = new ArrayDeque<>();
+            pending.push(streams.get(key).getStreamName());
+            while (!pending.isEmpty()) {
+                String id = pending.pop();
+                String idKey = key(streamOffice, id);
+                if (seen.add(idKey)) {
+                    retval.add(id);
+                    tributaries.getOrDefault(idKey, Collections.emptyList())
+                            .forEach(pending::push);
+                }
+            }
+            return retval;
+        }
+
+        /**
+         * @return every stream with its locations and reaches but without tributaries, in
+         *      catalog order.
+         */
+        public List<Stream> getStreams() {
+            List<Stream> retval = new ArrayList<>(streams.size());
+            for (Map.Entry<String, Stream> entry : streams.entrySet()) {
+                String key = entry.getKey();
+                retval.add(new Stream.Builder(entry.getValue())
+                        .withStreamLocations(locations.getOrDefault(key, Collections.emptyList()))
+                        .withStreamReaches(reaches.getOrDefault(key, Collections.emptyList()))
+                        .build());
+            }
+            return retval;
+        }
+
+        /**
+         * Build a stream with its locations, reaches and, recursively, its tributaries.  They
+         * are collected in sets, as StreamDao does, so a basin serializes the same way.
+         *
+         * @param officeId the office, null for any office.
+         * @return the stream, null if there is no such stream.
+         */
+        public Stream getStream(String streamId, String officeId) {
+            String key = findKey(streamId, officeId);
+            if (key == null) {
+                return null;
+            }
+            return build(streams.get(key), key, new HashSet<>());
+        }
+
+        private String findKey(String streamId, String officeId) {
+            if (officeId != null) {
+                String key = key(officeId, streamId);
+                return streams.containsKey(key) ? key : null;
+            }
+            for (Map.Entry<String, Stream> entry : streams.entrySet()) {
+                if (entry.getValue().getStreamName().equals(streamId)) {
+                    return entry.getKey();
+                }
+            }
+            return null;
+        }
+
+        private Stream build(Stream stream, String key, Set<String> path) {
+            // a stream can't flow into itself, but don't trust the data to say so
+            if (!path.add(key)) {
+                return stream;
+            }
+
+            Set<Stream> streamTributaries = new HashSet<>();
+            for (String tributaryId : tributaries.getOrDefault(key,
+                    Collections.emptyList())) {
+                String tributaryKey = key(stream.getOfficeId(), tributaryId);
+                streamTributaries.add(build(asTributaries.get(tributaryKey), tributaryKey,
+                        path));
+            }
+            path.remove(key);
+
+            return new Stream.Builder(stream)
+                    .withStreamLocations(new HashSet<>(locations.getOrDefault(key,
+                            Collections.emptyList())))
+                    .withTributaries(streamTributaries)
+                    .withStreamReaches(new HashSet<>(reaches.getOrDefault(key,
+                            Collections.emptyList())))
+                    .build();
+        }
+
+        private static String key(String officeId, String streamId) {
+            return officeId.toUpperCase() + "/" + streamId;
+        }
+    }
+}
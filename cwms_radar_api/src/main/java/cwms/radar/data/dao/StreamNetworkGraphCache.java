@@ -0,0 +1,315 @@
+package cwms.radar.data.dao;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.radar.helpers.ConfigHelper.getLong;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.radar.RADARMetricsContextListener;
+import cwms.radar.api.graph.basinconnectivity.StreamNetworkGraph;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+
+/**
+ * Shares the {@link StreamNetworkGraph} of each office and unit system between requests.
+ *
+ * <p>Graphs are immutable, a rebuilt graph replaces the old one and requests already using
+ * the old one finish with it.  Concurrent requests for a graph that isn't cached share a single
+ * load.  Once {@link #start(DataSource)} is called the stream tables are checked every
+ * {@value #CHECK_KEY} seconds and every cached graph is rebuilt in the background when they
+ * changed.  A graph older than {@value #TTL_KEY} seconds is still returned while it is rebuilt
+ * in the background; a time to live of 0 disables the cache.
+ */
+public final class StreamNetworkGraphCache {
+    private static final Logger logger = Logger.getLogger(StreamNetworkGraphCache.class.getName());
+
+    public static final String TTL_KEY = "radar.stream.network.cache.ttl.seconds";
+    public static final String CHECK_KEY = "radar.stream.network.cache.check.seconds";
+    public static final long DEFAULT_TTL_SECONDS = 3600;
+    public static final long DEFAULT_CHECK_SECONDS = 300;
+
+    // ORA_ROWSCN changes with every write to a block, and the counts catch deletes.
+    private static final String STAMP_SQL = "select "
+            + "(select count(*) || '/' || max(ora_rowscn) from CWMS_20.AT_STREAM) || ':' || "
+            + "(select count(*) || '/' || max(ora_rowscn) from CWMS_20.AT_STREAM_LOCATION) "
+            + "|| ':' || "
+            + "(select count(*) || '/' || max(ora_rowscn) from CWMS_20.AT_STREAM_REACH) "
+            + "from dual";
+
+    private static final StreamNetworkGraphCache INSTANCE = new StreamNetworkGraphCache(
+            getLong(TTL_KEY, DEFAULT_TTL_SECONDS), getLong(CHECK_KEY, DEFAULT_CHECK_SECONDS),
+            RADARMetricsContextListener.METRIC_REGISTRY);
+
+    private final long ttlMillis;
+    private final long checkSeconds;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Key, CompletableFuture<StreamNetworkGraph>> loading =
+            new ConcurrentHashMap<>();
+    private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService executor;
+    private DataSource dataSource;
+    private String stamp;
+
+    private final Meter hits;
+    private final Meter misses;
+    private final Meter refreshes;
+    private final Timer loads;
+
+    StreamNetworkGraphCache(long ttlSeconds, long checkSeconds, MetricRegistry metrics) {
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(0, ttlSeconds));
+        this.checkSeconds = Math.max(1, checkSeconds);
+        String className = StreamNetworkGraphCache.class.getName();
+        this.hits = metrics.meter(name(className, "hits"));
+        this.misses = metrics.meter(name(className, "misses"));
+        this.refreshes = metrics.meter(name(className, "refreshes"));
+        this.loads = metrics.timer(name(className, "load"));
+    }
+
+    public static StreamNetworkGraphCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Builds a graph on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        StreamNetworkGraph load() throws SQLException;
+    }
+
+    /**
+     * Build the graph of an office from the database.
+     */
+    public static StreamNetworkGraph load(DSLContext dsl, String office, String unitSystem)
+            throws SQLException {
+        StreamNetworkDao.StreamNetwork network = new StreamNetworkDao(dsl)
+                .getStreamNetwork(unitSystem, office);
+        return StreamNetworkGraph.build(office, network.getStreams());
+    }
+
+    /**
+     * Get the cached graph, or build and remember it.
+     *
+     * @param office the office.
+     * @param unitSystem the unit system of the stations.
+     * @param loader builds the graph on a miss.
+     */
+    public StreamNetworkGraph get(String office, String unitSystem, Loader loader)
+            throws SQLException {
+        Objects.requireNonNull(office, "An office is required");
+        if (ttlMillis <= 0) {
+            return time(loader);
+        }
+
+        Key key = new Key(office, unitSystem);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits.mark();
+            if (System.currentTimeMillis() - entry.builtAt > ttlMillis && !refresh(key)) {
+                // nothing to rebuild it with in the background
+                return load(key, loader);
+            }
+            return entry.graph;
+        }
+
+        misses.mark();
+        return load(key, loader);
+    }
+
+    private StreamNetworkGraph load(Key key, Loader loader) throws SQLException {
+        CompletableFuture<StreamNetworkGraph> future = new CompletableFuture<>();
+        CompletableFuture<StreamNetworkGraph> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+
+        try {
+            StreamNetworkGraph retval = time(loader);
+            entries.put(key, new Entry(retval));
+            future.complete(retval);
+            return retval;
+        } catch (Throwable ex) {
+            // Waiters have to be released whatever went wrong.
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    private static StreamNetworkGraph await(CompletableFuture<StreamNetworkGraph> future)
+            throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for the stream network", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    private StreamNetworkGraph time(Loader loader) throws SQLException {
+        try (Timer.Context ignored = loads.time()) {
+            return loader.load();
+        }
+    }
+
+    /**
+     * Rebuild a graph in the background, requests keep getting the old one until it is done.
+     *
+     * @return false if the cache isn't started.
+     */
+    private synchronized boolean refresh(Key key) {
+        if (executor == null) {
+            return false;
+        }
+        if (refreshing.add(key)) {
+            DataSource source = dataSource;
+            executor.execute(() -> {
+                try {
+                    refreshes.mark();
+                    load(key, () -> load(DSL.using(source, SQLDialect.ORACLE11G), key.office,
+                            key.unitSystem));
+                } catch (SQLException | RuntimeException ex) {
+                    logger.log(Level.WARNING, "Unable to rebuild the stream network of "
+                            + key.office, ex);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Rebuild every cached graph when the stream tables changed since the last check.
+     *
+     * @param stampSupplier reads the current stamp of the stream tables.
+     */
+    void checkForChanges(Supplier<String> stampSupplier) {
+        String current = stampSupplier.get();
+        String previous;
+        synchronized (this) {
+            previous = stamp;
+            stamp = current;
+        }
+        if (previous != null && !previous.equals(current)) {
+            logger.fine("Stream data changed, rebuilding the stream networks");
+            for (Key key : entries.keySet()) {
+                if (!refresh(key)) {
+                    entries.remove(key);
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Start checking the stream tables for changes.  Does nothing when the cache is disabled.
+     *
+     * @param dataSource where to check and rebuild.
+     */
+    public synchronized void start(DataSource dataSource) {
+        if (ttlMillis <= 0 || executor != null || dataSource == null) {
+            return;
+        }
+        this.dataSource = dataSource;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "radar-stream-network-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                checkForChanges(() -> DSL.using(dataSource, SQLDialect.ORACLE11G)
+                        .fetchOne(STAMP_SQL).get(0, String.class));
+            } catch (RuntimeException ex) {
+                logger.log(Level.WARNING, "Unable to check the stream networks for changes",
+                        ex);
+            }
+        }, checkSeconds, checkSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        dataSource = null;
+        stamp = null;
+        invalidateAll();
+    }
+
+    private static final class Entry {
+        private final StreamNetworkGraph graph;
+        private final long builtAt = System.currentTimeMillis();
+
+        private Entry(StreamNetworkGraph graph) {
+            this.graph = graph;
+        }
+    }
+
+    private static final class Key {
+        private final String office;
+        private final String unitSystem;
+
+        private Key(String office, String unitSystem) {
+            this.office = office.toUpperCase(Locale.ROOT);
+            this.unitSystem = unitSystem == null ? "" : unitSystem.toUpperCase(Locale.ROOT);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return office.equals(key.office) && unitSystem.equals(key.unitSystem);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(office, unitSystem);
+        }
+
+        @Override
+        public String toString() {
+            return office + "/" + unitSystem;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.sql.Timestamp;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TimeSeriesDao {
 
@@ -18,6 +19,16 @@ public interface TimeSeriesDao {
                                  String locCategoryLike, String locGroupLike,
                                  String tsCategoryLike, String tsGroupLike);
 
+    /**
+     * Retrieve a page of the catalog.
+     *
+     * @param includeExtents which extents to report for each entry.
+     */
+    Catalog getTimeSeriesCatalog(String cursor, int pageSize, String office, String idLike,
+                                 String locCategoryLike, String locGroupLike,
+                                 String tsCategoryLike, String tsGroupLike,
+                                 IncludeExtents includeExtents);
+
     void create(TimeSeries input);
 
     void create(TimeSeries input,
@@ -34,6 +45,25 @@ public interface TimeSeriesDao {
                              String unit, String datum, ZonedDateTime begin, ZonedDateTime end,
                              ZoneId timezone);
 
+    /**
+     * Retrieve a page of values.
+     *
+     * @param totalMode how the total is worked out on the first page, later pages reuse the
+     *                  total from the cursor.
+     */
+    TimeSeries getTimeseries(String cursor, int pageSize, String names, String office,
+                             String unit, String datum, ZonedDateTime begin, ZonedDateTime end,
+                             ZoneId timezone, TotalMode totalMode);
+
+    /**
+     * Retrieve every value in the window without paging and hand the time series to the
+     * consumer while the values are still being read from the database.  The values may only be
+     * iterated once, and only inside the consumer.
+     */
+    void streamTimeseries(String names, String office, String unit, String datum,
+                          ZonedDateTime begin, ZonedDateTime end, ZoneId timezone,
+                          TotalMode totalMode, Consumer<TimeSeries> consumer);
+
     String getTimeseries(String format, String names, String office, String unit, String datum,
                          ZonedDateTime begin, ZonedDateTime end, ZoneId timezone);
 
@@ -1,21 +1,22 @@
 package cwms.radar.data.dao;
 
+import static cwms.radar.helpers.ConfigHelper.getInt;
 import static org.jooq.impl.DSL.asterisk;
-import static org.jooq.impl.DSL.condition;
 import static org.jooq.impl.DSL.count;
 import static org.jooq.impl.DSL.field;
 import static org.jooq.impl.DSL.max;
-import static org.jooq.impl.DSL.name;
 import static org.jooq.impl.DSL.partitionBy;
 import static org.jooq.impl.DSL.select;
 import static usace.cwms.db.jooq.codegen.tables.AV_CWMS_TS_ID2.AV_CWMS_TS_ID2;
 import static usace.cwms.db.jooq.codegen.tables.AV_TS_EXTENTS_UTC.AV_TS_EXTENTS_UTC;
 
+import cwms.radar.api.errors.NotFoundException;
 import cwms.radar.data.dto.Catalog;
 import cwms.radar.data.dto.CwmsDTOPaginated;
 import cwms.radar.data.dto.RecentValue;
 import cwms.radar.data.dto.TimeSeries;
 import cwms.radar.data.dto.TimeSeriesExtents;
+import cwms.radar.data.dto.TimeSeriesValues;
 import cwms.radar.data.dto.Tsv;
 import cwms.radar.data.dto.TsvDqu;
 import cwms.radar.data.dto.TsvDquId;
@@ -23,7 +24,7 @@ import cwms.radar.data.dto.TsvId;
 import cwms.radar.data.dto.VerticalDatumInfo;
 import cwms.radar.data.dto.catalog.CatalogEntry;
 import cwms.radar.data.dto.catalog.TimeseriesCatalogEntry;
-import java.io.StringReader;
+import cwms.radar.formatters.xml.JaxbContextRegistry;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Connection;
@@ -35,6 +36,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAccessor;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -44,22 +46,21 @@ import java.util.Date;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 import org.jetbrains.annotations.NotNull;
-import org.jooq.CommonTableExpression;
 import org.jooq.Condition;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.Field;
 import org.jooq.Operator;
 import org.jooq.Record;
 import org.jooq.Record1;
 import org.jooq.Record3;
-import org.jooq.Record7;
 import org.jooq.Result;
 import org.jooq.SQL;
 import org.jooq.SelectConditionStep;
@@ -86,6 +87,13 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
 
     public static final boolean OVERRIDE_PROTECTION = true;
 
+    /**
+     * Rows fetched per round trip when streaming time series values, {@value #DEFAULT_STREAM_FETCH_SIZE}
+     * by default.
+     */
+    public static final String STREAM_FETCH_SIZE_KEY = "radar.timeseries.stream.fetch.size";
+    public static final int DEFAULT_STREAM_FETCH_SIZE = 5000;
+
     public TimeSeriesDaoImpl(DSLContext dsl) {
         super(dsl);
     }
@@ -104,9 +112,50 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
     public TimeSeries getTimeseries(String page, int pageSize, String names, String office,
                                     String units, String datum,
                                     ZonedDateTime begin, ZonedDateTime end, ZoneId timezone) {
+        return getTimeseries(page, pageSize, names, office, units, datum, begin, end, timezone,
+                TotalMode.DEFAULT);
+    }
+
+    @Override
+    public TimeSeries getTimeseries(String page, int pageSize, String names, String office,
+                                    String units, String datum,
+                                    ZonedDateTime begin, ZonedDateTime end, ZoneId timezone,
+                                    TotalMode totalMode) {
         // Looks like the datum field is currently being ignored by this method.
         // Should we warn if the datum is not null?
-        return getTimeseries(page, pageSize, names, office, units, begin, end);
+        return getTimeseries(page, pageSize, names, office, units, begin, end, totalMode);
+    }
+
+    @Override
+    public void streamTimeseries(String names, String office, String units, String datum,
+                                 ZonedDateTime begin, ZonedDateTime end, ZoneId timezone,
+                                 TotalMode totalMode, Consumer<TimeSeries> consumer) {
+        TimeSeriesMetadata metadata = getMetadata(names, office);
+        if (metadata == null) {
+            throw new NotFoundException("Unable to find time series " + names);
+        }
+        TimeSeries timeseries = getTimeseriesMetadata(metadata, null, -1, null, totalMode,
+                units, begin, end);
+
+        SelectConditionStep<Record3<Timestamp, Double, BigDecimal>> query =
+                getTimeseriesValuesQuery(metadata, units, begin, end);
+        query.fetchSize(getStreamFetchSize());
+
+        logger.fine(() -> query.getSQL(ParamType.INLINED));
+
+        try (Cursor<Record3<Timestamp, Double, BigDecimal>> cursor = query.fetchLazy()) {
+            timeseries.streamValues(cursor.stream()
+                    .map(tsRecord -> new TimeSeries.Record(
+                            tsRecord.value1(),
+                            tsRecord.value2(),
+                            tsRecord.value3().intValue()))
+                    .iterator());
+            consumer.accept(timeseries);
+        }
+    }
+
+    private static int getStreamFetchSize() {
+        return getInt(STREAM_FETCH_SIZE_KEY, DEFAULT_STREAM_FETCH_SIZE);
     }
 
     public ZonedDateTime getZonedDateTime(String begin, ZoneId fallbackZone,
@@ -134,7 +183,8 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
     @SuppressWarnings("deprecated")
     protected TimeSeries getTimeseries(String page, int pageSize, String names, String office,
                                        String units,
-                                       ZonedDateTime beginTime, ZonedDateTime endTime) {
+                                       ZonedDateTime beginTime, ZonedDateTime endTime,
+                                       TotalMode totalMode) {
         TimeSeries retval = null;
         String cursor = null;
         Timestamp tsCursor = null;
@@ -152,7 +202,7 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                 cursor = parts[0];
                 tsCursor = Timestamp.from(Instant.ofEpochMilli(Long.parseLong(parts[0])));
 
-                if (parts.length > 2) {
+                if (parts.length > 2 && !"null".equals(parts[1])) {
                     total = Integer.parseInt(parts[1]);
                 }
 
@@ -161,89 +211,303 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
             }
         }
 
-        final String recordCursor = cursor;
-        final int recordPageSize = pageSize;
+        TimeSeriesMetadata metadata = getMetadata(names, office);
+        if (metadata == null) {
+            return null;
+        }
 
+        // Later pages carry the total, if there was one, in the cursor.
+        TimeSeries timeseries = getTimeseriesMetadata(metadata, cursor, pageSize, total,
+                cursor == null ? totalMode : TotalMode.NONE, units, beginTime, endTime);
 
+        if (pageSize != 0) {
+            // Keyset paging: the page starts at the cursor instead of filtering the whole
+            // window, and regular series only ask the database for roughly one page of data.
+            ZonedDateTime pageBegin = tsCursor == null ? beginTime
+                    : ZonedDateTime.ofInstant(tsCursor.toInstant(), beginTime.getZone());
+            int remaining = pageSize > 0 ? pageSize + 1 : -1;
+
+            while (true) {
+                ZonedDateTime pageEnd = estimatePageEnd(pageBegin, endTime,
+                        timeseries.getInterval(), remaining);
+                int fetched = fetchValues(timeseries, metadata, units, pageBegin, pageEnd,
+                        remaining);
+
+                if (remaining < 0 || fetched >= remaining || !pageEnd.isBefore(endTime)) {
+                    break;
+                }
+                // The estimate came up short (gaps or calendar intervals), everything up to
+                // pageEnd has been read so carry on from just after it.
+                remaining -= fetched;
+                pageBegin = pageEnd.plus(1, ChronoUnit.MILLIS);
+            }
+
+            retval = timeseries;
+        }
+
+        return retval;
+    }
+
+    /**
+     * Reads values in [begin, end] into the time series.
+     *
+     * @param limit maximum number of rows to read, negative for no limit.
+     * @return the number of rows read.
+     */
+    private int fetchValues(TimeSeries timeseries, TimeSeriesMetadata metadata, String units,
+                            ZonedDateTime begin, ZonedDateTime end, int limit) {
+        SelectConditionStep<Record3<Timestamp, Double, BigDecimal>> query =
+                getTimeseriesValuesQuery(metadata, units, begin, end);
+
+        if (limit > 0) {
+            query.limit(DSL.val(limit));
+        }
+
+        logger.info(() -> query.getSQL(ParamType.INLINED));
+
+        int[] count = {0};
+        query.fetchInto(tsRecord -> {
+            count[0]++;
+            timeseries.addValue(
+                    tsRecord.value1(),
+                    tsRecord.value2(),
+                    tsRecord.value3().intValue()
+            );
+        });
+        return count[0];
+    }
+
+    /**
+     * Estimate where a page that starts at begin will end.  Regular series produce one value
+     * per interval, so a page of rows values spans about rows intervals.  Irregular series, or
+     * requests with no limit, use the end of the requested window.
+     */
+    static ZonedDateTime estimatePageEnd(ZonedDateTime begin, ZonedDateTime end,
+                                         Duration interval, int rows) {
+        if (rows <= 0 || interval == null || interval.isZero() || interval.isNegative()) {
+            return end;
+        }
+
+        long windowMillis = Duration.between(begin, end).toMillis();
+        long intervalMillis = interval.toMillis();
+        if (windowMillis / intervalMillis <= rows) {
+            return end;
+        }
+        return begin.plus(Duration.ofMillis(intervalMillis * rows));
+    }
+
+    /**
+     * Resolve the identifier, interval and default units of a time series, from the
+     * {@link TimeSeriesMetadataCache} when possible.
+     */
+    private TimeSeriesMetadata getMetadata(String names, String office) {
+        return TimeSeriesMetadataCache.getInstance().get(office, names,
+                () -> retrieveMetadata(names, office));
+    }
+
+    private TimeSeriesMetadata retrieveMetadata(String names, String office) {
         Field<String> officeId = CWMS_UTIL_PACKAGE.call_GET_DB_OFFICE_ID(
                 office != null ? DSL.val(office) : CWMS_UTIL_PACKAGE.call_USER_OFFICE_ID());
         Field<String> tsId = CWMS_TS_PACKAGE.call_GET_TS_ID__2(DSL.val(names), officeId);
         Field<BigDecimal> tsCode = CWMS_TS_PACKAGE.call_GET_TS_CODE__2(DSL.val(names),
                 officeId);
 
-
         Table<Record3<BigDecimal, String, String>> validTs =
                 select(tsCode.as("tscode"),
                         tsId.as("tsid"),
                         officeId.as("office_id")
                 ).asTable("validts");
+        Field<BigDecimal> validCode = validTs.field("tscode", BigDecimal.class);
+        Field<String> validId = validTs.field("tsid", String.class);
+        Field<String> validOffice = validTs.field("office_id", String.class);
 
         Field<String> loc = CWMS_UTIL_PACKAGE.call_SPLIT_TEXT(
-                validTs.field("tsid", String.class),
+                validId,
                 DSL.val(BigInteger.valueOf(1L)), DSL.val("."),
                 DSL.val(BigInteger.valueOf(6L)));
         Field<String> param = DSL.upper(CWMS_UTIL_PACKAGE.call_SPLIT_TEXT(
-                validTs.field("tsid", String.class),
+                validId,
                 DSL.val(BigInteger.valueOf(2L)), DSL.val("."),
                 DSL.val(BigInteger.valueOf(6L))));
+        Field<String> baseParameter = CWMS_TS_PACKAGE.call_GET_BASE_PARAMETER_ID(validCode);
 
-        Field<String> unit = units.compareToIgnoreCase("SI") == 0
-                ||
-                units.compareToIgnoreCase("EN") == 0
-                ?
-                CWMS_UTIL_PACKAGE.call_GET_DEFAULT_UNITS(
-                        CWMS_TS_PACKAGE.call_GET_BASE_PARAMETER_ID(tsCode),
-                        DSL.val(units, String.class)
-                )
+        Field<String> tzName = hasTimeZoneId() ?
+                AV_CWMS_TS_ID2.TIME_ZONE_ID
                 :
-                DSL.val(units, String.class);
-
-        CommonTableExpression<Record7<BigDecimal, String, String, String, String, BigDecimal,
-                String>> valid =
-                name("valid").fields("tscode", "tsid", "office_id", "loc_part", "units",
-                                "interval", "parm_part")
-                        .as(
-                                select(
-                                        validTs.field("tscode", BigDecimal.class).as("tscode"),
-                                        validTs.field("tsid", String.class).as("tsid"),
-                                        validTs.field("office_id", String.class).as(
-                                                "office_id"),
-                                        loc.as("loc_part"),
-                                        unit.as("units"),
-
-                                        CWMS_TS_PACKAGE.call_GET_INTERVAL(
-                                                        validTs.field("tsid", String.class))
-                                                .as("interval"),
-                                        param.as("parm_part")
-
-                                ).from(validTs)
+                DSL.inline(null, SQLDataType.VARCHAR);
+
+        SelectJoinStep<?> metadataQuery =
+                dsl.select(
+                                validCode.as("tscode"),
+                                validId.as("tsid"),
+                                validOffice.as("office_id"),
+                                loc.as("loc_part"),
+                                param.as("parm_part"),
+                                CWMS_TS_PACKAGE.call_GET_INTERVAL(validId).as("interval"),
+                                CWMS_UTIL_PACKAGE.call_GET_DEFAULT_UNITS(baseParameter,
+                                        DSL.val("EN", String.class)).as("en_units"),
+                                CWMS_UTIL_PACKAGE.call_GET_DEFAULT_UNITS(baseParameter,
+                                        DSL.val("SI", String.class)).as("si_units"),
+                                AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET,
+                                tzName.as("time_zone_id")
+                        )
+                        .from(validTs)
+                        .leftOuterJoin(AV_CWMS_TS_ID2)
+                        .on(
+                                AV_CWMS_TS_ID2.DB_OFFICE_ID.eq(validOffice)
+                                        .and(AV_CWMS_TS_ID2.TS_CODE.eq(validCode))
+                                        .and(AV_CWMS_TS_ID2.ALIASED_ITEM.isNull())
                         );
 
-        Field<Timestamp> dateTimeCol = DSL.field("DATE_TIME", Timestamp.class).as("DATE_TIME");
-        Field<Double> valueCol = DSL.field("VALUE", Double.class).as("VALUE");
-        Field<Integer> qualityCol = DSL.field("QUALITY_CODE", Integer.class).as("QUALITY_CODE");
-        Field<BigDecimal> qualityNormCol =
-                CWMS_TS_PACKAGE.call_NORMALIZE_QUALITY(DSL.nvl(qualityCol, DSL.inline(5))).as(
-                        "QUALITY_NORM");
+        logger.fine(() -> metadataQuery.getSQL(ParamType.INLINED));
+
+        Record tsMetadata = metadataQuery.fetchOne();
+        if (tsMetadata == null) {
+            return null;
+        }
 
+        BigDecimal utcOffset = tsMetadata.getValue(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET);
+        return new TimeSeriesMetadata.Builder()
+                .withTsCode(tsMetadata.getValue("tscode", BigDecimal.class))
+                .withTsId(tsMetadata.getValue("tsid", String.class))
+                .withOfficeId(tsMetadata.getValue("office_id", String.class))
+                .withLocationId(tsMetadata.getValue("loc_part", String.class))
+                .withParameterId(tsMetadata.getValue("parm_part", String.class))
+                .withInterval(Duration.ofMinutes(tsMetadata.get("interval") == null ? 0 :
+                        tsMetadata.getValue("interval", Long.class)))
+                .withIntervalUtcOffset(utcOffset == null ? null : utcOffset.longValue())
+                .withTimeZoneId(tsMetadata.getValue("time_zone_id", String.class))
+                .withEnUnits(tsMetadata.getValue("en_units", String.class))
+                .withSiUnits(tsMetadata.getValue("si_units", String.class))
+                .build();
+    }
+
+    private String retrieveVerticalDatum(String locationId, String units, String office) {
+        return dsl.select(CWMS_LOC_PACKAGE.call_GET_VERTICAL_DATUM_INFO_F__2(
+                        DSL.val(locationId), DSL.val(units), DSL.val(office)))
+                .fetchOne(0, String.class);
+    }
+
+    private TimeSeries getTimeseriesMetadata(TimeSeriesMetadata metadata, String recordCursor,
+                                             int recordPageSize, Integer total,
+                                             TotalMode totalMode, String units,
+                                             ZonedDateTime beginTime, ZonedDateTime endTime) {
+        String tsUnits = metadata.unitsFor(units);
+
+        VerticalDatumInfo verticalDatumInfo = null;
+        if ("ELEV".equals(metadata.getParameterId())) {
+            verticalDatumInfo = VerticalDatumInfoCache.getInstance().get(metadata.getOfficeId(),
+                    metadata.getLocationId(), tsUnits,
+                    () -> parseVerticalDatumInfo(retrieveVerticalDatum(
+                            metadata.getLocationId(), tsUnits, metadata.getOfficeId())));
+        }
+
+        // The total is only worked out for the first page.  Even an exact count can change
+        // if fetching current data, or the timeseries otherwise changes between queries.
+        if (total == null) {
+            switch (totalMode) {
+                case EXACT:
+                    total = countValues(metadata.getTsId(), metadata.getOfficeId(), tsUnits,
+                            beginTime, endTime);
+                    break;
+                case ESTIMATE:
+                    total = estimateTotal(beginTime, endTime, metadata.getInterval(),
+                            metadata.getIntervalUtcOffset());
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return new TimeSeries(recordCursor, recordPageSize, total, metadata.getTsId(),
+                metadata.getOfficeId(), beginTime, endTime, tsUnits, metadata.getInterval(),
+                verticalDatumInfo, metadata.getIntervalUtcOffset(), metadata.getTimeZoneId()
+        );
+    }
+
+    /**
+     * Counts the values in the window with a separate retrieval, only used when an exact total
+     * is asked for.
+     */
+    private int countValues(String tsId, String office, String units, ZonedDateTime beginTime,
+                            ZonedDateTime endTime) {
         // This code assumes the database timezone is in UTC (per Oracle recommendation)
         // Wrap in table() so JOOQ can parse the result
-        @SuppressWarnings("deprecated")
-        SelectJoinStep<Record3<Timestamp, Double, Integer>> retrieveSelectCount = DSL.select(
-                dateTimeCol, valueCol, qualityCol
-        ).from(DSL.sql("table( "
+        SQL retrieveTable = DSL.sql("table( "
                 + CWMS_TS_PACKAGE.call_RETRIEVE_TS_OUT_TAB(
-                valid.field("tsid", String.class),
-                valid.field("units", String.class),
+                DSL.val(tsId),
+                DSL.val(units),
                 CWMS_UTIL_PACKAGE.call_TO_TIMESTAMP__2(DSL.val(beginTime.toInstant().toEpochMilli())),
                 CWMS_UTIL_PACKAGE.call_TO_TIMESTAMP__2(DSL.val(endTime.toInstant().toEpochMilli())),
                 DSL.inline("UTC", String.class),
                 // All times are sent as UTC to the database, regardless of requested
                 // timezone.
                 null, null, null, null, null, null, null,
-                valid.field("office_id", String.class))
-                + ")"
-        ));
+                DSL.val(office))
+                + ")");
+
+        SelectJoinStep<Record1<Integer>> countQuery = dsl.selectCount().from(retrieveTable);
+        logger.fine(() -> countQuery.getSQL(ParamType.INLINED));
+        return countQuery.fetchOne(0, int.class);
+    }
+
+    /**
+     * Estimate how many values a regular series has between begin and end from its interval
+     * and offset, without going to the database.  Gaps and calendar intervals (months, years)
+     * make this approximate.
+     *
+     * @param utcOffsetMinutes offset of each value from the top of the interval, anything
+     *                         outside of the interval (e.g. undefined) is treated as zero.
+     * @return the estimate, or null for irregular series.
+     */
+    static Integer estimateTotal(ZonedDateTime begin, ZonedDateTime end, Duration interval,
+                                 Long utcOffsetMinutes) {
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            return null;
+        }
+
+        long intervalMillis = interval.toMillis();
+        long offsetMillis = 0;
+        if (utcOffsetMinutes != null) {
+            long offset = Duration.ofMinutes(utcOffsetMinutes).toMillis();
+            if (offset > 0 && offset < intervalMillis) {
+                offsetMillis = offset;
+            }
+        }
+
+        long beginMillis = begin.toInstant().toEpochMilli();
+        long endMillis = end.toInstant().toEpochMilli();
+
+        // First interval time at or after begin
+        long first = Math.floorDiv(beginMillis - offsetMillis, intervalMillis) * intervalMillis
+                + offsetMillis;
+        if (first < beginMillis) {
+            first += intervalMillis;
+        }
+        if (first > endMillis) {
+            return 0;
+        }
+        long count = (endMillis - first) / intervalMillis + 1;
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Builds the query for the values of a time series between beginTime and endTime.
+     * Columns are the date time, value and normalized quality code.
+     */
+    private SelectConditionStep<Record3<Timestamp, Double, BigDecimal>> getTimeseriesValuesQuery(
+            TimeSeriesMetadata metadata, String units, ZonedDateTime beginTime,
+            ZonedDateTime endTime) {
+        Field<String> tsId = DSL.val(metadata.getTsId());
+        Field<String> unit = DSL.val(metadata.unitsFor(units), String.class);
+        Field<String> officeId = DSL.val(metadata.getOfficeId());
+
+        Field<Timestamp> dateTimeCol = DSL.field("DATE_TIME", Timestamp.class).as("DATE_TIME");
+        Field<Double> valueCol = DSL.field("VALUE", Double.class).as("VALUE");
+        Field<Integer> qualityCol = DSL.field("QUALITY_CODE", Integer.class).as("QUALITY_CODE");
+        Field<BigDecimal> qualityNormCol =
+                CWMS_TS_PACKAGE.call_NORMALIZE_QUALITY(DSL.nvl(qualityCol, DSL.inline(5))).as(
+                        "QUALITY_NORM");
 
         SQL retrieveSelectData = DSL.sql("table(" +
                 CWMS_TS_PACKAGE.call_RETRIEVE_TS_OUT_TAB(
@@ -259,102 +523,21 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                 + ") retrieveTs"
         );
 
+        return dsl.select(dateTimeCol, valueCol, qualityNormCol)
+                .from(retrieveSelectData)
+                .where(dateTimeCol
+                        .greaterOrEqual(CWMS_UTIL_PACKAGE.call_TO_TIMESTAMP__2(
+                                DSL.val(beginTime.toInstant().toEpochMilli()))))
+                .and(dateTimeCol
+                        .lessOrEqual(CWMS_UTIL_PACKAGE.call_TO_TIMESTAMP__2(DSL.val(endTime.toInstant().toEpochMilli())))
+                );
+    }
 
-        Field<String> tzName = this.getDbVersion() >= Dao.CWMS_21_1_1 ?
-                AV_CWMS_TS_ID2.TIME_ZONE_ID
-                :
-                DSL.inline(null, SQLDataType.VARCHAR);
-
-        SelectJoinStep<?> metadataQuery =
-                dsl.with(valid)
-                        .select(
-                                valid.field("tsid", String.class).as("NAME"),
-                                valid.field("office_id", String.class).as("office_id"),
-                                valid.field("units", String.class).as("units"),
-                                valid.field("interval", BigDecimal.class).as("interval"),
-                                valid.field("loc_part", String.class).as("loc_part"),
-                                valid.field("parm_part", String.class).as("parm_part"),
-                                DSL.choose(valid.field("parm_part", String.class))
-                                        .when(
-                                                "ELEV",
-                                                CWMS_LOC_PACKAGE.call_GET_VERTICAL_DATUM_INFO_F__2(
-                                                        valid.field("loc_part", String.class),
-                                                        valid.field("units", String.class),
-                                                        valid.field("office_id", String.class)))
-                                        .otherwise("")
-                                        .as("VERTICAL_DATUM"),
-                                // If we don't know the total, fetch it from the database
-                                // (only for first fetch).
-                                // Total is only an estimate, as it can change if fetching
-                                // current data, or the timeseries otherwise changes between
-                                // queries.
-                                total != null ? DSL.val(total).as("TOTAL") :
-                                        DSL.selectCount().from(DSL.table(retrieveSelectCount)).asField("TOTAL"),
-                                AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET,
-                                AV_CWMS_TS_ID2.TIME_ZONE_ID
-                        )
-                        .from(valid)
-                        .leftOuterJoin(AV_CWMS_TS_ID2)
-                        .on(
-                                AV_CWMS_TS_ID2.DB_OFFICE_ID.eq(valid.field("office_id",
-                                                String.class))
-                                        .and(AV_CWMS_TS_ID2.TS_CODE.eq(valid.field("tscode",
-                                                BigDecimal.class)))
-                                        .and(AV_CWMS_TS_ID2.ALIASED_ITEM.isNull())
-                        );
-
-        logger.fine(() -> metadataQuery.getSQL(ParamType.INLINED));
-
-        TimeSeries timeseries = metadataQuery.fetchOne(tsMetadata -> {
-            String vert = (String) tsMetadata.getValue("VERTICAL_DATUM");
-            VerticalDatumInfo verticalDatumInfo = parseVerticalDatumInfo(vert);
-
-            return new TimeSeries(recordCursor, recordPageSize, tsMetadata.getValue("TOTAL",
-                    Integer.class), tsMetadata.getValue("NAME", String.class),
-                    tsMetadata.getValue("office_id", String.class),
-                    beginTime, endTime, tsMetadata.getValue("units", String.class),
-                    Duration.ofMinutes(tsMetadata.get("interval") == null ? 0 :
-                            tsMetadata.getValue("interval", Long.class)),
-                    verticalDatumInfo,
-                    tsMetadata.getValue(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET).longValue(),
-                    tsMetadata.getValue(tzName)
-            );
-        });
-
-        if (pageSize != 0) {
-            SelectConditionStep<Record3<Timestamp, Double, BigDecimal>> query =
-                    dsl.select(
-                                    dateTimeCol,
-                                    valueCol,
-                                    qualityNormCol
-                            )
-                            .from(retrieveSelectData)
-                            .where(dateTimeCol
-                                    .greaterOrEqual(CWMS_UTIL_PACKAGE.call_TO_TIMESTAMP__2(
-                                            DSL.nvl(DSL.val(tsCursor == null ? null :
-                                                            tsCursor.toInstant().toEpochMilli()),
-                                                    DSL.val(beginTime.toInstant().toEpochMilli())))))
-                            .and(dateTimeCol
-                                    .lessOrEqual(CWMS_UTIL_PACKAGE.call_TO_TIMESTAMP__2(DSL.val(endTime.toInstant().toEpochMilli())))
-                            );
-
-            if (pageSize > 0) {
-                query.limit(DSL.val(pageSize + 1));
-            }
-
-            logger.info(() -> query.getSQL(ParamType.INLINED));
-
-            query.fetchInto(tsRecord -> timeseries.addValue(
-                            tsRecord.getValue(dateTimeCol),
-                            tsRecord.getValue(valueCol),
-                            tsRecord.getValue(qualityNormCol).intValue()
-                    )
-            );
-
-            retval = timeseries;
-        }
-
-        return retval;
+    /**
+     * AV_CWMS_TS_ID2.TIME_ZONE_ID was added in CWMS 21.1.1.
+     */
+    private boolean hasTimeZoneId() {
+        return SchemaCapabilityRegistry.getInstance().supports(dsl, Dao.CWMS_21_1_1);
     }
 
     // datumInfo comes back like:
@@ -371,9 +554,7 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         VerticalDatumInfo retval = null;
         if (body != null && !body.isEmpty()) {
             try {
-                JAXBContext jaxbContext = JAXBContext.newInstance(VerticalDatumInfo.class);
-                Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-                retval = (VerticalDatumInfo) unmarshaller.unmarshal(new StringReader(body));
+                retval = JaxbContextRegistry.unmarshal(VerticalDatumInfo.class, body);
             } catch (JAXBException e) {
                 logger.log(Level.WARNING, "Failed to parse:" + body, e);
             }
@@ -390,6 +571,15 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
     public Catalog getTimeSeriesCatalog(String page, int pageSize, String office,
                                         String idLike, String locCategoryLike, String locGroupLike,
                                         String tsCategoryLike, String tsGroupLike) {
+        return getTimeSeriesCatalog(page, pageSize, office, idLike, locCategoryLike, locGroupLike,
+                tsCategoryLike, tsGroupLike, IncludeExtents.ALL);
+    }
+
+    @Override
+    public Catalog getTimeSeriesCatalog(String page, int pageSize, String office,
+                                        String idLike, String locCategoryLike, String locGroupLike,
+                                        String tsCategoryLike, String tsGroupLike,
+                                        IncludeExtents includeExtents) {
         int total;
         String tsCursor = "*";
         String searchOffice = office;
@@ -446,7 +636,8 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         primaryDataQuery.addSelect(AV_CWMS_TS_ID2.UNIT_ID);
         primaryDataQuery.addSelect(AV_CWMS_TS_ID2.INTERVAL_ID);
         primaryDataQuery.addSelect(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET);
-        if (this.getDbVersion() >= Dao.CWMS_21_1_1) {
+        final boolean hasTimeZoneId = hasTimeZoneId();
+        if (hasTimeZoneId) {
             primaryDataQuery.addSelect(AV_CWMS_TS_ID2.TIME_ZONE_ID);
         }
 
@@ -493,59 +684,42 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         limitQuery.addSelect(dataTable.fields());
         limitQuery.addFrom(dataTable);
         limitQuery.addConditions(field("rownum").lessOrEqual(pageSize));
+        limitQuery.addOrderBy(dataTable.field("DB_OFFICE_ID").upper(),
+                dataTable.field("CWMS_TS_ID").upper());
 
-        Table<?> limitTable = limitQuery.asTable("limiter");
-
-        SelectQuery<?> overallQuery = dsl.selectQuery();
-        overallQuery.addSelect(limitTable.fields());
-        overallQuery.addSelect(AV_TS_EXTENTS_UTC.VERSION_TIME);
-        overallQuery.addSelect(AV_TS_EXTENTS_UTC.EARLIEST_TIME);
-        overallQuery.addSelect(AV_TS_EXTENTS_UTC.LATEST_TIME);
-        overallQuery.addSelect(AV_TS_EXTENTS_UTC.LAST_UPDATE);
-        overallQuery.addFrom(limitTable);
-        overallQuery.addJoin(AV_TS_EXTENTS_UTC, org.jooq.JoinType.LEFT_OUTER_JOIN,
-                condition("\"CWMS_20\".\"AV_TS_EXTENTS_UTC\".\"TS_CODE\" = " + field("\"limiter\""
-                        + ".\"TS_CODE\"")));
-
-        overallQuery.addOrderBy(limitTable.field("DB_OFFICE_ID").upper(), limitTable.field("CWMS_TS_ID").upper());
-
-        logger.info(() -> overallQuery.getSQL(ParamType.INLINED));
-        Result<?> result = overallQuery.fetch();
+        logger.info(() -> limitQuery.getSQL(ParamType.INLINED));
+        Result<?> result = limitQuery.fetch();
 
-        // NOTE: leave as separate, eventually this will include aliases which
-        // will at extra rows per TS
         LinkedHashMap<String, TimeseriesCatalogEntry.Builder> tsIdExtentMap = new LinkedHashMap<>();
+        Map<String, Long> codes = new LinkedHashMap<>();
         result.forEach(row -> {
-            String officeTsId = new StringBuilder()
-                    .append(row.get(AV_CWMS_TS_ID2.DB_OFFICE_ID))
-                    .append("/")
-                    .append(row.get(AV_CWMS_TS_ID2.CWMS_TS_ID))
-                    .toString();
+            String officeId = row.get(AV_CWMS_TS_ID2.DB_OFFICE_ID);
+            String tsId = row.get(AV_CWMS_TS_ID2.CWMS_TS_ID);
+            String officeTsId = TimeSeriesExtentsCache.key(officeId, tsId);
             if (!tsIdExtentMap.containsKey(officeTsId)) {
                 TimeseriesCatalogEntry.Builder builder = new TimeseriesCatalogEntry.Builder()
-                        .officeId(row.get(AV_CWMS_TS_ID2.DB_OFFICE_ID))
-                        .cwmsTsId(row.get(AV_CWMS_TS_ID2.CWMS_TS_ID))
+                        .officeId(officeId)
+                        .cwmsTsId(tsId)
                         .units(row.get(AV_CWMS_TS_ID2.UNIT_ID))
                         .interval(row.get(AV_CWMS_TS_ID2.INTERVAL_ID))
                         .intervalOffset(row.get(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET));
-                if (this.getDbVersion() > Dao.CWMS_21_1_1) {
+                if (hasTimeZoneId) {
                     builder.timeZone(row.get("TIME_ZONE_ID", String.class));
                 }
                 tsIdExtentMap.put(officeTsId, builder);
-            }
-
-            if (row.get(AV_TS_EXTENTS_UTC.EARLIEST_TIME) != null) {
-                //tsIdExtentMap.get(tsId)
-                TimeSeriesExtents extents =
-                        new TimeSeriesExtents(row.get(AV_TS_EXTENTS_UTC.VERSION_TIME),
-                                row.get(AV_TS_EXTENTS_UTC.EARLIEST_TIME),
-                                row.get(AV_TS_EXTENTS_UTC.LATEST_TIME),
-                                row.get(AV_TS_EXTENTS_UTC.LAST_UPDATE)
-                        );
-                tsIdExtentMap.get(officeTsId).withExtent(extents);
+                codes.put(officeTsId, row.get(AV_CWMS_TS_ID2.TS_CODE, Long.class));
             }
         });
 
+        if (includeExtents == IncludeExtents.NONE) {
+            tsIdExtentMap.values().forEach(TimeseriesCatalogEntry.Builder::withoutExtents);
+        } else if (!codes.isEmpty()) {
+            Map<String, List<TimeSeriesExtents>> extents = getCatalogExtents(codes);
+            tsIdExtentMap.forEach((key, builder) ->
+                    includeExtents.select(extents.getOrDefault(key, Collections.emptyList()))
+                            .forEach(builder::withExtent));
+        }
+
         List<? extends CatalogEntry> entries = tsIdExtentMap.entrySet().stream()
                 .map(e -> e.getValue().build())
                 .collect(Collectors.toList());
@@ -556,6 +730,78 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
     }
 
 
+    /**
+     * Every time series identifier of an office with the attributes the catalog shows.
+     *
+     * @param office the office
+     * @return the entries for {@link CatalogIndex}, unordered.
+     */
+    List<CatalogIndex.Entry> getCatalogIndexEntries(String office) {
+        final boolean hasTimeZoneId = hasTimeZoneId();
+        Field<String> tzName = hasTimeZoneId
+                ? AV_CWMS_TS_ID2.TIME_ZONE_ID : DSL.inline(null, SQLDataType.VARCHAR);
+
+        return dsl.select(AV_CWMS_TS_ID2.DB_OFFICE_ID, AV_CWMS_TS_ID2.CWMS_TS_ID,
+                        AV_CWMS_TS_ID2.TS_CODE, AV_CWMS_TS_ID2.UNIT_ID,
+                        AV_CWMS_TS_ID2.INTERVAL_ID, AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET,
+                        tzName.as("TIME_ZONE_ID"))
+                .from(AV_CWMS_TS_ID2)
+                .where(AV_CWMS_TS_ID2.ALIASED_ITEM.isNull())
+                .and(AV_CWMS_TS_ID2.DB_OFFICE_ID.eq(office.toUpperCase()))
+                .fetchSize(getStreamFetchSize())
+                .fetch(row -> {
+                    BigDecimal offset = row.get(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET);
+                    return new CatalogIndex.Entry(row.get(AV_CWMS_TS_ID2.DB_OFFICE_ID),
+                            row.get(AV_CWMS_TS_ID2.CWMS_TS_ID),
+                            row.get(AV_CWMS_TS_ID2.TS_CODE, Long.class),
+                            row.get(AV_CWMS_TS_ID2.UNIT_ID),
+                            row.get(AV_CWMS_TS_ID2.INTERVAL_ID),
+                            offset == null ? null : offset.longValue(),
+                            row.get("TIME_ZONE_ID", String.class));
+                });
+    }
+
+    /**
+     * Extents for catalog entries, shared with other requests through
+     * {@link TimeSeriesExtentsCache}.
+     *
+     * @param codesByKey time series codes by {@link TimeSeriesExtentsCache#key(String, String)}
+     * @return the extents by key.
+     */
+    Map<String, List<TimeSeriesExtents>> getCatalogExtents(Map<String, Long> codesByKey) {
+        return TimeSeriesExtentsCache.getInstance().get(codesByKey, this::getTimeSeriesExtents);
+    }
+
+    /**
+     * Look up the extents of several time series at once.
+     *
+     * @param tsCodes the time series codes.
+     * @return the extents by time series code, series without data are left out.
+     */
+    public Map<Long, List<TimeSeriesExtents>> getTimeSeriesExtents(Collection<Long> tsCodes) {
+        Map<Long, List<TimeSeriesExtents>> retval = new LinkedHashMap<>();
+        List<Long> codes = new ArrayList<>(tsCodes);
+        // Oracle doesn't allow more than 1000 items in an IN list
+        for (int start = 0; start < codes.size(); start += 1000) {
+            List<Long> chunk = codes.subList(start, Math.min(codes.size(), start + 1000));
+            dsl.select(AV_TS_EXTENTS_UTC.TS_CODE, AV_TS_EXTENTS_UTC.VERSION_TIME,
+                            AV_TS_EXTENTS_UTC.EARLIEST_TIME, AV_TS_EXTENTS_UTC.LATEST_TIME,
+                            AV_TS_EXTENTS_UTC.LAST_UPDATE)
+                    .from(AV_TS_EXTENTS_UTC)
+                    .where(AV_TS_EXTENTS_UTC.TS_CODE.in(chunk))
+                    .and(AV_TS_EXTENTS_UTC.EARLIEST_TIME.isNotNull())
+                    .fetch()
+                    .forEach(row -> retval.computeIfAbsent(
+                            row.get(AV_TS_EXTENTS_UTC.TS_CODE, Long.class),
+                            k -> new ArrayList<>())
+                            .add(new TimeSeriesExtents(row.get(AV_TS_EXTENTS_UTC.VERSION_TIME),
+                                    row.get(AV_TS_EXTENTS_UTC.EARLIEST_TIME),
+                                    row.get(AV_TS_EXTENTS_UTC.LATEST_TIME),
+                                    row.get(AV_TS_EXTENTS_UTC.LAST_UPDATE))));
+        }
+        return retval;
+    }
+
     // Finds the single most recent TsvDqu within the time window.
     public TsvDqu findMostRecent(String tOfficeId, String tsId, String unit,
                                  Timestamp twoWeeksFromNow, Timestamp twoWeeksAgo) {
@@ -835,6 +1081,9 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                 OracleTypeMap.formatBool(versionedFlag),
                 OracleTypeMap.formatBool(activeFlag),
                 OracleTypeMap.formatBool(false), input.getOfficeId());
+            TimeSeriesMetadataCache.getInstance().invalidate(input.getOfficeId(),
+                    input.getName());
+            CatalogIndex.getInstance().invalidate(input.getOfficeId());
             if (!input.getValues().isEmpty()) {
                 store(connection, input.getOfficeId(), input.getName(), input.getUnits(),
                         versionDate, input.getValues(), createAsLrts, storeRule,
@@ -862,27 +1111,41 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
 
         final int count = values == null ? 0 : values.size();
 
-        final long[] timeArray = new long[count];
-        final double[] valueArray = new double[count];
-        final int[] qualityArray = new int[count];
-
-        if (values != null && !values.isEmpty()) {
-            Iterator<TimeSeries.Record> iter = values.iterator();
-            for (int i = 0; iter.hasNext(); i++) {
-                TimeSeries.Record value = iter.next();
-                timeArray[i] = value.getDateTime().getTime();
-                valueArray[i] = value.getValue();
-                qualityArray[i] = value.getQualityCode();
+        final long[] timeArray;
+        final double[] valueArray;
+        final int[] qualityArray;
+
+        if (values instanceof TimeSeriesValues) {
+            // Already columnar, hand the backing arrays over as is.
+            TimeSeriesValues columns = (TimeSeriesValues) values;
+            timeArray = columns.getDateTimeArray();
+            valueArray = columns.getValueArray();
+            qualityArray = columns.getQualityArray();
+        } else {
+            timeArray = new long[count];
+            valueArray = new double[count];
+            qualityArray = new int[count];
+
+            if (values != null && !values.isEmpty()) {
+                Iterator<TimeSeries.Record> iter = values.iterator();
+                for (int i = 0; iter.hasNext(); i++) {
+                    TimeSeries.Record value = iter.next();
+                    timeArray[i] = value.getDateTime().getTime();
+                    valueArray[i] = value.getValue() == null ? Double.NaN : value.getValue();
+                    qualityArray[i] = value.getQualityCode();
+                }
             }
         }
 
         tsDao.store(connection, officeId, tsId, units, timeArray, valueArray, qualityArray, count,
                 storeRule.getRule(), overrideProtection, versionDate, createAsLrts);
+        TimeSeriesExtentsCache.getInstance().invalidate(officeId, tsId);
     }
 
     public void update(TimeSeries input, boolean createAsLrts, StoreRule storeRule,
                        Timestamp versionDate, boolean overrideProtection) throws SQLException {
         String name = input.getName();
+        // always asked of the database, a cached entry may be for a series deleted since
         if (!timeseriesExists(name)) {
             throw new SQLException("Cannot update a non-existant Timeseries. Create " + name + " "
                     + "first.");
@@ -913,6 +1176,8 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                     options.getVersionDate(), null, options.getMaxVersion(),
                     options.getTsItemMask(), options.getOverrideProtection());
         });
+        TimeSeriesMetadataCache.getInstance().invalidate(officeId, tsId);
+        TimeSeriesExtentsCache.getInstance().invalidate(officeId, tsId);
     }
 
 
@@ -0,0 +1,68 @@
+package cwms.radar.data.dao;
+
+import static cwms.radar.helpers.ConfigHelper.getLong;
+
+import cwms.radar.data.dto.TimeSeriesExtents;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Time series extents for the catalog, so paging through or repeating a catalog request
+ * doesn't read the extents view for every entry again.  Storing or deleting data through the
+ * API invalidates them; the time to live, which should be short, covers data stored by
+ * anything else.
+ */
+public final class TimeSeriesExtentsCache extends OfficeIdCache<List<TimeSeriesExtents>> {
+    public static final String SIZE_KEY = "radar.timeseries.extents.cache.size";
+    public static final String TTL_KEY = "radar.timeseries.extents.cache.ttl.seconds";
+    public static final int DEFAULT_SIZE = 20000;
+    public static final long DEFAULT_TTL_SECONDS = 60;
+
+    private static final TimeSeriesExtentsCache INSTANCE = new TimeSeriesExtentsCache(
+            getLong(SIZE_KEY, DEFAULT_SIZE), getLong(TTL_KEY, DEFAULT_TTL_SECONDS));
+
+    TimeSeriesExtentsCache(long size, long ttlSeconds) {
+        super(size, ttlSeconds);
+    }
+
+    public static TimeSeriesExtentsCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the extents of several time series, loading all of the missing ones at once.
+     *
+     * @param codesByKey time series codes by {@link #key(String, String)}.
+     * @param loader loads extents by time series code, series without data may be left out.
+     * @return the extents by key, an empty list for series without data.
+     */
+    public Map<String, List<TimeSeriesExtents>> get(Map<String, Long> codesByKey,
+            Function<Collection<Long>, Map<Long, List<TimeSeriesExtents>>> loader) {
+        Map<String, List<TimeSeriesExtents>> retval = new HashMap<>();
+        Map<Long, String> missing = new LinkedHashMap<>();
+        codesByKey.forEach((key, code) -> {
+            List<TimeSeriesExtents> cached = cached(key);
+            if (cached != null) {
+                retval.put(key, cached);
+            } else {
+                missing.put(code, key);
+            }
+        });
+
+        if (!missing.isEmpty()) {
+            Map<Long, List<TimeSeriesExtents>> loaded = loader.apply(missing.keySet());
+            missing.forEach((code, key) -> {
+                List<TimeSeriesExtents> extents = Collections.unmodifiableList(
+                        loaded.getOrDefault(code, Collections.emptyList()));
+                retval.put(key, extents);
+                remember(key, extents);
+            });
+        }
+        return retval;
+    }
+}
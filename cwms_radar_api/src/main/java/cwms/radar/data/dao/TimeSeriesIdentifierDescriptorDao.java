@@ -4,18 +4,19 @@ import static usace.cwms.db.dao.util.OracleTypeMap.parseBool;
 import static usace.cwms.db.dao.util.OracleTypeMap.toZoneId;
 
 import com.google.common.flogger.FluentLogger;
-import cwms.radar.data.dto.CwmsDTOPaginated;
 import cwms.radar.data.dto.TimeSeriesIdentifierDescriptor;
 
 import cwms.radar.data.dto.TimeSeriesIdentifierDescriptors;
 import java.math.BigDecimal;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.logging.Level;
 import java.util.stream.Collectors;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Record5;
+import org.jooq.impl.DSL;
 import usace.cwms.db.dao.ifc.ts.CwmsDbTs;
 import usace.cwms.db.dao.util.OracleTypeMap;
 import usace.cwms.db.dao.util.services.CwmsDbServiceLookup;
@@ -45,40 +46,49 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
                 OracleTypeMap.formatBool(versionedFlag),
                 OracleTypeMap.formatBool(tsid.isActive()),
                 OracleTypeMap.formatBool(failIfExists), tsid.getOfficeId());
+        TimeSeriesMetadataCache.getInstance().invalidate(tsid.getOfficeId(),
+                tsid.getTimeSeriesId());
+        CatalogIndex.getInstance().invalidate(tsid.getOfficeId());
         logger.atFine().log("Created tsCode: %s for %s", tsCode, tsid.getTimeSeriesId());
     }
 
     public TimeSeriesIdentifierDescriptors getTimeSeriesIdentifiers(String cursor, int pageSize, String office,
                                                                     String idRegex) {
-        Integer total = null;
-        int offset = 0;
-
-        if (cursor != null && !cursor.isEmpty()) {
-            String[] parts = CwmsDTOPaginated.decodeCursor(cursor);
-
-            if (parts.length > 2) {
-                offset = Integer.parseInt(parts[0]);
-                if (!"null".equals(parts[1])) {
-                    try {
-                        total = Integer.valueOf(parts[1]);
-                    } catch (NumberFormatException e) {
-                        logger.at(Level.INFO).log("Could not parse %s", parts[1]);
-                    }
-                }
-                pageSize = Integer.parseInt(parts[2]);
-            }
-        }
-
-        Collection<TimeSeriesIdentifierDescriptor> retval = getTimeSeriesIdentifiers(office, idRegex, offset, pageSize);
-
-        TimeSeriesIdentifierDescriptors.Builder builder = new TimeSeriesIdentifierDescriptors.Builder(offset, pageSize, total);
-        builder.withDescriptors(retval);
+        KeysetPagination paging = descriptorPaging();
+        KeysetPagination.Page page = paging.parse(cursor, pageSize);
+
+        List<Record5<String, String, BigDecimal, String, String>> rows =
+                getTimeSeriesIdentifierRows(office, idRegex, paging.seek(page), paging,
+                        page.getOffset(), page.getLimit());
+
+        TimeSeriesIdentifierDescriptors.Builder builder =
+                new TimeSeriesIdentifierDescriptors.Builder(page.getPosition(),
+                        paging.nextPageKey(rows, page.getPageSize()), page.getPageSize(),
+                        page.getTotal());
+        builder.withDescriptors(toDescriptors(KeysetPagination.pageOf(rows,
+                page.getPageSize())));
         return builder.build();
     }
 
 
     public Collection<TimeSeriesIdentifierDescriptor> getTimeSeriesIdentifiers(String office, String idRegex, int firstRow,
                                                                                int pageSize) {
+        return toDescriptors(getTimeSeriesIdentifierRows(office, idRegex, DSL.trueCondition(),
+                descriptorPaging(), firstRow, pageSize));
+    }
+
+    private static KeysetPagination descriptorPaging() {
+        return new KeysetPagination(
+                KeysetPagination.SortKey.of(AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.DB_OFFICE_ID),
+                KeysetPagination.SortKey.of(AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.CWMS_TS_ID),
+                KeysetPagination.SortKey.of(AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET),
+                KeysetPagination.SortKey.of(AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.TS_ACTIVE_FLAG),
+                KeysetPagination.SortKey.of(AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.TIME_ZONE_ID));
+    }
+
+    private List<Record5<String, String, BigDecimal, String, String>> getTimeSeriesIdentifierRows(
+            String office, String idRegex, Condition seek, KeysetPagination paging, int firstRow,
+            int pageSize) {
 
         Condition whereCondition = AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.DB_OFFICE_ID.equalIgnoreCase(office);
         if (idRegex != null && !idRegex.isEmpty()) {
@@ -93,14 +103,16 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
                         AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.TS_ACTIVE_FLAG,
                         AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.TIME_ZONE_ID)
                 .from(AV_CWMS_TS_ID2.AV_CWMS_TS_ID2)
-                .where(whereCondition)
-                .orderBy(AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.DB_OFFICE_ID, AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.CWMS_TS_ID,
-                        AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET,
-                        AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.TS_ACTIVE_FLAG,
-                        AV_CWMS_TS_ID2.AV_CWMS_TS_ID2.TIME_ZONE_ID)
+                .where(whereCondition.and(seek))
+                .orderBy(paging.orderBy())
                 .limit(pageSize)
                 .offset(firstRow)
-                .stream()
+                .fetch();
+    }
+
+    private List<TimeSeriesIdentifierDescriptor> toDescriptors(
+            List<Record5<String, String, BigDecimal, String, String>> rows) {
+        return rows.stream()
                 .map(this::toDescriptor)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
@@ -158,6 +170,8 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
             tsDao.updateTsId(connection, office, timeseriesId, utcOffsetMinutes, intervalForward, intervalBackward, activeFlag);
         });
+        TimeSeriesMetadataCache.getInstance().invalidate(office, timeseriesId);
+        CatalogIndex.getInstance().invalidate(office);
 
     }
 
@@ -169,6 +183,12 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CWMS_TS_PACKAGE.call_RENAME_TS__2(dsl.configuration(), origId, newId, utcOffset,
                     officeId);
         }
+
+        TimeSeriesMetadataCache cache = TimeSeriesMetadataCache.getInstance();
+        cache.invalidate(officeId, origId);
+        cache.invalidate(officeId, newId);
+        TimeSeriesExtentsCache.getInstance().invalidate(officeId, origId);
+        CatalogIndex.getInstance().invalidate(officeId);
     }
 
     public void delete(String office, String timeseriesId, DeleteMethod method) {
@@ -193,6 +213,9 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
             tsDao.deleteAll(connection, officeId, tsId);
         });
+        TimeSeriesMetadataCache.getInstance().invalidate(officeId, tsId);
+        TimeSeriesExtentsCache.getInstance().invalidate(officeId, tsId);
+        CatalogIndex.getInstance().invalidate(officeId);
     }
 
     public void deleteData(String officeId, String tsId) {
@@ -200,6 +223,8 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
             tsDao.deleteData(connection, officeId, tsId);
         });
+        TimeSeriesMetadataCache.getInstance().invalidate(officeId, tsId);
+        TimeSeriesExtentsCache.getInstance().invalidate(officeId, tsId);
     }
 
     public void deleteKey(String officeId, String tsId) {
@@ -207,6 +232,9 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
             tsDao.deleteKey(connection, officeId, tsId);
         });
+        TimeSeriesMetadataCache.getInstance().invalidate(officeId, tsId);
+        TimeSeriesExtentsCache.getInstance().invalidate(officeId, tsId);
+        CatalogIndex.getInstance().invalidate(officeId);
     }
 
 
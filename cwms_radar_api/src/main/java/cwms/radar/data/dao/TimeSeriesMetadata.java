@@ -0,0 +1,152 @@
+package cwms.radar.data.dao;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * The parts of a time series identifier that don't change between requests: the resolved
+ * ts_code and canonical id, its interval and offset, and the default units for each unit system.
+ */
+public final class TimeSeriesMetadata {
+    private final BigDecimal tsCode;
+    private final String tsId;
+    private final String officeId;
+    private final String locationId;
+    private final String parameterId;
+    private final Duration interval;
+    private final Long intervalUtcOffset;
+    private final String timeZoneId;
+    private final String enUnits;
+    private final String siUnits;
+
+    private TimeSeriesMetadata(Builder builder) {
+        this.tsCode = builder.tsCode;
+        this.tsId = builder.tsId;
+        this.officeId = builder.officeId;
+        this.locationId = builder.locationId;
+        this.parameterId = builder.parameterId;
+        this.interval = builder.interval;
+        this.intervalUtcOffset = builder.intervalUtcOffset;
+        this.timeZoneId = builder.timeZoneId;
+        this.enUnits = builder.enUnits;
+        this.siUnits = builder.siUnits;
+    }
+
+    public BigDecimal getTsCode() {
+        return tsCode;
+    }
+
+    public String getTsId() {
+        return tsId;
+    }
+
+    public String getOfficeId() {
+        return officeId;
+    }
+
+    public String getLocationId() {
+        return locationId;
+    }
+
+    /**
+     * @return the upper case full parameter, e.g. ELEV or FLOW-IN.
+     */
+    public String getParameterId() {
+        return parameterId;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public Long getIntervalUtcOffset() {
+        return intervalUtcOffset;
+    }
+
+    public String getTimeZoneId() {
+        return timeZoneId;
+    }
+
+    /**
+     * Resolve the units values should be retrieved in.
+     *
+     * @param units EN or SI for the default units of that system, anything else is returned
+     *              as is.
+     * @return the units to retrieve values in.
+     */
+    public String unitsFor(String units) {
+        if ("EN".equalsIgnoreCase(units)) {
+            return enUnits;
+        } else if ("SI".equalsIgnoreCase(units)) {
+            return siUnits;
+        }
+        return units;
+    }
+
+    public static class Builder {
+        private BigDecimal tsCode;
+        private String tsId;
+        private String officeId;
+        private String locationId;
+        private String parameterId;
+        private Duration interval = Duration.ZERO;
+        private Long intervalUtcOffset;
+        private String timeZoneId;
+        private String enUnits;
+        private String siUnits;
+
+        public Builder withTsCode(BigDecimal tsCode) {
+            this.tsCode = tsCode;
+            return this;
+        }
+
+        public Builder withTsId(String tsId) {
+            this.tsId = tsId;
+            return this;
+        }
+
+        public Builder withOfficeId(String officeId) {
+            this.officeId = officeId;
+            return this;
+        }
+
+        public Builder withLocationId(String locationId) {
+            this.locationId = locationId;
+            return this;
+        }
+
+        public Builder withParameterId(String parameterId) {
+            this.parameterId = parameterId;
+            return this;
+        }
+
+        public Builder withInterval(Duration interval) {
+            this.interval = interval;
+            return this;
+        }
+
+        public Builder withIntervalUtcOffset(Long intervalUtcOffset) {
+            this.intervalUtcOffset = intervalUtcOffset;
+            return this;
+        }
+
+        public Builder withTimeZoneId(String timeZoneId) {
+            this.timeZoneId = timeZoneId;
+            return this;
+        }
+
+        public Builder withEnUnits(String enUnits) {
+            this.enUnits = enUnits;
+            return this;
+        }
+
+        public Builder withSiUnits(String siUnits) {
+            this.siUnits = siUnits;
+            return this;
+        }
+
+        public TimeSeriesMetadata build() {
+            return new TimeSeriesMetadata(this);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package cwms.radar.data.dao;
+
+import static cwms.radar.helpers.ConfigHelper.getLong;
+
+import java.util.function.Supplier;
+
+/**
+ * Shares resolved {@link TimeSeriesMetadata} between requests so paging through, or polling,
+ * the same series doesn't resolve the identifier again every time.  Anything that creates,
+ * renames or deletes a time series identifier through the API invalidates it.
+ */
+public final class TimeSeriesMetadataCache extends OfficeIdCache<TimeSeriesMetadata> {
+    public static final String SIZE_KEY = "radar.timeseries.metadata.cache.size";
+    public static final String TTL_KEY = "radar.timeseries.metadata.cache.ttl.seconds";
+    public static final int DEFAULT_SIZE = 10000;
+    public static final long DEFAULT_TTL_SECONDS = 300;
+
+    private static final TimeSeriesMetadataCache INSTANCE = new TimeSeriesMetadataCache(
+            getLong(SIZE_KEY, DEFAULT_SIZE), getLong(TTL_KEY, DEFAULT_TTL_SECONDS));
+
+    TimeSeriesMetadataCache(long size, long ttlSeconds) {
+        super(size, ttlSeconds);
+    }
+
+    public static TimeSeriesMetadataCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the cached metadata, or load and remember it.
+     *
+     * @param office the office, when null the session's office is used by the loader and the
+     *               result isn't cached.
+     * @param tsId the time series identifier in any case.
+     * @param loader resolves the metadata on a miss.
+     * @return the metadata.
+     */
+    public TimeSeriesMetadata get(String office, String tsId, Supplier<TimeSeriesMetadata> loader) {
+        return getOrLoad(office, tsId, loader);
+    }
+
+    /**
+     * @return the cached metadata or null, never goes to the database.  Only for reads, a
+     *      write has to ask the database whether the series still exists.
+     */
+    TimeSeriesMetadata peek(String office, String tsId) {
+        if (office == null || tsId == null) {
+            return null;
+        }
+        return cached(key(office, tsId));
+    }
+}
@@ -0,0 +1,24 @@
+package cwms.radar.data.dao;
+
+/**
+ * How the total number of records is worked out for the first page of a paginated result.
+ */
+public enum TotalMode {
+    /** Count every record with a separate query.  Accurate but as expensive as the data. */
+    EXACT,
+    /** Work the total out from what is already known, e.g. interval and extents.  May be null. */
+    ESTIMATE,
+    /** Don't report a total. */
+    NONE;
+
+    public static final TotalMode DEFAULT = ESTIMATE;
+
+    public static TotalMode getTotalMode(String input) {
+        TotalMode retval = DEFAULT;
+
+        if (input != null && !input.isEmpty()) {
+            retval = TotalMode.valueOf(input.toUpperCase());
+        }
+        return retval;
+    }
+}
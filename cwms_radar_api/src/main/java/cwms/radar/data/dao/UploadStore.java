@@ -0,0 +1,451 @@
+package cwms.radar.data.dao;
+
+import static cwms.radar.helpers.ConfigHelper.getLong;
+import static cwms.radar.helpers.ConfigHelper.getString;
+
+import cwms.radar.api.errors.NotFoundException;
+import cwms.radar.api.errors.ServiceUnavailableException;
+import cwms.radar.data.dto.Upload;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Holds blob and clob uploads while their chunks arrive.
+ *
+ * <p>Temporary LOBs only live as long as the database session that created them and every
+ * request gets its connection from the pool, so chunks are staged in files under
+ * {@value #DIR_KEY} instead.  Each chunk is streamed to disk with a fixed buffer and forced
+ * before it is acknowledged, a client whose upload broke asks for the upload and resumes from
+ * its offset.  A commit streams the file into a single temporary LOB and stores it with one
+ * call.  Uploads that haven't received a chunk for {@value #TTL_KEY} seconds are removed in
+ * the background once {@link #start()} was called.  All uploads together may not take more than
+ * {@value #QUOTA_BYTES_KEY} bytes.
+ *
+ * <p>Uploads only exist on the server that created them.  Where several servers share a load
+ * balancer, requests for the upload paths have to be routed to a single one of them, or by
+ * upload id, or clients get 404s for uploads another server holds.  The directory may not be
+ * shared either: the first server to start locks it and the uploads of any other server using
+ * it fail.
+ */
+public final class UploadStore {
+    private static final Logger logger = Logger.getLogger(UploadStore.class.getName());
+
+    public static final String DIR_KEY = "radar.upload.dir";
+    public static final String MAX_BYTES_KEY = "radar.upload.max.bytes";
+    public static final String QUOTA_BYTES_KEY = "radar.upload.quota.bytes";
+    public static final String TTL_KEY = "radar.upload.ttl.seconds";
+    public static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024 * 1024;
+    public static final long DEFAULT_QUOTA_BYTES = 4 * DEFAULT_MAX_BYTES;
+    public static final long DEFAULT_TTL_SECONDS = TimeUnit.DAYS.toSeconds(1);
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String DATA_SUFFIX = ".part";
+    private static final String META_SUFFIX = ".properties";
+    private static final String LOCK_FILE = ".lock";
+    private static final int LOCK_STRIPES = 64;
+
+    private static final UploadStore INSTANCE = new UploadStore(
+            Paths.get(getString(DIR_KEY, Paths.get(System.getProperty("java.io.tmpdir"),
+                    "radar-uploads").toString())),
+            getLong(MAX_BYTES_KEY, DEFAULT_MAX_BYTES), getLong(QUOTA_BYTES_KEY,
+            DEFAULT_QUOTA_BYTES), getLong(TTL_KEY, DEFAULT_TTL_SECONDS));
+
+    private final Path dir;
+    private final long maxBytes;
+    private final long quotaBytes;
+    private final long ttlMillis;
+    // Striped so a lock is never dropped while another thread waits for it.
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final AtomicLong used = new AtomicLong();
+    private volatile boolean counted;
+    private FileChannel lockChannel;
+    private FileLock dirLock;
+    private String sharedDir;
+    private ScheduledExecutorService executor;
+
+    UploadStore(Path dir, long maxBytes, long quotaBytes, long ttlSeconds) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.quotaBytes = quotaBytes;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public static UploadStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Thrown when a chunk doesn't start where the upload left off.
+     */
+    public static class OffsetMismatchException extends Exception {
+        private final transient Upload upload;
+
+        OffsetMismatchException(Upload upload) {
+            super("Upload " + upload.getUploadId() + " is at offset " + upload.getOffset());
+            this.upload = upload;
+        }
+
+        public Upload getUpload() {
+            return upload;
+        }
+    }
+
+    /**
+     * Thrown when a chunk doesn't fit in what {@value #QUOTA_BYTES_KEY} leaves.
+     */
+    public static class QuotaExceededException extends Exception {
+        QuotaExceededException(long quotaBytes) {
+            super("Uploads in progress already take up the " + quotaBytes
+                    + " bytes available for them");
+        }
+    }
+
+    /**
+     * Stores a committed upload.
+     */
+    @FunctionalInterface
+    public interface Committer {
+        void commit(Upload upload, InputStream data) throws IOException, SQLException;
+    }
+
+    /**
+     * Lock the directory for this server and start removing expired uploads.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        try {
+            Files.createDirectories(dir);
+            lockChannel = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            dirLock = lockChannel.tryLock();
+        } catch (IOException | OverlappingFileLockException ex) {
+            logger.log(Level.WARNING, "Unable to lock " + dir, ex);
+        }
+        if (dirLock == null) {
+            sharedDir = "Uploads are staged in " + dir + " which another server is using, "
+                    + "set " + DIR_KEY + " to a directory of this server.";
+            logger.severe(sharedDir);
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "radar-upload-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(TimeUnit.MINUTES.toMillis(1), ttlMillis / 4);
+        executor.scheduleWithFixedDelay(() -> removeExpired(System.currentTimeMillis()),
+                period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        try {
+            if (dirLock != null) {
+                dirLock.release();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Unable to unlock " + dir, ex);
+        }
+        dirLock = null;
+        lockChannel = null;
+        sharedDir = null;
+    }
+
+    /**
+     * Start an upload.
+     *
+     * @param upload what is being uploaded, its id and offset are ignored.
+     * @return the upload with its new id.
+     * @throws ServiceUnavailableException if another server uses the directory.
+     */
+    public Upload create(Upload upload) throws IOException {
+        checkNotShared();
+        Files.createDirectories(dir);
+
+        Upload retval = new Upload.Builder().fromUpload(upload)
+                .withUploadId(UUID.randomUUID().toString())
+                .withOffset(0L)
+                .build();
+
+        Properties props = new Properties();
+        props.setProperty("kind", retval.getKind().name());
+        setProperty(props, "office", retval.getOfficeId());
+        setProperty(props, "id", retval.getId());
+        setProperty(props, "description", retval.getDescription());
+        setProperty(props, "media-type", retval.getMediaTypeId());
+        if (retval.getFailIfExists() != null) {
+            props.setProperty("fail-if-exists", retval.getFailIfExists().toString());
+        }
+
+        Files.createFile(dataFile(retval.getUploadId()));
+        try (OutputStream out = Files.newOutputStream(metaFile(retval.getUploadId()))) {
+            props.store(out, null);
+        }
+        return retval;
+    }
+
+    /**
+     * @return the upload with the number of bytes received so far.
+     * @throws NotFoundException if there is no such upload.
+     */
+    public Upload get(String uploadId) throws IOException {
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(metaFile(uploadId), StandardCharsets.ISO_8859_1)) {
+            props.load(in);
+        } catch (NoSuchFileException ex) {
+            throw new NotFoundException("Unable to find upload " + uploadId);
+        }
+
+        String failIfExists = props.getProperty("fail-if-exists");
+        return new Upload.Builder()
+                .withUploadId(uploadId)
+                .withKind(Upload.Kind.valueOf(props.getProperty("kind")))
+                .withOfficeId(props.getProperty("office"))
+                .withId(props.getProperty("id"))
+                .withDescription(props.getProperty("description"))
+                .withMediaTypeId(props.getProperty("media-type"))
+                .withFailIfExists(failIfExists == null ? null : Boolean.valueOf(failIfExists))
+                .withOffset(Files.size(dataFile(uploadId)))
+                .build();
+    }
+
+    /**
+     * Append a chunk.  A chunk that fails part way is discarded so the offset always ends a
+     * complete chunk.
+     *
+     * @param offset where the chunk starts, must be the current offset of the upload.
+     * @param in the chunk, read to the end.
+     * @return the upload with its new offset.
+     * @throws OffsetMismatchException if offset is not the current offset.
+     * @throws IllegalArgumentException if the upload would be larger than
+     *      {@value #MAX_BYTES_KEY}.
+     * @throws QuotaExceededException if all uploads together would be larger than
+     *      {@value #QUOTA_BYTES_KEY}.
+     */
+    public Upload append(String uploadId, long offset, InputStream in)
+            throws IOException, OffsetMismatchException, QuotaExceededException {
+        checkNotShared();
+        AtomicLong usage = usage();
+        synchronized (lock(uploadId)) {
+            Upload upload = get(uploadId);
+            long start = upload.getOffset();
+            if (offset != start) {
+                throw new OffsetMismatchException(upload);
+            }
+
+            long size = start;
+            try (FileChannel channel = FileChannel.open(dataFile(uploadId),
+                    StandardOpenOption.WRITE)) {
+                channel.position(start);
+                byte[] buffer = new byte[BUFFER_SIZE];
+                boolean complete = false;
+                try {
+                    int read;
+                    while ((read = in.read(buffer)) >= 0) {
+                        if (size + read > maxBytes) {
+                            throw new IllegalArgumentException("Uploads can't be larger than "
+                                    + maxBytes + " bytes");
+                        }
+                        if (usage.addAndGet(read) > quotaBytes) {
+                            usage.addAndGet(-read);
+                            throw new QuotaExceededException(quotaBytes);
+                        }
+                        size += read;
+                        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                        while (bytes.hasRemaining()) {
+                            channel.write(bytes);
+                        }
+                    }
+                    channel.force(false);
+                    complete = true;
+                } finally {
+                    if (!complete) {
+                        channel.truncate(start);
+                        usage.addAndGet(start - size);
+                    }
+                }
+            }
+
+            return new Upload.Builder().fromUpload(upload).withOffset(size).build();
+        }
+    }
+
+    /**
+     * Hand the whole upload to committer and remove it once it has been stored.  Chunks
+     * can't be appended while it runs.
+     */
+    public Upload commit(String uploadId, Committer committer) throws IOException, SQLException {
+        checkNotShared();
+        synchronized (lock(uploadId)) {
+            Upload upload = get(uploadId);
+            try (InputStream data = Files.newInputStream(dataFile(uploadId))) {
+                committer.commit(upload, data);
+            }
+            delete(uploadId);
+            return upload;
+        }
+    }
+
+    /**
+     * Abandon an upload.
+     *
+     * @throws NotFoundException if there is no such upload.
+     */
+    public void delete(String uploadId) throws IOException {
+        synchronized (lock(uploadId)) {
+            if (!remove(uploadId)) {
+                throw new NotFoundException("Unable to find upload " + uploadId);
+            }
+        }
+    }
+
+    /**
+     * Remove uploads that haven't received a chunk within the time to live.
+     */
+    void removeExpired(long now) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + META_SUFFIX)) {
+            for (Path meta : stream) {
+                String name = meta.getFileName().toString();
+                String uploadId = name.substring(0, name.length() - META_SUFFIX.length());
+                if (!isUploadId(uploadId)) {
+                    continue;
+                }
+                synchronized (lock(uploadId)) {
+                    Path data = dataFile(uploadId);
+                    if (!Files.exists(meta)) {
+                        continue;
+                    }
+                    long modified = Files.exists(data)
+                            ? Files.getLastModifiedTime(data).toMillis()
+                            : Files.getLastModifiedTime(meta).toMillis();
+                    if (now - modified > ttlMillis) {
+                        remove(uploadId);
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Unable to remove expired uploads from " + dir, ex);
+        }
+    }
+
+    /**
+     * @return the bytes all uploads take up.
+     */
+    long getUsedBytes() throws IOException {
+        return usage().get();
+    }
+
+    /**
+     * Remove the files of an upload, the caller holds its lock.
+     *
+     * @return true if the upload existed.
+     */
+    private boolean remove(String uploadId) throws IOException {
+        Path data = dataFile(uploadId);
+        if (Files.exists(data)) {
+            long size = Files.size(data);
+            Files.delete(data);
+            usage().addAndGet(-size);
+        }
+        return Files.deleteIfExists(metaFile(uploadId));
+    }
+
+    /**
+     * The bytes taken up by all uploads, counted the first time it is needed.
+     */
+    private AtomicLong usage() throws IOException {
+        if (!counted) {
+            synchronized (used) {
+                if (!counted) {
+                    long total = 0;
+                    if (Files.isDirectory(dir)) {
+                        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir,
+                                "*" + DATA_SUFFIX)) {
+                            for (Path data : stream) {
+                                total += Files.size(data);
+                            }
+                        }
+                    }
+                    used.set(total);
+                    counted = true;
+                }
+            }
+        }
+        return used;
+    }
+
+    private synchronized void checkNotShared() {
+        if (sharedDir != null) {
+            throw new ServiceUnavailableException(sharedDir);
+        }
+    }
+
+    private Object lock(String uploadId) {
+        return locks[Math.floorMod(checkId(uploadId).hashCode(), locks.length)];
+    }
+
+    private Path dataFile(String uploadId) {
+        return dir.resolve(checkId(uploadId) + DATA_SUFFIX);
+    }
+
+    private Path metaFile(String uploadId) {
+        return dir.resolve(checkId(uploadId) + META_SUFFIX);
+    }
+
+    /**
+     * Upload ids are UUIDs, anything else, a path in particular, doesn't exist.
+     */
+    private static String checkId(String uploadId) {
+        if (isUploadId(uploadId)) {
+            return uploadId;
+        }
+        throw new NotFoundException("Unable to find upload " + uploadId);
+    }
+
+    private static boolean isUploadId(String uploadId) {
+        try {
+            return uploadId != null && UUID.fromString(uploadId).toString().equals(uploadId);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private static void setProperty(Properties props, String key, String value) {
+        if (value != null) {
+            props.setProperty(key, value);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package cwms.radar.data.dao;
+
+import static cwms.radar.helpers.ConfigHelper.getLong;
+
+import cwms.radar.data.dto.VerticalDatumInfo;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Parsed vertical datum information per office and location, by units.
+ *
+ * <p>A location's datum information almost never changes, so it's shared between requests for
+ * ELEV series.  Locations with no datum information are remembered as well.  Storing, renaming
+ * or deleting a location through the API invalidates it in every unit.
+ */
+public final class VerticalDatumInfoCache
+        extends OfficeIdCache<Map<String, Optional<VerticalDatumInfo>>> {
+    public static final String SIZE_KEY = "radar.vertical.datum.cache.size";
+    public static final String TTL_KEY = "radar.vertical.datum.cache.ttl.seconds";
+    public static final int DEFAULT_SIZE = 5000;
+    public static final long DEFAULT_TTL_SECONDS = 3600;
+
+    private static final VerticalDatumInfoCache INSTANCE = new VerticalDatumInfoCache(
+            getLong(SIZE_KEY, DEFAULT_SIZE), getLong(TTL_KEY, DEFAULT_TTL_SECONDS));
+
+    VerticalDatumInfoCache(long size, long ttlSeconds) {
+        super(size, ttlSeconds);
+    }
+
+    public static VerticalDatumInfoCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the cached datum information, or load and remember it.
+     *
+     * @param loader retrieves and parses the information on a miss, may return null.
+     * @return the datum information, null if the location has none.
+     */
+    public VerticalDatumInfo get(String office, String locationId, String units,
+                                 Supplier<VerticalDatumInfo> loader) {
+        return getOrLoad(office, locationId, ConcurrentHashMap::new)
+                .computeIfAbsent(String.valueOf(units), u -> Optional.ofNullable(loader.get()))
+                .orElse(null);
+    }
+}
@@ -13,14 +13,21 @@ public class Blob implements CwmsDTO
 	private String description;
 	private String mediaTypeId;
 	private byte[] value;
+	private Long length;
 
 	public Blob(String office, String id, String description, String type, byte[] value)
+	{
+		this(office, id, description, type, value, null);
+	}
+
+	public Blob(String office, String id, String description, String type, byte[] value, Long length)
 	{
 		this.office = office;
 		this.id = id;
 		this.description = description;
 		this.mediaTypeId = type;
 		this.value = value;
+		this.length = length;
 	}
 
 	public String getOffice()
@@ -48,6 +55,14 @@ public class Blob implements CwmsDTO
 		return mediaTypeId;
 	}
 
+	/**
+	 * @return the length of the value in bytes, null if unknown.
+	 */
+	public Long getLength()
+	{
+		return length;
+	}
+
 	@Override
 	public String toString(){
 		StringBuilder builder = new StringBuilder();
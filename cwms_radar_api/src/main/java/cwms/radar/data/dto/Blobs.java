@@ -37,23 +37,34 @@ public class Blobs extends CwmsDTOPaginated {
     }
 
     public static class Builder {
+        private final PagePosition position;
         private Blobs workingBlobs = null;
+
         public Builder( String cursor, int pageSize, int total){
+            // The next cursor is the last blob rather than an offset.
+            this(PagePosition.ofOffset(0), cursor, pageSize, total);
+        }
+
+        /**
+         * Build a keyset paged result.
+         *
+         * @param page the position this page started at.
+         * @param nextPageKey the position of the next page, null if this is the last page.
+         */
+        public Builder(String page, String nextPageKey, int pageSize, int total){
+            this(PagePosition.ofKeyset(page, nextPageKey), page, pageSize, total);
+        }
+
+        private Builder(PagePosition position, String cursor, int pageSize, int total){
+            this.position = position;
             workingBlobs = new Blobs(cursor, pageSize, total);
         }
 
         public Blobs build(){
-            if( this.workingBlobs.blobs.size() == this.workingBlobs.pageSize){
-                this.workingBlobs.nextPage = encodeCursor(
-                            this.workingBlobs.blobs.get(this.workingBlobs.blobs.size()-1).toString().toUpperCase(),
-                            this.workingBlobs.pageSize,
-                            this.workingBlobs.total);
-            } else {
-                this.workingBlobs.nextPage = null;
-            }
+            List<Blob> blobs = this.workingBlobs.blobs;
+            this.workingBlobs.setNextPage(position, blobs.size(),
+                    () -> blobs.get(blobs.size() - 1).toString().toUpperCase());
             return workingBlobs;
-
-
         }
 
         public Builder addBlob(Blob blob){
@@ -16,16 +16,22 @@ public class Clob implements CwmsDTO {
     private String id;
     private String description;
     private String value;
+    private Long length;
 
     @SuppressWarnings("unused")
     private Clob() {
     }
 
     public Clob(String office, String id, String description, String value) {
+        this(office, id, description, value, null);
+    }
+
+    public Clob(String office, String id, String description, String value, Long length) {
         this.office = office;
         this.id = id;
         this.description = description;
         this.value = value;
+        this.length = length;
     }
 
     public String getOffice() {
@@ -44,6 +50,14 @@ public class Clob implements CwmsDTO {
         return value;
     }
 
+    /**
+     * @return the length of the whole value in characters when the value may have been cut
+     *      off, null otherwise.
+     */
+    public Long getLength() {
+        return length;
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
@@ -7,6 +7,7 @@ import java.util.Base64.Decoder;
 import java.util.Base64.Encoder;
 import java.util.logging.Logger;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -45,7 +46,8 @@ public abstract class CwmsDTOPaginated implements CwmsDTO {
 
     @JsonInclude(value = Include.NON_NULL)
     @Schema(        
-        description = "The total number of records retrieved; null or not present if not supported or unknown",
+        description = "The total number of records retrieved; null or not present if not supported or unknown. "
+                + "Some endpoints estimate the total, in which case it is approximate",
         accessMode = AccessMode.READ_ONLY
     )
     protected Integer total;
@@ -118,6 +120,23 @@ public abstract class CwmsDTOPaginated implements CwmsDTO {
         return pageSize;
     }
 
+    /**
+     * Set the cursor of the next page, null when this is the last one.
+     *
+     * @param position where this page started.
+     * @param rows the rows on this page, counted however the result pages them.
+     * @param endCursor the position after the last row, only used when not keyset paged.
+     */
+    protected final void setNextPage(PagePosition position, int rows, Supplier<String> endCursor) {
+        String next;
+        if (position.keyset) {
+            next = position.nextPageKey;
+        } else {
+            next = rows > 0 && rows >= pageSize ? endCursor.get() : null;
+        }
+        nextPage = next == null ? null : encodeCursor(next, pageSize, total);
+    }
+
     public static String[] decodeCursor(String cursor) {
         return decodeCursor(cursor, CwmsDTOPaginated.delimiter);
     }
@@ -161,4 +180,45 @@ public abstract class CwmsDTOPaginated implements CwmsDTO {
     }
 
     public static CursorCheck CURSOR_CHECK = new CursorCheck();
+
+    /**
+     * Where a page starts, for the builders of paged results.  An offset page's next page is
+     * worked out from its rows; a keyset page is told where the next one starts.
+     */
+    public static final class PagePosition {
+        private final String page;
+        private final int offset;
+        private final boolean keyset;
+        private final String nextPageKey;
+
+        private PagePosition(String page, int offset, boolean keyset, String nextPageKey) {
+            this.page = page;
+            this.offset = offset;
+            this.keyset = keyset;
+            this.nextPageKey = nextPageKey;
+        }
+
+        public static PagePosition ofOffset(int offset) {
+            return new PagePosition(Integer.toString(offset), offset, false, null);
+        }
+
+        /**
+         * @param page the position this page started at.
+         * @param nextPageKey the position of the next page, null if this is the last page.
+         */
+        public static PagePosition ofKeyset(String page, String nextPageKey) {
+            return new PagePosition(page, 0, true, nextPageKey);
+        }
+
+        public String getPage() {
+            return page;
+        }
+
+        /**
+         * @return the offset of an offset page, 0 for a keyset page.
+         */
+        public int getOffset() {
+            return offset;
+        }
+    }
 }
@@ -36,28 +36,45 @@ public class Pools extends CwmsDTOPaginated {
         this.offset = offset;
     }
 
+    private Pools(PagePosition position, int pageSize, Integer total)
+    {
+        super(position.getPage(), pageSize, total);
+        pools = new ArrayList<>();
+        this.offset = position.getOffset();
+    }
+
     public List<Pool> getPools() {
         return Collections.unmodifiableList(pools);
     }
 
 
     public static class Builder {
+        private final PagePosition position;
         private Pools workingPools = null;
 
         public Builder(int offset, int pageSize, Integer total){
-            workingPools = new Pools(offset, pageSize, total);
+            this(PagePosition.ofOffset(offset), pageSize, total);
+        }
+
+        /**
+         * Build a keyset paged result.
+         *
+         * @param page the position this page started at.
+         * @param nextPageKey the position of the next page, null if this is the last page.
+         */
+        public Builder(String page, String nextPageKey, int pageSize, Integer total){
+            this(PagePosition.ofKeyset(page, nextPageKey), pageSize, total);
+        }
+
+        private Builder(PagePosition position, int pageSize, Integer total){
+            this.position = position;
+            workingPools = new Pools(position, pageSize, total);
         }
 
         public Pools build(){
-            if( this.workingPools.pools.size() == this.workingPools.pageSize){
-
-                String cursor = Integer.toString(this.workingPools.offset + this.workingPools.pools.size());
-                this.workingPools.nextPage = encodeCursor(cursor,
-                            this.workingPools.pageSize,
-                            this.workingPools.total);
-            } else {
-                this.workingPools.nextPage = null;
-            }
+            int rows = this.workingPools.pools.size();
+            this.workingPools.setNextPage(position, rows,
+                    () -> Integer.toString(this.workingPools.offset + rows));
             return workingPools;
         }
 
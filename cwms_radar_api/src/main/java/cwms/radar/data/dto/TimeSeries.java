@@ -4,8 +4,11 @@ import java.lang.reflect.Field;
 import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import javax.xml.bind.annotation.XmlAccessOrder;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorOrder;
@@ -23,13 +26,16 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonFormat.Shape;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 import cwms.radar.api.errors.FieldException;
 import cwms.radar.data.dto.TimeSeries.Record;
+import cwms.radar.formatters.json.adapters.TimeSeriesValuesSerializer;
 import cwms.radar.formatters.xml.adapters.DurationAdapter;
 import cwms.radar.formatters.xml.adapters.TimestampAdapter;
 import cwms.radar.formatters.xml.adapters.ZonedDateTimeAdapter;
@@ -85,6 +91,8 @@ public class TimeSeries extends CwmsDTOPaginated {
     @XmlElement(name="record")
     // Use the array shape to optimize data transfer to client
     @JsonFormat(shape=JsonFormat.Shape.ARRAY)
+    @JsonSerialize(using = TimeSeriesValuesSerializer.class)
+    @JsonDeserialize(as = TimeSeriesValues.class)
     @ArraySchema(
         schema = @Schema(
             description = "List of retrieved time-series values",
@@ -115,7 +123,9 @@ public class TimeSeries extends CwmsDTOPaginated {
 
 
     @SuppressWarnings("unused") // required so JAXB can initialize and marshal
-    private TimeSeries() {}
+    private TimeSeries() {
+        values = new TimeSeriesValues();
+    }
 
     public TimeSeries(String page, int pageSize, Integer total, String name, String officeId, ZonedDateTime begin, ZonedDateTime end, String units, Duration interval) {
         this(page, pageSize, total, name, officeId, begin, end, units, interval, null, null, null);
@@ -136,7 +146,7 @@ public class TimeSeries extends CwmsDTOPaginated {
         this.verticalDatumInfo = info;
         this.intervalOffset = intervalOffset;
         this.timeZone = timeZone;
-        values = new ArrayList<>();
+        values = new TimeSeriesValues();
     }
 
     public String getName() {
@@ -201,15 +211,48 @@ public class TimeSeries extends CwmsDTOPaginated {
     }
 
     public boolean addValue(Timestamp dateTime, Double value, int qualityCode) {
+        return addValue(dateTime.getTime(), value, qualityCode);
+    }
+
+    public boolean addValue(long dateTimeMillis, Double value, int qualityCode) {
         // Set the current page, if not set
         if((page == null || page.isEmpty()) && values.isEmpty()) {
-            page = encodeCursor(String.format("%d", dateTime.getTime()), pageSize, total);
+            page = encodeCursor(String.format("%d", dateTimeMillis), pageSize, total);
         }
         if(pageSize > 0 && values.size() == pageSize) {
-            nextPage = encodeCursor(String.format("%d", dateTime.toInstant().toEpochMilli()), pageSize, total);
+            nextPage = encodeCursor(String.format("%d", dateTimeMillis), pageSize, total);
             return false;
+        } else if (values instanceof TimeSeriesValues) {
+            ((TimeSeriesValues) values).add(dateTimeMillis, value, qualityCode);
+            return true;
         } else {
-            return values.add(new Record(dateTime, value, qualityCode));
+            return values.add(new Record(new Timestamp(dateTimeMillis), value, qualityCode));
+        }
+    }
+
+    /**
+     * Read the values from source while this time series is being formatted instead of holding
+     * them all in memory.  Only unpaged (negative page size) time series can be streamed.
+     * The values can be iterated once and size() and get() are not supported, so
+     * this should only be used for time series that go straight to a formatter that only
+     * iterates them, see TimeSeriesController.
+     *
+     * @param source values in date order, read as they are formatted
+     */
+    public void streamValues(Iterator<Record> source) {
+        if (pageSize >= 0) {
+            throw new IllegalStateException("Only unpaged time series values can be streamed");
+        }
+        if (!values.isEmpty()) {
+            throw new IllegalStateException("Time series already has values");
+        }
+
+        if (source.hasNext()) {
+            Record first = source.next();
+            if (page == null || page.isEmpty()) {
+                page = encodeCursor(String.format("%d", first.getDateTime().getTime()), pageSize, total);
+            }
+            values = new StreamedValues(first, source);
         }
     }
 
@@ -282,7 +325,7 @@ public class TimeSeries extends CwmsDTOPaginated {
         @SuppressWarnings("unused") // required so JAXB can initialize and marshal
         private Record() {}
 
-        protected Record(Timestamp dateTime, Double value, int qualityCode) {
+        public Record(Timestamp dateTime, Double value, int qualityCode) {
             this.dateTime = dateTime;
             this.value = value;
             this.qualityCode = qualityCode;
@@ -342,6 +385,63 @@ public class TimeSeries extends CwmsDTOPaginated {
         }
     }
 
+    /**
+     * Single pass view of values that are still being read, see {@link #streamValues(Iterator)}.
+     */
+    private static class StreamedValues extends AbstractList<Record> {
+        private Record first;
+        private final Iterator<Record> rest;
+        private boolean read = false;
+
+        private StreamedValues(Record first, Iterator<Record> rest) {
+            this.first = first;
+            this.rest = rest;
+        }
+
+        @Override
+        public Iterator<Record> iterator() {
+            if (read) {
+                throw new IllegalStateException("Streamed time series values can only be read once");
+            }
+            read = true;
+            return new Iterator<Record>() {
+                @Override
+                public boolean hasNext() {
+                    return first != null || rest.hasNext();
+                }
+
+                @Override
+                public Record next() {
+                    if (first != null) {
+                        Record retval = first;
+                        first = null;
+                        return retval;
+                    }
+                    if (!rest.hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return rest.next();
+                }
+            };
+        }
+
+        @Override
+        public boolean isEmpty() {
+            // AbstractList would ask size(), which a stream doesn't know
+            return first == null && !rest.hasNext();
+        }
+
+        @Override
+        public Record get(int index) {
+            throw new UnsupportedOperationException("Streamed time series values can't be indexed");
+        }
+
+        @Override
+        public int size() {
+            throw new UnsupportedOperationException("Streamed time series values have no size");
+        }
+    }
+
     @Schema(hidden = true, name = "TimeSeries.Column", accessMode = Schema.AccessMode.READ_ONLY)
     private static class Column {
         public final String name;
@@ -23,8 +23,8 @@ public class TimeSeriesIdentifierDescriptors extends CwmsDTOPaginated {
 
     private int offset;
 
-    private TimeSeriesIdentifierDescriptors(int offset, int pageSize, Integer total, List<TimeSeriesIdentifierDescriptor> specsList) {
-        super(Integer.toString(offset), pageSize, total);
+    private TimeSeriesIdentifierDescriptors(String page, int offset, int pageSize, Integer total, List<TimeSeriesIdentifierDescriptor> specsList) {
+        super(page, pageSize, total);
         descriptors = new ArrayList<>(specsList);
         this.offset = offset;
     }
@@ -40,13 +40,27 @@ public class TimeSeriesIdentifierDescriptors extends CwmsDTOPaginated {
     }
 
     public static class Builder {
-        private final int offset;
+        private final PagePosition position;
         private final int pageSize;
         private final Integer total;
         private List<TimeSeriesIdentifierDescriptor> descriptors;
 
         public Builder(int offset, int pageSize, Integer total) {
-            this.offset = offset;
+            this(PagePosition.ofOffset(offset), pageSize, total);
+        }
+
+        /**
+         * Build a keyset paged result.
+         *
+         * @param page the position this page started at.
+         * @param nextPageKey the position of the next page, null if this is the last page.
+         */
+        public Builder(String page, String nextPageKey, int pageSize, Integer total) {
+            this(PagePosition.ofKeyset(page, nextPageKey), pageSize, total);
+        }
+
+        private Builder(PagePosition position, int pageSize, Integer total) {
+            this.position = position;
             this.pageSize = pageSize;
             this.total = total;
         }
@@ -61,15 +75,10 @@ public class TimeSeriesIdentifierDescriptors extends CwmsDTOPaginated {
         }
 
         public TimeSeriesIdentifierDescriptors build() {
-            TimeSeriesIdentifierDescriptors retval = new TimeSeriesIdentifierDescriptors(offset,
-                    pageSize, total, descriptors);
-
-            if (this.descriptors.size() == this.pageSize) {
-                String cursor = Integer.toString(retval.offset + retval.descriptors.size());
-                retval.nextPage = encodeCursor(cursor, retval.pageSize, retval.total);
-            } else {
-                retval.nextPage = null;
-            }
+            TimeSeriesIdentifierDescriptors retval = new TimeSeriesIdentifierDescriptors(
+                    position.getPage(), position.getOffset(), pageSize, total, descriptors);
+            int rows = retval.descriptors.size();
+            retval.setNextPage(position, rows, () -> Integer.toString(retval.offset + rows));
             return retval;
         }
 
@@ -0,0 +1,155 @@
+package cwms.radar.data.dto;
+
+import cwms.radar.api.errors.FieldException;
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Column oriented storage for time series values.
+ *
+ * <p>Times, values and quality codes are kept in parallel primitive arrays so a point costs
+ * 20 bytes (plus a bit for null tracking) instead of a Record, Timestamp and Double per point.
+ * The List view builds a {@link TimeSeries.Record} on each get() for callers that still want
+ * records; formatters and the store path should use the primitive accessors instead.
+ */
+public class TimeSeriesValues extends AbstractList<TimeSeries.Record> implements RandomAccess {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] times;
+    private double[] values;
+    private int[] qualities;
+    private long[] nulls;
+    private int size = 0;
+
+    public TimeSeriesValues() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TimeSeriesValues(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        times = new long[capacity];
+        values = new double[capacity];
+        qualities = new int[capacity];
+        nulls = new long[(capacity + 63) >>> 6];
+    }
+
+    /**
+     * Append a value.
+     *
+     * @param dateTimeMillis milliseconds since the epoch, UTC
+     * @param value the value, may be null.  Null values are stored as NaN in the value array.
+     * @param qualityCode quality code
+     */
+    public void add(long dateTimeMillis, Double value, int qualityCode) {
+        ensureCapacity(size + 1);
+        times[size] = dateTimeMillis;
+        qualities[size] = qualityCode;
+        if (value == null) {
+            values[size] = Double.NaN;
+            nulls[size >>> 6] |= 1L << size;
+        } else {
+            values[size] = value;
+        }
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Append a record.
+     *
+     * @throws FieldException if the record has no date-time.
+     */
+    @Override
+    public boolean add(TimeSeries.Record rec) {
+        if (rec == null || rec.getDateTime() == null) {
+            throw new FieldException("Time series values need a date-time, value " + size
+                    + " has none.");
+        }
+        add(rec.getDateTime().getTime(), rec.getValue(), rec.getQualityCode());
+        return true;
+    }
+
+    @Override
+    public TimeSeries.Record get(int index) {
+        checkIndex(index);
+        return new TimeSeries.Record(new Timestamp(times[index]),
+                isNull(index) ? null : values[index], qualities[index]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(nulls, 0L);
+        size = 0;
+        modCount++;
+    }
+
+    public long getDateTimeMillis(int index) {
+        checkIndex(index);
+        return times[index];
+    }
+
+    public boolean isNull(int index) {
+        checkIndex(index);
+        return (nulls[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return the value at index, NaN if the value is null.
+     */
+    public double getValue(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public int getQualityCode(int index) {
+        checkIndex(index);
+        return qualities[index];
+    }
+
+    /**
+     * The backing time array, only the first {@link #size()} entries are valid.  It is not
+     * copied, callers must not modify it.
+     */
+    public long[] getDateTimeArray() {
+        return times;
+    }
+
+    /**
+     * The backing value array with nulls as NaN, only the first {@link #size()} entries are
+     * valid.  It is not copied, callers must not modify it.
+     */
+    public double[] getValueArray() {
+        return values;
+    }
+
+    /**
+     * The backing quality array, only the first {@link #size()} entries are valid.  It is not
+     * copied, callers must not modify it.
+     */
+    public int[] getQualityArray() {
+        return qualities;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > times.length) {
+            int capacity = Math.max(needed, times.length + (times.length >> 1));
+            times = Arrays.copyOf(times, capacity);
+            values = Arrays.copyOf(values, capacity);
+            qualities = Arrays.copyOf(qualities, capacity);
+            nulls = Arrays.copyOf(nulls, (capacity + 63) >>> 6);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
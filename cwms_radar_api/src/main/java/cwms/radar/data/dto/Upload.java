@@ -0,0 +1,162 @@
+package cwms.radar.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import cwms.radar.api.errors.FieldException;
+
+/**
+ * A blob or clob being uploaded in chunks.  The offset is the number of bytes received so
+ * far, the next chunk must start there.
+ */
+@JsonDeserialize(builder = Upload.Builder.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+public class Upload implements CwmsDTO {
+
+    public enum Kind {
+        BLOB, CLOB
+    }
+
+    private final String uploadId;
+    private final Kind kind;
+    private final String officeId;
+    private final String id;
+    private final String description;
+    private final String mediaTypeId;
+    private final Boolean failIfExists;
+    private final Long offset;
+
+    private Upload(Builder builder) {
+        this.uploadId = builder.uploadId;
+        this.kind = builder.kind;
+        this.officeId = builder.officeId;
+        this.id = builder.id;
+        this.description = builder.description;
+        this.mediaTypeId = builder.mediaTypeId;
+        this.failIfExists = builder.failIfExists;
+        this.offset = builder.offset;
+    }
+
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getOfficeId() {
+        return officeId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getMediaTypeId() {
+        return mediaTypeId;
+    }
+
+    public Boolean getFailIfExists() {
+        return failIfExists;
+    }
+
+    public Long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public void validate() throws FieldException {
+        if (kind == null) {
+            throw new FieldException("An upload must be for a blob or a clob.");
+        }
+        if (officeId == null || officeId.isEmpty()) {
+            throw new FieldException("An office is required when uploading a " + name());
+        }
+        if (id == null || id.isEmpty()) {
+            throw new FieldException("An id is required when uploading a " + name());
+        }
+        if (kind == Kind.BLOB && (mediaTypeId == null || mediaTypeId.isEmpty())) {
+            throw new FieldException("A media type is required when uploading a blob");
+        }
+    }
+
+    private String name() {
+        return kind.name().toLowerCase();
+    }
+
+    @JsonPOJOBuilder
+    @JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+    public static class Builder {
+        private String uploadId;
+        private Kind kind;
+        private String officeId;
+        private String id;
+        private String description;
+        private String mediaTypeId;
+        private Boolean failIfExists;
+        private Long offset;
+
+        public Builder withUploadId(String uploadId) {
+            this.uploadId = uploadId;
+            return this;
+        }
+
+        public Builder withKind(Kind kind) {
+            this.kind = kind;
+            return this;
+        }
+
+        public Builder withOfficeId(String officeId) {
+            this.officeId = officeId;
+            return this;
+        }
+
+        public Builder withId(String id) {
+            this.id = id;
+            return this;
+        }
+
+        public Builder withDescription(String description) {
+            this.description = description;
+            return this;
+        }
+
+        public Builder withMediaTypeId(String mediaTypeId) {
+            this.mediaTypeId = mediaTypeId;
+            return this;
+        }
+
+        public Builder withFailIfExists(Boolean failIfExists) {
+            this.failIfExists = failIfExists;
+            return this;
+        }
+
+        public Builder withOffset(Long offset) {
+            this.offset = offset;
+            return this;
+        }
+
+        public Builder fromUpload(Upload upload) {
+            return withUploadId(upload.uploadId)
+                    .withKind(upload.kind)
+                    .withOfficeId(upload.officeId)
+                    .withId(upload.id)
+                    .withDescription(upload.description)
+                    .withMediaTypeId(upload.mediaTypeId)
+                    .withFailIfExists(upload.failIfExists)
+                    .withOffset(upload.offset);
+        }
+
+        public Upload build() {
+            return new Upload(this);
+        }
+    }
+}
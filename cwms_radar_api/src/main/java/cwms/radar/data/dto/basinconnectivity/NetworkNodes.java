@@ -0,0 +1,114 @@
+package cwms.radar.data.dto.basinconnectivity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import cwms.radar.api.errors.FieldException;
+import cwms.radar.data.dto.CwmsDTO;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Nodes of the stream network of an office, the answer to an upstream, downstream, path or
+ * station query.  Nodes where streams end or join have no location id.
+ */
+@JsonDeserialize(builder = NetworkNodes.Builder.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+public class NetworkNodes implements CwmsDTO {
+
+    private final String officeId;
+    private final String units;
+    private final List<Node> nodes;
+
+    private NetworkNodes(Builder builder) {
+        this.officeId = builder.officeId;
+        this.units = builder.units;
+        this.nodes = builder.nodes;
+    }
+
+    public String getOfficeId() {
+        return officeId;
+    }
+
+    public String getUnits() {
+        return units;
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public void validate() throws FieldException {
+        // always valid even if just empty list.
+    }
+
+    /**
+     * A point on a stream.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+    public static class Node {
+        private final String streamId;
+        private final double station;
+        private final String locationId;
+
+        @JsonCreator
+        public Node(@JsonProperty("stream-id") String streamId,
+                    @JsonProperty("station") double station,
+                    @JsonProperty("location-id") String locationId) {
+            this.streamId = streamId;
+            this.station = station;
+            this.locationId = locationId;
+        }
+
+        public String getStreamId() {
+            return streamId;
+        }
+
+        public double getStation() {
+            return station;
+        }
+
+        public String getLocationId() {
+            return locationId;
+        }
+    }
+
+    @JsonPOJOBuilder
+    @JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+    public static class Builder {
+        private String officeId;
+        private String units;
+        private List<Node> nodes = Collections.emptyList();
+
+        public Builder withOfficeId(String officeId) {
+            this.officeId = officeId;
+            return this;
+        }
+
+        /**
+         * @param units the unit system of the stations.
+         */
+        public Builder withUnits(String units) {
+            this.units = units;
+            return this;
+        }
+
+        public Builder withNodes(List<Node> nodes) {
+            this.nodes = nodes == null ? Collections.emptyList()
+                    : Collections.unmodifiableList(new ArrayList<>(nodes));
+            return this;
+        }
+
+        public NetworkNodes build() {
+            return new NetworkNodes(this);
+        }
+    }
+}
@@ -141,10 +141,21 @@ public class TimeseriesCatalogEntry extends CatalogEntry{
         }
 
         public Builder withExtent(final TimeSeriesExtents extent ) {
+            if (this.extents == null) {
+                this.extents = new ArrayList<>();
+            }
             this.extents.add(extent);
             return this;
         }
 
+        /**
+         * Leave the extents out of the entry entirely, rather than reporting none.
+         */
+        public Builder withoutExtents() {
+            this.extents = null;
+            return this;
+        }
+
 
 
         public TimeseriesCatalogEntry build(){
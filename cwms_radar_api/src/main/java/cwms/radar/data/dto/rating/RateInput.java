@@ -0,0 +1,142 @@
+package cwms.radar.data.dto.rating;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import cwms.radar.api.errors.FieldException;
+import cwms.radar.data.dto.CwmsDTO;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Values to evaluate a rating for, either given directly or as a time series window.
+ *
+ * <p>{@code values} holds one list per independent parameter when rating, or the single list
+ * of dependent values when reverse rating.  {@code times} are epoch milliseconds, one per
+ * value, and default to now.  {@code units} are the units of the independent parameters
+ * followed by the dependent unit and default to the rating units.
+ */
+@JsonDeserialize(builder = RateInput.Builder.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+public class RateInput implements CwmsDTO {
+
+    private final List<List<Double>> values;
+    private final List<Long> times;
+    private final List<String> units;
+    private final String timeseriesId;
+    private final ZonedDateTime begin;
+    private final ZonedDateTime end;
+
+    private RateInput(Builder builder) {
+        this.values = builder.values;
+        this.times = builder.times;
+        this.units = builder.units;
+        this.timeseriesId = builder.timeseriesId;
+        this.begin = builder.begin;
+        this.end = builder.end;
+    }
+
+    public List<List<Double>> getValues() {
+        return values;
+    }
+
+    public List<Long> getTimes() {
+        return times;
+    }
+
+    public List<String> getUnits() {
+        return units;
+    }
+
+    public String getTimeseriesId() {
+        return timeseriesId;
+    }
+
+    public ZonedDateTime getBegin() {
+        return begin;
+    }
+
+    public ZonedDateTime getEnd() {
+        return end;
+    }
+
+    @Override
+    public void validate() throws FieldException {
+        if ((values == null) == (timeseriesId == null)) {
+            throw new FieldException("Exactly one of values or timeseries-id must be given.");
+        }
+
+        if (timeseriesId != null) {
+            if (begin == null || end == null) {
+                throw new FieldException("begin and end are required with a timeseries-id.");
+            }
+            if (times != null) {
+                throw new FieldException("times can't be given with a timeseries-id.");
+            }
+            return;
+        }
+
+        if (values.isEmpty()) {
+            throw new FieldException("values must hold at least one list of values.");
+        }
+        int count = values.get(0) == null ? 0 : values.get(0).size();
+        for (List<Double> list : values) {
+            if (list == null || list.size() != count) {
+                throw new FieldException("Every list of values must have the same length.");
+            }
+        }
+        if (times != null && (times.size() != count || times.contains(null))) {
+            throw new FieldException("times must hold one time for every value.");
+        }
+    }
+
+    @JsonPOJOBuilder
+    @JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+    public static class Builder {
+        private List<List<Double>> values;
+        private List<Long> times;
+        private List<String> units;
+        private String timeseriesId;
+        private ZonedDateTime begin;
+        private ZonedDateTime end;
+
+        public Builder withValues(List<List<Double>> values) {
+            this.values = values == null ? null : new ArrayList<>(values);
+            return this;
+        }
+
+        public Builder withTimes(List<Long> times) {
+            this.times = times == null ? null : Collections.unmodifiableList(new ArrayList<>(times));
+            return this;
+        }
+
+        public Builder withUnits(List<String> units) {
+            this.units = units == null ? null : Collections.unmodifiableList(new ArrayList<>(units));
+            return this;
+        }
+
+        public Builder withTimeseriesId(String timeseriesId) {
+            this.timeseriesId = timeseriesId;
+            return this;
+        }
+
+        public Builder withBegin(ZonedDateTime begin) {
+            this.begin = begin;
+            return this;
+        }
+
+        public Builder withEnd(ZonedDateTime end) {
+            this.end = end;
+            return this;
+        }
+
+        public RateInput build() {
+            return new RateInput(this);
+        }
+    }
+}
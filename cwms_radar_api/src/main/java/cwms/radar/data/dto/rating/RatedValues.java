@@ -0,0 +1,124 @@
+package cwms.radar.data.dto.rating;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import cwms.radar.api.errors.FieldException;
+import cwms.radar.data.dto.CwmsDTO;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of evaluating a rating, the values in the same order as they were given.  Values
+ * the rating couldn't produce are null.
+ */
+@JsonDeserialize(builder = RatedValues.Builder.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+public class RatedValues implements CwmsDTO {
+
+    private final String officeId;
+    private final String ratingId;
+    private final String units;
+    private final List<Long> times;
+    private final List<Double> values;
+
+    private RatedValues(Builder builder) {
+        this.officeId = builder.officeId;
+        this.ratingId = builder.ratingId;
+        this.units = builder.units;
+        this.times = builder.times;
+        this.values = builder.values;
+    }
+
+    public String getOfficeId() {
+        return officeId;
+    }
+
+    public String getRatingId() {
+        return ratingId;
+    }
+
+    public String getUnits() {
+        return units;
+    }
+
+    public List<Long> getTimes() {
+        return times;
+    }
+
+    public List<Double> getValues() {
+        return values;
+    }
+
+    @Override
+    public void validate() throws FieldException {
+        if (times != null && values != null && times.size() != values.size()) {
+            throw new FieldException("times and values must have the same length.");
+        }
+    }
+
+    /**
+     * Write the compact binary form: the big-endian int count, count long times in epoch
+     * milliseconds and count doubles, NaN for missing values.
+     *
+     * @param out where to write, not closed.
+     */
+    public void writeBinary(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(values.size());
+        for (Long time : times) {
+            data.writeLong(time);
+        }
+        for (Double value : values) {
+            data.writeDouble(value == null ? Double.NaN : value);
+        }
+        data.flush();
+    }
+
+    @JsonPOJOBuilder
+    @JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+    public static class Builder {
+        private String officeId;
+        private String ratingId;
+        private String units;
+        private List<Long> times;
+        private List<Double> values;
+
+        public Builder withOfficeId(String officeId) {
+            this.officeId = officeId;
+            return this;
+        }
+
+        public Builder withRatingId(String ratingId) {
+            this.ratingId = ratingId;
+            return this;
+        }
+
+        public Builder withUnits(String units) {
+            this.units = units;
+            return this;
+        }
+
+        public Builder withTimes(List<Long> times) {
+            this.times = times == null ? null : Collections.unmodifiableList(new ArrayList<>(times));
+            return this;
+        }
+
+        public Builder withValues(List<Double> values) {
+            this.values = values == null ? null
+                    : Collections.unmodifiableList(new ArrayList<>(values));
+            return this;
+        }
+
+        public RatedValues build() {
+            return new RatedValues(this);
+        }
+    }
+}
@@ -61,6 +61,10 @@ public class RatingMetadataList extends CwmsDTOPaginated {
 
         private boolean isLastPage = false;
 
+        private String page;
+
+        private String nextPageKey;
+
 
         public Builder(int pageSize) {
             this.pageSize = pageSize;
@@ -86,6 +90,19 @@ public class RatingMetadataList extends CwmsDTOPaginated {
             return this;
         }
 
+        /**
+         * Use keyset paging instead of offsets.
+         *
+         * @param page the position this page started at.
+         * @param nextPageKey the position of the next page, null if this is the last page.
+         */
+        public Builder withKeyset(String page, String nextPageKey) {
+            this.page = page;
+            this.nextPageKey = nextPageKey;
+            this.isLastPage = nextPageKey == null;
+            return this;
+        }
+
 
         private int getSize() {
             int retval = 0;
@@ -109,6 +126,9 @@ public class RatingMetadataList extends CwmsDTOPaginated {
             // CwmsDTOPaginated always puts the pageSize as the last entry in the list
             // we don't need to include it in these results.
 
+            if (page != null) {
+                return CwmsDTOPaginated.encodeCursor(page);
+            }
             return CwmsDTOPaginated.encodeCursor(offset);
         }
 
@@ -116,6 +136,9 @@ public class RatingMetadataList extends CwmsDTOPaginated {
             if (metadata == null || metadata.isEmpty() || isLastPage) {
                 return null;
             }
+            if (nextPageKey != null) {
+                return CwmsDTOPaginated.encodeCursor(nextPageKey, pageSize);
+            }
             return CwmsDTOPaginated.encodeCursor(offset + pageSize, pageSize);
         }
 
@@ -23,8 +23,9 @@ public class RatingSpecs extends CwmsDTOPaginated {
 
     private int offset;
 
-    private RatingSpecs(int offset, int pageSize, Integer total, List<RatingSpec> specsList) {
-        super(Integer.toString(offset), pageSize, total);
+    private RatingSpecs(String page, int offset, int pageSize, Integer total,
+                        List<RatingSpec> specsList) {
+        super(page, pageSize, total);
         specs = new ArrayList<>(specsList);
         this.offset = offset;
     }
@@ -40,13 +41,27 @@ public class RatingSpecs extends CwmsDTOPaginated {
     }
 
     public static class Builder {
-        private final int offset;
+        private final PagePosition position;
         private final int pageSize;
         private final Integer total;
         private List<RatingSpec> specs;
 
         public Builder(int offset, int pageSize, Integer total) {
-            this.offset = offset;
+            this(PagePosition.ofOffset(offset), pageSize, total);
+        }
+
+        /**
+         * Build a keyset paged result.
+         *
+         * @param page the position this page started at.
+         * @param nextPageKey the position of the next page, null if this is the last page.
+         */
+        public Builder(String page, String nextPageKey, int pageSize, Integer total) {
+            this(PagePosition.ofKeyset(page, nextPageKey), pageSize, total);
+        }
+
+        private Builder(PagePosition position, int pageSize, Integer total) {
+            this.position = position;
             this.pageSize = pageSize;
             this.total = total;
         }
@@ -57,16 +72,10 @@ public class RatingSpecs extends CwmsDTOPaginated {
         }
 
         public RatingSpecs build() {
-            RatingSpecs retval = new RatingSpecs(offset, pageSize, total, specs);
-
-            if (this.specs.size() == this.pageSize) {
-                String cursor = Integer.toString(retval.offset + retval.specs.size());
-                retval.nextPage = encodeCursor(cursor,
-                        retval.pageSize,
-                        retval.total);
-            } else {
-                retval.nextPage = null;
-            }
+            RatingSpecs retval = new RatingSpecs(position.getPage(), position.getOffset(),
+                    pageSize, total, specs);
+            int rows = retval.specs.size();
+            retval.setNextPage(position, rows, () -> Integer.toString(retval.offset + rows));
             return retval;
         }
 
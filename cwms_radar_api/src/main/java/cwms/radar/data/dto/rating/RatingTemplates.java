@@ -22,9 +22,9 @@ public class RatingTemplates extends CwmsDTOPaginated {
 
     private int offset;
 
-    private RatingTemplates(int offset, int pageSize, Integer total,
+    private RatingTemplates(String page, int offset, int pageSize, Integer total,
                             List<RatingTemplate> templates) {
-        super(Integer.toString(offset), pageSize, total);
+        super(page, pageSize, total);
         this.templates = new ArrayList<>(templates);
         this.offset = offset;
     }
@@ -40,13 +40,27 @@ public class RatingTemplates extends CwmsDTOPaginated {
     }
 
     public static class Builder {
-        private final int offset;
+        private final PagePosition position;
         private final int pageSize;
         private final Integer total;
         private List<RatingTemplate> templates;
 
         public Builder(int offset, int pageSize, Integer total) {
-            this.offset = offset;
+            this(PagePosition.ofOffset(offset), pageSize, total);
+        }
+
+        /**
+         * Build a keyset paged result.
+         *
+         * @param page the position this page started at.
+         * @param nextPageKey the position of the next page, null if this is the last page.
+         */
+        public Builder(String page, String nextPageKey, int pageSize, Integer total) {
+            this(PagePosition.ofKeyset(page, nextPageKey), pageSize, total);
+        }
+
+        private Builder(PagePosition position, int pageSize, Integer total) {
+            this.position = position;
             this.pageSize = pageSize;
             this.total = total;
         }
@@ -75,15 +89,10 @@ public class RatingTemplates extends CwmsDTOPaginated {
         }
 
         public RatingTemplates build() {
-            RatingTemplates retval = new RatingTemplates(offset, pageSize, total, templates);
-
+            RatingTemplates retval = new RatingTemplates(position.getPage(),
+                    position.getOffset(), pageSize, total, templates);
             int count = getCount();
-            if (count >= this.pageSize) {
-                String cursor = Integer.toString(retval.offset + count);
-                retval.nextPage = encodeCursor(cursor, retval.pageSize, retval.total);
-            } else {
-                retval.nextPage = null;
-            }
+            retval.setNextPage(position, count, () -> Integer.toString(retval.offset + count));
             return retval;
         }
 
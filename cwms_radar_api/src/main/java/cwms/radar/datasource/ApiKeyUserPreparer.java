@@ -1,5 +1,6 @@
 package cwms.radar.datasource;
 
+import cwms.radar.helpers.DigestHelper;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -23,6 +24,11 @@ public class ApiKeyUserPreparer implements ConnectionPreparer {
     @Override
     public Connection prepare(Connection conn) {
         if (apiKey != null) {
+            ConnectionSessionState state = ConnectionSessionState.of(conn);
+            String identity = "apikey:" + DigestHelper.sha256Hex(apiKey);
+            if (state.hasUser(identity)) {
+                return conn;
+            }
             try (DSLContext dsl = DSL.using(conn, SQLDialect.ORACLE11G);
                 PreparedStatement setUser = conn.prepareStatement("begin CWMS_ENV.set_session_user_apikey(?); end;");
                 PreparedStatement getPrivs = conn.prepareStatement("select NVL(SYS_CONTEXT ('CWMS_ENV', 'CWMS_PRIVILEGE')"
@@ -31,6 +37,7 @@ public class ApiKeyUserPreparer implements ConnectionPreparer {
                 ) {
                 setUser.setString(1,apiKey);
                 setUser.execute();
+                state.userSet(identity);
                 logger.fine(() -> {
                     try (ResultSet rs = getPrivs.executeQuery()) {
                         rs.next();
@@ -41,6 +48,7 @@ public class ApiKeyUserPreparer implements ConnectionPreparer {
                 });                
                 
             } catch (Exception e) {
+                ConnectionSessionState.reset(conn);
                 boolean keyNullOrEmpty = apiKey == null || apiKey.isEmpty();
                 throw new DataAccessException("Unable to set user session.  "
                         + "user null or empty = " + keyNullOrEmpty, e);
@@ -20,7 +20,14 @@ public class ConnectionPreparingDataSource extends DelegatingDataSource {
     @Override
     public Connection getConnection() throws SQLException {
         Connection connection = getDelegate().getConnection();
-        return getPreparer().prepare(connection);
+        try {
+            return getPreparer().prepare(connection);
+        } catch (SQLException | RuntimeException e) {
+            // Don't leak a half prepared connection back to the caller's pool.
+            ConnectionSessionState.reset(connection);
+            connection.close();
+            throw e;
+        }
     }
 
     /**
@@ -0,0 +1,106 @@
+package cwms.radar.datasource;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import cwms.radar.RADARMetricsContextListener;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import oracle.jdbc.OracleConnection;
+
+/**
+ * Remembers which CWMS_ENV session office and user were last set on a physical connection so
+ * the ConnectionPreparers can skip the PL/SQL call when a pooled connection is handed back out
+ * for the same office or user.
+ *
+ * <p>State is keyed by the unwrapped Oracle connection and held weakly, so when the pool
+ * evicts a connection its state goes with it.  Anything that changes the session outside of
+ * the preparers, or fails part way through, must call {@link #reset(Connection)} so the next
+ * preparer re-issues its call.
+ */
+public final class ConnectionSessionState {
+    private static final Map<Connection, ConnectionSessionState> states =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final MetricRegistry metrics = RADARMetricsContextListener.METRIC_REGISTRY;
+    private static final String CLASS_NAME = ConnectionSessionState.class.getName();
+    private static final Meter hits = metrics.meter(name(CLASS_NAME, "hits"));
+    private static final Meter misses = metrics.meter(name(CLASS_NAME, "misses"));
+
+    private volatile String office;
+    private volatile String user;
+
+    private ConnectionSessionState() {
+    }
+
+    /**
+     * Get the tracked state for the physical connection behind the given connection.
+     *
+     * @param connection a (possibly pooled) connection
+     * @return the state, never null
+     */
+    public static ConnectionSessionState of(Connection connection) {
+        return states.computeIfAbsent(physical(connection),
+                c -> new ConnectionSessionState());
+    }
+
+    /**
+     * Forget everything known about the connection's session.
+     *
+     * @param connection a (possibly pooled) connection
+     */
+    public static void reset(Connection connection) {
+        if (connection != null) {
+            states.remove(physical(connection));
+        }
+    }
+
+    public boolean hasOffice(String requested) {
+        return record(office != null && office.equalsIgnoreCase(requested));
+    }
+
+    public void officeSet(String office) {
+        this.office = office;
+    }
+
+    /**
+     * @param identity something that uniquely identifies how the user was set, e.g.
+     *                 "direct:USER".  Callers should not pass raw secrets.
+     */
+    public boolean hasUser(String identity) {
+        return record(user != null && user.equals(identity));
+    }
+
+    /**
+     * Record a new session user.  Changing the user may reset other session values in
+     * CWMS_ENV so the office is treated as unknown afterwards.
+     */
+    public void userSet(String identity) {
+        this.user = identity;
+        this.office = null;
+    }
+
+    private static boolean record(boolean matched) {
+        if (matched) {
+            hits.mark();
+        } else {
+            misses.mark();
+        }
+        return matched;
+    }
+
+    static Connection physical(Connection connection) {
+        try {
+            if (connection.isWrapperFor(OracleConnection.class)) {
+                return connection.unwrap(OracleConnection.class);
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Not a wrapper we understand, key on the connection we were given.
+        }
+        return connection;
+    }
+}
@@ -1,7 +1,8 @@
 package cwms.radar.datasource;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;import org.jooq.DSLContext;
+import java.sql.PreparedStatement;
+import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
@@ -17,12 +18,19 @@ public class DirectUserPreparer implements ConnectionPreparer {
     @Override
     public Connection prepare(Connection conn) {
         if (user != null) {
+            ConnectionSessionState state = ConnectionSessionState.of(conn);
+            String identity = "direct:" + user.toUpperCase();
+            if (state.hasUser(identity)) {
+                return conn;
+            }
             try (DSLContext dsl = DSL.using(conn, SQLDialect.ORACLE11G);
                 PreparedStatement setApiUser = conn.prepareStatement("begin cwms_env.set_session_user_direct(upper(?)); end;");
                 ) {                
                 setApiUser.setString(1,user);
-                setApiUser.execute();                
+                setApiUser.execute();
+                state.userSet(identity);
             } catch (Exception e) {
+                ConnectionSessionState.reset(conn);
                 boolean keyNullOrEmpty = user == null || user.isEmpty();
                 throw new DataAccessException("Unable to set user session.  "
                         + "user null or empty = " + keyNullOrEmpty, e);
@@ -0,0 +1,130 @@
+package cwms.radar.datasource;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.radar.RADARMetricsContextListener;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.jooq.ConnectionProvider;
+import org.jooq.exception.DataAccessException;
+
+/**
+ * A jOOQ ConnectionProvider that pins a single connection for the duration of a request.
+ *
+ * <p>The connection is borrowed from the DataSource the first time it is needed, so the
+ * DataSource's ConnectionPreparers run once per request instead of once per query.  Every
+ * DSLContext built for the request shares it and {@link #release(Connection)} leaves it open;
+ * the owner (ApiServlet) must call {@link #close()} when the request is finished.
+ *
+ * <p>Only the thread that created the provider gets the pinned connection.  Any other thread
+ * (or any use after close) is handed a regular connection from the DataSource so a JDBC
+ * connection is never shared concurrently.
+ */
+public class RequestConnectionProvider implements ConnectionProvider, AutoCloseable {
+    private static final Logger logger = Logger.getLogger(RequestConnectionProvider.class.getName());
+
+    public static final String ENABLED_KEY = "radar.connection.request.scoped";
+    public static final String ATTRIBUTE = "request_connection_provider";
+
+    private static final MetricRegistry metrics = RADARMetricsContextListener.METRIC_REGISTRY;
+    private static final String CLASS_NAME = RequestConnectionProvider.class.getName();
+    private static final Timer holdTime = metrics.timer(name(CLASS_NAME, "hold", "time"));
+    private static final Meter reused = metrics.meter(name(CLASS_NAME, "connection", "reused"));
+    private static final Meter preparersAvoided =
+            metrics.meter(name(CLASS_NAME, "preparers", "avoided"));
+
+    private final DataSource dataSource;
+    private final Thread owner;
+    private Connection pinned;
+    private long acquiredAt;
+    private boolean closed = false;
+
+    public RequestConnectionProvider(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.owner = Thread.currentThread();
+    }
+
+    /**
+     * Whether request scoped connections have been turned on with {@value #ENABLED_KEY}.
+     * @return true if ApiServlet should pin one connection per request.
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_KEY, System.getenv(ENABLED_KEY)));
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    @Override
+    public synchronized Connection acquire() throws DataAccessException {
+        if (closed || Thread.currentThread() != owner) {
+            return borrow();
+        }
+
+        if (pinned == null) {
+            pinned = borrow();
+            acquiredAt = System.nanoTime();
+        } else {
+            reused.mark();
+            if (dataSource instanceof ConnectionPreparingDataSource) {
+                preparersAvoided.mark();
+            }
+        }
+        return pinned;
+    }
+
+    @Override
+    public synchronized void release(Connection connection) throws DataAccessException {
+        if (connection != null && connection != pinned) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                throw new DataAccessException("Unable to release connection", e);
+            }
+        }
+    }
+
+    /**
+     * Return the pinned connection to the pool.  Safe to call more than once.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (pinned == null) {
+            return;
+        }
+
+        holdTime.update(System.nanoTime() - acquiredAt, TimeUnit.NANOSECONDS);
+        try {
+            if (!pinned.getAutoCommit()) {
+                // Something left a transaction open, don't hand it to the next request.
+                pinned.rollback();
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Unable to reset request connection", e);
+        } finally {
+            try {
+                pinned.close();
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Unable to close request connection", e);
+            }
+            pinned = null;
+        }
+    }
+
+    private Connection borrow() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new DataAccessException("Unable to acquire connection", e);
+        }
+    }
+}
@@ -22,11 +22,18 @@ public class SessionOfficePreparer implements ConnectionPreparer {
     public Connection prepare(Connection conn) {
 
         if(office != null && !office.isEmpty()) {
+            ConnectionSessionState state = ConnectionSessionState.of(conn);
+            if (state.hasOffice(office)) {
+                logger.fine("Office already set to: " + office);
+                return conn;
+            }
             try {
                 logger.fine("Setting office to: " + office);
                 DSLContext dsl = DSL.using(conn, SQLDialect.ORACLE11G);
                 CWMS_ENV_PACKAGE.call_SET_SESSION_OFFICE_ID(dsl.configuration(), office);
+                state.officeSet(office);
             } catch (Exception e) {
+                ConnectionSessionState.reset(conn);
                 throw new DataAccessException("Unable to set session office id to " + office, e);
             }
         } else {
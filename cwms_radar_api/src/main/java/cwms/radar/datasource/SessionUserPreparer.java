@@ -18,6 +18,8 @@ public class SessionUserPreparer implements ConnectionPreparer {
     @Override
     public Connection prepare(Connection conn) {
         if (sessionKey == null || !sessionKey.startsWith("testing")) {
+            // The session key isn't something we can compare against, always set it.
+            ConnectionSessionState.reset(conn);
             try (DSLContext dsl = DSL.using(conn, SQLDialect.ORACLE11G)) {
                 CWMS_ENV_PACKAGE.call_SET_SESSION_USER(dsl.configuration(), sessionKey);
             } catch (Exception e) {
@@ -1,11 +1,13 @@
 package cwms.radar.formatters;
 
 import cwms.radar.data.dto.CwmsDTO;
+import cwms.radar.helpers.CountingOutputStream;
 import cwms.radar.helpers.ResourceHelper;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -33,6 +35,8 @@ public class Formats {
     public static final String GEOJSON = "application/geo+json";
     public static final String PGJSON = "application/vnd.pg+json";
     public static final String NAMED_PGJSON = "application/vnd.named+pg+json";
+    // Written directly by the handlers that support it, there is no formatter for it.
+    public static final String BINARY = "application/octet-stream";
 
 
     private static List<ContentType> contentTypeList = new ArrayList<>();
@@ -150,6 +154,48 @@ public class Formats {
         }
     }
 
+    private long writeFormatted(ContentType type, CwmsDTO toFormat, OutputStream out)
+            throws FormattingException {
+        Objects.requireNonNull(toFormat, "Object to be formatted should not be null");
+        OutputFormatter outputFormatter = getOutputFormatter(type, toFormat.getClass());
+
+        if (outputFormatter == null) {
+            String message = String.format("No Format for this content-type and data-type : (%s, %s)",
+                            type.toString(), toFormat.getClass().getName());
+            throw new FormattingException(message);
+        }
+
+        CountingOutputStream counter = new CountingOutputStream(out);
+        try {
+            outputFormatter.format(toFormat, counter);
+            counter.flush();
+        } catch (IOException e) {
+            throw new FormattingException("Unable to write formatted " + type + " output", e);
+        }
+        return counter.getCount();
+    }
+
+    private long writeFormatted(ContentType type, List<? extends CwmsDTO> dtos,
+                                Class<? extends CwmsDTO> rootType, OutputStream out)
+            throws FormattingException {
+        OutputFormatter outputFormatter = getOutputFormatter(type, rootType);
+
+        if (outputFormatter == null) {
+            String message = String.format("No Format for this content-type and data type : (%s, %s)",
+                            type.toString(), rootType.getName());
+            throw new FormattingException(message);
+        }
+
+        CountingOutputStream counter = new CountingOutputStream(out);
+        try {
+            outputFormatter.format(dtos, counter);
+            counter.flush();
+        } catch (IOException e) {
+            throw new FormattingException("Unable to write formatted " + type + " output", e);
+        }
+        return counter.getCount();
+    }
+
     private static void init() {
         if (formats == null) {
             logger.finest("creating instance");
@@ -174,6 +220,40 @@ public class Formats {
         return formats.getFormatted(type, toFormat, rootType);
     }
 
+    /**
+     * Format the object directly to a stream instead of building a String first.
+     * The stream is flushed but not closed.
+     *
+     * @param type     content type to render
+     * @param toFormat object to format
+     * @param out      destination, usually the response output stream
+     * @return the number of bytes written
+     * @throws FormattingException if there is no formatter or the stream can't be written to
+     */
+    public static long format(ContentType type, CwmsDTO toFormat, OutputStream out)
+            throws FormattingException {
+        logger.finest("formats stream");
+        init();
+        return formats.writeFormatted(type, toFormat, out);
+    }
+
+    /**
+     * List version of {@link #format(ContentType, CwmsDTO, OutputStream)}.
+     *
+     * @param type     content type to render
+     * @param toFormat objects to format
+     * @param rootType type used to look up the formatter
+     * @param out      destination, usually the response output stream
+     * @return the number of bytes written
+     * @throws FormattingException if there is no formatter or the stream can't be written to
+     */
+    public static long format(ContentType type, List<? extends CwmsDTO> toFormat,
+                              Class<? extends CwmsDTO> rootType, OutputStream out)
+            throws FormattingException {
+        logger.finest("format list stream");
+        init();
+        return formats.writeFormatted(type, toFormat, rootType, out);
+    }
 
     /**
      * Parses the supplied header param or queryParam to determine the content type.
@@ -1,5 +1,8 @@
 package cwms.radar.formatters;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import cwms.radar.data.dto.CwmsDTO;
@@ -8,4 +11,35 @@ public interface OutputFormatter {
     public String getContentType();
     public String format(CwmsDTO dto);
     public String format(List<? extends CwmsDTO> dtoList);
+
+    /**
+     * Write the formatted dto to the stream as UTF-8.  Formatters that can serialize
+     * directly should override this, the default builds the String and copies it.
+     * Implementations must not close the stream.
+     *
+     * @param dto object to format
+     * @param out destination
+     * @throws IOException if the stream can't be written to
+     */
+    default void format(CwmsDTO dto, OutputStream out) throws IOException {
+        String formatted = format(dto);
+        if (formatted != null) {
+            out.write(formatted.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * List version of {@link #format(CwmsDTO, OutputStream)}.
+     *
+     * @param dtoList objects to format
+     * @param out destination
+     * @throws IOException if the stream can't be written to
+     */
+    default void format(List<? extends CwmsDTO> dtoList, OutputStream out) throws IOException {
+        String formatted = format(dtoList);
+        if (formatted != null) {
+            out.write(formatted.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
 }
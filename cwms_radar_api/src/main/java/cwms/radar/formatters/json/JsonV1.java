@@ -1,13 +1,17 @@
 package cwms.radar.formatters.json;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import cwms.radar.data.dto.Catalog;
@@ -49,6 +53,7 @@ import service.annotations.FormatService;
 public class JsonV1 implements OutputFormatter{
 
 	private final ObjectMapper om;
+	private final ObjectWriter streamWriter;
 
 	public JsonV1()
 	{
@@ -61,6 +66,7 @@ public class JsonV1 implements OutputFormatter{
 		this.om.setPropertyNamingStrategy(PropertyNamingStrategies.KEBAB_CASE);
 		this.om.setSerializationInclusion(JsonInclude.Include.NON_NULL);
 		this.om.registerModule(new JavaTimeModule());
+		this.streamWriter = this.om.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
 	}
 
 	@NotNull
@@ -113,6 +119,34 @@ public class JsonV1 implements OutputFormatter{
 		}
 	}
 
+	@Override
+	public void format(CwmsDTO dto, OutputStream out) throws IOException
+	{
+		Object fmtv1 = buildFormatting(dto);
+		try
+		{
+			streamWriter.writeValue(out, fmtv1);
+		}
+		catch(JsonProcessingException e)
+		{
+			throw new FormattingException("Could not format:" + dto, e);
+		}
+	}
+
+	@Override
+	public void format(List<? extends CwmsDTO> daoList, OutputStream out) throws IOException
+	{
+		Object wrapped = buildFormatting(daoList);
+		try
+		{
+			streamWriter.writeValue(out, wrapped);
+		}
+		catch(JsonProcessingException e)
+		{
+			throw new FormattingException("Could not format list:" + daoList, e);
+		}
+	}
+
 	private Object buildFormatting(CwmsDTO dao)
 	{
 		Object retval = null;
@@ -1,8 +1,10 @@
 package cwms.radar.formatters.json;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import cwms.radar.data.dto.Blobs;
@@ -20,7 +22,10 @@ import cwms.radar.data.dto.SpecifiedLevel;
 import cwms.radar.data.dto.TimeSeries;
 import cwms.radar.data.dto.TimeSeriesIdentifierDescriptor;
 import cwms.radar.data.dto.TimeSeriesIdentifierDescriptors;
+import cwms.radar.data.dto.Upload;
+import cwms.radar.data.dto.basinconnectivity.NetworkNodes;
 import cwms.radar.data.dto.rating.ExpressionRating;
+import cwms.radar.data.dto.rating.RatedValues;
 import cwms.radar.data.dto.rating.RatingMetadata;
 import cwms.radar.data.dto.rating.RatingMetadataList;
 import cwms.radar.data.dto.rating.RatingSpec;
@@ -34,6 +39,8 @@ import cwms.radar.data.dto.rating.VirtualRating;
 import cwms.radar.formatters.Formats;
 import cwms.radar.formatters.FormattingException;
 import cwms.radar.formatters.OutputFormatter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import org.jetbrains.annotations.NotNull;
 import service.annotations.FormatService;
@@ -54,9 +61,11 @@ import service.annotations.FormatService;
         RatingMetadataList.class, RatingMetadata.class,
         TableRating.class, TransitionalRating.class, VirtualRating.class,
         ExpressionRating.class, UsgsStreamRating.class,
-        RatingSpec.class, RatingSpecs.class,
+        RatingSpec.class, RatingSpecs.class, RatedValues.class,
         LocationLevel.class, LocationLevels.class,
-        TimeSeriesIdentifierDescriptor.class, TimeSeriesIdentifierDescriptors.class
+        TimeSeriesIdentifierDescriptor.class, TimeSeriesIdentifierDescriptors.class,
+        Upload.class,
+        NetworkNodes.class
 })
 /**
  * Formatter for RADAR generated JSON.
@@ -64,6 +73,7 @@ import service.annotations.FormatService;
 public class JsonV2 implements OutputFormatter {
 
     private final ObjectMapper om;
+    private final ObjectWriter streamWriter;
 
     public JsonV2() {
         this(new ObjectMapper());
@@ -71,6 +81,7 @@ public class JsonV2 implements OutputFormatter {
 
     public JsonV2(ObjectMapper om) {
         this.om = buildObjectMapper(om);
+        this.streamWriter = this.om.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     @NotNull
@@ -111,4 +122,22 @@ public class JsonV2 implements OutputFormatter {
         }
     }
 
+    @Override
+    public void format(CwmsDTO dto, OutputStream out) throws IOException {
+        try {
+            streamWriter.writeValue(out, dto);
+        } catch (JsonProcessingException e) {
+            throw new FormattingException("Could not format :" + dto, e);
+        }
+    }
+
+    @Override
+    public void format(List<? extends CwmsDTO> dtoList, OutputStream out) throws IOException {
+        try {
+            streamWriter.writeValue(out, dtoList);
+        } catch (JsonProcessingException e) {
+            throw new FormattingException("Could not format :" + dtoList, e);
+        }
+    }
+
 }
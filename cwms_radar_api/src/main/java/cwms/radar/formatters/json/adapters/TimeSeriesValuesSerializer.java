@@ -0,0 +1,69 @@
+package cwms.radar.formatters.json.adapters;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import cwms.radar.data.dto.TimeSeries;
+import cwms.radar.data.dto.TimeSeriesValues;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes time series values as an array of [date-time, value, quality-code] arrays.
+ *
+ * <p>This is the same output the default bean serializer produces for the ARRAY shape, but the
+ * values are only iterated, never sized or indexed, so a list that is being streamed from the
+ * database can be written as it is read.  Column backed {@link TimeSeriesValues} are written from
+ * the primitive arrays without building records.
+ */
+public class TimeSeriesValuesSerializer extends StdSerializer<List<TimeSeries.Record>> {
+
+    @SuppressWarnings("unchecked")
+    public TimeSeriesValuesSerializer() {
+        super((Class<List<TimeSeries.Record>>) (Class<?>) List.class);
+    }
+
+    @Override
+    public void serialize(List<TimeSeries.Record> values, JsonGenerator gen,
+                          SerializerProvider provider) throws IOException {
+        if (values instanceof TimeSeriesValues) {
+            serializeColumns((TimeSeriesValues) values, gen);
+            return;
+        }
+
+        gen.writeStartArray();
+        for (TimeSeries.Record rec : values) {
+            gen.writeStartArray();
+            if (rec.getDateTime() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(rec.getDateTime().getTime());
+            }
+            if (rec.getValue() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(rec.getValue());
+            }
+            gen.writeNumber(rec.getQualityCode());
+            gen.writeEndArray();
+        }
+        gen.writeEndArray();
+    }
+
+    private static void serializeColumns(TimeSeriesValues values, JsonGenerator gen)
+            throws IOException {
+        gen.writeStartArray();
+        for (int i = 0; i < values.size(); i++) {
+            gen.writeStartArray();
+            gen.writeNumber(values.getDateTimeMillis(i));
+            if (values.isNull(i)) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(values.getValue(i));
+            }
+            gen.writeNumber(values.getQualityCode(i));
+            gen.writeEndArray();
+        }
+        gen.writeEndArray();
+    }
+}
@@ -0,0 +1,58 @@
+package cwms.radar.formatters.xml;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * Process wide JAXBContexts.
+ *
+ * <p>Building a JAXBContext is expensive while the context itself is thread safe, so one is
+ * built per distinct set of classes and shared.  Unmarshallers are not thread safe and are
+ * cheap to create from a built context, so one is created per call; keeping them in container
+ * threads would hold on to the webapp after a redeploy.
+ */
+public final class JaxbContextRegistry {
+    private static final Map<List<Class<?>>, JAXBContext> contexts = new ConcurrentHashMap<>();
+
+    private JaxbContextRegistry() {
+    }
+
+    /**
+     * Get the shared context for the given classes, building it the first time.
+     *
+     * @param classes the classes to bind, order matters for the lookup.
+     * @return the context
+     * @throws JAXBException if the context can't be built.
+     */
+    public static JAXBContext getContext(Class<?>... classes) throws JAXBException {
+        List<Class<?>> key = Arrays.asList(classes);
+        JAXBContext retval = contexts.get(key);
+        if (retval == null) {
+            JAXBContext created = JAXBContext.newInstance(classes);
+            retval = contexts.putIfAbsent(key, created);
+            if (retval == null) {
+                retval = created;
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * Unmarshal an XML document with a new unmarshaller from the shared context for type.
+     *
+     * @param type the root element type
+     * @param body the XML document
+     * @return the unmarshalled object
+     * @throws JAXBException if the document can't be read as type.
+     */
+    public static <T> T unmarshal(Class<T> type, String body) throws JAXBException {
+        Unmarshaller unmarshaller = getContext(type).createUnmarshaller();
+        return type.cast(unmarshaller.unmarshal(new StringReader(body)));
+    }
+}
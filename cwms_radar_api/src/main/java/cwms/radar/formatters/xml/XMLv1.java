@@ -27,7 +27,7 @@ public class XMLv1 implements OutputFormatter {
 
     public XMLv1() throws InternalServerErrorResponse{
         try {
-            context = JAXBContext.newInstance(XMLv1Office.class,Catalog.class);
+            context = JaxbContextRegistry.getContext(XMLv1Office.class,Catalog.class);
             mar = context.createMarshaller();
             mar.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,Boolean.TRUE);
         } catch( JAXBException jaxb ){
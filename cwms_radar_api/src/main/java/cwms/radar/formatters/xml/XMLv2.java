@@ -1,5 +1,6 @@
 package cwms.radar.formatters.xml;
 
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.List;
@@ -22,13 +23,10 @@ import service.annotations.FormatService;
 public class XMLv2 implements OutputFormatter {
     private static Logger logger = Logger.getLogger(XMLv2.class.getName());
     private JAXBContext context = null;
-    private Marshaller mar = null;
 
     public XMLv2() throws InternalServerErrorResponse{
         try {
-            context = JAXBContext.newInstance(TimeSeries.class,Clobs.class);
-            mar = context.createMarshaller();
-            mar.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,Boolean.TRUE);
+            context = JaxbContextRegistry.getContext(TimeSeries.class,Clobs.class);
         } catch( JAXBException jaxb ){
             logger.log(Level.SEVERE, "Unable to build XML Marshaller", jaxb);
             throw new InternalServerErrorResponse("Internal error");
@@ -46,15 +44,19 @@ public class XMLv2 implements OutputFormatter {
         try{
             StringWriter sw = new StringWriter();
             PrintWriter pw = new PrintWriter(sw);
-            mar.marshal(dto,pw);
+            createMarshaller().marshal(dto,pw);
             return sw.toString();
         } catch( JAXBException jaxb ){
-            String msg = dto != null ?
-                    "Error rendering '" + dto.toString() + "' to XML"
-                    :
-                    "Null element passed to formatter";
-            logger.log(Level.WARNING, msg, jaxb);
-            throw new InternalServerErrorResponse("Invalid Parameters");
+            throw renderError(dto, jaxb);
+        }
+    }
+
+    @Override
+    public void format(CwmsDTO dto, OutputStream out) {
+        try{
+            createMarshaller().marshal(dto,out);
+        } catch( JAXBException jaxb ){
+            throw renderError(dto, jaxb);
         }
     }
 
@@ -63,4 +65,28 @@ public class XMLv2 implements OutputFormatter {
         throw new UnsupportedOperationException("Unable to process your request");
     }
 
+    @Override
+    public void format(List<? extends CwmsDTO> dtoList, OutputStream out) {
+        throw new UnsupportedOperationException("Unable to process your request");
+    }
+
+    /**
+     * Marshallers aren't thread safe and this formatter is shared between requests so each
+     * call gets its own, the JAXBContext is the expensive part.
+     */
+    private Marshaller createMarshaller() throws JAXBException {
+        Marshaller mar = context.createMarshaller();
+        mar.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,Boolean.TRUE);
+        return mar;
+    }
+
+    private InternalServerErrorResponse renderError(CwmsDTO dto, JAXBException jaxb) {
+        String msg = dto != null ?
+                "Error rendering '" + dto.toString() + "' to XML"
+                :
+                "Null element passed to formatter";
+        logger.log(Level.WARNING, msg, jaxb);
+        return new InternalServerErrorResponse("Invalid Parameters");
+    }
+
 }
@@ -0,0 +1,59 @@
+package cwms.radar.helpers;
+
+import java.util.logging.Logger;
+
+/**
+ * Reads settings from a system property or, when there is none, an environment variable of the
+ * same name.  Invalid numbers are logged and replaced by the default so a typo can't stop the
+ * application from starting.
+ */
+public final class ConfigHelper {
+    private static final Logger logger = Logger.getLogger(ConfigHelper.class.getName());
+
+    private ConfigHelper() {
+    }
+
+    /**
+     * @return the trimmed setting, null if it isn't set or blank.
+     */
+    public static String getString(String key) {
+        String value = System.getProperty(key, System.getenv(key));
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    public static String getString(String key, String defaultValue) {
+        String value = getString(key);
+        return value == null ? defaultValue : value;
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        return parseLong(key, getString(key), defaultValue);
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        long value = getLong(key, defaultValue);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            logger.warning("Ignoring invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parse a setting that was already read.
+     *
+     * @param key the name of the setting, for the log.
+     * @param value the value, may be null.
+     * @param defaultValue returned when value is null, blank or not a number.
+     */
+    public static long parseLong(String key, String value, long defaultValue) {
+        if (value != null && !value.trim().isEmpty()) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException ex) {
+                logger.warning("Ignoring invalid value for " + key + ": " + value);
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,40 @@
+package cwms.radar.helpers;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Passes writes through to another stream while keeping track of how many bytes went by.
+ *
+ * <p>Closing this stream only flushes it, the wrapped stream is left open for its owner (e.g.
+ * the servlet container) to close.
+ */
+public class CountingOutputStream extends FilterOutputStream {
+    private long count = 0;
+
+    public CountingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        count += len;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,32 @@
+package cwms.radar.helpers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public final class DigestHelper {
+
+    private DigestHelper() {
+    }
+
+    /**
+     * Hash a secret (e.g. an API key) so it can be used as a lookup key without
+     * holding on to the secret itself.
+     *
+     * @param value the value to hash
+     * @return lower case hex SHA-256 digest of the UTF-8 bytes of value.
+     */
+    public static String sha256Hex(String value) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package cwms.radar.helpers;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A small, bounded, in-memory cache where every entry carries its own time to live.
+ *
+ * <p>Entries are evicted least recently used first once maxEntries is reached.  Expired
+ * entries are dropped when they are next looked at.  Hits, misses and evictions are recorded
+ * as meters under the given metric name.
+ *
+ * @param <K> key type
+ * @param <V> value type, null values are not stored.
+ */
+public class ExpiringCache<K, V> {
+    private final int maxEntries;
+    private final Map<K, Entry<V>> entries;
+    private final Meter hits;
+    private final Meter misses;
+    private final Meter evictions;
+
+    /**
+     * Create a new cache.
+     *
+     * @param maxEntries the maximum number of entries kept.
+     * @param metrics registry to record hit, miss and eviction meters in.
+     * @param metricName base name for the meters.
+     */
+    public ExpiringCache(int maxEntries, MetricRegistry metrics, String metricName) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.hits = metrics.meter(name(metricName, "hits"));
+        this.misses = metrics.meter(name(metricName, "misses"));
+        this.evictions = metrics.meter(name(metricName, "evictions"));
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean remove = size() > ExpiringCache.this.maxEntries;
+                if (remove) {
+                    evictions.mark();
+                }
+                return remove;
+            }
+        };
+    }
+
+    /**
+     * Look up a value.
+     *
+     * @param key the key
+     * @return the value or null if it isn't present or has expired.
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key);
+            evictions.mark();
+            entry = null;
+        }
+
+        if (entry == null) {
+            misses.mark();
+            return null;
+        }
+        hits.mark();
+        return entry.value;
+    }
+
+    /**
+     * Store a value.
+     *
+     * @param key the key
+     * @param value the value, a null value removes the key.
+     * @param ttlMillis how long the value is good for.
+     */
+    public synchronized void put(K key, V value, long ttlMillis) {
+        if (value == null) {
+            entries.remove(key);
+        } else {
+            entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Remove every entry whose key matches.
+     *
+     * @param predicate test for the keys to remove.
+     */
+    public synchronized void invalidateIf(Predicate<? super K> predicate) {
+        Iterator<K> keys = entries.keySet().iterator();
+        while (keys.hasNext()) {
+            if (predicate.test(keys.next())) {
+                keys.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
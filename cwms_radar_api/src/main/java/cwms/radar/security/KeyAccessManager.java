@@ -1,12 +1,18 @@
 package cwms.radar.security;
 
+import static com.codahale.metrics.MetricRegistry.name;
+
 import cwms.radar.ApiServlet;
+import cwms.radar.RADARMetricsContextListener;
 import cwms.radar.api.errors.RadarError;
 import cwms.radar.datasource.ApiKeyUserPreparer;
 import cwms.radar.datasource.ConnectionPreparer;
 import cwms.radar.datasource.ConnectionPreparingDataSource;
+import cwms.radar.datasource.ConnectionSessionState;
 import cwms.radar.datasource.DelegatingConnectionPreparer;
 import cwms.radar.datasource.SessionOfficePreparer;
+import cwms.radar.helpers.DigestHelper;
+import cwms.radar.helpers.ExpiringCache;
 import cwms.radar.spi.RadarAccessManager;
 
 import io.javalin.core.security.RouteRole;
@@ -21,9 +27,11 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -52,15 +60,41 @@ public class KeyAccessManager extends RadarAccessManager {
     private static final String CHECK_API_KEY =
         "select userid from cwms_20.at_api_keys where apikey = ?";
 
-    private DataSource dataSource = null;
+    public static final long DEFAULT_TTL_SECONDS = 60;
+    public static final long DEFAULT_NEGATIVE_TTL_SECONDS = 10;
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    private final ExpiringCache<String, KeyAuthorization> cache;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+
+    public KeyAccessManager() {
+        this(DEFAULT_TTL_SECONDS, DEFAULT_NEGATIVE_TTL_SECONDS, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Create an access manager that remembers validated keys and their roles.
+     *
+     * @param ttlSeconds how long a valid key and its roles are trusted before the database
+     *                   is asked again.  0 disables caching.
+     * @param negativeTtlSeconds how long an unknown key is rejected without asking the
+     *                           database.  0 disables negative caching.
+     * @param cacheSize maximum number of (key, office) pairs remembered.
+     */
+    public KeyAccessManager(long ttlSeconds, long negativeTtlSeconds, int cacheSize) {
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(0, ttlSeconds));
+        this.negativeTtlMillis = TimeUnit.SECONDS.toMillis(Math.max(0, negativeTtlSeconds));
+        this.cache = new ExpiringCache<>(cacheSize, RADARMetricsContextListener.METRIC_REGISTRY,
+                name(KeyAccessManager.class.getName(), "cache"));
+    }
 
     @Override
     public void manage(Handler handler, Context ctx, Set<RouteRole> routeRoles) throws Exception {
-        dataSource = ctx.attribute(ApiServlet.DATA_SOURCE);
+        DataSource dataSource = ctx.attribute(ApiServlet.DATA_SOURCE);
         try {
             String key = getApiKey(ctx);
-            String user = authorized(ctx, key, routeRoles);
-            prepareContextWithUser(ctx, user,key);
+            String user = authorized(dataSource, key, ctx.queryParam("office"), routeRoles);
+            prepareContextWithUser(ctx, dataSource, user, key);
             handler.handle(ctx);
         } catch (CwmsAuthException ex) {
             logger.log(Level.WARNING,"Unauthorized login attempt",ex);
@@ -76,10 +110,12 @@ public class KeyAccessManager extends RadarAccessManager {
      * is set to the user specified office for further checks within the database.
      * 
      * @param ctx javalin context if additional parameters are required.
+     * @param dataSource the DataSource for this request
      * @param user username, which is ignored except a log message
      * @param key the API key that was presented for this connection
      */
-    private void prepareContextWithUser(Context ctx, String user,String key) throws SQLException {
+    private void prepareContextWithUser(Context ctx, DataSource dataSource, String user,
+                                        String key) throws SQLException {
         logger.info("Validated Api Key for user=" + user);
 
         ConnectionPreparer keyPreparer = new ApiKeyUserPreparer(key);
@@ -91,34 +127,72 @@ public class KeyAccessManager extends RadarAccessManager {
             ConnectionPreparingDataSource cpDs = (ConnectionPreparingDataSource)dataSource;
             ConnectionPreparer existingPreparer = cpDs.getPreparer();
 
-            // Have it do our extra step last.
-            cpDs.setPreparer(new DelegatingConnectionPreparer(existingPreparer, apiPreparer));
+            // Have it do our extra step last.  Wrap rather than modify, the DataSource
+            // may be shared with other requests.
+            ctx.attribute(ApiServlet.DATA_SOURCE, new ConnectionPreparingDataSource(
+                    new DelegatingConnectionPreparer(existingPreparer, apiPreparer),
+                    cpDs.getDelegate()));
         } else {
             ctx.attribute(ApiServlet.DATA_SOURCE, 
                           new ConnectionPreparingDataSource(apiPreparer, dataSource));
         }
     }
 
-    private String authorized(Context ctx, String key, Set<RouteRole> routeRoles) {
-        String retval = null;
-        String office = ctx.queryParam("office");
-        String user = checkKey(key,ctx,office);
+    /**
+     * Check that a key is valid for the office and has the roles the route needs.
+     *
+     * @return the user the key belongs to.
+     * @throws CwmsAuthException if the key is unknown or the user lacks a role.
+     */
+    String authorized(DataSource dataSource, String key, String office,
+                      Set<RouteRole> routeRoles) {
+        KeyAuthorization auth = lookup(dataSource, key, office);
 
         if (routeRoles == null || routeRoles.isEmpty()) {
-            retval = user;
-        } else {
-            Set<RouteRole> specifiedRoles = getRoles(user,office);
-            if (specifiedRoles.containsAll(routeRoles)) {
-                retval = user;
-            } else {
-                throw new CwmsAuthException("Operation not authorized for user",403);
+            return auth.user;
+        }
+
+        Set<RouteRole> specifiedRoles = auth.roles;
+        if (specifiedRoles == null) {
+            try {
+                specifiedRoles = getRoles(dataSource, auth.user, office);
+                auth.roles = specifiedRoles;
+            } catch (SQLException ex) {
+                // Don't remember a failure to look up the roles.
+                logger.log(Level.WARNING,"Failed to retrieve roles for user",ex);
+                specifiedRoles = new HashSet<>();
             }
         }
 
-        return retval;
+        if (specifiedRoles.containsAll(routeRoles)) {
+            return auth.user;
+        } else {
+            throw new CwmsAuthException("Operation not authorized for user",403);
+        }
     }
 
-    private Set<RouteRole> getRoles(String user,String office) {
+    private KeyAuthorization lookup(DataSource dataSource, String key, String office) {
+        if (key == null) {
+            throw new CwmsAuthException("User not authorized.");
+        }
+
+        String cacheKey = DigestHelper.sha256Hex(key) + ":" + office;
+        KeyAuthorization auth = cache.get(cacheKey);
+        if (auth == null) {
+            String user = checkKey(dataSource, key, office);
+            auth = new KeyAuthorization(user);
+            cache.put(cacheKey, auth, user != null ? ttlMillis : negativeTtlMillis);
+        }
+
+        if (auth.user == null) {
+            logger.info("No user for key");
+            throw new CwmsAuthException("User not authorized.");
+        }
+        return auth;
+    }
+
+    private Set<RouteRole> getRoles(DataSource dataSource, String user, String office)
+            throws SQLException {
         Set<RouteRole> roles = new HashSet<>();
         try (Connection conn = dataSource.getConnection();
             PreparedStatement setApiUser = conn.prepareStatement(SET_API_USER_DIRECT);
@@ -126,6 +200,8 @@ public class KeyAccessManager extends RadarAccessManager {
         ) {
             setApiUser.setString(1,user);
             setApiUser.setString(2,office);
+            // The session is changed outside the preparers, they must re-apply their settings.
+            ConnectionSessionState.reset(conn);
             setApiUser.execute();
             getRoles.setString(1,office);
             try (ResultSet rs = getRoles.executeQuery()) {
@@ -133,26 +209,30 @@ public class KeyAccessManager extends RadarAccessManager {
                     roles.add(new Role(rs.getString(1)));
                 }
             }
-        } catch (SQLException ex) {
-            logger.log(Level.WARNING,"Failed to retrieve roles for user",ex);
         }
-        return roles;
+        return Collections.unmodifiableSet(roles);
     }
 
-    private String checkKey(String key, Context ctx, String office) throws CwmsAuthException {
+    /**
+     * Find the user for an API key.
+     *
+     * @return the user or null if the key is not known.
+     */
+    private String checkKey(DataSource dataSource, String key, String office)
+            throws CwmsAuthException {
         try (Connection conn = dataSource.getConnection();
             PreparedStatement setApiUser = conn.prepareStatement(SET_API_USER_DIRECT_WITH_OFFICE);
             PreparedStatement checkForKey = conn.prepareStatement(CHECK_API_KEY);) {
             setApiUser.setString(1,office);
             setApiUser.setString(2,conn.getMetaData().getUserName());
+            ConnectionSessionState.reset(conn);
             setApiUser.execute();
             checkForKey.setString(1,key);
             try (ResultSet rs = checkForKey.executeQuery()) {
                 if (rs.next()) {
                     return rs.getString(1);
                 } else {
-                    logger.info("No user for key");
-                    throw new CwmsAuthException("User not authorized.");
+                    return null;
                 }
             }
         } catch (SQLException ex) {
@@ -197,6 +277,15 @@ public class KeyAccessManager extends RadarAccessManager {
         return header.trim().startsWith("apikey");
     }
 
-    
+    /**
+     * The result of checking a key for an office.  A null user marks a key that is not valid.
+     */
+    private static final class KeyAuthorization {
+        private final String user;
+        private volatile Set<RouteRole> roles;
 
+        private KeyAuthorization(String user) {
+            this.user = user;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package cwms.radar.security;
 
+import cwms.radar.helpers.ConfigHelper;
 import cwms.radar.spi.AccessManagerProvider;
 import cwms.radar.spi.RadarAccessManager;
 
@@ -11,8 +12,14 @@ public class KeyAccessManagerProvider implements AccessManagerProvider {
     }
 
     @Override
-    public RadarAccessManager create() {   
-        return new KeyAccessManager();
+    public RadarAccessManager create() {
+        long ttl = ConfigHelper.getLong("cwms.dataapi.access.apikey.cache.ttl",
+                KeyAccessManager.DEFAULT_TTL_SECONDS);
+        long negativeTtl = ConfigHelper.getLong("cwms.dataapi.access.apikey.cache.negative-ttl",
+                KeyAccessManager.DEFAULT_NEGATIVE_TTL_SECONDS);
+        int size = ConfigHelper.getInt("cwms.dataapi.access.apikey.cache.size",
+                KeyAccessManager.DEFAULT_CACHE_SIZE);
+        return new KeyAccessManager(ttl, negativeTtl, size);
     }
     
 }
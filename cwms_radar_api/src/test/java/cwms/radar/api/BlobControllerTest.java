@@ -0,0 +1,98 @@
+package cwms.radar.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.junit.jupiter.api.Test;
+
+class BlobControllerTest {
+
+    @Test
+    void test_parse_range() {
+        assertArrayEquals(new long[]{0, 1000}, BlobController.parseRange(null, 1000));
+        assertArrayEquals(new long[]{0, 100}, BlobController.parseRange("bytes=0-99", 1000));
+        assertArrayEquals(new long[]{500, 1000}, BlobController.parseRange("bytes=500-", 1000));
+        assertArrayEquals(new long[]{900, 1000}, BlobController.parseRange("bytes=-100", 1000));
+        assertArrayEquals(new long[]{0, 1000}, BlobController.parseRange("bytes=-5000", 1000));
+        assertArrayEquals(new long[]{990, 1000},
+                BlobController.parseRange("bytes=990-5000", 1000));
+        // served whole
+        assertArrayEquals(new long[]{0, 1000},
+                BlobController.parseRange("bytes=0-1,5-9", 1000));
+        assertArrayEquals(new long[]{0, 1000}, BlobController.parseRange("bytes=x-9", 1000));
+        assertArrayEquals(new long[]{0, 1000}, BlobController.parseRange("items=0-9", 1000));
+        // not satisfiable
+        assertNull(BlobController.parseRange("bytes=1000-", 1000));
+        assertNull(BlobController.parseRange("bytes=-0", 1000));
+    }
+
+    @Test
+    void test_copy_large_blob_with_fixed_buffer() throws Exception {
+        long size = 300L * 1024 * 1024;
+        CountingOutputStream out = new CountingOutputStream();
+        BlobController.copy(new GeneratedInputStream(size), out, size);
+        assertEquals(size, out.count);
+        // far larger reads would mean the stream was being buffered
+        assertEquals(64 * 1024, out.largestWrite);
+    }
+
+    @Test
+    void test_copy_range_and_short_stream() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BlobController.copy(new ByteArrayInputStream(new byte[]{1, 2, 3, 4}), out, 2);
+        assertArrayEquals(new byte[]{1, 2}, out.toByteArray());
+
+        assertThrows(EOFException.class, () -> BlobController.copy(
+                new ByteArrayInputStream(new byte[]{1}), new ByteArrayOutputStream(), 2));
+    }
+
+    private static class GeneratedInputStream extends InputStream {
+        private long remaining;
+
+        GeneratedInputStream(long size) {
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            if (remaining <= 0) {
+                return -1;
+            }
+            remaining--;
+            return (int) (remaining & 0x7f);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = (int) Math.min(len, remaining);
+            remaining -= count;
+            return count;
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+        private int largestWrite;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+            largestWrite = Math.max(largestWrite, len);
+        }
+    }
+}
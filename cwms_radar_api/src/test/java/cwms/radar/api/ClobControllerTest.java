@@ -1,7 +1,9 @@
 package cwms.radar.api;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.doReturn;
@@ -25,6 +27,9 @@ import io.javalin.http.HttpResponseException;
 import io.javalin.http.util.ContextUtil;
 import io.javalin.plugin.json.JavalinJackson;
 import io.javalin.plugin.json.JsonMapperKt;
+import java.io.EOFException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.sql.SQLException;
 import java.util.HashMap;
 import javax.servlet.http.HttpServletRequest;
@@ -161,5 +166,22 @@ public class ClobControllerTest extends ControllerTest{
         assertEquals("MYVALUE", clob.getValue());
     }
 
+    @Test
+    void copy_writes_only_the_requested_characters() throws Exception {
+        StringWriter out = new StringWriter();
+        ClobController.copy(new StringReader("h\u00e9llo world"), out, 5);
+        assertEquals("h\u00e9llo", out.toString());
+
+        assertThrows(EOFException.class,
+                () -> ClobController.copy(new StringReader("short"), new StringWriter(), 10));
+    }
 
+    @Test
+    void ranges_count_characters() {
+        assertArrayEquals(new long[]{0, 100}, Controllers.parseRange("chars=0-99", "chars", 1000));
+        assertArrayEquals(new long[]{900, 1000},
+                Controllers.parseRange("chars=-100", "chars", 1000));
+        assertArrayEquals(new long[]{0, 1000}, Controllers.parseRange("bytes=0-99", "chars", 1000));
+        assertNull(Controllers.parseRange("chars=1000-", "chars", 1000));
+    }
 }
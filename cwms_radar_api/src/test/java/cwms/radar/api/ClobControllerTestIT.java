@@ -2,6 +2,7 @@ package cwms.radar.api;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
@@ -94,5 +95,55 @@ public class ClobControllerTestIT extends DataApiTestIT {
 
     }
 
+    @Test
+    void test_listing_values_are_whole_unless_capped() throws JsonProcessingException {
+        String clobId = "TEST/TEST_CLOBIT_LENGTH";
+        String value = "0123456789abcdef";
+        Clob clob = new Clob(SPK, clobId, "test description", value);
+        String serializedClob = JsonV2.buildObjectMapper().writeValueAsString(clob);
+        TestAccounts.KeyUser user = TestAccounts.KeyUser.SPK_NORMAL;
+
+        given()
+                .accept(Formats.JSONV2)
+                .contentType(Formats.JSONV2)
+                .body(serializedClob)
+                .header("Authorization", user.toHeaderValue())
+                .queryParam("office", SPK)
+                .queryParam("fail-if-exists", false)
+                .when()
+                .post("/clobs/")
+                .then()
+                .assertThat()
+                .statusCode(is(HttpServletResponse.SC_CREATED));
+
+        given()
+                .accept(Formats.JSONV2)
+                .queryParam(Controllers.OFFICE, SPK)
+                .queryParam(Controllers.INCLUDE_VALUES, true)
+                .queryParam(Controllers.LIKE, "^TEST/TEST_CLOBIT_LENGTH$")
+                .when()
+                .get("/clobs/")
+                .then()
+                .log().body().log().everything(true)
+                .assertThat()
+                .statusCode(is(200))
+                .body("clobs[0].value", is(value))
+                .body("clobs[0].length", nullValue());
+
+        given()
+                .accept(Formats.JSONV2)
+                .queryParam(Controllers.OFFICE, SPK)
+                .queryParam(Controllers.INCLUDE_VALUES, true)
+                .queryParam(Controllers.MAX_VALUE_LENGTH, 4)
+                .queryParam(Controllers.LIKE, "^TEST/TEST_CLOBIT_LENGTH$")
+                .when()
+                .get("/clobs/")
+                .then()
+                .log().body().log().everything(true)
+                .assertThat()
+                .statusCode(is(200))
+                .body("clobs[0].value", is("0123"))
+                .body("clobs[0].length", is(value.length()));
+    }
 
 }
@@ -8,14 +8,24 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.codahale.metrics.MetricRegistry;
+import cwms.radar.data.dto.Office;
 import cwms.radar.formatters.Formats;
+import fixtures.TestServletOutputStream;
 import io.javalin.core.util.Header;
 import io.javalin.http.Context;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
@@ -244,4 +254,62 @@ class ControllersTest {
         assertNull(intervalForward);
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAcceptsGzip() {
+        assertTrue(ResponseOutputStream.acceptsGzip("gzip"));
+        assertTrue(ResponseOutputStream.acceptsGzip("deflate, GZIP;q=0.5, br"));
+        assertTrue(ResponseOutputStream.acceptsGzip("*"));
+        assertFalse(ResponseOutputStream.acceptsGzip(null));
+        assertFalse(ResponseOutputStream.acceptsGzip("br, deflate"));
+        assertFalse(ResponseOutputStream.acceptsGzip("gzip;q=0"));
+        assertFalse(ResponseOutputStream.acceptsGzip("identity"));
+    }
+
+    @Test
+    void testWriteFormattedCompresses() throws IOException {
+        TestServletOutputStream output = new TestServletOutputStream();
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(output);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader(Header.ACCEPT_ENCODING)).thenReturn("gzip, deflate");
+        Context ctx = new Context(request, response, new LinkedHashMap<>());
+
+        Office office = new Office("SWT", "Tulsa District", "DIS", "SWD");
+        long written = Controllers.writeFormatted(ctx, Formats.parseHeader(Formats.JSONV2),
+                office);
+
+        verify(response).setHeader(Header.CONTENT_ENCODING, "gzip");
+        verify(response).addHeader(Header.VARY, Header.ACCEPT_ENCODING);
+        String body = gunzip(output.getBytes());
+        assertEquals(written, body.getBytes(StandardCharsets.UTF_8).length);
+        assertTrue(body.contains("Tulsa District"));
+    }
+
+    @Test
+    void testWriteFormattedPlain() throws IOException {
+        TestServletOutputStream output = new TestServletOutputStream();
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(output);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        Context ctx = new Context(request, response, new LinkedHashMap<>());
+
+        Controllers.writeFormatted(ctx, Formats.parseHeader(Formats.JSONV2),
+                new Office("SWT", "Tulsa District", "DIS", "SWD"));
+
+        verify(response, never()).setHeader(Header.CONTENT_ENCODING, "gzip");
+        assertTrue(output.getOutput().contains("Tulsa District"));
+    }
+
+    private static String gunzip(byte[] compressed) throws IOException {
+        ByteArrayOutputStream retval = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                retval.write(buffer, 0, read);
+            }
+        }
+        return new String(retval.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -1,5 +1,6 @@
 package cwms.radar.api;
 
+import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -7,13 +8,13 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.codahale.metrics.MetricRegistry;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import cwms.radar.data.dao.RatingSpecDao;
 import cwms.radar.data.dto.rating.RatingSpec;
 import cwms.radar.formatters.Formats;
 
 import cwms.radar.formatters.json.JsonV2;
+import fixtures.TestServletOutputStream;
 import io.javalin.core.util.Header;
 import io.javalin.http.Context;
 import org.jetbrains.annotations.NotNull;
@@ -32,7 +33,7 @@ class RatingSpecControllerTest
 
 
 	@Test
-	void getOne() throws JsonProcessingException
+	void getOne() throws IOException
 	{
 		String officeId = "SWT";
 		String ratingId = "ARBU.Elev;Stor.Linear.Production";
@@ -48,6 +49,8 @@ class RatingSpecControllerTest
 		final HttpServletRequest request= mock(HttpServletRequest.class);
 		final HttpServletResponse response = mock(HttpServletResponse.class);
 		final Map<String, ?> map = new LinkedHashMap<>();
+		final TestServletOutputStream output = new TestServletOutputStream();
+		when(response.getOutputStream()).thenReturn(output);
 
 		when(request.getAttribute("office")).thenReturn(officeId);
 		when(request.getAttribute("rating-id")).thenReturn(ratingId);
@@ -94,7 +97,8 @@ class RatingSpecControllerTest
 		// And make sure controller returned json
 		verify(response).setContentType(Formats.JSONV2);
 
-		String result = ctx.resultString();
+		// Formatted results are written straight to the response
+		String result = output.getOutput();
 		assertNotNull(result);  // MAke sure we got some sort of response
 
 		// Turn json response back into a spec object
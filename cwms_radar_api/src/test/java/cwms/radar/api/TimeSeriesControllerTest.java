@@ -8,17 +8,20 @@ import java.time.temporal.ChronoUnit;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.function.Consumer;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.codahale.metrics.MetricRegistry;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.radar.api.errors.FieldException;
 import cwms.radar.data.dao.TimeSeriesDao;
+import cwms.radar.data.dao.TotalMode;
 import cwms.radar.data.dto.TimeSeries;
 import cwms.radar.formatters.Formats;
 import cwms.radar.formatters.json.JsonV2;
 import cwms.radar.formatters.xml.XMLv2;
+import fixtures.TestServletOutputStream;
 import io.javalin.core.util.Header;
 import io.javalin.http.Context;
 import org.jetbrains.annotations.NotNull;
@@ -26,12 +29,18 @@ import org.jooq.DSLContext;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNotNull;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -41,7 +50,7 @@ public class TimeSeriesControllerTest extends ControllerTest {
 
 
     @Test
-    public void testDaoMock() throws JsonProcessingException     {
+    public void testDaoMock() throws IOException {
         String officeId = "LRL";
         String tsId = "RYAN3.Stage.Inst.5Minutes.0.ZSTORE_TS_TEST";
         TimeSeries expected = buildTimeSeries(officeId, tsId);
@@ -52,13 +61,16 @@ public class TimeSeriesControllerTest extends ControllerTest {
         when(
                 dao.getTimeseries(eq(""), eq(500), eq(tsId), eq(officeId), eq("EN"),
                         isNull(),
-                        isNotNull(), isNotNull(), isNotNull())).thenReturn(expected);
+                        isNotNull(), isNotNull(), isNotNull(), eq(TotalMode.ESTIMATE)))
+                .thenReturn(expected);
 
 
         // build mock request and response
         final HttpServletRequest request= mock(HttpServletRequest.class);
         final HttpServletResponse response = mock(HttpServletResponse.class);
         final Map<String, ?> map = new LinkedHashMap<>();
+        final TestServletOutputStream output = new TestServletOutputStream();
+        when(response.getOutputStream()).thenReturn(output);
 
         when(request.getAttribute("office-id")).thenReturn(officeId);
         when(request.getAttribute("database")).thenReturn(null);
@@ -98,14 +110,16 @@ public class TimeSeriesControllerTest extends ControllerTest {
         // Check that the controller accessed our mock dao in the expected way
         verify(dao, times(1)).
                 getTimeseries(eq(""), eq(500), eq(tsId), eq(officeId), eq("EN"),
-                        isNull(), isNotNull(), isNotNull(), isNotNull());
+                        isNull(), isNotNull(), isNotNull(), isNotNull(),
+                        eq(TotalMode.ESTIMATE));
 
         // Make sure controller thought it was happy
         verify(response).setStatus(200);
         // And make sure controller returned json
         verify(response).setContentType(Formats.JSONV2);
 
-        String result = ctx.resultString();
+        // Formatted results are written straight to the response
+        String result = output.getOutput();
         assertNotNull(result);  // MAke sure we got some sort of response
 
         // Turn json response back into a TimeSeries object
@@ -115,6 +129,85 @@ public class TimeSeriesControllerTest extends ControllerTest {
         assertSimilar(expected, actual);
     }
 
+    @Test
+    public void testStreamedJsonV2() throws IOException {
+        String result = getAllStreamed(Formats.JSONV2);
+        TimeSeries actual = JsonV2.buildObjectMapper().readValue(result, TimeSeries.class);
+        assertSimilar(buildTimeSeries("LRL", "RYAN3.Stage.Inst.5Minutes.0.ZSTORE_TS_TEST"),
+                actual);
+    }
+
+    @Test
+    public void testStreamedXmlV2() throws IOException {
+        String result = getAllStreamed(Formats.XMLV2);
+        TimeSeries actual = TimeSeriesController.deserializeJaxb(result);
+        assertSimilar(buildTimeSeries("LRL", "RYAN3.Stage.Inst.5Minutes.0.ZSTORE_TS_TEST"),
+                actual);
+    }
+
+    @Test
+    public void testOnlyCheckedFormatsStream() {
+        assertTrue(TimeSeriesController.canStream(Formats.parseHeader(Formats.JSONV2)));
+        assertTrue(TimeSeriesController.canStream(Formats.parseHeader(Formats.XMLV2)));
+        assertFalse(TimeSeriesController.canStream(Formats.parseHeader(Formats.JSON)));
+        assertFalse(TimeSeriesController.canStream(Formats.parseHeader(Formats.CSV)));
+    }
+
+    /**
+     * Runs an unpaged getAll through the streamed values path and returns the response body.
+     */
+    @SuppressWarnings("unchecked")
+    private String getAllStreamed(String accept) throws IOException {
+        String officeId = "LRL";
+        String tsId = "RYAN3.Stage.Inst.5Minutes.0.ZSTORE_TS_TEST";
+        TimeSeries listed = buildTimeSeries(officeId, tsId);
+
+        TimeSeriesDao dao = mock(TimeSeriesDao.class);
+        doAnswer(invocation -> {
+            TimeSeries streamed = new TimeSeries(null, -1, 0, tsId, officeId,
+                    listed.getBegin(), listed.getEnd(), "m", listed.getInterval());
+            streamed.streamValues(listed.getValues().iterator());
+            ((Consumer<TimeSeries>) invocation.getArgument(8)).accept(streamed);
+            return null;
+        }).when(dao).streamTimeseries(any(), any(), any(), any(), any(), any(), any(), any(),
+                any());
+
+        final HttpServletRequest request = mock(HttpServletRequest.class);
+        final HttpServletResponse response = mock(HttpServletResponse.class);
+        final TestServletOutputStream output = new TestServletOutputStream();
+        when(response.getOutputStream()).thenReturn(output);
+        when(request.getAttribute("office-id")).thenReturn(officeId);
+        when(request.getHeader(Header.ACCEPT)).thenReturn(accept);
+
+        Map<String, String> urlParams = new LinkedHashMap<>();
+        urlParams.put("office", officeId);
+        urlParams.put("name", tsId);
+        urlParams.put("page-size", "-1");
+        when(request.getQueryString()).thenReturn(buildParamStr(urlParams));
+        when(request.getRequestURL())
+                .thenReturn(new StringBuffer("http://127.0.0.1:7001/timeseries"));
+
+        Context ctx = new Context(request, response, new LinkedHashMap<>());
+        TimeSeriesController controller = new TimeSeriesController(new MetricRegistry()) {
+            @Override
+            protected DSLContext getDslContext(Context ctx) {
+                return null;
+            }
+
+            @NotNull
+            @Override
+            protected TimeSeriesDao getTimeSeriesDao(DSLContext dsl) {
+                return dao;
+            }
+        };
+        controller.getAll(ctx);
+
+        verify(dao, never()).getTimeseries(any(), anyInt(), any(), any(), any(), any(), any(),
+                any(), any(), any());
+        verify(response).setStatus(200);
+        return output.getOutput();
+    }
+
     private void assertSimilar(TimeSeries expected, TimeSeries actual) {
         // Make sure ts we got back resembles the fakeTS our mock dao was supposed to return.
         assertEquals(expected.getOfficeId(), actual.getOfficeId(), "offices did not match");
@@ -184,6 +277,14 @@ public class TimeSeriesControllerTest extends ControllerTest {
     }
 
 
+    @Test
+    void test_value_without_date_time_is_a_bad_request() throws IOException {
+        String jsonV2 = loadResourceAsString("cwms/radar/api/timeseries_create.json")
+                .replaceFirst("1624287600000", "null");
+        assertThrows(FieldException.class,
+                () -> TimeSeriesController.deserializeTimeSeries(jsonV2, Formats.JSONV2));
+    }
+
     @NotNull
     private TimeSeries buildTimeSeries(String officeId, String tsId) {
         ZonedDateTime start = ZonedDateTime.parse("2021-06-21T08:00:00-07:00[PST8PDT]");
@@ -0,0 +1,130 @@
+package cwms.radar.api.graph.basinconnectivity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.radar.data.dto.basinconnectivity.Stream;
+import cwms.radar.data.dto.basinconnectivity.StreamLocation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StreamNetworkGraphTest {
+
+    private static StreamLocation location(String id, String stream, double station) {
+        return new StreamLocation.Builder(id, stream, station, "L", "SWT").build();
+    }
+
+    /**
+     * MAIN is numbered from its mouth, TRIB flows into it at 30 and DIV leaves it at 70.
+     */
+    private static StreamNetworkGraph graph() {
+        Stream main = new Stream.Builder("MAIN", true, 100.0, "SWT")
+                .withStreamLocations(Arrays.asList(location("M10", "MAIN", 10),
+                        location("M90", "MAIN", 90), location("M50", "MAIN", 50)))
+                .build();
+        Stream trib = new Stream.Builder("TRIB", false, 20.0, "SWT")
+                .withReceivingStreamId("MAIN")
+                .withConfluenceStation(30.0)
+                .withConfluenceBank("L")
+                .withStreamLocations(Arrays.asList(location("T5", "TRIB", 5),
+                        location("T15", "TRIB", 15)))
+                .build();
+        Stream div = new Stream.Builder("DIV", true, 10.0, "SWT")
+                .withDivertingStreamId("MAIN")
+                .withDiversionStation(70.0)
+                .withDiversionBank("R")
+                .withStreamLocations(Collections.singletonList(location("D5", "DIV", 5)))
+                .build();
+        return StreamNetworkGraph.build("SWT", Arrays.asList(main, trib, div));
+    }
+
+    private static List<String> locations(StreamNetworkGraph graph, List<Integer> nodes) {
+        List<String> retval = new ArrayList<>();
+        for (int node : nodes) {
+            if (graph.getLocationId(node) != null) {
+                retval.add(graph.getLocationId(node));
+            }
+        }
+        return retval;
+    }
+
+    @Test
+    void test_nodes_and_edges() {
+        StreamNetworkGraph graph = graph();
+        // locations plus both ends of every stream and the junctions on MAIN
+        assertEquals(14, graph.getNodeCount());
+        assertEquals(13, graph.getEdgeCount());
+        assertEquals("SWT", graph.getOfficeId());
+
+        int m50 = graph.getLocationNode("m50");
+        assertEquals("MAIN", graph.getStreamId(m50));
+        assertEquals(50.0, graph.getStation(m50));
+        assertEquals(-1, graph.getLocationNode("NONE"));
+        assertEquals(-1, graph.getLocationNode(null));
+    }
+
+    @Test
+    void test_upstream() {
+        StreamNetworkGraph graph = graph();
+        List<String> upstream = locations(graph,
+                graph.getUpstream(graph.getLocationNode("M10")));
+        assertEquals(new HashSet<>(Arrays.asList("M50", "M90", "T5", "T15")),
+                new HashSet<>(upstream));
+        assertTrue(upstream.indexOf("M50") < upstream.indexOf("M90"));
+        assertTrue(upstream.indexOf("T15") < upstream.indexOf("T5"));
+
+        assertTrue(locations(graph, graph.getUpstream(graph.getLocationNode("T5"))).isEmpty());
+        assertEquals(Arrays.asList("M90"),
+                locations(graph, graph.getUpstream(graph.getLocationNode("D5"))));
+    }
+
+    @Test
+    void test_downstream() {
+        StreamNetworkGraph graph = graph();
+        assertEquals(new HashSet<>(Arrays.asList("M50", "M10", "D5")),
+                new HashSet<>(locations(graph,
+                        graph.getDownstream(graph.getLocationNode("M90")))));
+        assertEquals(Arrays.asList("T15", "M10"),
+                locations(graph, graph.getDownstream(graph.getLocationNode("T5"))));
+    }
+
+    @Test
+    void test_path() {
+        StreamNetworkGraph graph = graph();
+        int t5 = graph.getLocationNode("T5");
+        int m10 = graph.getLocationNode("M10");
+
+        List<Integer> path = graph.getPath(t5, m10);
+        assertEquals(5, path.size());
+        assertEquals(Arrays.asList("T5", "T15", "M10"), locations(graph, path));
+        assertEquals("TRIB", graph.getStreamId(path.get(2)));
+        assertEquals(20.0, graph.getStation(path.get(2)));
+        assertEquals("MAIN", graph.getStreamId(path.get(3)));
+        assertEquals(30.0, graph.getStation(path.get(3)));
+
+        assertTrue(graph.getPath(m10, t5).isEmpty());
+        assertEquals(Collections.singletonList(m10), graph.getPath(m10, m10));
+    }
+
+    @Test
+    void test_nearest() {
+        StreamNetworkGraph graph = graph();
+        assertEquals(graph.getLocationNode("M50"), graph.getNearestNode("main", 48));
+        assertEquals(graph.getLocationNode("M10"), graph.getNearestNode("MAIN", 10));
+
+        // halfway between M10 and the confluence, the upstream one wins
+        int tie = graph.getNearestNode("MAIN", 20);
+        assertNull(graph.getLocationId(tie));
+        assertEquals(30.0, graph.getStation(tie));
+
+        assertEquals(100.0, graph.getStation(graph.getNearestNode("MAIN", 500)));
+        assertEquals(0.0, graph.getStation(graph.getNearestNode("MAIN", -5)));
+        assertEquals(-1, graph.getNearestNode("NONE", 1));
+        assertEquals(-1, graph.getNearestNode(null, 1));
+    }
+}
@@ -0,0 +1,198 @@
+package cwms.radar.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import cwms.radar.data.dto.Catalog;
+import cwms.radar.data.dto.catalog.LocationCatalogEntry;
+import cwms.radar.data.dto.catalog.TimeseriesCatalogEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CatalogIndexTest {
+    private CatalogIndex index;
+    private TimeSeriesDaoImpl tsDao;
+
+    @BeforeEach
+    void setUp() {
+        index = new CatalogIndex(Arrays.asList("SWT", "spk"), 60);
+        List<CatalogIndex.Entry> timeSeries = new ArrayList<>();
+        long code = 1;
+        for (String loc : new String[]{"KEYS", "TULA", "ARCA", "Keystone"}) {
+            for (String param : new String[]{"Flow", "Stage"}) {
+                timeSeries.add(new CatalogIndex.Entry("SWT", loc + "." + param + ".Inst.1Hour.0.Raw",
+                        code++, "cfs", "1Hour", 0L, "UTC"));
+            }
+        }
+        index.put("SWT", timeSeries, Collections.emptyList());
+
+        tsDao = mock(TimeSeriesDaoImpl.class);
+        when(tsDao.getCatalogExtents(any())).thenReturn(Collections.emptyMap());
+    }
+
+    @Test
+    void test_pages_in_order_with_exact_total() {
+        List<String> names = new ArrayList<>();
+        Catalog catalog = index.getTimeSeriesCatalog(tsDao, null, 3, "SWT", "^KEY.*",
+                null, null, null, null, IncludeExtents.NONE).orElse(null);
+        assertNotNull(catalog);
+        assertEquals(Integer.valueOf(4), catalog.getTotal());
+        names.addAll(names(catalog));
+        assertNotNull(catalog.getNextPage());
+
+        catalog = index.getTimeSeriesCatalog(tsDao, catalog.getNextPage(), 3, "SWT", "^KEY.*",
+                null, null, null, null, IncludeExtents.NONE).orElse(null);
+        assertNotNull(catalog);
+        assertEquals(Integer.valueOf(4), catalog.getTotal());
+        names.addAll(names(catalog));
+        assertNull(catalog.getNextPage());
+
+        assertEquals(Arrays.asList("KEYS.Flow.Inst.1Hour.0.Raw", "KEYS.Stage.Inst.1Hour.0.Raw",
+                "Keystone.Flow.Inst.1Hour.0.Raw", "Keystone.Stage.Inst.1Hour.0.Raw"), names);
+    }
+
+    @Test
+    void test_regex_filter() {
+        Catalog catalog = index.getTimeSeriesCatalog(tsDao, null, 500, "swt", "stage",
+                null, null, null, null, IncludeExtents.NONE).orElse(null);
+        assertNotNull(catalog);
+        assertEquals(Integer.valueOf(4), catalog.getTotal());
+        assertTrue(names(catalog).stream().allMatch(n -> n.contains(".Stage.")));
+    }
+
+    @Test
+    void test_falls_back_when_it_cannot_answer() {
+        // alias filters
+        assertFalse(index.getTimeSeriesCatalog(tsDao, null, 500, "SWT", ".*", "Agency",
+                null, null, null, IncludeExtents.NONE).isPresent());
+        // all offices
+        assertFalse(index.getTimeSeriesCatalog(tsDao, null, 500, null, ".*", null,
+                null, null, null, IncludeExtents.NONE).isPresent());
+        // configured but not loaded
+        assertFalse(index.getTimeSeriesCatalog(tsDao, null, 500, "SPK", ".*", null,
+                null, null, null, IncludeExtents.NONE).isPresent());
+        // POSIX class
+        assertFalse(index.getTimeSeriesCatalog(tsDao, null, 500, "SWT", "^[[:alpha:]]+\\.",
+                null, null, null, null, IncludeExtents.NONE).isPresent());
+
+        index.invalidate("SWT");
+        assertFalse(index.getTimeSeriesCatalog(tsDao, null, 500, "SWT", ".*", null,
+                null, null, null, IncludeExtents.NONE).isPresent());
+    }
+
+    @Test
+    void test_deleted_locations_fall_back_to_the_dao() {
+        List<CatalogIndex.Entry> locations = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            locations.add(new CatalogIndex.Entry("SWT", "LOC" + i, i));
+        }
+        index.put("SWT", Collections.emptyList(), locations);
+
+        LocationsDaoImpl locDao = mock(LocationsDaoImpl.class);
+        // LOC1 was deleted after the index was loaded
+        when(locDao.getLocationCatalogEntries(anyList(), anyString()))
+                .thenReturn(Arrays.asList(mock(LocationCatalogEntry.class),
+                        mock(LocationCatalogEntry.class)));
+        assertFalse(index.getLocationCatalog(locDao, null, 3, "EN", "SWT", null, null, null)
+                .isPresent());
+        // the office is reloaded, until then every request goes to the DAO
+        assertFalse(index.getTimeSeriesCatalog(tsDao, null, 500, "SWT", ".*", null,
+                null, null, null, IncludeExtents.NONE).isPresent());
+    }
+
+    @Test
+    void test_disabled() {
+        CatalogIndex disabled = new CatalogIndex(Collections.emptyList(), 60);
+        disabled.put("SWT", Collections.emptyList(), Collections.emptyList());
+        assertFalse(disabled.isEnabled());
+        Optional<Catalog> catalog = disabled.getTimeSeriesCatalog(tsDao, null, 500, "SWT", ".*",
+                null, null, null, null, IncludeExtents.NONE);
+        assertFalse(catalog.isPresent());
+    }
+
+    @Test
+    void test_filters() {
+        assertTrue(CatalogIndex.filterFor("^keys\\.").test("KEYS.Flow"));
+        assertTrue(CatalogIndex.filterFor("Flow|Stage").test("KEYS.Stage"));
+        assertFalse(CatalogIndex.filterFor("^TULA$").test("TULA.Flow"));
+        assertNull(CatalogIndex.filterFor("^[[:digit:]]"));
+        assertNull(CatalogIndex.filterFor("(unclosed"));
+    }
+
+    @Test
+    void test_overlapping_prefixes_count_once() {
+        Catalog catalog = index.getTimeSeriesCatalog(tsDao, null, 500, "SWT", "^(KEY|KEYS)",
+                null, null, null, null, IncludeExtents.NONE).orElse(null);
+        assertNotNull(catalog);
+        assertEquals(Integer.valueOf(4), catalog.getTotal());
+        assertEquals(4, names(catalog).size());
+
+        catalog = index.getTimeSeriesCatalog(tsDao, null, 500, "SWT",
+                "^(tula\\.flow\\.inst\\.1hour\\.0\\.raw"
+                        + "|ARCA\\.Stage\\.Inst\\.1Hour\\.0\\.Raw)$",
+                null, null, null, null, IncludeExtents.NONE).orElse(null);
+        assertNotNull(catalog);
+        assertEquals(Arrays.asList("ARCA.Stage.Inst.1Hour.0.Raw", "TULA.Flow.Inst.1Hour.0.Raw"),
+                names(catalog));
+    }
+
+    @Test
+    void test_binary_search_ranges() {
+        CatalogIndex.Entry[] sorted = new CatalogIndex.Entry[1000];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = new CatalogIndex.Entry("SWT", String.format("LOC%03d.Flow", i), i);
+        }
+
+        assertEquals(0, CatalogIndex.search(sorted, "A", true));
+        assertEquals(500, CatalogIndex.search(sorted, "LOC500.FLOW", true));
+        assertEquals(501, CatalogIndex.search(sorted, "LOC500.FLOW", false));
+        assertEquals(1000, CatalogIndex.search(sorted, "Z", false));
+
+        List<int[]> ranges = CatalogIndex.rangesOf(sorted,
+                LikeRegexRewriter.analyze("^(loc12|LOC1|LOC999\\.flow)"));
+        assertEquals(2, ranges.size());
+        assertEquals(Arrays.asList(100, 200), Arrays.asList(ranges.get(0)[0], ranges.get(0)[1]));
+        assertEquals(Arrays.asList(999, 1000), Arrays.asList(ranges.get(1)[0], ranges.get(1)[1]));
+
+        ranges = CatalogIndex.rangesOf(sorted, LikeRegexRewriter.analyze("^LOC042\\.FLOW$"));
+        assertEquals(1, ranges.size());
+        assertEquals(42, ranges.get(0)[0]);
+        assertEquals(43, ranges.get(0)[1]);
+    }
+
+    @Test
+    void test_only_oracle_compatible_regexes() {
+        assertTrue(CatalogIndex.matchesLikeOracle("Flow|Stage"));
+        assertTrue(CatalogIndex.matchesLikeOracle("^KEYS\\..*\\.Raw$"));
+        assertFalse(CatalogIndex.matchesLikeOracle("\\d+"));
+        assertFalse(CatalogIndex.matchesLikeOracle("K[A-Z]YS"));
+        assertFalse(CatalogIndex.matchesLikeOracle("E{2}"));
+        assertFalse(CatalogIndex.matchesLikeOracle("(?i)keys"));
+        assertFalse(CatalogIndex.matchesLikeOracle("KEY.*?S"));
+        assertFalse(CatalogIndex.matchesLikeOracle("K\u00c9YS"));
+        assertNull(CatalogIndex.filterFor("\\w+"));
+
+        assertFalse(index.getTimeSeriesCatalog(tsDao, null, 500, "SWT", "\\.Stage\\.\\w+",
+                null, null, null, null, IncludeExtents.NONE).isPresent());
+    }
+
+    private static List<String> names(Catalog catalog) {
+        return catalog.getEntries().stream()
+                .map(e -> ((TimeseriesCatalogEntry) e).getName())
+                .collect(Collectors.toList());
+    }
+}
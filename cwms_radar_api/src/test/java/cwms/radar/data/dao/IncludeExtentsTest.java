@@ -0,0 +1,43 @@
+package cwms.radar.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.radar.data.dto.TimeSeriesExtents;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class IncludeExtentsTest {
+
+    @Test
+    void test_parse() {
+        assertEquals(IncludeExtents.NONE, IncludeExtents.getIncludeExtents(null));
+        assertEquals(IncludeExtents.LATEST, IncludeExtents.getIncludeExtents("latest"));
+        assertEquals(IncludeExtents.ALL, IncludeExtents.getIncludeExtents("ALL"));
+        assertThrows(IllegalArgumentException.class,
+                () -> IncludeExtents.getIncludeExtents("some"));
+    }
+
+    @Test
+    void test_select() {
+        ZonedDateTime time = ZonedDateTime.parse("2021-01-01T00:00:00Z");
+        TimeSeriesExtents unversioned = new TimeSeriesExtents((ZonedDateTime) null, time, time,
+                time);
+        TimeSeriesExtents older = new TimeSeriesExtents(time, time, time, time);
+        TimeSeriesExtents newer = new TimeSeriesExtents(time.plusDays(1), time, time, time);
+        List<TimeSeriesExtents> extents = Arrays.asList(older, unversioned, newer);
+
+        assertNull(IncludeExtents.NONE.select(extents));
+        assertSame(extents, IncludeExtents.ALL.select(extents));
+        assertEquals(Collections.singletonList(newer), IncludeExtents.LATEST.select(extents));
+        assertEquals(Collections.singletonList(unversioned),
+                IncludeExtents.LATEST.select(Collections.singletonList(unversioned)));
+        assertTrue(IncludeExtents.LATEST.select(Collections.emptyList()).isEmpty());
+    }
+}
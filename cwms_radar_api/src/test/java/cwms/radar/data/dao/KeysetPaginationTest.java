@@ -0,0 +1,240 @@
+package cwms.radar.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.radar.data.dto.CwmsDTOPaginated;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Query;
+import org.jooq.Record;
+import org.jooq.Record1;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockDataProvider;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class KeysetPaginationTest {
+    private static final Field<String> OFFICE = DSL.field("OFFICE_ID", String.class);
+    private static final Field<String> NAME = DSL.field("NAME", String.class);
+    private static final Field<BigDecimal> CODE = DSL.field("CODE", BigDecimal.class);
+
+    @AfterEach
+    void clearKey() {
+        System.clearProperty(KeysetPagination.HMAC_KEY);
+    }
+
+    @Test
+    void test_key_round_trip() {
+        Object[] key = new Object[]{"SWT", null, new BigDecimal("12.50"), 42L, 1.5d,
+            Timestamp.from(Instant.parse("2021-06-01T12:00:00Z")), "a:b.c||d"};
+
+        Object[] decoded = KeysetPagination.decodeKey(KeysetPagination.encodeKey(key));
+        assertArrayEquals(key, decoded);
+    }
+
+    @Test
+    void test_legacy_offset_cursor() {
+        KeysetPagination paging = new KeysetPagination(KeysetPagination.SortKey.of(NAME));
+        KeysetPagination.Page page = paging.parse(
+                CwmsDTOPaginated.encodeCursor(100, 57, 50), 20);
+
+        assertEquals(100, page.getOffset());
+        assertEquals(50, page.getPageSize());
+        assertEquals(Integer.valueOf(57), page.getTotal());
+        assertFalse(page.isFirst());
+        DSLContext dsl = DSL.using(SQLDialect.ORACLE);
+        assertEquals(dsl.render(DSL.trueCondition()), dsl.render(paging.seek(page)));
+    }
+
+    @Test
+    void test_first_page() {
+        KeysetPagination paging = new KeysetPagination(KeysetPagination.SortKey.of(NAME));
+        KeysetPagination.Page page = paging.parse(null, 20);
+
+        assertTrue(page.isFirst());
+        assertEquals(20, page.getPageSize());
+        assertNull(page.getTotal());
+        assertEquals("0", page.getPosition());
+    }
+
+    @Test
+    void test_signed_cursor() {
+        System.setProperty(KeysetPagination.HMAC_KEY, "secret");
+        String position = KeysetPagination.encodeKey(new Object[]{"SWT", "A"});
+        assertArrayEquals(new Object[]{"SWT", "A"}, KeysetPagination.decodeKey(position));
+
+        String[] parts = position.split("\\.");
+        String tampered = parts[0] + "."
+                + KeysetPagination.encodeKey(new Object[]{"SWT", "B"}).split("\\.")[1]
+                + "." + parts[2];
+        assertThrows(IllegalArgumentException.class, () -> KeysetPagination.decodeKey(tampered));
+
+        String unsigned = parts[0] + "." + parts[1];
+        assertThrows(IllegalArgumentException.class, () -> KeysetPagination.decodeKey(unsigned));
+    }
+
+    @Test
+    void test_deep_page_query_has_same_shape() {
+        KeysetPagination paging = new KeysetPagination(
+                KeysetPagination.SortKey.upper(OFFICE),
+                KeysetPagination.SortKey.of(NAME),
+                KeysetPagination.SortKey.of(CODE));
+
+        Query second = pageQuery(paging, new Object[]{"SPK", "Alpha", new BigDecimal(10)});
+        Query deep = pageQuery(paging, new Object[]{"SWT", "Zulu", new BigDecimal(99999)});
+
+        String sql = second.getSQL();
+        assertEquals(sql, deep.getSQL());
+        assertEquals(second.getBindValues().size(), deep.getBindValues().size());
+        assertFalse(sql.toLowerCase().contains("offset"));
+    }
+
+    private static Query pageQuery(KeysetPagination paging, Object[] key) {
+        String cursor = CwmsDTOPaginated.encodeCursor(KeysetPagination.encodeKey(key), 50);
+        KeysetPagination.Page page = paging.parse(cursor, 50);
+
+        DSLContext dsl = DSL.using(SQLDialect.ORACLE);
+        return dsl.select(OFFICE, NAME, CODE)
+                .from(DSL.table("SOME_VIEW"))
+                .where(paging.seek(page))
+                .orderBy(paging.orderBy())
+                .limit(page.getLimit());
+    }
+
+    @Test
+    void test_exact_page_has_no_next_page() {
+        KeysetPagination paging = new KeysetPagination(KeysetPagination.SortKey.of(NAME));
+        List<Record1<String>> rows = names(0, 3);
+
+        assertNull(paging.nextPageKey(rows, 3));
+        assertEquals(3, KeysetPagination.pageOf(rows, 3).size());
+
+        rows = names(0, 4);
+        assertArrayEquals(new Object[]{name(2)},
+                KeysetPagination.decodeKey(paging.nextPageKey(rows, 3)));
+        assertEquals(rows.subList(0, 3), KeysetPagination.pageOf(rows, 3));
+    }
+
+    @Test
+    void test_walk_large_fixture_without_offset() {
+        final int total = 10000;
+        final int pageSize = 100;
+        List<String> fixture = names(0, total).stream()
+                .map(Record1::value1).collect(Collectors.toList());
+        List<String> sql = new ArrayList<>();
+        DSLContext dsl = DSL.using(new MockConnection(seekProvider(fixture, sql)),
+                SQLDialect.ORACLE);
+        KeysetPagination paging = new KeysetPagination(KeysetPagination.SortKey.of(NAME));
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPagination.Page page = paging.parse(cursor, pageSize);
+            Result<Record1<String>> rows = dsl.select(NAME)
+                    .from(DSL.table("SOME_VIEW"))
+                    .where(paging.seek(page))
+                    .orderBy(paging.orderBy())
+                    .limit(page.getLimit())
+                    .fetch();
+            List<Record1<String>> pageRows = KeysetPagination.pageOf(rows, pageSize);
+            assertFalse(pageRows.isEmpty(), "no empty trailing page");
+            pageRows.forEach(r -> seen.add(r.value1()));
+
+            String next = paging.nextPageKey(rows, pageSize);
+            cursor = next == null ? null : CwmsDTOPaginated.encodeCursor(next, pageSize);
+        } while (cursor != null);
+
+        assertEquals(fixture, seen);
+        assertEquals(total / pageSize, sql.size());
+        assertEquals(sql.get(1), sql.get(sql.size() - 1));
+        sql.forEach(s -> assertFalse(s.toLowerCase().contains("offset"), s));
+    }
+
+    @Test
+    void test_seek_to_late_page() {
+        List<String> fixture = names(0, 10000).stream()
+                .map(Record1::value1).collect(Collectors.toList());
+        List<String> sql = new ArrayList<>();
+        DSLContext dsl = DSL.using(new MockConnection(seekProvider(fixture, sql)),
+                SQLDialect.ORACLE);
+        KeysetPagination paging = new KeysetPagination(KeysetPagination.SortKey.of(NAME));
+
+        String cursor = CwmsDTOPaginated.encodeCursor(
+                KeysetPagination.encodeKey(new Object[]{name(9899)}), 100);
+        KeysetPagination.Page page = paging.parse(cursor, 100);
+        Result<Record1<String>> rows = dsl.select(NAME)
+                .from(DSL.table("SOME_VIEW"))
+                .where(paging.seek(page))
+                .orderBy(paging.orderBy())
+                .limit(page.getLimit())
+                .fetch();
+
+        List<Record1<String>> pageRows = KeysetPagination.pageOf(rows, 100);
+        assertEquals(100, pageRows.size());
+        assertEquals(name(9900), pageRows.get(0).value1());
+        assertEquals(name(9999), pageRows.get(99).value1());
+        assertNull(paging.nextPageKey(rows, 100));
+        assertFalse(sql.get(0).toLowerCase().contains("offset"));
+    }
+
+    private static String name(int i) {
+        return String.format("N%05d", i);
+    }
+
+    private static Result<Record1<String>> names(int from, int to) {
+        DSLContext dsl = DSL.using(SQLDialect.ORACLE);
+        Result<Record1<String>> retval = dsl.newResult(NAME);
+        for (int i = from; i < to; i++) {
+            Record1<String> row = dsl.newRecord(NAME);
+            row.value1(name(i));
+            retval.add(row);
+        }
+        return retval;
+    }
+
+    /**
+     * A sorted table of names answering the seek query: the string bind value is the name the
+     * page starts after and the largest number the rows to return.
+     */
+    private static MockDataProvider seekProvider(List<String> fixture, List<String> sql) {
+        return ctx -> {
+            sql.add(ctx.sql());
+            String after = null;
+            int limit = 0;
+            for (Object bind : ctx.bindings()) {
+                if (bind instanceof String && after == null) {
+                    after = (String) bind;
+                } else if (bind instanceof Number) {
+                    limit = Math.max(limit, ((Number) bind).intValue());
+                }
+            }
+            final String start = after;
+            DSLContext dsl = DSL.using(SQLDialect.ORACLE);
+            Result<Record> result = dsl.newResult(NAME);
+            fixture.stream()
+                    .filter(n -> start == null || n.compareTo(start) > 0)
+                    .limit(limit)
+                    .forEach(n -> {
+                        Record row = dsl.newRecord(NAME);
+                        row.set(NAME, n);
+                        result.add(row);
+                    });
+            return new MockResult[]{new MockResult(result.size(), result)};
+        };
+    }
+}
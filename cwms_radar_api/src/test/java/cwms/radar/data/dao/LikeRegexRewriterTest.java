@@ -0,0 +1,122 @@
+package cwms.radar.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LikeRegexRewriterTest {
+    private static final String ALPHABET = "ABCabc.-_%!$ 12";
+    private static final Field<String> ID = DSL.field("CWMS_TS_ID", String.class);
+
+    @Test
+    void test_rewrite_selects_same_rows_as_regex() {
+        Random random = new Random(20221017L);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ids.add(randomText(random, 1 + random.nextInt(8)));
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            String regex = randomPattern(random, ids);
+            LikeRegexRewriter rewriter = LikeRegexRewriter.analyze(regex);
+            assertNotNull(rewriter, regex);
+
+            Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+            for (String id : ids) {
+                assertEquals(pattern.matcher(id).find(), rewriter.matches(id),
+                        () -> regex + " against " + id);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"SWT", "Flow.*", "^SW.T", "^\\d+", "^A|B$", "^(A|B.*)$", "^(A)(B)",
+        "^A+", "^[AB]", "^()$", "^A\\", "", "$", "^Ä"})
+    void test_complex_patterns_are_not_rewritten(String regex) {
+        assertNull(LikeRegexRewriter.analyze(regex));
+    }
+
+    @Test
+    void test_rendered_sql() {
+        DSLContext dsl = DSL.using(SQLDialect.ORACLE);
+
+        String prefix = dsl.renderInlined(
+                JooqDao.caseInsensitiveLikeRegex(ID, "^SWT\\.Flow_1.*"));
+        assertTrue(prefix.contains("upper(CWMS_TS_ID) like 'SWT.FLOW!_1%' escape '!'"), prefix);
+        assertFalse(prefix.contains("regexp_like"), prefix);
+
+        String exact = dsl.renderInlined(JooqDao.caseInsensitiveLikeRegex(ID, "^(keys|tula)$"));
+        assertTrue(exact.contains("upper(CWMS_TS_ID) in ("), exact);
+        assertTrue(exact.contains("'KEYS'") && exact.contains("'TULA'"), exact);
+
+        String all = dsl.renderInlined(JooqDao.caseInsensitiveLikeRegex(ID, ".*"));
+        assertEquals("CWMS_TS_ID is not null", all);
+
+        String complex = dsl.renderInlined(JooqDao.caseInsensitiveLikeRegex(ID, "^SWT\\.\\w+$"));
+        assertTrue(complex.contains("regexp_like(CWMS_TS_ID, '^SWT\\.\\w+$', 'i')"), complex);
+    }
+
+    private static String randomPattern(Random random, List<String> ids) {
+        switch (random.nextInt(7)) {
+            case 0:
+                return "^" + escape(literalFrom(random, ids));
+            case 1:
+                return "^" + escape(literalFrom(random, ids)) + ".*";
+            case 2:
+                return "^" + escape(literalFrom(random, ids)) + "$";
+            case 3:
+                return "^" + escape(literalFrom(random, ids)) + ".*$";
+            case 4:
+                return "^(" + escape(literalFrom(random, ids)) + "|"
+                        + escape(literalFrom(random, ids)) + ")$";
+            case 5:
+                return "^(?:" + escape(literalFrom(random, ids)) + "|"
+                        + escape(literalFrom(random, ids)) + "|"
+                        + escape(literalFrom(random, ids)) + ").*";
+            default:
+                return random.nextBoolean() ? ".*" : "^.*$";
+        }
+    }
+
+    /**
+     * A random prefix of a random id, so a fair number of patterns select something.
+     */
+    private static String literalFrom(Random random, List<String> ids) {
+        String id = ids.get(random.nextInt(ids.size()));
+        String retval = id.substring(0, 1 + random.nextInt(id.length()));
+        return random.nextBoolean() ? retval.toLowerCase() : retval;
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return sb.toString();
+    }
+
+    private static String escape(String literal) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : literal.toCharArray()) {
+            if (".[]{}()*+?^$|\\".indexOf(c) >= 0) {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,132 @@
+package cwms.radar.data.dao;
+
+import static cwms.radar.data.dao.JsonRatingUtilsTest.loadResourceAsString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hec.data.cwmsRating.RatingSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import mil.army.usace.hec.cwms.rating.io.xml.RatingXmlFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RatingEvaluatorTest {
+    private static final long TIME = Instant.parse("2022-01-01T00:00:00Z").toEpochMilli();
+    private static final double CFS_TO_CMS = 0.028316846592;
+
+    private RatingSet ratingSet;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ratingSet = RatingXmlFactory.ratingSet(
+                loadResourceAsString("cwms/radar/data/dao/SMNM_Stage_Flow_Linear_Step.xml"));
+    }
+
+    @Test
+    void test_rate_batch() throws Exception {
+        List<Double> stages = Arrays.asList(5.29, 5.3, 5.305, null);
+        List<Double> flows = RatingEvaluator.rate(ratingSet, null, times(stages.size()),
+                Collections.singletonList(stages));
+
+        assertEquals(25.0, flows.get(0), 1e-6);
+        assertEquals(25.93, flows.get(1), 1e-6);
+        assertEquals(26.4, flows.get(2), 1e-6);
+        assertNull(flows.get(3));
+    }
+
+    @Test
+    void test_rate_in_other_units_leaves_set_unchanged() throws Exception {
+        String[] original = ratingSet.getDataUnits();
+        List<Double> flows = RatingEvaluator.rate(ratingSet, Arrays.asList("m", "cms"),
+                times(1), Collections.singletonList(Collections.singletonList(5.3 * 0.3048)));
+
+        assertEquals(25.93 * CFS_TO_CMS, flows.get(0), 1e-6);
+        assertArrayEquals(original, ratingSet.getDataUnits());
+    }
+
+    @Test
+    void test_rate_while_serializing() throws Exception {
+        // what RatingController.getOne writes for the shared set
+        String xml = RatingXmlFactory.toXml(ratingSet, " ");
+        String[] original = ratingSet.getDataUnits();
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Callable<Void> task;
+                if (t % 2 == 0) {
+                    task = () -> {
+                        for (int i = 0; i < 200; i++) {
+                            List<Double> flows = RatingEvaluator.rate(ratingSet,
+                                    Arrays.asList("m", "cms"), times(1),
+                                    Collections.singletonList(
+                                            Collections.singletonList(5.3 * 0.3048)));
+                            assertEquals(25.93 * CFS_TO_CMS, flows.get(0), 1e-6);
+                        }
+                        return null;
+                    };
+                } else {
+                    task = () -> {
+                        for (int i = 0; i < 50; i++) {
+                            assertEquals(xml, RatingXmlFactory.toXml(ratingSet, " "));
+                        }
+                        return null;
+                    };
+                }
+                results.add(executor.submit(task));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertArrayEquals(original, ratingSet.getDataUnits());
+    }
+
+    @Test
+    void test_reverse_rate_in_other_units() throws Exception {
+        List<Double> stages = RatingEvaluator.reverseRate(ratingSet, Arrays.asList("m", "cms"),
+                times(1), Collections.singletonList(25.93 * CFS_TO_CMS));
+
+        assertEquals(5.3 * 0.3048, stages.get(0), 1e-6);
+    }
+
+    @Test
+    void test_reverse_rate() throws Exception {
+        List<Double> stages = RatingEvaluator.reverseRate(ratingSet, null, times(2),
+                Arrays.asList(25.93, 26.4));
+
+        assertEquals(5.3, stages.get(0), 1e-6);
+        assertEquals(5.305, stages.get(1), 1e-6);
+    }
+
+    @Test
+    void test_default_times() {
+        long before = System.currentTimeMillis();
+        long[] times = RatingEvaluator.times(null, 3);
+        assertEquals(3, times.length);
+        assertEquals(times[0], times[2]);
+        assertTrue(times[0] >= before);
+
+        assertArrayEquals(new long[]{1L, 2L}, RatingEvaluator.times(Arrays.asList(1L, 2L), 2));
+    }
+
+    private static long[] times(int count) {
+        long[] retval = new long[count];
+        Arrays.fill(retval, TIME);
+        return retval;
+    }
+}
@@ -0,0 +1,78 @@
+package cwms.radar.data.dao;
+
+import static cwms.radar.data.dao.DaoTest.getDslContext;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import cwms.radar.api.DataApiTestIT;
+import fixtures.RadarApiSetupCallback;
+import hec.data.cwmsRating.RatingSet;
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import mil.army.usace.hec.test.database.CwmsDatabaseContainer;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("integration")
+class RatingEvaluatorTestIT extends DataApiTestIT {
+    private static final String OFFICE = "SWT";
+    private static final String SPEC = "BEAV.Stage;Flow.BASE.PRODUCTION";
+
+    @BeforeAll
+    public static void swt_permissions() throws Exception {
+        CwmsDatabaseContainer<?> databaseLink = RadarApiSetupCallback.getDatabaseLink();
+        addUserToGroup(databaseLink.getUsername(), "CWMS Users", OFFICE);
+    }
+
+    @AfterAll
+    public static void remove_swt_permissions() throws Exception {
+        CwmsDatabaseContainer<?> databaseLink = RadarApiSetupCallback.getDatabaseLink();
+        removeUserFromGroup(databaseLink.getUsername(), "CWMS Users", OFFICE);
+    }
+
+    @Test
+    void test_rate_matches_database() throws Exception {
+        CwmsDatabaseContainer<?> databaseLink = RadarApiSetupCallback.getDatabaseLink();
+        databaseLink.connection((Consumer<Connection>) c -> {
+            try (DSLContext dsl = getDslContext(c, OFFICE)) {
+                RatingMetadataDaoTestIT.storeRatings(c,
+                        new String[]{"BEAV.Stage_Flow.BASE.PRODUCTION.xml"});
+
+                RatingSet ratingSet = new RatingSetDao(dsl).retrieve(
+                        RatingSet.DatabaseLoadMethod.EAGER, OFFICE, SPEC, null, null);
+                assertNotNull(ratingSet);
+
+                List<Double> stages = Arrays.asList(1.0, 2.5, 4.25, 7.0, 12.5);
+                long[] times = new long[stages.size()];
+                Arrays.fill(times, Instant.now().toEpochMilli());
+                List<Double> flows = RatingEvaluator.rate(ratingSet, Arrays.asList("ft", "cfs"),
+                        times, Collections.singletonList(stages));
+
+                List<Double> expected = new ArrayList<>();
+                for (Double stage : stages) {
+                    expected.add(dsl.select(DSL.field("cwms_20.cwms_rating.rate_f("
+                                    + "p_rating_spec => {0}, p_value => {1}, "
+                                    + "p_units => cwms_20.str_tab_t({2}, {3}), "
+                                    + "p_office_id => {4})", Double.class,
+                            DSL.val(SPEC), DSL.val(stage), DSL.val("ft"), DSL.val("cfs"),
+                            DSL.val(OFFICE))).fetchOne().value1());
+                }
+
+                for (int i = 0; i < stages.size(); i++) {
+                    assertEquals(expected.get(i), flows.get(i), 1e-6, "stage " + stages.get(i));
+                }
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package cwms.radar.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RatingMetadataDaoTest {
+
+    @Test
+    void test_partition_keeps_order() {
+        List<String> ids = Arrays.asList("A", "B", "C", "D", "E");
+        assertEquals(Arrays.asList(Arrays.asList("A", "B"), Arrays.asList("C", "D"),
+                Collections.singletonList("E")), RatingMetadataDao.partition(ids, 3));
+        assertEquals(Collections.singletonList(ids), RatingMetadataDao.partition(ids, 1));
+        assertEquals(5, RatingMetadataDao.partition(ids, 8).size());
+        assertTrue(RatingMetadataDao.partition(Collections.emptyList(), 4).isEmpty());
+    }
+
+    @Test
+    void test_default_threads_is_half_the_pool() {
+        assertEquals(15, RatingMetadataDao.defaultThreads("30"));
+        assertEquals(1, RatingMetadataDao.defaultThreads("1"));
+        assertEquals(5, RatingMetadataDao.defaultThreads(null));
+        assertEquals(5, RatingMetadataDao.defaultThreads("lots"));
+    }
+}
@@ -9,7 +9,9 @@ import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 
+import cwms.radar.api.Controllers;
 import cwms.radar.api.DataApiTestIT;
 import cwms.radar.data.dto.rating.AbstractRatingMetadata;
 import cwms.radar.data.dto.rating.RatingMetadata;
@@ -28,7 +30,10 @@ import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
+import java.util.logging.Logger;
 import mil.army.usace.hec.cwms.rating.io.jdbc.RatingJdbcFactory;
 import mil.army.usace.hec.cwms.rating.io.xml.RatingXmlFactory;
 import mil.army.usace.hec.test.database.CwmsDatabaseContainer;
@@ -42,6 +47,8 @@ import org.junit.jupiter.api.Test;
 //@Disabled("Needs larger rework for auth system changes.")
 @Tag("integration")
 class RatingMetadataDaoTestIT extends DataApiTestIT {
+    private static final Logger logger =
+            Logger.getLogger(RatingMetadataDaoTestIT.class.getName());
 
 // This is how it can be run from an integration test using docker etc.
 // It takes 8 minutes or so to run it this way.
@@ -206,6 +213,57 @@ class RatingMetadataDaoTestIT extends DataApiTestIT {
     }
 
 
+    /**
+     * Connections in use and latency of a page, on the calling thread and on the executor.
+     */
+    @Test
+    void testRetrieveRatingsConnectionsAndLatency() throws SQLException {
+        String office = "SWT";
+        CwmsDatabaseContainer<?> databaseLink = RadarApiSetupCallback.getDatabaseLink();
+        databaseLink.connection(c -> {
+            try (DSLContext lrl = getDslContext(c, office)) {
+                storeRatings(c, new String[]{"BEAV.Stage_Flow.BASE.PRODUCTION.xml"});
+                Set<String> ratingIds = new RatingMetadataDao(lrl, new MetricRegistry())
+                        .getRatingIds(office, "*", 0, 50);
+
+                MetricRegistry sequential = new MetricRegistry();
+                new RatingMetadataDao(lrl, sequential)
+                        .getRatingsForIds(office, ratingIds, null, null);
+                report("calling thread", sequential);
+
+                int threads = 4;
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                try {
+                    MetricRegistry batched = new MetricRegistry();
+                    new RatingMetadataDao(lrl, batched)
+                            .getRatingsForIds(office, ratingIds, null, null, pool, threads);
+                    report(threads + " threads", batched);
+
+                    long peak = batched.histogram(MetricRegistry.name(RatingMetadataDao.class,
+                            "connections", "inUseOnAcquire")).getSnapshot().getMax();
+                    assertTrue(peak <= threads, "used " + peak + " connections");
+                } finally {
+                    pool.shutdownNow();
+                }
+            } catch (RatingException | IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private static void report(String how, MetricRegistry metrics) {
+        String prefix = RatingMetadataDao.class.getName();
+        Timer page = metrics.timer(MetricRegistry.name(prefix, "getRatingsForIds",
+                Controllers.TIME));
+        Timer perId = metrics.timer(MetricRegistry.name(prefix, "getRatingSet",
+                Controllers.TIME));
+        long peak = metrics.histogram(MetricRegistry.name(RatingMetadataDao.class,
+                "connections", "inUseOnAcquire")).getSnapshot().getMax();
+        logger.info(() -> String.format("%s: page %.0f ms, %d ids at %.0f ms each,"
+                        + " %d connections", how, page.getSnapshot().getMax() / 1e6,
+                perId.getCount(), perId.getSnapshot().getMean() / 1e6, peak));
+    }
+
     @Test
     void testRetrieveRatings() throws SQLException  {
         String swt = "SWT";
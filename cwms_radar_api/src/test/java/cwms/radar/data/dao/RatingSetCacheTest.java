@@ -0,0 +1,159 @@
+package cwms.radar.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import hec.data.RatingException;
+import hec.data.cwmsRating.AbstractRating;
+import hec.data.cwmsRating.RatingSet;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RatingSetCacheTest {
+    private static final RatingSet.DatabaseLoadMethod EAGER = RatingSet.DatabaseLoadMethod.EAGER;
+    private static final String SPEC = "KEYS.Elev;Flow.Linear.Step";
+
+    @Test
+    void test_one_load_per_key_under_thundering_herd() throws Exception {
+        RatingSetCache cache = new RatingSetCache(100, 60, 60, new MetricRegistry());
+        RatingSet ratingSet = mock(RatingSet.class);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        int threads = 16;
+        CountDownLatch ready = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<RatingSet>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    ready.countDown();
+                    return cache.get(EAGER, "SWT", SPEC, null, null, () -> {
+                        loads.incrementAndGet();
+                        // hold the load until every thread has asked for the rating
+                        release.await(10, TimeUnit.SECONDS);
+                        return ratingSet;
+                    });
+                }));
+            }
+            assertTrue(ready.await(10, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<RatingSet> result : results) {
+                assertSame(ratingSet, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertSame(ratingSet, cache.get(EAGER, "swt", SPEC.toLowerCase(), null, null, () -> {
+            throw new IOException("should have been cached");
+        }));
+    }
+
+    @Test
+    void test_failures_are_shared_but_not_cached() throws Exception {
+        RatingSetCache cache = new RatingSetCache(100, 60, 60, new MetricRegistry());
+        assertThrows(RatingException.class, () -> cache.get(EAGER, "SWT", SPEC, null, null, () -> {
+            throw new RatingException("no connection");
+        }));
+        assertNull(cache.get(EAGER, "SWT", SPEC, null, null, () -> null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void test_key_includes_method_and_window() throws Exception {
+        RatingSetCache cache = new RatingSetCache(100, 60, 60, new MetricRegistry());
+        ZonedDateTime start = ZonedDateTime.parse("2020-01-01T00:00:00Z");
+
+        RatingSet all = cache.get(EAGER, "SWT", SPEC, null, null, () -> mock(RatingSet.class));
+        RatingSet windowed = cache.get(EAGER, "SWT", SPEC, start, null,
+                () -> mock(RatingSet.class));
+        assertNotSame(all, windowed);
+        assertSame(windowed, cache.get(EAGER, "SWT", SPEC,
+                ZonedDateTime.parse("2019-12-31T18:00:00-06:00"), null, () -> null));
+
+        // not kept, they hold on to the request's connection
+        cache.get(RatingSet.DatabaseLoadMethod.LAZY, "SWT", SPEC, null, null,
+                () -> mock(RatingSet.class));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void test_invalidate_and_weight_bound() throws Exception {
+        RatingSetCache cache = new RatingSetCache(10, 60, 60, new MetricRegistry());
+        cache.get(EAGER, "SWT", SPEC, null, null, () -> withRatings(3));
+        cache.get(EAGER, "SPK", SPEC, null, null, () -> withRatings(3));
+        assertEquals(2, cache.size());
+
+        cache.invalidate("spk", SPEC);
+        assertEquals(1, cache.size());
+        cache.invalidate(null, SPEC.toUpperCase());
+        assertEquals(0, cache.size());
+
+        cache.get(EAGER, "SWT", "A", null, null, () -> withRatings(4));
+        cache.get(EAGER, "SWT", "B", null, null, () -> withRatings(4));
+        // over the bound of 10 ratings, A is least recently used
+        cache.get(EAGER, "SWT", "C", null, null, () -> withRatings(4));
+        assertEquals(2, cache.size());
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(EAGER, "SWT", "A", null, null, () -> {
+            loads.incrementAndGet();
+            return withRatings(1);
+        });
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void test_check_for_changes() throws Exception {
+        RatingSetCache cache = new RatingSetCache(100, 60, 60, new MetricRegistry());
+        cache.get(EAGER, "SWT", SPEC, null, null, () -> mock(RatingSet.class));
+        RatingSetCache.Spec spec = new RatingSetCache.Spec("SWT", SPEC);
+        Map<RatingSetCache.Spec, String> stamps = new HashMap<>();
+        stamps.put(spec, "2020-01-01|2020-01-02|1");
+
+        cache.checkForChanges(specs -> stamps);
+        cache.checkForChanges(specs -> stamps);
+        assertEquals(1, cache.size());
+
+        stamps.put(spec, "2021-01-01|2021-01-02|2");
+        cache.checkForChanges(specs -> stamps);
+        assertEquals(0, cache.size());
+
+        cache.get(EAGER, "SWT", SPEC, null, null, () -> mock(RatingSet.class));
+        cache.checkForChanges(specs -> stamps);
+        // every rating was deleted
+        cache.checkForChanges(specs -> Collections.emptyMap());
+        assertEquals(0, cache.size());
+    }
+
+    private static RatingSet withRatings(int count) {
+        RatingSet retval = mock(RatingSet.class);
+        AbstractRating[] ratings = new AbstractRating[count];
+        for (int i = 0; i < count; i++) {
+            ratings[i] = mock(AbstractRating.class);
+        }
+        when(retval.getRatings()).thenReturn(ratings);
+        return retval;
+    }
+}
@@ -0,0 +1,80 @@
+package cwms.radar.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static usace.cwms.db.jooq.codegen.tables.AV_DB_CHANGE_LOG.AV_DB_CHANGE_LOG;
+
+import com.codahale.metrics.MetricRegistry;
+import cwms.radar.datasource.ConnectionPreparingDataSource;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.jooq.DSLContext;
+import org.jooq.Record1;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockDataProvider;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.Test;
+
+class SchemaCapabilityRegistryTest {
+
+    @Test
+    void test_parse_version() {
+        assertEquals(Dao.CWMS_21_1_1, SchemaCapabilityRegistry.parseVersion("21.1.1"));
+        assertEquals(Dao.CWMS_18_1_8, SchemaCapabilityRegistry.parseVersion("18.1.8"));
+        assertEquals(230214, SchemaCapabilityRegistry.parseVersion("23.02.14"));
+    }
+
+    @Test
+    void test_version_probed_once_per_datasource() throws Exception {
+        AtomicInteger queries = new AtomicInteger();
+        DataSource ds = mockDataSource("21.1.1", queries);
+        SchemaCapabilityRegistry registry = new SchemaCapabilityRegistry(new MetricRegistry(), 0);
+
+        DSLContext dsl = DSL.using(ds, SQLDialect.ORACLE11G);
+        assertEquals(Dao.CWMS_21_1_1, registry.getDbVersion(dsl));
+        assertEquals(Dao.CWMS_21_1_1, registry.getDbVersion(dsl));
+
+        // Each request wraps the pool in a new preparing DataSource, those must share the entry.
+        DSLContext wrapped = DSL.using(new ConnectionPreparingDataSource(c -> c, ds),
+                SQLDialect.ORACLE11G);
+        assertTrue(registry.supports(wrapped, Dao.CWMS_21_1_1));
+        assertEquals(1, queries.get());
+
+        registry.reprobe();
+        assertEquals(Dao.CWMS_21_1_1, registry.getDbVersion(dsl));
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void test_datasources_resolved_independently() throws Exception {
+        AtomicInteger queries = new AtomicInteger();
+        SchemaCapabilityRegistry registry = new SchemaCapabilityRegistry(new MetricRegistry(), 0);
+
+        DSLContext older = DSL.using(mockDataSource("18.1.8", queries), SQLDialect.ORACLE11G);
+        DSLContext newer = DSL.using(mockDataSource("21.1.1", queries), SQLDialect.ORACLE11G);
+
+        assertFalse(registry.supports(older, Dao.CWMS_21_1_1));
+        assertTrue(registry.supports(newer, Dao.CWMS_21_1_1));
+        assertEquals(2, queries.get());
+    }
+
+    private static DataSource mockDataSource(String version, AtomicInteger queries)
+            throws Exception {
+        MockDataProvider provider = ctx -> {
+            queries.incrementAndGet();
+            DSLContext create = DSL.using(SQLDialect.ORACLE11G);
+            Result<Record1<String>> result = create.newResult(AV_DB_CHANGE_LOG.VERSION);
+            result.add(create.newRecord(AV_DB_CHANGE_LOG.VERSION).values(version));
+            return new MockResult[]{new MockResult(1, result)};
+        };
+        DataSource ds = mock(DataSource.class);
+        when(ds.getConnection()).thenAnswer(invocation -> new MockConnection(provider));
+        return ds;
+    }
+}
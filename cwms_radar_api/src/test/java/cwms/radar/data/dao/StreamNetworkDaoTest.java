@@ -0,0 +1,106 @@
+package cwms.radar.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.radar.data.dao.StreamNetworkDao.StreamNetwork;
+import cwms.radar.data.dto.basinconnectivity.Stream;
+import cwms.radar.data.dto.basinconnectivity.StreamLocation;
+import cwms.radar.data.dto.basinconnectivity.StreamReach;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StreamNetworkDaoTest {
+
+    private static Stream stream(String id, String flowsInto) {
+        return new Stream.Builder(id, false, 10.0, "SWT")
+                .withReceivingStreamId(flowsInto)
+                .withConfluenceStation(1.0)
+                .withConfluenceBank("L")
+                .build();
+    }
+
+    private static StreamNetwork network() {
+        StreamNetwork network = new StreamNetwork();
+        network.addStream(stream("MAIN", null));
+        network.addStream(stream("TRIB", "MAIN"));
+        network.addStream(stream("TWIG", "TRIB"));
+        network.addStream(stream("OTHER", null));
+        network.addStreamLocation(new StreamLocation.Builder("LOC1", "TRIB", 2.0, "L", "SWT")
+                .build());
+        network.addStreamReach(new StreamReach.Builder("REACH1", "MAIN", "UP", "DOWN", "SWT")
+                .build());
+        return network;
+    }
+
+    @Test
+    void test_tributaries_are_assembled() {
+        Stream main = network().getStream("MAIN", "swt");
+        assertNotNull(main);
+        assertEquals(1, main.getStreamReaches().size());
+        assertTrue(main.getStreamLocations().isEmpty());
+
+        assertEquals(1, main.getTributaries().size());
+        Stream trib = main.getTributaries().get(0);
+        assertEquals("TRIB", trib.getStreamName());
+        assertEquals(1, trib.getStreamLocations().size());
+        assertEquals("LOC1", trib.getStreamLocations().get(0).getLocationName());
+
+        assertEquals(1, trib.getTributaries().size());
+        Stream twig = trib.getTributaries().get(0);
+        assertEquals("TWIG", twig.getStreamName());
+        assertTrue(twig.getTributaries().isEmpty());
+    }
+
+    @Test
+    void test_missing_stream() {
+        StreamNetwork network = network();
+        assertNull(network.getStream("NONE", "SWT"));
+        assertNull(network.getStream("MAIN", "SPK"));
+        assertNotNull(network.getStream("MAIN", null));
+    }
+
+    @Test
+    void test_cycle_terminates() {
+        StreamNetwork network = new StreamNetwork();
+        network.addStream(stream("A", "B"));
+        network.addStream(stream("B", "A"));
+
+        Stream a = network.getStream("A", "SWT");
+        Stream b = a.getTributaries().get(0);
+        assertEquals("B", b.getStreamName());
+        assertEquals("A", b.getTributaries().get(0).getStreamName());
+        assertTrue(b.getTributaries().get(0).getTributaries().isEmpty());
+    }
+
+    @Test
+    void test_tributaries_are_built_as_stream_dao_does() {
+        StreamNetwork network = new StreamNetwork();
+        network.addStream(stream("MAIN", null));
+        Stream trib = stream("TRIB", "MAIN");
+        network.addStream(trib, new Stream.Builder(trib)
+                .withConfluenceStation(null).withConfluenceBank("L").build());
+
+        assertEquals(Double.valueOf(1.0),
+                network.getStream("TRIB", "SWT").getConfluenceStation());
+        assertNull(network.getStream("MAIN", "SWT").getTributaries().get(0)
+                .getConfluenceStation());
+    }
+
+    @Test
+    void test_connected_streams() {
+        StreamNetwork network = network();
+        List<String> connected = network.getConnectedStreamIds("MAIN", "SWT");
+        assertEquals(3, connected.size());
+        assertTrue(connected.containsAll(Arrays.asList("MAIN", "TRIB", "TWIG")));
+        assertEquals(Arrays.asList("TRIB", "TWIG"), network.getConnectedStreamIds("TRIB", null));
+        assertNull(network.getConnectedStreamIds("NONE", "SWT"));
+
+        network.addStream(stream("LOOP", "TWIG"));
+        network.addStream(stream("TWIG", "LOOP"));
+        assertEquals(2, network.getConnectedStreamIds("LOOP", "SWT").size());
+    }
+}
@@ -0,0 +1,179 @@
+package cwms.radar.data.dao;
+
+import static cwms.radar.data.dao.DaoTest.getDslContext;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import cwms.radar.api.DataApiTestIT;
+import cwms.radar.api.enums.UnitSystem;
+import cwms.radar.data.dto.basinconnectivity.Stream;
+import cwms.radar.data.dto.basinconnectivity.StreamLocation;
+import cwms.radar.data.dto.basinconnectivity.StreamReach;
+import fixtures.RadarApiSetupCallback;
+import java.sql.Connection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import mil.army.usace.hec.test.database.CwmsDatabaseContainer;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * StreamNetworkDao has to build the same streams as StreamDao, which the basin pg-json output
+ * is made from.
+ */
+@Tag("integration")
+class StreamNetworkDaoTestIT extends DataApiTestIT {
+    private static final String OFFICE = "SPK";
+    private static final String MAIN = "NETWORK_IT_MAIN";
+    private static final String TRIB = "NETWORK_IT_TRIB";
+    private static final String TWIG = "NETWORK_IT_TWIG";
+    private static final String OTHER = "NETWORK_IT_OTHER";
+    private static final String[] GAGES = {"NETWORK_IT_GAGE1", "NETWORK_IT_GAGE2",
+        "NETWORK_IT_GAGE3", "NETWORK_IT_GAGE4"};
+
+    private static final String STORE_STREAM = "begin cwms_20.cwms_stream.store_stream("
+            + "?, " // p_stream_id
+            + "'F', " // p_fail_if_exists
+            + "'F', " // p_ignore_nulls
+            + "'km', " // p_station_unit
+            + "'F', " // p_stationing_starts_ds
+            + "?, " // p_flows_into_stream
+            + "?, " // p_flows_into_station
+            + "?, " // p_flows_into_bank
+            + "?, " // p_diverts_from_stream
+            + "?, " // p_diverts_from_station
+            + "?, " // p_diverts_from_bank
+            + "?, " // p_length
+            + "?, " // p_average_slope
+            + "?, " // p_comments
+            + "?); end;"; // p_office_id
+    private static final String STORE_STREAM_LOCATION = "begin "
+            + "cwms_20.cwms_stream.store_stream_location("
+            + "?, " // p_location_id
+            + "?, " // p_stream_id
+            + "'F', " // p_fail_if_exists
+            + "'F', " // p_ignore_nulls
+            + "?, " // p_station
+            + "'km', " // p_station_unit
+            + "?, " // p_published_station
+            + "null, " // p_navigation_station
+            + "?, " // p_bank
+            + "null, " // p_lowest_measurable_stage
+            + "'m', " // p_stage_unit
+            + "?, " // p_drainage_area
+            + "null, " // p_ungaged_drainage_area
+            + "'km2', " // p_area_unit
+            + "?); end;"; // p_office_id
+
+    @BeforeAll
+    public static void create_network() throws Exception {
+        CwmsDatabaseContainer<?> databaseLink = RadarApiSetupCallback.getDatabaseLink();
+        addUserToGroup(databaseLink.getUsername(), "CWMS Users", OFFICE);
+        for (String stream : new String[]{MAIN, TRIB, TWIG, OTHER}) {
+            createLocation(stream, true, OFFICE);
+        }
+        for (String gage : GAGES) {
+            createLocation(gage, true, OFFICE, 0.0, 0.0, "WGS84", "UTC", "SITE");
+        }
+    }
+
+    @AfterAll
+    public static void remove_permissions() throws Exception {
+        CwmsDatabaseContainer<?> databaseLink = RadarApiSetupCallback.getDatabaseLink();
+        removeUserFromGroup(databaseLink.getUsername(), "CWMS Users", OFFICE);
+    }
+
+    @Test
+    void test_same_streams_as_stream_dao() throws Exception {
+        CwmsDatabaseContainer<?> databaseLink = RadarApiSetupCallback.getDatabaseLink();
+        databaseLink.connection((Consumer<Connection>) c -> {
+            try (DSLContext dsl = getDslContext(c, OFFICE)) {
+                storeStream(dsl, MAIN, null, null, null, 120.0);
+                storeStream(dsl, TRIB, MAIN, 42.5, "L", 30.0);
+                storeStream(dsl, TWIG, TRIB, 3.25, "R", 5.0);
+                storeStream(dsl, OTHER, null, null, null, 10.0);
+                storeStreamLocation(dsl, GAGES[0], MAIN, 10.0, "L");
+                storeStreamLocation(dsl, GAGES[1], MAIN, 55.5, "R");
+                storeStreamLocation(dsl, GAGES[2], TRIB, 1.5, "L");
+                storeStreamLocation(dsl, GAGES[3], OTHER, 2.0, "R");
+
+                for (UnitSystem unitSystem : UnitSystem.values()) {
+                    String units = unitSystem.value();
+                    String expected = describe(new StreamDao(dsl).getStream(MAIN, units,
+                            OFFICE));
+
+                    StreamNetworkDao networkDao = new StreamNetworkDao(dsl);
+                    assertEquals(expected, describe(networkDao.getStream(MAIN, units, OFFICE)),
+                            units);
+                    assertEquals(expected, describe(networkDao.getStreamNetwork(units, OFFICE)
+                            .getStream(MAIN, OFFICE)), units);
+                    assertEquals(describe(new StreamDao(dsl).getStream(TRIB, units, OFFICE)),
+                            describe(networkDao.getStream(TRIB, units, OFFICE)), units);
+                }
+                assertNull(new StreamNetworkDao(dsl).getStream("NETWORK_IT_NONE",
+                        UnitSystem.EN.value(), OFFICE));
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+    }
+
+    private static void storeStream(DSLContext dsl, String streamId, String flowsInto,
+                                    Double flowsIntoStation, String flowsIntoBank,
+                                    Double length) {
+        dsl.execute(STORE_STREAM, streamId, flowsInto, flowsIntoStation, flowsIntoBank,
+                null, null, null, length, 0.001, "stream network test", OFFICE);
+    }
+
+    private static void storeStreamLocation(DSLContext dsl, String locationId, String streamId,
+                                            Double station, String bank) {
+        dsl.execute(STORE_STREAM_LOCATION, locationId, streamId, station, station, bank, 12.5,
+                OFFICE);
+    }
+
+    /**
+     * A description of the stream and its tributaries that doesn't depend on the order of
+     * the sets StreamDao collects them in.
+     */
+    private static String describe(Stream stream) {
+        if (stream == null) {
+            return null;
+        }
+        List<String> locations = stream.getStreamLocations().stream()
+                .map(StreamNetworkDaoTestIT::describe).sorted().collect(Collectors.toList());
+        List<String> reaches = stream.getStreamReaches().stream()
+                .map(StreamNetworkDaoTestIT::describe).sorted().collect(Collectors.toList());
+        List<String> tributaries = stream.getTributaries().stream()
+                .map(StreamNetworkDaoTestIT::describe).sorted().collect(Collectors.toList());
+        return String.join("|", stream.getOfficeId(), stream.getStreamName(),
+                String.valueOf(stream.startsDownstream()),
+                String.valueOf(stream.getStreamLength()),
+                String.valueOf(stream.getAverageSlope()), stream.getComment(),
+                stream.getReceivingStreamId(), String.valueOf(stream.getConfluenceStation()),
+                stream.getConfluenceBank(), stream.getDivertingStreamId(),
+                String.valueOf(stream.getDiversionStation()), stream.getDiversionBank())
+                + " locations" + locations + " reaches" + reaches
+                + " tributaries" + tributaries;
+    }
+
+    private static String describe(StreamLocation location) {
+        return String.join("|", location.getOfficeId(), location.getStreamName(),
+                location.getLocationName(), String.valueOf(location.getStation()),
+                location.getBank(), String.valueOf(location.getPublishedStation()),
+                String.valueOf(location.getNagivationStation()),
+                String.valueOf(location.getLowestMeasurableStage()),
+                String.valueOf(location.getTotalDrainageArea()),
+                String.valueOf(location.getUngagedDrainageArea()));
+    }
+
+    private static String describe(StreamReach reach) {
+        return String.join("|", reach.getOfficeId(), reach.getStreamName(),
+                reach.getReachName(), reach.getUpstreamLocationName(),
+                reach.getDownstreamLocationName(), reach.getComment(),
+                reach.getConfiguration());
+    }
+}
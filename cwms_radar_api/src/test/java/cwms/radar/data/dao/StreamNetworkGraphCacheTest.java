@@ -0,0 +1,76 @@
+package cwms.radar.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.codahale.metrics.MetricRegistry;
+import cwms.radar.api.graph.basinconnectivity.StreamNetworkGraph;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class StreamNetworkGraphCacheTest {
+
+    private static StreamNetworkGraphCache.Loader loader(AtomicInteger loads) {
+        return () -> {
+            loads.incrementAndGet();
+            return StreamNetworkGraph.build("SWT", Collections.emptyList());
+        };
+    }
+
+    @Test
+    void test_graph_is_shared() throws SQLException {
+        StreamNetworkGraphCache cache = new StreamNetworkGraphCache(60, 60, new MetricRegistry());
+        AtomicInteger loads = new AtomicInteger();
+
+        StreamNetworkGraph first = cache.get("SWT", "EN", loader(loads));
+        assertSame(first, cache.get("swt", "en", loader(loads)));
+        assertEquals(1, loads.get());
+
+        cache.get("SWT", "SI", loader(loads));
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void test_disabled_always_loads() throws SQLException {
+        StreamNetworkGraphCache cache = new StreamNetworkGraphCache(0, 60, new MetricRegistry());
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("SWT", "EN", loader(loads));
+        cache.get("SWT", "EN", loader(loads));
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void test_failed_load_is_not_cached() throws SQLException {
+        StreamNetworkGraphCache cache = new StreamNetworkGraphCache(60, 60, new MetricRegistry());
+        assertThrows(SQLException.class, () -> cache.get("SWT", "EN", () -> {
+            throw new SQLException("down");
+        }));
+        assertEquals(0, cache.size());
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("SWT", "EN", loader(loads));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void test_changes_drop_graphs_when_not_started() throws SQLException {
+        StreamNetworkGraphCache cache = new StreamNetworkGraphCache(60, 60, new MetricRegistry());
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("SWT", "EN", loader(loads));
+
+        cache.checkForChanges(() -> "1/100");
+        cache.checkForChanges(() -> "1/100");
+        assertEquals(1, cache.size());
+
+        cache.checkForChanges(() -> "1/101");
+        assertEquals(0, cache.size());
+        cache.get("SWT", "EN", loader(loads));
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,65 @@
+package cwms.radar.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.radar.data.dto.TimeSeriesExtents;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class TimeSeriesExtentsCacheTest {
+    private static final String FLOW = TimeSeriesExtentsCache.key("SWT", "KEYS.Flow.Inst.1Hour.0.Raw");
+    private static final String STAGE = TimeSeriesExtentsCache.key("SWT", "KEYS.Stage.Inst.1Hour.0.Raw");
+
+    @Test
+    void test_only_missing_codes_are_loaded() {
+        TimeSeriesExtentsCache cache = new TimeSeriesExtentsCache(10, 60);
+        List<Collection<Long>> loads = new ArrayList<>();
+        Map<String, Long> codes = new LinkedHashMap<>();
+        codes.put(FLOW, 1L);
+        codes.put(STAGE, 2L);
+
+        Map<String, List<TimeSeriesExtents>> extents = cache.get(codes, c -> load(loads, c));
+        assertEquals(1, extents.get(FLOW).size());
+        assertTrue(extents.get(STAGE).isEmpty());
+
+        cache.get(codes, c -> load(loads, c));
+        assertEquals(1, loads.size());
+
+        cache.invalidate("swt", "keys.flow.inst.1hour.0.raw");
+        cache.get(codes, c -> load(loads, c));
+        assertEquals(2, loads.size());
+        assertEquals(Collections.singletonList(1L), new ArrayList<>(loads.get(1)));
+    }
+
+    @Test
+    void test_zero_ttl_always_loads() {
+        TimeSeriesExtentsCache cache = new TimeSeriesExtentsCache(10, 0);
+        List<Collection<Long>> loads = new ArrayList<>();
+        Map<String, Long> codes = Collections.singletonMap(FLOW, 1L);
+
+        cache.get(codes, c -> load(loads, c));
+        cache.get(codes, c -> load(loads, c));
+        assertEquals(2, loads.size());
+    }
+
+    private static Map<Long, List<TimeSeriesExtents>> load(List<Collection<Long>> loads,
+                                                           Collection<Long> codes) {
+        loads.add(new ArrayList<>(codes));
+        ZonedDateTime time = ZonedDateTime.parse("2021-01-01T00:00:00Z");
+        Map<Long, List<TimeSeriesExtents>> retval = new HashMap<>();
+        // only the flow series has data
+        if (codes.contains(1L)) {
+            retval.put(1L, Collections.singletonList(
+                    new TimeSeriesExtents((ZonedDateTime) null, time, time, time)));
+        }
+        return retval;
+    }
+}
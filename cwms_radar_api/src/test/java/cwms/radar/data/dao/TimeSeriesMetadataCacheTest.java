@@ -0,0 +1,78 @@
+package cwms.radar.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class TimeSeriesMetadataCacheTest {
+    private static final String TS_ID = "Alder Springs.Precip-Cumulative.Inst.15Minutes.0.raw-cda";
+
+    @Test
+    void test_case_insensitive_hit() {
+        TimeSeriesMetadataCache cache = new TimeSeriesMetadataCache(10, 60);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<TimeSeriesMetadata> loader = counting(loads);
+
+        TimeSeriesMetadata first = cache.get("SPK", TS_ID, loader);
+        TimeSeriesMetadata second = cache.get("spk", TS_ID.toUpperCase(), loader);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertNotNull(cache.peek("SPK", TS_ID));
+        assertEquals("in", first.unitsFor("EN"));
+        assertEquals("mm", first.unitsFor("si"));
+        assertEquals("cm", first.unitsFor("cm"));
+    }
+
+    @Test
+    void test_invalidate() {
+        TimeSeriesMetadataCache cache = new TimeSeriesMetadataCache(10, 60);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<TimeSeriesMetadata> loader = counting(loads);
+
+        cache.get("SPK", TS_ID, loader);
+        cache.invalidate("SPK", TS_ID.toLowerCase());
+        assertNull(cache.peek("SPK", TS_ID));
+        cache.get("SPK", TS_ID, loader);
+        assertEquals(2, loads.get());
+
+        // without an office every office's entry goes
+        cache.invalidate(null, TS_ID);
+        assertNull(cache.peek("SPK", TS_ID));
+    }
+
+    @Test
+    void test_not_cached_without_office_or_ttl() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<TimeSeriesMetadata> loader = counting(loads);
+
+        TimeSeriesMetadataCache cache = new TimeSeriesMetadataCache(10, 60);
+        cache.get(null, TS_ID, loader);
+        cache.get(null, TS_ID, loader);
+        assertEquals(2, loads.get());
+
+        TimeSeriesMetadataCache disabled = new TimeSeriesMetadataCache(10, 0);
+        disabled.get("SPK", TS_ID, loader);
+        disabled.get("SPK", TS_ID, loader);
+        assertEquals(4, loads.get());
+    }
+
+    private static Supplier<TimeSeriesMetadata> counting(AtomicInteger loads) {
+        return () -> {
+            loads.incrementAndGet();
+            return new TimeSeriesMetadata.Builder()
+                    .withTsId(TS_ID)
+                    .withOfficeId("SPK")
+                    .withInterval(Duration.ofMinutes(15))
+                    .withEnUnits("in")
+                    .withSiUnits("mm")
+                    .build();
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package cwms.radar.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+
+class TimeSeriesPageEstimateTest {
+    private static final ZonedDateTime BEGIN = ZonedDateTime.parse("2021-06-01T00:00:00Z");
+    private static final ZonedDateTime END = ZonedDateTime.parse("2021-06-30T00:00:00Z");
+
+    @Test
+    void test_regular_page_ends_after_rows_intervals() {
+        assertEquals(BEGIN.plusHours(10),
+                TimeSeriesDaoImpl.estimatePageEnd(BEGIN, END, Duration.ofHours(1), 10));
+    }
+
+    @Test
+    void test_window_end_used_when_page_covers_it() {
+        assertEquals(END, TimeSeriesDaoImpl.estimatePageEnd(BEGIN, END, Duration.ofDays(1), 500));
+    }
+
+    @Test
+    void test_irregular_or_unlimited_uses_window_end() {
+        assertEquals(END, TimeSeriesDaoImpl.estimatePageEnd(BEGIN, END, Duration.ZERO, 10));
+        assertEquals(END, TimeSeriesDaoImpl.estimatePageEnd(BEGIN, END, null, 10));
+        assertEquals(END, TimeSeriesDaoImpl.estimatePageEnd(BEGIN, END, Duration.ofHours(1), -1));
+    }
+
+    @Test
+    void test_total_estimated_from_interval() {
+        // Both ends inclusive
+        assertEquals(29 * 24 + 1,
+                TimeSeriesDaoImpl.estimateTotal(BEGIN, END, Duration.ofHours(1), 0L));
+        // offset pushes the first value past begin and the last one past end
+        assertEquals(29 * 24,
+                TimeSeriesDaoImpl.estimateTotal(BEGIN, END, Duration.ofHours(1), 15L));
+        // undefined offsets are ignored
+        assertEquals(29 * 24 + 1, TimeSeriesDaoImpl.estimateTotal(BEGIN, END,
+                Duration.ofHours(1), (long) Integer.MAX_VALUE));
+        assertEquals(0, TimeSeriesDaoImpl.estimateTotal(BEGIN.plusMinutes(1),
+                BEGIN.plusMinutes(59), Duration.ofHours(1), 0L));
+    }
+
+    @Test
+    void test_no_estimate_for_irregular() {
+        assertNull(TimeSeriesDaoImpl.estimateTotal(BEGIN, END, Duration.ZERO, 0L));
+    }
+}
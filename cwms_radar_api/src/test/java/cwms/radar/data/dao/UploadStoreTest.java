@@ -0,0 +1,291 @@
+package cwms.radar.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.radar.api.errors.NotFoundException;
+import cwms.radar.api.errors.ServiceUnavailableException;
+import cwms.radar.data.dto.Upload;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UploadStoreTest {
+    private static final long MB = 1024 * 1024;
+
+    @TempDir
+    Path dir;
+
+    private UploadStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new UploadStore(dir, 2048 * MB, Long.MAX_VALUE, 60);
+    }
+
+    @Test
+    void test_chunks_resume_and_commit() throws Exception {
+        Upload upload = store.create(upload());
+        String uploadId = upload.getUploadId();
+        assertEquals(Long.valueOf(0), upload.getOffset());
+
+        store.append(uploadId, 0, new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        // a chunk that breaks part way is dropped
+        assertThrows(IOException.class, () -> store.append(uploadId, 3, new BrokenInputStream()));
+        // the client asks where to resume
+        Upload resumed = store.get(uploadId);
+        assertEquals(Long.valueOf(3), resumed.getOffset());
+        assertEquals("TEST.BLOB", resumed.getId());
+        assertEquals(Boolean.FALSE, resumed.getFailIfExists());
+
+        UploadStore.OffsetMismatchException ex = assertThrows(
+                UploadStore.OffsetMismatchException.class,
+                () -> store.append(uploadId, 1, new ByteArrayInputStream(new byte[]{9})));
+        assertEquals(Long.valueOf(3), ex.getUpload().getOffset());
+
+        store.append(uploadId, 3, new ByteArrayInputStream(new byte[]{4, 5}));
+
+        ByteArrayOutputStream committed = new ByteArrayOutputStream();
+        store.commit(uploadId, (u, data) -> {
+            assertEquals(Upload.Kind.BLOB, u.getKind());
+            copy(data, committed);
+        });
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, committed.toByteArray());
+        assertThrows(NotFoundException.class, () -> store.get(uploadId));
+    }
+
+    @Test
+    void test_failed_commit_keeps_the_upload() throws Exception {
+        String uploadId = store.create(upload()).getUploadId();
+        store.append(uploadId, 0, new ByteArrayInputStream(new byte[]{1}));
+        assertThrows(IOException.class, () -> store.commit(uploadId, (u, data) -> {
+            throw new IOException("database went away");
+        }));
+        assertEquals(Long.valueOf(1), store.get(uploadId).getOffset());
+    }
+
+    @Test
+    void test_limits_and_unknown_ids() throws Exception {
+        UploadStore small = new UploadStore(dir, 4, Long.MAX_VALUE, 60);
+        String uploadId = small.create(upload()).getUploadId();
+        assertThrows(IllegalArgumentException.class,
+                () -> small.append(uploadId, 0, new ByteArrayInputStream(new byte[5])));
+        assertEquals(Long.valueOf(0), small.get(uploadId).getOffset());
+
+        assertThrows(NotFoundException.class, () -> store.get("../" + uploadId));
+        assertThrows(NotFoundException.class, () -> store.delete("nothing"));
+        store.delete(uploadId);
+        assertThrows(NotFoundException.class, () -> store.get(uploadId));
+    }
+
+    @Test
+    void test_quota_is_freed_by_delete() throws Exception {
+        UploadStore quota = new UploadStore(dir, 2048 * MB, 8, 60);
+        String first = quota.create(upload()).getUploadId();
+        String second = quota.create(upload()).getUploadId();
+        quota.append(first, 0, new ByteArrayInputStream(new byte[6]));
+        assertEquals(6, quota.getUsedBytes());
+
+        assertThrows(UploadStore.QuotaExceededException.class,
+                () -> quota.append(second, 0, new ByteArrayInputStream(new byte[3])));
+        assertEquals(Long.valueOf(0), quota.get(second).getOffset());
+        assertEquals(6, quota.getUsedBytes());
+
+        quota.delete(first);
+        assertEquals(0, quota.getUsedBytes());
+        quota.append(second, 0, new ByteArrayInputStream(new byte[3]));
+        assertEquals(3, quota.getUsedBytes());
+    }
+
+    @Test
+    void test_shared_directory_is_refused() throws Exception {
+        UploadStore other = new UploadStore(dir, 2048 * MB, Long.MAX_VALUE, 60);
+        store.start();
+        other.start();
+        try {
+            assertTrue(store.create(upload()).getUploadId() != null);
+            ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class,
+                    () -> other.create(upload()));
+            assertTrue(ex.getMessage().contains(UploadStore.DIR_KEY), ex.getMessage());
+        } finally {
+            other.stop();
+            store.stop();
+        }
+    }
+
+    @Test
+    void test_concurrent_append_and_delete() throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 50; i++) {
+                String uploadId = store.create(upload()).getUploadId();
+                List<Future<?>> tasks = new ArrayList<>();
+                for (int j = 0; j < 3; j++) {
+                    tasks.add(threads.submit(() -> {
+                        try {
+                            long offset = store.get(uploadId).getOffset();
+                            store.append(uploadId, offset,
+                                    new ByteArrayInputStream(new byte[1024]));
+                        } catch (NotFoundException | UploadStore.OffsetMismatchException ex) {
+                            // deleted or appended to first
+                        }
+                        return null;
+                    }));
+                }
+                tasks.add(threads.submit(() -> {
+                    try {
+                        store.delete(uploadId);
+                    } catch (NotFoundException ex) {
+                        // already gone
+                    }
+                    return null;
+                }));
+                for (Future<?> task : tasks) {
+                    task.get();
+                }
+                try {
+                    store.delete(uploadId);
+                } catch (NotFoundException ex) {
+                    // deleted by the task
+                }
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertEquals(0, store.getUsedBytes());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertFalse(files.findAny().isPresent());
+        }
+    }
+
+    @Test
+    void test_expired_uploads_are_removed() throws Exception {
+        String uploadId = store.create(upload()).getUploadId();
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis()
+                - TimeUnit.MINUTES.toMillis(5));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.setLastModifiedTime(file, old);
+            }
+        }
+        store.removeExpired(System.currentTimeMillis());
+        assertThrows(NotFoundException.class, () -> store.get(uploadId));
+    }
+
+    @Test
+    void test_large_upload_in_chunks() throws Exception {
+        uploadInChunks(256 * MB, 64 * MB);
+    }
+
+    @Disabled("Writes 1 GiB to the temp directory, run by hand")
+    @Test
+    void test_one_gigabyte_upload() throws Exception {
+        uploadInChunks(1024 * MB, 128 * MB);
+    }
+
+    private void uploadInChunks(long size, long chunk) throws Exception {
+        Runtime runtime = Runtime.getRuntime();
+        String uploadId = store.create(upload()).getUploadId();
+        long offset = 0;
+        long peak = 0;
+        while (offset < size) {
+            long length = Math.min(chunk, size - offset);
+            offset = store.append(uploadId, offset, new GeneratedInputStream(length)).getOffset();
+            peak = Math.max(peak, runtime.totalMemory() - runtime.freeMemory());
+        }
+        assertEquals(Long.valueOf(size), store.get(uploadId).getOffset());
+
+        AtomicLong committed = new AtomicLong();
+        store.commit(uploadId, (u, data) -> {
+            byte[] buffer = new byte[UploadStore.BUFFER_SIZE];
+            int read;
+            while ((read = data.read(buffer)) >= 0) {
+                committed.addAndGet(read);
+            }
+        });
+        assertEquals(size, committed.get());
+        // nothing close to the upload was ever held in memory
+        assertTrue(peak < size, "peak heap " + peak);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertFalse(files.findAny().isPresent());
+        }
+    }
+
+    private static Upload upload() {
+        return new Upload.Builder()
+                .withKind(Upload.Kind.BLOB)
+                .withOfficeId("SPK")
+                .withId("TEST.BLOB")
+                .withMediaTypeId("application/octet-stream")
+                .withFailIfExists(false)
+                .build();
+    }
+
+    private static void copy(InputStream in, ByteArrayOutputStream out) throws IOException {
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+    }
+
+    private static class GeneratedInputStream extends InputStream {
+        private long remaining;
+
+        GeneratedInputStream(long size) {
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            if (remaining <= 0) {
+                return -1;
+            }
+            remaining--;
+            return (int) (remaining & 0x7f);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = (int) Math.min(len, remaining);
+            remaining -= count;
+            return count;
+        }
+    }
+
+    private static class BrokenInputStream extends InputStream {
+        private int count;
+
+        @Override
+        public int read() throws IOException {
+            if (count++ < 2) {
+                return 7;
+            }
+            throw new IOException("connection reset");
+        }
+    }
+}
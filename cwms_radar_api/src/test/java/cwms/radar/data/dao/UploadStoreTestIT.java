@@ -0,0 +1,123 @@
+package cwms.radar.data.dao;
+
+import static cwms.radar.data.dao.DaoTest.getDslContext;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.radar.api.DataApiTestIT;
+import cwms.radar.api.errors.NotFoundException;
+import cwms.radar.data.dto.Blob;
+import cwms.radar.data.dto.Clob;
+import cwms.radar.data.dto.Upload;
+import fixtures.RadarApiSetupCallback;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.Optional;
+import java.util.function.Consumer;
+import mil.army.usace.hec.test.database.CwmsDatabaseContainer;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@Tag("integration")
+class UploadStoreTestIT extends DataApiTestIT {
+    private static final String OFFICE = "SPK";
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    public static void spk_permissions() throws Exception {
+        CwmsDatabaseContainer<?> databaseLink = RadarApiSetupCallback.getDatabaseLink();
+        addUserToGroup(databaseLink.getUsername(), "CWMS Users", OFFICE);
+    }
+
+    @AfterAll
+    public static void remove_spk_permissions() throws Exception {
+        CwmsDatabaseContainer<?> databaseLink = RadarApiSetupCallback.getDatabaseLink();
+        removeUserFromGroup(databaseLink.getUsername(), "CWMS Users", OFFICE);
+    }
+
+    @Test
+    void test_commit_blob_and_clob() throws Exception {
+        UploadStore store = new UploadStore(dir, 1024 * 1024, Long.MAX_VALUE, 60);
+        byte[] value = new byte[3 * UploadStore.BUFFER_SIZE + 17];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = (byte) i;
+        }
+        String text = "line one\nline two, appended in a second chunk\n";
+
+        CwmsDatabaseContainer<?> databaseLink = RadarApiSetupCallback.getDatabaseLink();
+        databaseLink.connection((Consumer<Connection>) c -> {
+            try (DSLContext dsl = getDslContext(c, OFFICE)) {
+                String blobUpload = store.create(new Upload.Builder()
+                        .withKind(Upload.Kind.BLOB)
+                        .withOfficeId(OFFICE)
+                        .withId("UPLOAD.STORE.TEST")
+                        .withDescription("chunked upload")
+                        .withMediaTypeId("application/octet-stream")
+                        .withFailIfExists(false)
+                        .build()).getUploadId();
+                int half = value.length / 2;
+                store.append(blobUpload, 0, new ByteArrayInputStream(value, 0, half));
+                store.append(blobUpload, half,
+                        new ByteArrayInputStream(value, half, value.length - half));
+                store.commit(blobUpload, (u, data) -> new BlobDao(dsl).create(
+                        new Blob(u.getOfficeId(), u.getId(), u.getDescription(),
+                                u.getMediaTypeId(), null), data, u.getFailIfExists()));
+
+                assertTrue(new BlobDao(dsl).getBlob("UPLOAD.STORE.TEST", Optional.of(OFFICE),
+                        (blob, length, etag, lob) -> {
+                            assertEquals(value.length, length);
+                            try (InputStream in = lob.getBinaryStream()) {
+                                assertArrayEquals(value, readAll(in));
+                            }
+                        }));
+
+                String clobUpload = store.create(new Upload.Builder()
+                        .withKind(Upload.Kind.CLOB)
+                        .withOfficeId(OFFICE)
+                        .withId("/UPLOAD/STORE/TEST")
+                        .withDescription("chunked upload")
+                        .withFailIfExists(false)
+                        .build()).getUploadId();
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                store.append(clobUpload, 0, new ByteArrayInputStream(bytes, 0, 9));
+                store.append(clobUpload, 9, new ByteArrayInputStream(bytes, 9, bytes.length - 9));
+                store.commit(clobUpload, (u, data) -> new ClobDao(dsl).create(
+                        new Clob(u.getOfficeId(), u.getId(), u.getDescription(), null),
+                        new InputStreamReader(data, StandardCharsets.UTF_8),
+                        u.getFailIfExists()));
+
+                assertEquals(text, new ClobDao(dsl).getClobValue(OFFICE, "/UPLOAD/STORE/TEST"));
+
+                assertThrows(NotFoundException.class, () -> store.get(blobUpload));
+                assertThrows(NotFoundException.class, () -> store.get(clobUpload));
+                assertEquals(0, store.getUsedBytes());
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
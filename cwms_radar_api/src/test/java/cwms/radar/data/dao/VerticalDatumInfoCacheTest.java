@@ -0,0 +1,41 @@
+package cwms.radar.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class VerticalDatumInfoCacheTest {
+
+    @Test
+    void test_missing_info_is_cached_per_units() {
+        VerticalDatumInfoCache cache = new VerticalDatumInfoCache(10, 60);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(cache.get("LRL", "Buckhorn", "ft", () -> {
+                loads.incrementAndGet();
+                return null;
+            }));
+        }
+        assertEquals(1, loads.get());
+
+        cache.get("LRL", "Buckhorn", "m", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        assertEquals(2, loads.get());
+
+        cache.invalidate("lrl", "BUCKHORN");
+        cache.get("LRL", "Buckhorn", "ft", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        cache.get("LRL", "Buckhorn", "m", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        assertEquals(4, loads.get());
+    }
+}
@@ -0,0 +1,45 @@
+package cwms.radar.data.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import cwms.radar.formatters.json.JsonV2;
+import org.junit.jupiter.api.Test;
+
+class BlobsTest {
+
+    @Test
+    void testKeysetNextPage() {
+        Blobs blobs = new Blobs.Builder("first", "KEY||SWT", 2, 5)
+                .addBlob(new Blob("SWT", "A", null, "text/plain", null, 10L))
+                .addBlob(new Blob("SWT", "B", null, "text/plain", null, 20L))
+                .build();
+
+        String[] parts = CwmsDTOPaginated.decodeCursor(blobs.getNextPage());
+        assertEquals("KEY", parts[0]);
+        assertEquals("SWT", parts[1]);
+        assertEquals(Integer.valueOf(5), blobs.getTotal());
+    }
+
+    @Test
+    void testKeysetLastPage() {
+        Blobs blobs = new Blobs.Builder("first", null, 2, 2)
+                .addBlob(new Blob("SWT", "A", null, "text/plain", null, 10L))
+                .addBlob(new Blob("SWT", "B", null, "text/plain", null, 20L))
+                .build();
+
+        assertNull(blobs.getNextPage());
+    }
+
+    @Test
+    void testCatalogEntryHasLengthNotValue() throws JsonProcessingException {
+        String json = JsonV2.buildObjectMapper().writeValueAsString(
+                new Blob("SWT", "A", "desc", "text/plain", null, 10L));
+
+        assertTrue(json.contains("\"length\":10"));
+        assertFalse(json.contains("\"value\""));
+    }
+}
@@ -0,0 +1,88 @@
+package cwms.radar.data.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.radar.api.errors.FieldException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TimeSeriesValuesTest {
+
+    @Test
+    void test_grows_and_tracks_nulls() {
+        TimeSeriesValues values = new TimeSeriesValues(2);
+        for (int i = 0; i < 200; i++) {
+            values.add(i * 1000L, i % 3 == 0 ? null : (double) i, i);
+        }
+
+        assertEquals(200, values.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i * 1000L, values.getDateTimeMillis(i));
+            assertEquals(i, values.getQualityCode(i));
+            if (i % 3 == 0) {
+                assertTrue(values.isNull(i));
+                assertNull(values.get(i).getValue());
+                assertTrue(Double.isNaN(values.getValueArray()[i]));
+            } else {
+                assertFalse(values.isNull(i));
+                assertEquals((double) i, values.get(i).getValue());
+            }
+        }
+
+        values.clear();
+        assertEquals(0, values.size());
+        values.add(5L, 1.0, 0);
+        assertFalse(values.isNull(0));
+    }
+
+    @Test
+    void test_list_view_matches_records() {
+        List<TimeSeries.Record> records = new ArrayList<>();
+        TimeSeriesValues values = new TimeSeriesValues();
+        for (int i = 0; i < 10; i++) {
+            TimeSeries.Record rec = new TimeSeries.Record(new Timestamp(i * 60_000L),
+                    i == 4 ? null : i * 1.5, 3);
+            records.add(rec);
+            values.add(rec);
+        }
+
+        assertEquals(records, values);
+        assertEquals(values, records);
+    }
+
+    @Test
+    void test_record_without_date_time() {
+        TimeSeriesValues values = new TimeSeriesValues();
+        assertThrows(FieldException.class,
+                () -> values.add(new TimeSeries.Record(null, 1.0, 0)));
+        assertEquals(0, values.size());
+    }
+
+    @Test
+    void test_json_round_trip() throws JsonProcessingException {
+        ZonedDateTime start = ZonedDateTime.parse("2021-06-21T14:00:00-07:00[PST8PDT]");
+        TimeSeries ts = new TimeSeries(null, -1, 0, "RYAN3.Stage.Inst.5Minutes.0.ZSTORE_TS_TEST",
+                "LRL", start, start.plusHours(1), null, Duration.ZERO);
+        ts.addValue(start.toInstant().toEpochMilli(), 1.0, 0);
+        ts.addValue(start.toInstant().toEpochMilli() + 300_000L, null, 5);
+
+        ObjectMapper om = TimeSeriesTest.buildObjectMapper();
+        String body = om.writeValueAsString(ts);
+        assertTrue(body.contains("[[" + start.toInstant().toEpochMilli() + ",1.0,0],["));
+        assertTrue(body.contains(",null,5]]"));
+
+        TimeSeries ts2 = om.readValue(body, TimeSeries.class);
+        assertTrue(ts2.getValues() instanceof TimeSeriesValues);
+        assertEquals(ts.getValues(), ts2.getValues());
+    }
+}
@@ -70,6 +70,24 @@ class TimeseriesCatalogEntryTest
 	}
 
 
+	@Test
+	void test_json_serialization_without_extents(){
+		CatalogEntry entry = new TimeseriesCatalogEntry.Builder()
+				.officeId("LRL")
+				.cwmsTsId("Barren-Lake.Elev.Inst.0.0.USGS-raw")
+				.units("m")
+				.withoutExtents()
+				.build();
+		Catalog cat = new Catalog(null, 1, 10,
+				new ArrayList<CatalogEntry>(){{add(entry);}});
+
+		String json = Formats.format(Formats.parseHeader(Formats.JSONV2), cat);
+		JsonPath path = JsonPath.from(json);
+
+		assertThat(path.getString("entries[0].name"), equalTo("Barren-Lake.Elev.Inst.0.0.USGS-raw"));
+		assertFalse(json.contains("extents"));
+	}
+
 	private TimeseriesCatalogEntry buildEntry()
 	{
 		TimeseriesCatalogEntry.Builder builder = new TimeseriesCatalogEntry.Builder()
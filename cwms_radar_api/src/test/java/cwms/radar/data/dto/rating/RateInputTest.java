@@ -0,0 +1,67 @@
+package cwms.radar.data.dto.rating;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.radar.api.errors.FieldException;
+import cwms.radar.formatters.json.JsonV2;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class RateInputTest {
+
+    @Test
+    void test_deserialize_and_validate() throws Exception {
+        ObjectMapper om = JsonV2.buildObjectMapper();
+        RateInput input = om.readValue("{\"values\":[[1.0,null,3.0]],\"times\":[1,2,3],"
+                + "\"units\":[\"ft\",\"cfs\"]}", RateInput.class);
+        input.validate();
+        assertEquals(Arrays.asList(1.0, null, 3.0), input.getValues().get(0));
+        assertEquals(Arrays.asList("ft", "cfs"), input.getUnits());
+
+        RateInput window = om.readValue("{\"timeseries-id\":\"KEYS.Stage.Inst.1Hour.0.Raw\","
+                + "\"begin\":\"2021-01-01T00:00:00Z\",\"end\":\"2021-01-02T00:00:00Z\"}",
+                RateInput.class);
+        window.validate();
+
+        RateInput both = om.readValue("{\"values\":[[1.0]],"
+                + "\"timeseries-id\":\"KEYS.Stage.Inst.1Hour.0.Raw\"}", RateInput.class);
+        assertThrows(FieldException.class, both::validate);
+
+        RateInput ragged = om.readValue("{\"values\":[[1.0],[1.0,2.0]]}", RateInput.class);
+        assertThrows(FieldException.class, ragged::validate);
+
+        RateInput times = om.readValue("{\"values\":[[1.0,2.0]],\"times\":[1]}", RateInput.class);
+        assertThrows(FieldException.class, times::validate);
+    }
+
+    @Test
+    void test_rated_values_output() throws Exception {
+        RatedValues rated = new RatedValues.Builder()
+                .withOfficeId("SWT")
+                .withRatingId("KEYS.Stage;Flow.Linear.Step")
+                .withTimes(Arrays.asList(10L, 20L))
+                .withValues(Arrays.asList(1.5, null))
+                .build();
+
+        String json = JsonV2.buildObjectMapper().writeValueAsString(rated);
+        assertTrue(json.contains("\"values\":[1.5,null]"), json);
+        assertFalse(json.contains("\"units\""), json);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        rated.writeBinary(out);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(2, in.readInt());
+        assertEquals(10L, in.readLong());
+        assertEquals(20L, in.readLong());
+        assertEquals(1.5, in.readDouble());
+        assertTrue(Double.isNaN(in.readDouble()));
+        assertEquals(4 + 2 * 16, out.size());
+    }
+}
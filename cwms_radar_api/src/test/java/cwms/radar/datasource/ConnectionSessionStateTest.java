@@ -0,0 +1,76 @@
+package cwms.radar.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jooq.exception.DataAccessException;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.jupiter.api.Test;
+
+class ConnectionSessionStateTest {
+
+    @Test
+    void test_office_only_set_when_changed() {
+        AtomicInteger calls = new AtomicInteger();
+        Connection conn = countingConnection(calls);
+
+        new SessionOfficePreparer("SWT").prepare(conn);
+        new SessionOfficePreparer("SWT").prepare(conn);
+        assertEquals(1, calls.get());
+
+        new SessionOfficePreparer("SPK").prepare(conn);
+        assertEquals(2, calls.get());
+
+        ConnectionSessionState.reset(conn);
+        new SessionOfficePreparer("SPK").prepare(conn);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void test_user_change_forces_office() {
+        AtomicInteger calls = new AtomicInteger();
+        Connection conn = countingConnection(calls);
+        DelegatingConnectionPreparer preparer = new DelegatingConnectionPreparer(
+                new SessionOfficePreparer("SWT"), new DirectUserPreparer("user1"));
+
+        preparer.prepare(conn);
+        assertEquals(2, calls.get());
+
+        // office is unknown after the user changed, user is unchanged.
+        preparer.prepare(conn);
+        assertEquals(3, calls.get());
+
+        preparer.prepare(conn);
+        assertEquals(3, calls.get());
+
+        new DirectUserPreparer("user2").prepare(conn);
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void test_failure_resets_state() {
+        AtomicInteger calls = new AtomicInteger();
+        Connection good = countingConnection(calls);
+        new DirectUserPreparer("user1").prepare(good);
+
+        Connection bad = new MockConnection(ctx -> {
+            throw new SQLException("nope");
+        });
+        assertThrows(DataAccessException.class, () -> new DirectUserPreparer("user1").prepare(bad));
+
+        // a failed attempt never records anything, so the call is attempted again.
+        assertThrows(DataAccessException.class, () -> new DirectUserPreparer("user1").prepare(bad));
+        assertEquals(1, calls.get());
+    }
+
+    private static Connection countingConnection(AtomicInteger calls) {
+        return new MockConnection(ctx -> {
+            calls.incrementAndGet();
+            return new MockResult[]{new MockResult(0)};
+        });
+    }
+}
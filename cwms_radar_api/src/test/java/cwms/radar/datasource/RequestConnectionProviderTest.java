@@ -0,0 +1,68 @@
+package cwms.radar.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class RequestConnectionProviderTest {
+
+    @Test
+    void test_preparers_run_once_per_request() throws Exception {
+        AtomicInteger prepared = new AtomicInteger();
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(invocation -> {
+            Connection conn = mock(Connection.class);
+            when(conn.getAutoCommit()).thenReturn(true);
+            return conn;
+        });
+        ConnectionPreparingDataSource ds = new ConnectionPreparingDataSource(conn -> {
+            prepared.incrementAndGet();
+            return conn;
+        }, pool);
+
+        RequestConnectionProvider provider = new RequestConnectionProvider(ds);
+        Connection first = provider.acquire();
+        provider.release(first);
+        Connection second = provider.acquire();
+        provider.release(second);
+
+        assertSame(first, second);
+        assertEquals(1, prepared.get());
+        verify(first, never()).close();
+
+        provider.close();
+        provider.close();
+        verify(first, times(1)).close();
+    }
+
+    @Test
+    void test_other_threads_get_their_own_connection() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+
+        RequestConnectionProvider provider = new RequestConnectionProvider(pool);
+        Connection pinned = provider.acquire();
+
+        Connection other = CompletableFuture.supplyAsync(provider::acquire).get();
+        assertNotSame(pinned, other);
+        provider.release(other);
+        verify(other, times(1)).close();
+
+        provider.close();
+        Connection afterClose = provider.acquire();
+        assertNotSame(pinned, afterClose);
+        provider.release(afterClose);
+        verify(afterClose, times(1)).close();
+    }
+}
@@ -1,8 +1,14 @@
 package cwms.radar.formatters;
 
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
+import cwms.radar.data.dto.Office;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -170,7 +176,26 @@ public class FormatsTest
 		assertEquals("application/json", contentType.getType());
 	}
 
+	@Test
+	public void testStreamedMatchesString()
+	{
+		Office office = new Office("SWT", "Tulsa District", "DIS", "SWD");
+		List<Office> offices = Arrays.asList(office, new Office("SWF", "Fort Worth District", "DIS", "SWD"));
+
+		for (String type : Arrays.asList(Formats.JSON, Formats.JSONV2, Formats.CSV, Formats.TAB))
+		{
+			ContentType contentType = new ContentType(type);
+
+			ByteArrayOutputStream single = new ByteArrayOutputStream();
+			long size = Formats.format(contentType, office, single);
+			assertEquals(Formats.format(contentType, office), new String(single.toByteArray(), StandardCharsets.UTF_8));
+			assertEquals(single.size(), size);
+
+			ByteArrayOutputStream list = new ByteArrayOutputStream();
+			size = Formats.format(contentType, offices, Office.class, list);
+			assertEquals(Formats.format(contentType, offices, Office.class), new String(list.toByteArray(), StandardCharsets.UTF_8));
+			assertEquals(list.size(), size);
+		}
+	}
 
-
-
-}
\ No newline at end of file
+}
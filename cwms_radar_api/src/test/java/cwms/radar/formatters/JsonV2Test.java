@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import cwms.radar.data.dto.LocationLevel;
 import cwms.radar.data.dto.LocationLevels;
 import cwms.radar.formatters.json.JsonV2;
+import java.io.IOException;
 import java.time.ZonedDateTime;
 import org.junit.jupiter.api.Test;
 
@@ -74,4 +75,9 @@ class JsonV2Test extends TimeSeriesTestBase {
         return new LocationLevels.Builder(offset, pageSize, total).add(level).build();
     }
 
+    @Test
+    @Override
+    public void streamedTimeseriesFormat() throws IOException {
+        super.streamedTimeseriesFormat();
+    }
 }
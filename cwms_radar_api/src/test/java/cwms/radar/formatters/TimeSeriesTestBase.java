@@ -1,11 +1,17 @@
 package cwms.radar.formatters;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import cwms.radar.data.dto.TimeSeries;
 
@@ -27,4 +33,27 @@ public abstract class TimeSeriesTestBase {
 		assertTrue(result.contains("values"));
     }
 
+    public void streamedTimeseriesFormat() throws IOException {
+        TimeSeries listed = getTimeSeries();
+        TimeSeries streamed = new TimeSeries(null, -1, 0, listed.getName(), listed.getOfficeId(), listed.getBegin(), listed.getEnd(), null, Duration.ZERO);
+
+        List<TimeSeries.Record> records = new ArrayList<>();
+        long start = listed.getBegin().toInstant().toEpochMilli();
+        for (int i = 1; i < 5; i++) {
+            Double value = i == 2 ? null : 30.0 + i;
+            listed.addValue(new Timestamp(start + i * 3600_000L), value, i);
+        }
+        records.addAll(listed.getValues());
+        streamed.streamValues(records.iterator());
+
+        OutputFormatter formatter = getOutputFormatter();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        formatter.format(listed, expected);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        formatter.format(streamed, actual);
+
+        assertEquals(new String(expected.toByteArray(), StandardCharsets.UTF_8),
+                new String(actual.toByteArray(), StandardCharsets.UTF_8));
+    }
+
 }
@@ -0,0 +1,34 @@
+package cwms.radar.formatters.xml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import cwms.radar.data.dto.VerticalDatumInfo;
+import org.junit.jupiter.api.Test;
+
+class JaxbContextRegistryTest {
+
+    @Test
+    void test_context_shared() throws Exception {
+        assertSame(JaxbContextRegistry.getContext(VerticalDatumInfo.class),
+                JaxbContextRegistry.getContext(VerticalDatumInfo.class));
+        assertNotSame(JaxbContextRegistry.getContext(VerticalDatumInfo.class),
+                JaxbContextRegistry.getContext(VerticalDatumInfo.class, XMLv1Office.class));
+    }
+
+    @Test
+    void test_unmarshal_repeated() throws Exception {
+        String xml = "<vertical-datum-info office=\"LRL\" unit=\"m\">"
+                + "<location>Buckhorn</location>"
+                + "<native-datum>NGVD-29</native-datum>"
+                + "<elevation>230.7</elevation>"
+                + "</vertical-datum-info>";
+
+        for (int i = 0; i < 2; i++) {
+            VerticalDatumInfo info = JaxbContextRegistry.unmarshal(VerticalDatumInfo.class, xml);
+            assertEquals("LRL", info.getOffice());
+            assertEquals("NGVD-29", info.getNativeDatum());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package cwms.radar.formatters.xml;
 
+import java.io.IOException;
+
 import org.junit.jupiter.api.Test;
 
 import cwms.radar.formatters.OutputFormatter;
@@ -19,4 +21,10 @@ public class XMLV2Test extends TimeSeriesTestBase {
     public void singleTimeseriesFormat() {
         super.singleTimeseriesFormat();
     }
+
+    @Test
+    @Override
+    public void streamedTimeseriesFormat() throws IOException {
+        super.streamedTimeseriesFormat();
+    }
 }
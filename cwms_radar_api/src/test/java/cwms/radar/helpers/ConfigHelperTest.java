@@ -0,0 +1,43 @@
+package cwms.radar.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ConfigHelperTest {
+    private static final String KEY = "radar.test.config.helper";
+
+    @AfterEach
+    void clear() {
+        System.clearProperty(KEY);
+    }
+
+    @Test
+    void test_property_values() {
+        assertNull(ConfigHelper.getString(KEY));
+        assertEquals("fallback", ConfigHelper.getString(KEY, "fallback"));
+        assertEquals(7, ConfigHelper.getLong(KEY, 7));
+
+        System.setProperty(KEY, " 42 ");
+        assertEquals("42", ConfigHelper.getString(KEY));
+        assertEquals(42, ConfigHelper.getLong(KEY, 7));
+        assertEquals(42, ConfigHelper.getInt(KEY, 7));
+
+        System.setProperty(KEY, "  ");
+        assertNull(ConfigHelper.getString(KEY));
+    }
+
+    @Test
+    void test_invalid_numbers_use_default() {
+        System.setProperty(KEY, "lots");
+        assertEquals(7, ConfigHelper.getLong(KEY, 7));
+
+        System.setProperty(KEY, Long.toString(Long.MAX_VALUE));
+        assertEquals(7, ConfigHelper.getInt(KEY, 7));
+
+        assertEquals(3, ConfigHelper.parseLong(KEY, null, 3));
+        assertEquals(5, ConfigHelper.parseLong(KEY, "5", 3));
+    }
+}
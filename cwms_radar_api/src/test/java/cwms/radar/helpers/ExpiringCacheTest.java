@@ -0,0 +1,58 @@
+package cwms.radar.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.jupiter.api.Test;
+
+class ExpiringCacheTest {
+
+    @Test
+    void test_hit_miss_and_expiry() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, metrics, "test");
+
+        assertNull(cache.get("a"));
+        cache.put("a", "1", 60_000);
+        cache.put("b", "2", 0);
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+
+        assertEquals(1, metrics.meter("test.hits").getCount());
+        assertEquals(2, metrics.meter("test.misses").getCount());
+        assertEquals(1, metrics.meter("test.evictions").getCount());
+    }
+
+    @Test
+    void test_bounded_lru() {
+        MetricRegistry metrics = new MetricRegistry();
+        ExpiringCache<String, String> cache = new ExpiringCache<>(2, metrics, "test");
+        cache.put("a", "1", 60_000);
+        cache.put("b", "2", 60_000);
+        cache.get("a");
+        cache.put("c", "3", 60_000);
+
+        assertEquals(2, cache.size());
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    void test_invalidation() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, new MetricRegistry(), "test");
+        cache.put("key1:SWT", "1", 60_000);
+        cache.put("key1:SPK", "2", 60_000);
+        cache.put("key2:SWT", "3", 60_000);
+
+        cache.invalidateIf(k -> k.startsWith("key1:"));
+        assertEquals(1, cache.size());
+        cache.invalidate("key2:SWT");
+        assertEquals(0, cache.size());
+
+        cache.put("key3:SWT", "4", 60_000);
+        cache.invalidateAll();
+        assertNull(cache.get("key3:SWT"));
+    }
+}
@@ -0,0 +1,162 @@
+package cwms.radar.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.javalin.core.security.RouteRole;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class KeyAccessManagerTest {
+    private static final Set<RouteRole> NO_ROLES = Collections.emptySet();
+    private static final Set<RouteRole> USERS = Collections.singleton(new Role("CWMS Users"));
+
+    private final Map<String, String> keys = new HashMap<>();
+    private final AtomicInteger keyChecks = new AtomicInteger();
+    private final AtomicInteger roleLookups = new AtomicInteger();
+    private final AtomicInteger roleFailures = new AtomicInteger();
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        keys.put("valid-key", "user1");
+        dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> connection());
+    }
+
+    @Test
+    void test_valid_key_is_checked_once() {
+        KeyAccessManager manager = new KeyAccessManager(60, 10, 100);
+        assertEquals("user1", manager.authorized(dataSource, "valid-key", "SWT", USERS));
+        assertEquals("user1", manager.authorized(dataSource, "valid-key", "SWT", USERS));
+        assertEquals("user1", manager.authorized(dataSource, "valid-key", "SWT", NO_ROLES));
+        assertEquals(1, keyChecks.get());
+        assertEquals(1, roleLookups.get());
+    }
+
+    @Test
+    void test_unknown_key_is_remembered_for_the_negative_ttl() {
+        KeyAccessManager manager = new KeyAccessManager(60, 10, 100);
+        assertUnauthorized(manager, "unknown-key", 401);
+        assertUnauthorized(manager, "unknown-key", 401);
+        assertEquals(1, keyChecks.get());
+
+        KeyAccessManager noNegative = new KeyAccessManager(60, 0, 100);
+        keyChecks.set(0);
+        assertUnauthorized(noNegative, "unknown-key", 401);
+        keys.put("unknown-key", "user2");
+        assertEquals("user2", noNegative.authorized(dataSource, "unknown-key", "SWT", NO_ROLES));
+        assertEquals(2, keyChecks.get());
+    }
+
+    @Test
+    void test_role_lookup_failure_is_not_cached() {
+        KeyAccessManager manager = new KeyAccessManager(60, 10, 100);
+        roleFailures.set(1);
+        // A failed lookup leaves the user without roles for this request only.
+        assertUnauthorized(manager, "valid-key", 403);
+        assertEquals("user1", manager.authorized(dataSource, "valid-key", "SWT", USERS));
+        assertEquals(2, roleLookups.get());
+        assertEquals(1, keyChecks.get());
+    }
+
+    @Test
+    void test_office_is_part_of_the_key() {
+        KeyAccessManager manager = new KeyAccessManager(60, 10, 100);
+        manager.authorized(dataSource, "valid-key", "SWT", USERS);
+        manager.authorized(dataSource, "valid-key", "SPK", USERS);
+        manager.authorized(dataSource, "valid-key", "SWT", USERS);
+        manager.authorized(dataSource, "valid-key", "SPK", USERS);
+        assertEquals(2, keyChecks.get());
+        assertEquals(2, roleLookups.get());
+    }
+
+    @Test
+    void test_zero_ttl_disables_caching() {
+        KeyAccessManager manager = new KeyAccessManager(0, 0, 100);
+        manager.authorized(dataSource, "valid-key", "SWT", USERS);
+        manager.authorized(dataSource, "valid-key", "SWT", USERS);
+        assertEquals(2, keyChecks.get());
+        assertEquals(2, roleLookups.get());
+    }
+
+    private void assertUnauthorized(KeyAccessManager manager, String key, int code) {
+        CwmsAuthException ex = assertThrows(CwmsAuthException.class,
+                () -> manager.authorized(dataSource, key, "SWT", USERS));
+        assertEquals(code, ex.getAuthFailCode());
+    }
+
+    /**
+     * A connection that answers the key check from the keys map and gives every user the
+     * CWMS Users role.
+     */
+    private Connection connection() throws SQLException {
+        Connection conn = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getUserName()).thenReturn("RADAR");
+        when(conn.getMetaData()).thenReturn(metaData);
+        when(conn.prepareStatement(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            if (sql.contains("at_api_keys")) {
+                return keyCheck();
+            } else if (sql.contains("get_assigned_priv_groups_tab")) {
+                return roleLookup();
+            }
+            return mock(PreparedStatement.class);
+        });
+        return conn;
+    }
+
+    private PreparedStatement keyCheck() throws SQLException {
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        String[] key = new String[1];
+        doAnswer(invocation -> {
+            key[0] = invocation.getArgument(1);
+            return null;
+        }).when(stmt).setString(eq(1), anyString());
+        when(stmt.executeQuery()).thenAnswer(invocation -> {
+            keyChecks.incrementAndGet();
+            return rows(keys.get(key[0]));
+        });
+        return stmt;
+    }
+
+    private PreparedStatement roleLookup() throws SQLException {
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        when(stmt.executeQuery()).thenAnswer(invocation -> {
+            roleLookups.incrementAndGet();
+            if (roleFailures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new SQLException("role lookup failed");
+            }
+            return rows("CWMS Users");
+        });
+        return stmt;
+    }
+
+    private static ResultSet rows(String value) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        if (value == null) {
+            when(rs.next()).thenReturn(false);
+        } else {
+            when(rs.next()).thenReturn(true, false);
+            when(rs.getString(1)).thenReturn(value);
+        }
+        return rs;
+    }
+}
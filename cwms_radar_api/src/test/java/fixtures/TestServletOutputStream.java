@@ -29,4 +29,8 @@ public class TestServletOutputStream extends ServletOutputStream {
         return realOutput.toString();
     }
 
+    public byte[] getBytes(){
+        return realOutput.toByteArray();
+    }
+
 }